@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo;
+
+import android.app.Application;
+import android.util.Log;
+
+import com.hihonor.voicekitdemo.demo.ScenarioDemoActivity;
+import com.hihonor.voicekitdemo.engine.RecognizerPool;
+import com.hihonor.voicekitdemo.engine.RecognizerPools;
+import com.hihonor.voicekitdemo.startup.StartupOrchestrator;
+import com.hihonor.voicekitdemo.utils.GsonUtils;
+import com.hihonor.voicekitdemo.utils.TaskLanes;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * VoiceKitApplication
+ * 应用启动时在后台并行预热Gson和ASR、场景化、NLU引擎，各阶段的就绪状态通过getStartup查询
+ *
+ * @since 2024-07-18
+ */
+public class VoiceKitApplication extends Application {
+    /**
+     * Gson预热阶段
+     */
+    public static final String STAGE_GSON = "gson";
+
+    /**
+     * 引擎池创建阶段
+     */
+    public static final String STAGE_POOLS = "recognizerPools";
+
+    /**
+     * ASR引擎初始化阶段
+     */
+    public static final String STAGE_ASR = "asr";
+
+    /**
+     * 场景化引擎初始化阶段
+     */
+    public static final String STAGE_SCENARIO = "scenario";
+
+    /**
+     * NLU引擎初始化阶段
+     */
+    public static final String STAGE_NLU = "nlu";
+
+    private static final String TAG = VoiceKitApplication.class.getSimpleName();
+
+    private final StartupOrchestrator startup = new StartupOrchestrator();
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        startup.add(STAGE_GSON, () -> {
+            GsonUtils.warmUp();
+            return null;
+        });
+        startup.add(STAGE_POOLS, () -> {
+            RecognizerPools.getInstance(this);
+            return null;
+        });
+        startup.add(STAGE_ASR, () -> warmUp(RecognizerPools.getInstance(this).getAsrPool()), STAGE_POOLS);
+        startup.add(STAGE_SCENARIO, () -> warmUp(RecognizerPools.getInstance(this)
+            .getScenarioPool(ScenarioDemoActivity.COMMAND_KEYWORD_LIST)), STAGE_POOLS);
+        startup.add(STAGE_NLU, () -> warmUp(RecognizerPools.getInstance(this).getNluPool()), STAGE_POOLS);
+        startup.start(TaskLanes.getInstance().getComputeExecutor());
+        startup.whenAllReady().whenComplete((ignored, throwable) -> {
+            if (throwable != null) {
+                Log.w(TAG, "startup incomplete: " + startup.getTimingReport());
+            } else {
+                Log.i(TAG, "startup ready: " + startup.getTimingReport());
+            }
+        });
+    }
+
+    /**
+     * 初始化一个引擎后放回池中，会话租用时无需等待初始化
+     */
+    private static <T> CompletableFuture<?> warmUp(RecognizerPool<T> pool) {
+        return pool.lease().thenAccept(pool::release);
+    }
+
+    /**
+     * 启动编排器，可通过whenReady查询各阶段是否就绪
+     *
+     * @return 启动编排器
+     */
+    public StartupOrchestrator getStartup() {
+        return startup;
+    }
+}
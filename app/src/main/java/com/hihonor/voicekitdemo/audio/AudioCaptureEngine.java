@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.audio;
+
+import android.util.Log;
+
+/**
+ * 音频采集引擎，循环从PcmSource读取音频，组装成固定大小的帧后写入AudioSink
+ * 所有缓冲区在构造时一次性分配，采集过程中轮转复用，稳态下不产生任何对象分配
+ *
+ * @since 2024-07-18
+ */
+public class AudioCaptureEngine {
+    private static final String TAG = AudioCaptureEngine.class.getSimpleName();
+
+    /**
+     * 默认缓冲区个数，写入引擎后缓冲区在轮转一圈之前不会被覆盖
+     */
+    private static final int DEFAULT_BUFFER_COUNT = 4;
+
+    private final FrameAssembler frameAssembler;
+
+    private volatile boolean isRunning = false;
+
+    /**
+     * 构造函数
+     *
+     * @param frameSizeInBytes 写入引擎的帧大小
+     */
+    public AudioCaptureEngine(int frameSizeInBytes) {
+        this(frameSizeInBytes, DEFAULT_BUFFER_COUNT);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param frameSizeInBytes 写入引擎的帧大小
+     * @param bufferCount 缓冲区个数
+     */
+    public AudioCaptureEngine(int frameSizeInBytes, int bufferCount) {
+        frameAssembler = new FrameAssembler(frameSizeInBytes, bufferCount);
+    }
+
+    /**
+     * 标记为运行状态，需在提交loop任务之前调用，避免stop先于loop执行时丢失停止信号
+     */
+    public void start() {
+        isRunning = true;
+    }
+
+    /**
+     * 停止采集循环
+     */
+    public void stop() {
+        isRunning = false;
+    }
+
+    /**
+     * 是否在采集中
+     *
+     * @return true表示采集中
+     */
+    public boolean isRunning() {
+        return isRunning;
+    }
+
+    /**
+     * 循环读取音频并写入，直到调用stop或有限长度的AudioSource读完，在采集线程中执行；退出前写入最后不足一帧的有效数据
+     *
+     * @param source 音频来源
+     * @param sink 音频消费者
+     */
+    public void loop(PcmSource source, AudioSink sink) {
+        Log.d(TAG, "loop start, frameSize: " + frameAssembler.getFrameSizeInBytes());
+        AudioSource audioSource = source instanceof AudioSource ? (AudioSource) source : null;
+        while (isRunning && (audioSource == null || !audioSource.isEndOfStream())) {
+            readOnce(source, sink);
+        }
+        frameAssembler.flush(sink);
+        Log.d(TAG, "loop end, read: " + frameAssembler.getReadCount() + ", shortRead: "
+            + frameAssembler.getShortReadCount() + ", errorRead: " + frameAssembler.getErrorReadCount()
+            + ", frames: " + frameAssembler.getFrameCount());
+    }
+
+    /**
+     * 读取一次音频，满一帧时写入
+     *
+     * @param source 音频来源
+     * @param sink 音频消费者
+     */
+    void readOnce(PcmSource source, AudioSink sink) {
+        frameAssembler.readFrom(source, sink);
+    }
+
+    /**
+     * 获取已读取次数
+     *
+     * @return 读取次数
+     */
+    public long getReadCount() {
+        return frameAssembler.getReadCount();
+    }
+
+    /**
+     * 获取短读次数
+     *
+     * @return 短读次数
+     */
+    public long getShortReadCount() {
+        return frameAssembler.getShortReadCount();
+    }
+
+    /**
+     * 获取读取失败次数
+     *
+     * @return 失败次数
+     */
+    public long getErrorCount() {
+        return frameAssembler.getErrorReadCount();
+    }
+
+    /**
+     * 获取已写入的帧数
+     *
+     * @return 帧数
+     */
+    public long getFrameCount() {
+        return frameAssembler.getFrameCount();
+    }
+}
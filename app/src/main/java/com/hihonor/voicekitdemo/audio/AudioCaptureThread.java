@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.audio;
+
+import android.os.Process;
+import android.util.Log;
+
+/**
+ * 音频专用线程
+ * 线程名称在创建时固定，线程启动时设置一次音频优先级，循环体直接在线程中运行，不为任务创建包装对象；
+ * shutdown先发出停止信号，再等待循环退出。循环使用的资源应通过onExit在本线程中释放，
+ * shutdown等待超时后循环可能仍在读取，调用方不能再释放这些资源
+ *
+ * @since 2024-07-18
+ */
+public class AudioCaptureThread extends Thread {
+    private static final String TAG = AudioCaptureThread.class.getSimpleName();
+
+    private final int audioPriority;
+
+    private final Runnable loopBody;
+
+    private final Runnable stopSignal;
+
+    private final Runnable onExit;
+
+    /**
+     * 构造函数
+     *
+     * @param name 线程名称
+     * @param audioPriority android.os.Process中定义的线程优先级
+     * @param loopBody 循环体，stopSignal触发后应尽快返回
+     * @param stopSignal 停止信号
+     */
+    public AudioCaptureThread(String name, int audioPriority, Runnable loopBody, Runnable stopSignal) {
+        this(name, audioPriority, loopBody, stopSignal, null);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param name 线程名称
+     * @param audioPriority android.os.Process中定义的线程优先级
+     * @param loopBody 循环体，stopSignal触发后应尽快返回
+     * @param stopSignal 停止信号
+     * @param onExit 循环退出后在本线程中执行，用于释放循环使用的资源，可为null
+     */
+    public AudioCaptureThread(String name, int audioPriority, Runnable loopBody, Runnable stopSignal,
+        Runnable onExit) {
+        super(name);
+        this.audioPriority = audioPriority;
+        this.loopBody = loopBody;
+        this.stopSignal = stopSignal;
+        this.onExit = onExit;
+    }
+
+    /**
+     * 创建以URGENT_AUDIO优先级运行采集循环的线程
+     *
+     * @param name 线程名称
+     * @param engine 采集引擎，调用方需先调用engine.start
+     * @param source 音频来源
+     * @param sink 音频消费者
+     * @return 未启动的采集线程
+     */
+    public static AudioCaptureThread forCapture(String name, AudioCaptureEngine engine, PcmSource source,
+        AudioSink sink) {
+        return new AudioCaptureThread(name, Process.THREAD_PRIORITY_URGENT_AUDIO, () -> engine.loop(source, sink),
+            engine::stop);
+    }
+
+    /**
+     * 创建以URGENT_AUDIO优先级运行采集循环的线程，循环退出后在采集线程中停止并释放音频源
+     *
+     * @param name 线程名称
+     * @param engine 采集引擎，调用方需先调用engine.start
+     * @param source 已启动的音频源，之后由采集线程负责释放
+     * @param sink 音频消费者
+     * @return 未启动的采集线程
+     */
+    public static AudioCaptureThread forOwnedCapture(String name, AudioCaptureEngine engine, AudioSource source,
+        AudioSink sink) {
+        return new AudioCaptureThread(name, Process.THREAD_PRIORITY_URGENT_AUDIO, () -> engine.loop(source, sink),
+            engine::stop, () -> {
+                source.stop();
+                source.release();
+            });
+    }
+
+    @Override
+    public void run() {
+        try {
+            Process.setThreadPriority(audioPriority);
+        } catch (IllegalArgumentException | SecurityException exception) {
+            Log.w(TAG, getName() + " setThreadPriority failed: " + exception.getMessage());
+        }
+        try {
+            loopBody.run();
+        } finally {
+            if (onExit != null) {
+                onExit.run();
+            }
+        }
+    }
+
+    /**
+     * 发出停止信号并等待线程退出
+     *
+     * @param timeoutMs 最长等待时间
+     * @return true表示线程已退出，false表示线程仍在运行，onExit会在循环返回后执行
+     */
+    public boolean shutdown(long timeoutMs) {
+        stopSignal.run();
+        if (Thread.currentThread() == this) {
+            return false;
+        }
+        try {
+            join(timeoutMs);
+        } catch (InterruptedException exception) {
+            Log.w(TAG, getName() + " shutdown interrupted");
+            Thread.currentThread().interrupt();
+        }
+        if (isAlive()) {
+            Log.w(TAG, getName() + " did not exit in " + timeoutMs + "ms");
+            return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.audio;
+
+import android.media.AudioFormat;
+import android.media.AudioRecord;
+import android.media.MediaRecorder;
+import android.util.Log;
+
+/**
+ * 麦克风音频源，单声道16bit
+ * 调用方需在创建前确认已获得RECORD_AUDIO权限
+ *
+ * @since 2024-07-18
+ */
+public class AudioRecordSource implements AudioSource {
+    private static final String TAG = AudioRecordSource.class.getSimpleName();
+
+    private final AudioRecord audioRecord;
+
+    private final int sampleRate;
+
+    private AudioRecordSource(AudioRecord audioRecord, int sampleRate) {
+        this.audioRecord = audioRecord;
+        this.sampleRate = sampleRate;
+    }
+
+    /**
+     * 使用最小录音缓冲区创建麦克风音频源
+     *
+     * @param sampleRate 采样率
+     * @return 音频源，缓冲区大小非法或AudioRecord初始化失败时返回null
+     */
+    public static AudioRecordSource create(int sampleRate) {
+        int bufferSizeInBytes = AudioRecord.getMinBufferSize(sampleRate, AudioFormat.CHANNEL_IN_MONO,
+            AudioFormat.ENCODING_PCM_16BIT);
+        Log.d(TAG, "MinBufferSize:" + bufferSizeInBytes);
+        if (bufferSizeInBytes == AudioRecord.ERROR || bufferSizeInBytes == AudioRecord.ERROR_BAD_VALUE) {
+            Log.w(TAG, "Audio buffer can't initialize!");
+            return null;
+        }
+        AudioRecord audioRecord = new AudioRecord(MediaRecorder.AudioSource.DEFAULT, sampleRate,
+            AudioFormat.CHANNEL_IN_MONO, AudioFormat.ENCODING_PCM_16BIT, bufferSizeInBytes);
+        if (audioRecord.getState() != AudioRecord.STATE_INITIALIZED) {
+            Log.w(TAG, "Audio Record state error");
+            audioRecord.release();
+            return null;
+        }
+        Log.d(TAG, "Record init okay");
+        return new AudioRecordSource(audioRecord, sampleRate);
+    }
+
+    @Override
+    public boolean start() {
+        audioRecord.startRecording();
+        if (audioRecord.getRecordingState() != AudioRecord.RECORDSTATE_RECORDING) {
+            Log.w(TAG, "startRecording failed, recording state: " + audioRecord.getRecordingState());
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int read(byte[] audioData, int offsetInBytes, int sizeInBytes) {
+        return audioRecord.read(audioData, offsetInBytes, sizeInBytes);
+    }
+
+    @Override
+    public void stop() {
+        audioRecord.stop();
+    }
+
+    @Override
+    public void release() {
+        audioRecord.release();
+    }
+
+    @Override
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    @Override
+    public int getChannelCount() {
+        return 1;
+    }
+}
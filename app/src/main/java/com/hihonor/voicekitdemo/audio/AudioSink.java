@@ -0,0 +1,20 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.audio;
+
+/**
+ * 音频数据消费者，签名与引擎writeAudio(byte[], int)一致
+ *
+ * @since 2024-07-18
+ */
+public interface AudioSink {
+    /**
+     * 写入音频数据，调用返回后缓冲区会被复用，实现方不可持有audioData引用
+     *
+     * @param audioData 音频数据
+     * @param length 有效数据长度
+     */
+    void writeAudio(byte[] audioData, int length);
+}
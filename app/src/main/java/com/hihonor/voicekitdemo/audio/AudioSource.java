@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.audio;
+
+/**
+ * 可启停的16bit PCM音频源
+ * 麦克风、内存映射文件和合成信号实现同一接口，采集链路可以在设备外用文件或合成信号驱动
+ *
+ * @since 2024-07-18
+ */
+public interface AudioSource extends PcmSource {
+    /**
+     * 实时限速等待被中断时read返回的错误码
+     */
+    int ERROR_INTERRUPTED = -100;
+
+    /**
+     * 开始产生音频，从头开始读取
+     *
+     * @return true表示启动成功
+     */
+    boolean start();
+
+    /**
+     * 停止产生音频，可再次start
+     */
+    void stop();
+
+    /**
+     * 释放资源，之后不可再使用
+     */
+    void release();
+
+    /**
+     * 采样率
+     *
+     * @return 采样率
+     */
+    int getSampleRate();
+
+    /**
+     * 声道数
+     *
+     * @return 声道数
+     */
+    int getChannelCount();
+
+    /**
+     * 有限长度的音频源是否已读完，麦克风始终返回false
+     *
+     * @return true表示已读完
+     */
+    default boolean isEndOfStream() {
+        return false;
+    }
+}
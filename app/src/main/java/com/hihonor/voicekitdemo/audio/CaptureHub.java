@@ -0,0 +1,324 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.audio;
+
+import android.util.Log;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * 音频采集分发中心
+ * 一个音频源只采集一次，采集线程把每一帧分发给所有订阅者；每个订阅者有独立的环形缓冲区和投递线程，
+ * 慢的订阅者只会溢出自己的缓冲区，不会阻塞采集线程和其他订阅者。
+ * 第一个订阅者加入时开始采集，最后一个订阅者退出时停止采集并释放音频源
+ *
+ * @since 2024-07-18
+ */
+public class CaptureHub {
+    /**
+     * 麦克风采样率
+     */
+    public static final int MICROPHONE_SAMPLE_RATE = 16000;
+
+    /**
+     * 每个订阅者默认的环形缓冲区大小，约2秒16k单声道16bit音频
+     */
+    public static final int DEFAULT_RING_CAPACITY = 64 * 1024;
+
+    private static final String TAG = CaptureHub.class.getSimpleName();
+
+    // 16k单声道16bit音频，40ms一帧为1280字节
+    private static final int MICROPHONE_FRAME_SIZE = FrameAssembler.frameSizeInBytes(MICROPHONE_SAMPLE_RATE, 1, 2,
+        40);
+
+    private static final long CAPTURE_JOIN_TIMEOUT_MS = 500L;
+
+    private static final Subscriber[] EMPTY_SUBSCRIBERS = new Subscriber[0];
+
+    private static volatile CaptureHub microphone;
+
+    private final String name;
+
+    private final Supplier<AudioSource> sourceFactory;
+
+    private final int frameSizeInBytes;
+
+    /**
+     * 写时复制，采集线程无锁遍历
+     */
+    private volatile Subscriber[] subscribers = EMPTY_SUBSCRIBERS;
+
+    private AudioCaptureEngine captureEngine;
+
+    private AudioCaptureThread captureThread;
+
+    /**
+     * 当前采集线程分发的订阅者，每次开始采集时新建，采集线程只写入自己的分发对象
+     */
+    private Dispatcher dispatcher;
+
+    /**
+     * 已发出停止信号但可能还没退出的采集线程，退出前不能开始新的采集
+     */
+    private AudioCaptureThread stoppingThread;
+
+    /**
+     * 构造函数
+     *
+     * @param name 名称，用于线程名和日志
+     * @param sourceFactory 开始采集时创建音频源，返回null表示创建失败
+     * @param frameSizeInBytes 分发的帧大小
+     */
+    public CaptureHub(String name, Supplier<AudioSource> sourceFactory, int frameSizeInBytes) {
+        this.name = name;
+        this.sourceFactory = sourceFactory;
+        this.frameSizeInBytes = frameSizeInBytes;
+    }
+
+    /**
+     * 应用共用的16k单声道麦克风采集中心，订阅前需确认已获得RECORD_AUDIO权限
+     *
+     * @return 麦克风采集中心
+     */
+    public static CaptureHub getMicrophone() {
+        if (microphone == null) {
+            synchronized (CaptureHub.class) {
+                if (microphone == null) {
+                    microphone = new CaptureHub("Mic", () -> AudioRecordSource.create(MICROPHONE_SAMPLE_RATE),
+                        MICROPHONE_FRAME_SIZE);
+                }
+            }
+        }
+        return microphone;
+    }
+
+    /**
+     * 使用默认缓冲区大小订阅
+     *
+     * @param subscriberName 订阅者名称
+     * @param target 音频消费者，在订阅者自己的投递线程中调用
+     * @return true表示订阅成功，false表示已订阅或音频源创建失败
+     */
+    public boolean subscribe(String subscriberName, AudioSink target) {
+        return subscribe(subscriberName, target, DEFAULT_RING_CAPACITY);
+    }
+
+    /**
+     * 订阅采集的音频，没有在采集时开始采集。
+     * 上一次采集的线程还没退出时先在锁外等待它退出，等待超时则不开始新的采集，避免同时打开两个音频源
+     *
+     * @param subscriberName 订阅者名称
+     * @param target 音频消费者，在订阅者自己的投递线程中调用
+     * @param ringCapacity 订阅者环形缓冲区大小，必须是2的幂
+     * @return true表示订阅成功，false表示已订阅、上一次采集未退出或音频源创建失败
+     */
+    public boolean subscribe(String subscriberName, AudioSink target, int ringCapacity) {
+        AudioCaptureThread stopping;
+        synchronized (this) {
+            stopping = stoppingThread;
+        }
+        if (stopping != null) {
+            awaitExit(stopping);
+        }
+        return subscribeLocked(subscriberName, target, ringCapacity);
+    }
+
+    private synchronized boolean subscribeLocked(String subscriberName, AudioSink target, int ringCapacity) {
+        Subscriber[] current = subscribers;
+        if (indexOf(current, target) >= 0) {
+            Log.i(TAG, subscriberName + " already subscribed");
+            return false;
+        }
+        Subscriber subscriber = new Subscriber(subscriberName, target, new RingBufferAudioSink(ringCapacity,
+            frameSizeInBytes, name + subscriberName + "Delivery"));
+        if (captureThread == null && isStoppingThreadAlive()) {
+            Log.w(TAG, subscriberName + " rejected, previous " + name + " capture has not exited");
+            return false;
+        }
+        subscriber.sink.start(target);
+        Subscriber[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = subscriber;
+        subscribers = updated;
+        if (captureThread == null && !startCapture()) {
+            subscribers = current;
+            subscriber.sink.stop();
+            return false;
+        }
+        dispatcher.targets = updated;
+        Log.d(TAG, subscriberName + " subscribed to " + name + ", subscribers: " + updated.length);
+        return true;
+    }
+
+    /**
+     * 取消订阅，缓冲区中剩余的音频会先写入订阅者；没有订阅者时停止采集。
+     * 只在持锁时摘除订阅者和采集线程，等待线程退出在锁外进行，不阻塞其他订阅者的订阅和取消订阅
+     *
+     * @param target 订阅时的音频消费者
+     * @return 订阅者的投递线程退出后完成，之后不会再调用target；等待超时返回时可能尚未完成
+     */
+    public CompletableFuture<Void> unsubscribe(AudioSink target) {
+        Subscriber subscriber;
+        AudioCaptureThread stoppedThread = null;
+        synchronized (this) {
+            Subscriber[] current = subscribers;
+            int index = indexOf(current, target);
+            if (index < 0) {
+                return CompletableFuture.completedFuture(null);
+            }
+            subscriber = current[index];
+            Subscriber[] updated = new Subscriber[current.length - 1];
+            System.arraycopy(current, 0, updated, 0, index);
+            System.arraycopy(current, index + 1, updated, index, current.length - index - 1);
+            subscribers = updated;
+            dispatcher.targets = updated;
+            if (updated.length == 0) {
+                stoppedThread = captureThread;
+                stoppingThread = stoppedThread;
+                captureThread = null;
+                captureEngine = null;
+                dispatcher = null;
+            }
+        }
+        if (stoppedThread != null) {
+            stopCapture(stoppedThread);
+            clearStoppingThread(stoppedThread);
+        }
+        boolean isDeliveryExited = subscriber.sink.stop();
+        Log.d(TAG, subscriber.name + " unsubscribed, delivery exited: " + isDeliveryExited + ", "
+            + subscriber.describe());
+        return subscriber.sink.getTermination();
+    }
+
+    private static int indexOf(Subscriber[] current, AudioSink target) {
+        for (int i = 0; i < current.length; i++) {
+            if (current[i].target == target) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private boolean startCapture() {
+        AudioSource source = sourceFactory.get();
+        if (source == null) {
+            Log.w(TAG, name + " audio source is null");
+            return false;
+        }
+        if (!source.start()) {
+            source.release();
+            return false;
+        }
+        captureEngine = new AudioCaptureEngine(frameSizeInBytes);
+        captureEngine.start();
+        dispatcher = new Dispatcher();
+        captureThread = AudioCaptureThread.forOwnedCapture(name + "Capture", captureEngine, source, dispatcher);
+        captureThread.start();
+        Log.d(TAG, name + " capture started");
+        return true;
+    }
+
+    private void stopCapture(AudioCaptureThread thread) {
+        // 音频源由采集线程在循环退出后释放，等待超时也不会在read过程中被释放
+        boolean isExited = thread.shutdown(CAPTURE_JOIN_TIMEOUT_MS);
+        Log.d(TAG, name + " capture stopped, exited: " + isExited);
+    }
+
+    private void awaitExit(AudioCaptureThread thread) {
+        try {
+            thread.join(CAPTURE_JOIN_TIMEOUT_MS);
+        } catch (InterruptedException exception) {
+            Log.w(TAG, name + " wait for previous capture interrupted");
+            Thread.currentThread().interrupt();
+        }
+        clearStoppingThread(thread);
+    }
+
+    private synchronized void clearStoppingThread(AudioCaptureThread thread) {
+        if (stoppingThread == thread && !thread.isAlive()) {
+            stoppingThread = null;
+        }
+    }
+
+    private boolean isStoppingThreadAlive() {
+        if (stoppingThread != null && !stoppingThread.isAlive()) {
+            stoppingThread = null;
+        }
+        return stoppingThread != null;
+    }
+
+    /**
+     * 是否在采集中
+     *
+     * @return true表示采集中
+     */
+    public synchronized boolean isCapturing() {
+        return captureThread != null;
+    }
+
+    /**
+     * 当前订阅者个数
+     *
+     * @return 订阅者个数
+     */
+    public int getSubscriberCount() {
+        return subscribers.length;
+    }
+
+    /**
+     * 各订阅者的投递统计，用于日志输出
+     *
+     * @return 统计信息
+     */
+    public String getStatistics() {
+        StringBuilder statistics = new StringBuilder(name);
+        for (Subscriber subscriber : subscribers) {
+            statistics.append("; ").append(subscriber.name).append(": ").append(subscriber.describe());
+        }
+        return statistics.toString();
+    }
+
+    /**
+     * 一次采集的分发对象，在采集线程中把同一帧写入每个订阅者的环形缓冲区，不等待订阅者消费。
+     * 停止采集时不再更新，退出前仍在运行的旧采集线程不会写入之后订阅者的缓冲区
+     *
+     * @since 2024-07-18
+     */
+    private static final class Dispatcher implements AudioSink {
+        private volatile Subscriber[] targets = EMPTY_SUBSCRIBERS;
+
+        @Override
+        public void writeAudio(byte[] audioData, int length) {
+            for (Subscriber subscriber : targets) {
+                subscriber.sink.writeAudio(audioData, length);
+            }
+        }
+    }
+
+    /**
+     * 订阅者及其环形缓冲区
+     *
+     * @since 2024-07-18
+     */
+    private static final class Subscriber {
+        private final String name;
+
+        private final AudioSink target;
+
+        private final RingBufferAudioSink sink;
+
+        Subscriber(String name, AudioSink target, RingBufferAudioSink sink) {
+            this.name = name;
+            this.target = target;
+            this.sink = sink;
+        }
+
+        String describe() {
+            return "delivered=" + sink.getDeliveredBytes() + ", highWaterMark=" + sink.getHighWaterMark()
+                + ", overrun=" + sink.getOverrunCount() + ", overrunBytes=" + sink.getOverrunBytes();
+        }
+    }
+}
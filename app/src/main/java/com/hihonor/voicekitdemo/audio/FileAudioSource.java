@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.audio;
+
+/**
+ * 内存映射文件音频源
+ * 实时模式按音频时长限速，模拟麦克风；非实时模式读取多快就产生多快。读完后read返回0
+ *
+ * @since 2024-07-18
+ */
+public class FileAudioSource implements AudioSource {
+    private final MappedAudioFile file;
+
+    private final boolean isRealTime;
+
+    private final RealTimePacer pacer;
+
+    private long producedBytes = 0L;
+
+    /**
+     * 构造函数
+     *
+     * @param file 内存映射的音频文件
+     * @param isRealTime 是否按音频时长限速
+     */
+    public FileAudioSource(MappedAudioFile file, boolean isRealTime) {
+        this.file = file;
+        this.isRealTime = isRealTime;
+        pacer = new RealTimePacer(file.getSampleRate(), file.getChannelCount(), System::nanoTime);
+    }
+
+    @Override
+    public boolean start() {
+        file.rewind();
+        producedBytes = 0L;
+        pacer.start();
+        return true;
+    }
+
+    @Override
+    public int read(byte[] audioData, int offsetInBytes, int sizeInBytes) {
+        int read = file.read(audioData, offsetInBytes, sizeInBytes);
+        producedBytes += read;
+        if (isRealTime && read > 0 && !pacer.await(producedBytes)) {
+            return ERROR_INTERRUPTED;
+        }
+        return read;
+    }
+
+    @Override
+    public void stop() {
+    }
+
+    @Override
+    public void release() {
+    }
+
+    @Override
+    public int getSampleRate() {
+        return file.getSampleRate();
+    }
+
+    @Override
+    public int getChannelCount() {
+        return file.getChannelCount();
+    }
+
+    @Override
+    public boolean isEndOfStream() {
+        return !file.hasRemaining();
+    }
+}
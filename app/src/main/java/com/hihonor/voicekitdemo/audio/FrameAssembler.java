@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.audio;
+
+import android.util.Log;
+
+/**
+ * 音频帧组装器
+ * 按实际读取的字节数把多次短读拼接成固定时长的音频帧，只向下游写入有效数据；
+ * 数据直接读入预分配的帧缓冲区，不做额外拷贝，帧缓冲区在环中轮转复用
+ *
+ * @since 2024-07-18
+ */
+public class FrameAssembler {
+    private static final String TAG = FrameAssembler.class.getSimpleName();
+
+    private static final int MILLIS_PER_SECOND = 1000;
+
+    private final byte[][] frameRing;
+
+    private final int frameSizeInBytes;
+
+    private int ringIndex = 0;
+
+    /**
+     * 当前帧已填充的字节数
+     */
+    private int filled = 0;
+
+    private volatile long readCount = 0L;
+
+    private volatile long shortReadCount = 0L;
+
+    private volatile long errorReadCount = 0L;
+
+    private volatile long frameCount = 0L;
+
+    private volatile long deliveredBytes = 0L;
+
+    /**
+     * 构造函数
+     *
+     * @param frameSizeInBytes 帧大小
+     * @param frameCount 帧缓冲区个数
+     */
+    public FrameAssembler(int frameSizeInBytes, int frameCount) {
+        if (frameSizeInBytes <= 0 || frameCount <= 0) {
+            throw new IllegalArgumentException("frameSize: " + frameSizeInBytes + ", frameCount: " + frameCount);
+        }
+        this.frameSizeInBytes = frameSizeInBytes;
+        frameRing = new byte[frameCount][frameSizeInBytes];
+    }
+
+    /**
+     * 按时长计算PCM帧大小
+     *
+     * @param sampleRateInHz 采样率
+     * @param channelCount 声道数
+     * @param bytesPerSample 每个采样的字节数
+     * @param frameDurationMs 帧时长，如20/40/100ms
+     * @return 帧大小
+     */
+    public static int frameSizeInBytes(int sampleRateInHz, int channelCount, int bytesPerSample,
+        int frameDurationMs) {
+        int samplesPerFrame = (int) ((long) sampleRateInHz * frameDurationMs / MILLIS_PER_SECOND);
+        return samplesPerFrame * channelCount * bytesPerSample;
+    }
+
+    /**
+     * 从音频源读取一次，读满一帧时写入下游
+     *
+     * @param source 音频来源
+     * @param sink 下游消费者
+     * @return 实际读取的字节数，小于0表示错误码
+     */
+    public int readFrom(PcmSource source, AudioSink sink) {
+        byte[] frame = frameRing[ringIndex];
+        int requested = frameSizeInBytes - filled;
+        int read = source.read(frame, filled, requested);
+        readCount++;
+        if (read < 0) {
+            errorReadCount++;
+            Log.e(TAG, "read error: " + read);
+            return read;
+        }
+        if (read < requested) {
+            shortReadCount++;
+        }
+        filled += Math.min(read, requested);
+        if (filled == frameSizeInBytes) {
+            emit(sink);
+        }
+        return read;
+    }
+
+    /**
+     * 把未满一帧的剩余数据写入下游，通常在停止采集时调用
+     *
+     * @param sink 下游消费者
+     */
+    public void flush(AudioSink sink) {
+        if (filled > 0) {
+            emit(sink);
+        }
+    }
+
+    /**
+     * 丢弃未满一帧的剩余数据
+     */
+    public void reset() {
+        filled = 0;
+    }
+
+    private void emit(AudioSink sink) {
+        int length = filled;
+        sink.writeAudio(frameRing[ringIndex], length);
+        deliveredBytes += length;
+        frameCount++;
+        filled = 0;
+        ringIndex = (ringIndex + 1) % frameRing.length;
+    }
+
+    /**
+     * 帧大小
+     *
+     * @return 字节数
+     */
+    public int getFrameSizeInBytes() {
+        return frameSizeInBytes;
+    }
+
+    /**
+     * 读取次数
+     *
+     * @return 次数
+     */
+    public long getReadCount() {
+        return readCount;
+    }
+
+    /**
+     * 返回字节数少于请求字节数的读取次数
+     *
+     * @return 次数
+     */
+    public long getShortReadCount() {
+        return shortReadCount;
+    }
+
+    /**
+     * 返回错误码的读取次数
+     *
+     * @return 次数
+     */
+    public long getErrorReadCount() {
+        return errorReadCount;
+    }
+
+    /**
+     * 已写入下游的帧数
+     *
+     * @return 帧数
+     */
+    public long getFrameCount() {
+        return frameCount;
+    }
+
+    /**
+     * 已写入下游的有效字节数
+     *
+     * @return 字节数
+     */
+    public long getDeliveredBytes() {
+        return deliveredBytes;
+    }
+}
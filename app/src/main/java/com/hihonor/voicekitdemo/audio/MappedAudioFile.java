@@ -0,0 +1,246 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.audio;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 内存映射的音频文件
+ * 通过FileChannel.map只读映射WAV或裸PCM文件，按需读取时由系统分页加载，不把整个文件读入堆内存。
+ * WAV只支持16bit PCM；不以RIFF开头的文件按裸PCM处理，格式由调用方指定。映射建立后文件句柄即关闭。
+ * 非线程安全，只在单个线程中读取
+ *
+ * @since 2024-07-18
+ */
+public class MappedAudioFile implements PcmSource {
+    /**
+     * 裸PCM默认采样率
+     */
+    public static final int DEFAULT_SAMPLE_RATE = 16000;
+
+    private static final int BITS_PER_SAMPLE = 16;
+
+    private static final int WAVE_FORMAT_PCM = 1;
+
+    private static final int RIFF_HEADER_SIZE = 12;
+
+    private static final int CHUNK_HEADER_SIZE = 8;
+
+    private static final int FMT_CHUNK_MIN_SIZE = 16;
+
+    private static final int MILLIS_PER_SECOND = 1000;
+
+    private final String name;
+
+    private final ByteBuffer data;
+
+    private final int sampleRate;
+
+    private final int channelCount;
+
+    private MappedAudioFile(String name, ByteBuffer data, int sampleRate, int channelCount) {
+        this.name = name;
+        this.data = data;
+        this.sampleRate = sampleRate;
+        this.channelCount = channelCount;
+    }
+
+    /**
+     * 映射音频文件，裸PCM按16k单声道16bit处理
+     *
+     * @param file WAV或裸PCM文件
+     * @return 音频文件
+     * @throws IOException 读取失败、文件超过2GB或WAV格式不支持
+     */
+    public static MappedAudioFile open(File file) throws IOException {
+        return open(file, DEFAULT_SAMPLE_RATE, 1);
+    }
+
+    /**
+     * 映射音频文件
+     *
+     * @param file WAV或裸PCM文件
+     * @param rawSampleRate 裸PCM的采样率，WAV以文件头为准
+     * @param rawChannelCount 裸PCM的声道数，WAV以文件头为准
+     * @return 音频文件
+     * @throws IOException 读取失败、文件超过2GB或WAV格式不支持
+     */
+    public static MappedAudioFile open(File file, int rawSampleRate, int rawChannelCount) throws IOException {
+        MappedByteBuffer mapped;
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+            FileChannel channel = randomAccessFile.getChannel()) {
+            // 单个MappedByteBuffer最大2GB，超过时map会抛出IllegalArgumentException，按打开失败处理
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException(file.getName() + " too large to map: " + channel.size());
+            }
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        return wrap(file.getName(), mapped, rawSampleRate, rawChannelCount);
+    }
+
+    /**
+     * 解析内存中的WAV或裸PCM数据
+     *
+     * @param name 名称，用于日志和报告
+     * @param buffer 文件内容
+     * @param rawSampleRate 裸PCM的采样率
+     * @param rawChannelCount 裸PCM的声道数
+     * @return 音频文件
+     * @throws IOException WAV格式不支持
+     */
+    static MappedAudioFile wrap(String name, ByteBuffer buffer, int rawSampleRate, int rawChannelCount)
+        throws IOException {
+        ByteBuffer content = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        if (!isWave(content)) {
+            return new MappedAudioFile(name, content.slice(), rawSampleRate, rawChannelCount);
+        }
+        content.position(RIFF_HEADER_SIZE);
+        int sampleRate = 0;
+        int channelCount = 0;
+        while (content.remaining() >= CHUNK_HEADER_SIZE) {
+            String chunkId = readTag(content);
+            long chunkSize = content.getInt() & 0xFFFFFFFFL;
+            int chunkStart = content.position();
+            if ("fmt ".equals(chunkId)) {
+                // 截断或长度字段错误的fmt块按格式不支持处理，不抛出BufferUnderflowException中断批量转写
+                if (chunkSize < FMT_CHUNK_MIN_SIZE || content.remaining() < FMT_CHUNK_MIN_SIZE) {
+                    throw new IOException(name + " truncated fmt chunk, size: " + chunkSize);
+                }
+                int format = content.getShort();
+                channelCount = content.getShort();
+                sampleRate = content.getInt();
+                // 跳过byteRate和blockAlign
+                content.position(content.position() + 6);
+                int bitsPerSample = content.getShort();
+                if (format != WAVE_FORMAT_PCM || bitsPerSample != BITS_PER_SAMPLE) {
+                    throw new IOException(name + " unsupported wav format: " + format + ", bits: " + bitsPerSample);
+                }
+            } else if ("data".equals(chunkId)) {
+                if (sampleRate == 0) {
+                    throw new IOException(name + " data chunk before fmt chunk");
+                }
+                int length = (int) Math.min(chunkSize, content.remaining());
+                content.limit(chunkStart + length);
+                return new MappedAudioFile(name, content.slice(), sampleRate, channelCount);
+            }
+            // 奇数长度的chunk后有一个填充字节
+            long next = chunkStart + chunkSize + (chunkSize & 1);
+            if (next > content.limit()) {
+                break;
+            }
+            content.position((int) next);
+        }
+        throw new IOException(name + " has no data chunk");
+    }
+
+    private static boolean isWave(ByteBuffer content) {
+        if (content.remaining() < RIFF_HEADER_SIZE) {
+            return false;
+        }
+        ByteBuffer header = content.duplicate();
+        String riff = readTag(header);
+        header.getInt();
+        return "RIFF".equals(riff) && "WAVE".equals(readTag(header));
+    }
+
+    private static String readTag(ByteBuffer buffer) {
+        byte[] tag = new byte[4];
+        buffer.get(tag);
+        return new String(tag, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * 读取音频数据
+     *
+     * @param audioData 目标缓冲区
+     * @param offsetInBytes 写入的起始位置
+     * @param sizeInBytes 期望读取的字节数
+     * @return 实际读取的字节数，读完后返回0
+     */
+    @Override
+    public int read(byte[] audioData, int offsetInBytes, int sizeInBytes) {
+        int length = Math.min(sizeInBytes, data.remaining());
+        data.get(audioData, offsetInBytes, length);
+        return length;
+    }
+
+    /**
+     * 是否还有未读取的数据
+     *
+     * @return true表示还有数据
+     */
+    public boolean hasRemaining() {
+        return data.hasRemaining();
+    }
+
+    /**
+     * 回到音频数据开头
+     */
+    public void rewind() {
+        data.rewind();
+    }
+
+    /**
+     * 文件名称
+     *
+     * @return 名称
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 采样率
+     *
+     * @return 采样率
+     */
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * 声道数
+     *
+     * @return 声道数
+     */
+    public int getChannelCount() {
+        return channelCount;
+    }
+
+    /**
+     * 音频数据长度，不含文件头
+     *
+     * @return 字节数
+     */
+    public int getDataLength() {
+        return data.limit();
+    }
+
+    /**
+     * 已读取的字节数
+     *
+     * @return 字节数
+     */
+    public int getPosition() {
+        return data.position();
+    }
+
+    /**
+     * 音频时长
+     *
+     * @return 毫秒
+     */
+    public long getDurationMs() {
+        long bytesPerSecond = (long) sampleRate * channelCount * BITS_PER_SAMPLE / Byte.SIZE;
+        return bytesPerSecond == 0 ? 0L : data.limit() * (long) MILLIS_PER_SECOND / bytesPerSecond;
+    }
+}
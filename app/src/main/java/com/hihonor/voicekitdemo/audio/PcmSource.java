@@ -0,0 +1,22 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.audio;
+
+/**
+ * PCM音频数据来源，签名与AudioRecord.read(byte[], int, int)一致，可直接使用audioRecord::read
+ *
+ * @since 2024-07-18
+ */
+public interface PcmSource {
+    /**
+     * 读取音频数据
+     *
+     * @param audioData 目标缓冲区
+     * @param offsetInBytes 写入的起始位置
+     * @param sizeInBytes 期望读取的字节数
+     * @return 实际读取的字节数，小于0表示错误码
+     */
+    int read(byte[] audioData, int offsetInBytes, int sizeInBytes);
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.audio;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 预录音频缓冲区
+ * 在堆外的定长环形缓冲区中保存最近N毫秒的PCM，写满后覆盖最旧的数据；需要时按时间顺序写入AudioSink。
+ * 所有缓冲区在构造时分配，之后的写入和输出不再分配内存。非线程安全，只在单个线程中使用
+ *
+ * @since 2024-07-18
+ */
+public class PreRollBuffer {
+    private final ByteBuffer ring;
+
+    /**
+     * 输出时使用的堆内缓冲区，AudioSink只接受byte[]
+     */
+    private final byte[] outputChunk;
+
+    private int writeIndex = 0;
+
+    private int size = 0;
+
+    private long overwrittenBytes = 0L;
+
+    /**
+     * 构造函数
+     *
+     * @param capacityInBytes 容量，应为采样帧大小的整数倍，0表示不保存
+     * @param chunkSizeInBytes 每次写入AudioSink的最大字节数
+     */
+    public PreRollBuffer(int capacityInBytes, int chunkSizeInBytes) {
+        if (capacityInBytes < 0 || chunkSizeInBytes <= 0) {
+            throw new IllegalArgumentException("invalid size, capacity: " + capacityInBytes + ", chunk: "
+                + chunkSizeInBytes);
+        }
+        ring = ByteBuffer.allocateDirect(capacityInBytes);
+        outputChunk = new byte[Math.min(chunkSizeInBytes, Math.max(capacityInBytes, 1))];
+    }
+
+    /**
+     * 按时长创建16bit PCM的预录缓冲区
+     *
+     * @param sampleRate 采样率
+     * @param channelCount 声道数
+     * @param durationMs 预录时长
+     * @param chunkSizeInBytes 每次写入AudioSink的最大字节数
+     * @return 预录缓冲区
+     */
+    public static PreRollBuffer ofDuration(int sampleRate, int channelCount, int durationMs, int chunkSizeInBytes) {
+        return new PreRollBuffer(FrameAssembler.frameSizeInBytes(sampleRate, channelCount, 2, durationMs),
+            chunkSizeInBytes);
+    }
+
+    /**
+     * 写入音频，超出容量时覆盖最旧的数据
+     *
+     * @param audioData 音频数据
+     * @param offset 起始位置
+     * @param length 数据长度
+     */
+    public void write(byte[] audioData, int offset, int length) {
+        int capacity = ring.capacity();
+        if (capacity == 0 || length <= 0) {
+            return;
+        }
+        int skip = Math.max(0, length - capacity);
+        int remaining = length - skip;
+        overwrittenBytes += skip + Math.max(0, size + remaining - capacity);
+        int firstPart = Math.min(remaining, capacity - writeIndex);
+        ring.position(writeIndex);
+        ring.put(audioData, offset + skip, firstPart);
+        if (remaining > firstPart) {
+            ring.position(0);
+            ring.put(audioData, offset + skip + firstPart, remaining - firstPart);
+        }
+        writeIndex = (writeIndex + remaining) % capacity;
+        size = Math.min(capacity, size + remaining);
+    }
+
+    /**
+     * 按时间顺序把缓冲区中的音频写入sink并清空
+     *
+     * @param sink 音频消费者
+     * @return 写入的字节数
+     */
+    public int drainTo(AudioSink sink) {
+        int capacity = ring.capacity();
+        int drained = size;
+        int readIndex = (writeIndex - size + capacity) % Math.max(capacity, 1);
+        while (size > 0) {
+            int length = Math.min(Math.min(size, outputChunk.length), capacity - readIndex);
+            ring.position(readIndex);
+            ring.get(outputChunk, 0, length);
+            sink.writeAudio(outputChunk, length);
+            readIndex = (readIndex + length) % capacity;
+            size -= length;
+        }
+        writeIndex = 0;
+        return drained;
+    }
+
+    /**
+     * 清空缓冲区
+     */
+    public void clear() {
+        writeIndex = 0;
+        size = 0;
+    }
+
+    /**
+     * 当前保存的字节数
+     *
+     * @return 字节数
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 容量
+     *
+     * @return 字节数
+     */
+    public int getCapacity() {
+        return ring.capacity();
+    }
+
+    /**
+     * 因超出容量被覆盖的字节数
+     *
+     * @return 字节数
+     */
+    public long getOverwrittenBytes() {
+        return overwrittenBytes;
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.audio;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * 按音频时长限速，使文件和合成音频源以与麦克风相同的速度产生数据，也用于按实时速度转写文件
+ * 非线程安全，只在产生数据的线程中调用
+ *
+ * @since 2024-07-18
+ */
+public final class RealTimePacer {
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1L);
+
+    private final long bytesPerSecond;
+
+    private final LongSupplier ticker;
+
+    private long startNanos = 0L;
+
+    /**
+     * 构造函数，音频为16位PCM
+     *
+     * @param sampleRate 采样率
+     * @param channelCount 声道数
+     * @param ticker 纳秒时钟
+     */
+    public RealTimePacer(int sampleRate, int channelCount, LongSupplier ticker) {
+        bytesPerSecond = (long) sampleRate * channelCount * 2;
+        this.ticker = ticker;
+    }
+
+    /**
+     * 以当前时间作为第一个字节的产生时刻
+     */
+    public void start() {
+        startNanos = ticker.getAsLong();
+    }
+
+    /**
+     * 等待到已产生的音频在实时情况下可用的时刻
+     *
+     * @param producedBytes 已产生的字节数，含本次读取
+     * @return false表示等待被中断
+     */
+    public boolean await(long producedBytes) {
+        long aheadNanos = producedBytes * NANOS_PER_SECOND / bytesPerSecond - (ticker.getAsLong() - startNanos);
+        if (aheadNanos <= 0) {
+            return true;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(aheadNanos);
+            return true;
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
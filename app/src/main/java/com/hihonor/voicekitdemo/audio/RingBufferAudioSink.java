@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.audio;
+
+import android.os.Process;
+import android.util.Log;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 解耦采集与写入的AudioSink
+ * 采集线程调用writeAudio把数据放入无锁环形缓冲区后立即返回，独立的投递线程再把数据写入引擎，
+ * 引擎writeAudio短暂卡顿时由环形缓冲区吸收，不会阻塞AudioRecord.read
+ *
+ * @since 2024-07-18
+ */
+public class RingBufferAudioSink implements AudioSink {
+    private static final String TAG = RingBufferAudioSink.class.getSimpleName();
+
+    /**
+     * 缓冲区为空时投递线程的最长休眠时间
+     */
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    private static final long JOIN_TIMEOUT_MS = 500L;
+
+    private final SpscByteRingBuffer ringBuffer;
+
+    /**
+     * 投递线程使用的缓冲区，构造时分配
+     */
+    private final byte[] deliveryBuffer;
+
+    private final String threadName;
+
+    private volatile boolean isRunning = false;
+
+    private volatile AudioCaptureThread deliveryThread;
+
+    /**
+     * 投递线程退出后在投递线程中完成，之后不会再调用target
+     */
+    private volatile CompletableFuture<Void> termination = CompletableFuture.completedFuture(null);
+
+    private volatile long deliveredBytes = 0L;
+
+    /**
+     * 构造函数
+     *
+     * @param capacityInBytes 环形缓冲区容量，必须是2的幂
+     * @param chunkSizeInBytes 每次写入引擎的最大字节数
+     * @param threadName 投递线程名称
+     */
+    public RingBufferAudioSink(int capacityInBytes, int chunkSizeInBytes, String threadName) {
+        ringBuffer = new SpscByteRingBuffer(capacityInBytes);
+        deliveryBuffer = new byte[chunkSizeInBytes];
+        this.threadName = threadName;
+    }
+
+    /**
+     * 启动投递线程
+     *
+     * @param target 实际的音频消费者，在投递线程中调用
+     */
+    public synchronized void start(AudioSink target) {
+        if (isRunning) {
+            Log.i(TAG, "already started");
+            return;
+        }
+        if (deliveryThread != null && deliveryThread.isAlive()) {
+            Log.w(TAG, "previous delivery thread has not exited");
+            return;
+        }
+        isRunning = true;
+        CompletableFuture<Void> exited = new CompletableFuture<>();
+        AudioCaptureThread thread = new AudioCaptureThread(threadName, Process.THREAD_PRIORITY_AUDIO,
+            () -> drainLoop(target), this::signalStop, () -> exited.complete(null));
+        termination = exited;
+        deliveryThread = thread;
+        thread.start();
+    }
+
+    /**
+     * 停止投递线程，缓冲区中剩余的数据会先写入引擎。
+     * 等待超时时投递线程可能仍在target.writeAudio中，调用方需等getTermination完成后才能释放target使用的引擎
+     *
+     * @return true表示投递线程已退出，false表示等待超时
+     */
+    public synchronized boolean stop() {
+        AudioCaptureThread thread = deliveryThread;
+        if (thread == null) {
+            isRunning = false;
+            return true;
+        }
+        if (!thread.shutdown(JOIN_TIMEOUT_MS)) {
+            // 保留线程引用，再次stop时继续等待，退出前不能重新start
+            return false;
+        }
+        deliveryThread = null;
+        return true;
+    }
+
+    /**
+     * 投递线程退出后完成，没有启动过投递线程时已完成
+     *
+     * @return 投递线程退出的结果
+     */
+    public CompletableFuture<Void> getTermination() {
+        return termination;
+    }
+
+    private void signalStop() {
+        isRunning = false;
+        Thread thread = deliveryThread;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    /**
+     * 采集线程调用，写入环形缓冲区后立即返回
+     *
+     * @param audioData 音频数据
+     * @param length 有效数据长度
+     */
+    @Override
+    public void writeAudio(byte[] audioData, int length) {
+        ringBuffer.offer(audioData, 0, length);
+        Thread thread = deliveryThread;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    private void drainLoop(AudioSink target) {
+        Log.d(TAG, "drainLoop start");
+        while (isRunning || !ringBuffer.isEmpty()) {
+            int length = ringBuffer.poll(deliveryBuffer, 0, deliveryBuffer.length);
+            if (length > 0) {
+                target.writeAudio(deliveryBuffer, length);
+                deliveredBytes += length;
+            } else if (isRunning) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+        }
+        Log.d(TAG, "drainLoop end, delivered: " + deliveredBytes + ", highWaterMark: "
+            + ringBuffer.getHighWaterMark() + ", overrun: " + ringBuffer.getOverrunCount());
+    }
+
+    /**
+     * 已写入引擎的字节数
+     *
+     * @return 字节数
+     */
+    public long getDeliveredBytes() {
+        return deliveredBytes;
+    }
+
+    /**
+     * 环形缓冲区历史最高占用字节数
+     *
+     * @return 高水位
+     */
+    public int getHighWaterMark() {
+        return ringBuffer.getHighWaterMark();
+    }
+
+    /**
+     * 环形缓冲区溢出次数
+     *
+     * @return 溢出次数
+     */
+    public long getOverrunCount() {
+        return ringBuffer.getOverrunCount();
+    }
+
+    /**
+     * 环形缓冲区溢出丢弃的字节数
+     *
+     * @return 溢出字节数
+     */
+    public long getOverrunBytes() {
+        return ringBuffer.getOverrunBytes();
+    }
+}
@@ -0,0 +1,311 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.audio;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * 音量统计
+ * onRmsChanged回调的音量值写入定长float环形缓冲区，按最近窗口计算峰值、均值和分位数，
+ * 再按各订阅者的最小间隔节流分发；记录和分发过程中不分配对象
+ *
+ * @since 2024-07-18
+ */
+public class RmsMeter {
+    /**
+     * 窗口上限，保证分位数排序走不分配内存的快速排序分支
+     */
+    public static final int MAX_WINDOW_SIZE = 256;
+
+    private static final Subscription[] EMPTY_SUBSCRIPTIONS = new Subscription[0];
+
+    private final float[] window;
+
+    /**
+     * 计算分位数时使用的排序缓冲区
+     */
+    private final float[] sortBuffer;
+
+    private final LongSupplier ticker;
+
+    private final RmsStatistics statistics = new RmsStatistics();
+
+    private volatile Subscription[] subscriptions = EMPTY_SUBSCRIPTIONS;
+
+    private int writeIndex = 0;
+
+    private int size = 0;
+
+    private long totalCount = 0L;
+
+    /**
+     * 音量统计订阅者
+     *
+     * @since 2024-07-18
+     */
+    public interface Listener {
+        /**
+         * 音量统计更新，在记录音量的线程中回调
+         *
+         * @param statistics 统计结果，对象会被复用，只在回调期间有效
+         */
+        void onRmsStatistics(RmsStatistics statistics);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param windowSize 统计窗口包含的音量值个数
+     */
+    public RmsMeter(int windowSize) {
+        this(windowSize, System::nanoTime);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param windowSize 统计窗口包含的音量值个数
+     * @param ticker 纳秒时钟
+     */
+    RmsMeter(int windowSize, LongSupplier ticker) {
+        if (windowSize <= 0 || windowSize > MAX_WINDOW_SIZE) {
+            throw new IllegalArgumentException("windowSize must be in [1, " + MAX_WINDOW_SIZE + "]: " + windowSize);
+        }
+        window = new float[windowSize];
+        sortBuffer = new float[windowSize];
+        this.ticker = ticker;
+    }
+
+    /**
+     * 添加订阅者
+     *
+     * @param listener 订阅者
+     * @param minIntervalMs 两次回调的最小间隔
+     */
+    public synchronized void subscribe(Listener listener, long minIntervalMs) {
+        Subscription[] current = subscriptions;
+        Subscription[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = new Subscription(listener, TimeUnit.MILLISECONDS.toNanos(minIntervalMs));
+        subscriptions = updated;
+    }
+
+    /**
+     * 移除订阅者
+     *
+     * @param listener 订阅者
+     */
+    public synchronized void unsubscribe(Listener listener) {
+        Subscription[] current = subscriptions;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i].listener == listener) {
+                Subscription[] updated = new Subscription[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, i);
+                System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                subscriptions = updated;
+                return;
+            }
+        }
+    }
+
+    /**
+     * 记录一个音量值，到达间隔的订阅者会在当前线程收到统计结果
+     *
+     * @param value 音量值
+     */
+    public synchronized void record(float value) {
+        window[writeIndex] = value;
+        writeIndex = writeIndex + 1 == window.length ? 0 : writeIndex + 1;
+        if (size < window.length) {
+            size++;
+        }
+        totalCount++;
+
+        Subscription[] current = subscriptions;
+        if (current.length == 0) {
+            return;
+        }
+        long now = ticker.getAsLong();
+        boolean isComputed = false;
+        for (Subscription subscription : current) {
+            if (subscription.hasDelivered && now - subscription.lastDeliveredNanos < subscription.intervalNanos) {
+                continue;
+            }
+            if (!isComputed) {
+                compute(value);
+                isComputed = true;
+            }
+            subscription.hasDelivered = true;
+            subscription.lastDeliveredNanos = now;
+            subscription.listener.onRmsStatistics(statistics);
+        }
+    }
+
+    /**
+     * 把当前窗口的统计结果写入调用方提供的对象
+     *
+     * @param target 输出对象
+     */
+    public synchronized void snapshot(RmsStatistics target) {
+        if (size == 0) {
+            target.set(0f, 0f, 0f, 0f, 0f, 0, totalCount);
+            return;
+        }
+        compute(window[(writeIndex - 1 + window.length) % window.length]);
+        target.set(statistics.getCurrent(), statistics.getAverage(), statistics.getPeak(), statistics.getMedian(),
+            statistics.getPercentile90(), statistics.getWindowCount(), statistics.getTotalCount());
+    }
+
+    /**
+     * 清空窗口，订阅者保留
+     */
+    public synchronized void reset() {
+        writeIndex = 0;
+        size = 0;
+        totalCount = 0L;
+        for (Subscription subscription : subscriptions) {
+            subscription.hasDelivered = false;
+        }
+    }
+
+    private void compute(float current) {
+        float sum = 0f;
+        float peak = -Float.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            float value = window[i];
+            sum += value;
+            if (value > peak) {
+                peak = value;
+            }
+            sortBuffer[i] = value;
+        }
+        Arrays.sort(sortBuffer, 0, size);
+        statistics.set(current, sum / size, peak, percentile(50), percentile(90), size, totalCount);
+    }
+
+    /**
+     * 最近秩法计算分位数，sortBuffer需已排序
+     */
+    private float percentile(int percent) {
+        int rank = (percent * size + 99) / 100;
+        return sortBuffer[Math.max(rank, 1) - 1];
+    }
+
+    /**
+     * 订阅者及其节流状态
+     *
+     * @since 2024-07-18
+     */
+    private static final class Subscription {
+        private final Listener listener;
+
+        private final long intervalNanos;
+
+        private long lastDeliveredNanos;
+
+        private boolean hasDelivered;
+
+        Subscription(Listener listener, long intervalNanos) {
+            this.listener = listener;
+            this.intervalNanos = intervalNanos;
+        }
+    }
+
+    /**
+     * 音量窗口统计结果
+     *
+     * @since 2024-07-18
+     */
+    public static final class RmsStatistics {
+        private float current;
+
+        private float average;
+
+        private float peak;
+
+        private float median;
+
+        private float percentile90;
+
+        private int windowCount;
+
+        private long totalCount;
+
+        void set(float current, float average, float peak, float median, float percentile90, int windowCount,
+            long totalCount) {
+            this.current = current;
+            this.average = average;
+            this.peak = peak;
+            this.median = median;
+            this.percentile90 = percentile90;
+            this.windowCount = windowCount;
+            this.totalCount = totalCount;
+        }
+
+        /**
+         * 最新的音量值
+         *
+         * @return 音量
+         */
+        public float getCurrent() {
+            return current;
+        }
+
+        /**
+         * 窗口内音量均值
+         *
+         * @return 音量
+         */
+        public float getAverage() {
+            return average;
+        }
+
+        /**
+         * 窗口内音量峰值
+         *
+         * @return 音量
+         */
+        public float getPeak() {
+            return peak;
+        }
+
+        /**
+         * 窗口内音量中位数
+         *
+         * @return 音量
+         */
+        public float getMedian() {
+            return median;
+        }
+
+        /**
+         * 窗口内音量90分位数
+         *
+         * @return 音量
+         */
+        public float getPercentile90() {
+            return percentile90;
+        }
+
+        /**
+         * 窗口内的音量值个数
+         *
+         * @return 个数
+         */
+        public int getWindowCount() {
+            return windowCount;
+        }
+
+        /**
+         * 累计记录的音量值个数
+         *
+         * @return 个数
+         */
+        public long getTotalCount() {
+            return totalCount;
+        }
+    }
+}
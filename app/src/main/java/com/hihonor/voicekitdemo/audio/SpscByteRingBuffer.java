@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.audio;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 单生产者单消费者的无锁字节环形缓冲区
+ * 只允许一个线程调用offer，一个线程调用poll，读写位置通过lazySet发布，不使用锁
+ *
+ * @since 2024-07-18
+ */
+public class SpscByteRingBuffer {
+    private final byte[] buffer;
+
+    private final int capacity;
+
+    private final int mask;
+
+    /**
+     * 读位置，仅消费者线程修改
+     */
+    private final AtomicLong readPosition = new AtomicLong();
+
+    /**
+     * 写位置，仅生产者线程修改
+     */
+    private final AtomicLong writePosition = new AtomicLong();
+
+    /**
+     * 生产者缓存的读位置，减少对readPosition的读取
+     */
+    private long cachedReadPosition = 0L;
+
+    /**
+     * 消费者缓存的写位置，减少对writePosition的读取
+     */
+    private long cachedWritePosition = 0L;
+
+    private volatile int highWaterMark = 0;
+
+    private volatile long overrunCount = 0L;
+
+    private volatile long overrunBytes = 0L;
+
+    /**
+     * 构造函数
+     *
+     * @param capacity 容量，必须是2的幂
+     */
+    public SpscByteRingBuffer(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of two: " + capacity);
+        }
+        this.capacity = capacity;
+        mask = capacity - 1;
+        buffer = new byte[capacity];
+    }
+
+    /**
+     * 写入数据，剩余空间不足时整块丢弃并记录溢出，仅生产者线程调用
+     *
+     * @param src 数据
+     * @param offset 起始位置
+     * @param length 长度
+     * @return true表示写入成功
+     */
+    public boolean offer(byte[] src, int offset, int length) {
+        long write = writePosition.get();
+        if (write + length - cachedReadPosition > capacity) {
+            cachedReadPosition = readPosition.get();
+            if (write + length - cachedReadPosition > capacity) {
+                overrunCount++;
+                overrunBytes += length;
+                return false;
+            }
+        }
+        int index = (int) (write & mask);
+        int firstPart = Math.min(length, capacity - index);
+        System.arraycopy(src, offset, buffer, index, firstPart);
+        if (firstPart < length) {
+            System.arraycopy(src, offset + firstPart, buffer, 0, length - firstPart);
+        }
+        writePosition.lazySet(write + length);
+        // cachedReadPosition只在看似写满时刷新，用它计算会把已读走的数据也算作占用
+        int used = (int) (write + length - readPosition.get());
+        if (used > highWaterMark) {
+            highWaterMark = used;
+        }
+        return true;
+    }
+
+    /**
+     * 读取数据，仅消费者线程调用
+     *
+     * @param dst 目标缓冲区
+     * @param offset 起始位置
+     * @param maxLength 最多读取的长度
+     * @return 实际读取的长度，无数据时返回0
+     */
+    public int poll(byte[] dst, int offset, int maxLength) {
+        long read = readPosition.get();
+        if (cachedWritePosition - read < maxLength) {
+            cachedWritePosition = writePosition.get();
+        }
+        int length = (int) Math.min(maxLength, cachedWritePosition - read);
+        if (length <= 0) {
+            return 0;
+        }
+        int index = (int) (read & mask);
+        int firstPart = Math.min(length, capacity - index);
+        System.arraycopy(buffer, index, dst, offset, firstPart);
+        if (firstPart < length) {
+            System.arraycopy(buffer, 0, dst, offset + firstPart, length - firstPart);
+        }
+        readPosition.lazySet(read + length);
+        return length;
+    }
+
+    /**
+     * 当前缓存的字节数
+     *
+     * @return 字节数
+     */
+    public int size() {
+        return (int) (writePosition.get() - readPosition.get());
+    }
+
+    /**
+     * 是否为空
+     *
+     * @return true表示无数据
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * 获取容量
+     *
+     * @return 容量
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * 历史最高占用字节数
+     *
+     * @return 高水位
+     */
+    public int getHighWaterMark() {
+        return highWaterMark;
+    }
+
+    /**
+     * 空间不足导致丢弃的次数
+     *
+     * @return 溢出次数
+     */
+    public long getOverrunCount() {
+        return overrunCount;
+    }
+
+    /**
+     * 空间不足导致丢弃的字节数
+     *
+     * @return 溢出字节数
+     */
+    public long getOverrunBytes() {
+        return overrunBytes;
+    }
+}
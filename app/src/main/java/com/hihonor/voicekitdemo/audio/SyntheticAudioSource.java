@@ -0,0 +1,238 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.audio;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.LongSupplier;
+
+/**
+ * 合成信号音频源，单声道16bit
+ * 按添加顺序依次产生正弦音、高斯噪声和静音片段，相同的片段和随机种子总是产生相同的数据；
+ * 可循环播放，也可在所有片段播放完后结束。用于在设备外确定性地驱动采集链路和基准测试
+ *
+ * @since 2024-07-18
+ */
+public class SyntheticAudioSource implements AudioSource {
+    private static final int BYTES_PER_SAMPLE = 2;
+
+    private static final int MILLIS_PER_SECOND = 1000;
+
+    private final int sampleRate;
+
+    private final long seed;
+
+    private final List<Segment> segments = new ArrayList<>();
+
+    private final RealTimePacer pacer;
+
+    private boolean isLooping = false;
+
+    private boolean isRealTime = false;
+
+    private Random random;
+
+    private int segmentIndex = 0;
+
+    private int sampleInSegment = 0;
+
+    private long producedBytes = 0L;
+
+    /**
+     * 构造函数
+     *
+     * @param sampleRate 采样率
+     * @param seed 噪声的随机种子
+     */
+    public SyntheticAudioSource(int sampleRate, long seed) {
+        this(sampleRate, seed, System::nanoTime);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param sampleRate 采样率
+     * @param seed 噪声的随机种子
+     * @param ticker 实时限速使用的纳秒时钟
+     */
+    SyntheticAudioSource(int sampleRate, long seed, LongSupplier ticker) {
+        this.sampleRate = sampleRate;
+        this.seed = seed;
+        pacer = new RealTimePacer(sampleRate, 1, ticker);
+        random = new Random(seed);
+    }
+
+    /**
+     * 添加正弦音片段
+     *
+     * @param frequency 频率
+     * @param amplitude 幅度
+     * @param durationMs 时长
+     * @return this
+     */
+    public SyntheticAudioSource addTone(double frequency, int amplitude, int durationMs) {
+        return add(new Segment(Segment.TONE, frequency, amplitude, toSamples(durationMs)));
+    }
+
+    /**
+     * 添加高斯噪声片段
+     *
+     * @param amplitude 标准差
+     * @param durationMs 时长
+     * @return this
+     */
+    public SyntheticAudioSource addNoise(int amplitude, int durationMs) {
+        return add(new Segment(Segment.NOISE, 0.0, amplitude, toSamples(durationMs)));
+    }
+
+    /**
+     * 添加静音片段
+     *
+     * @param durationMs 时长
+     * @return this
+     */
+    public SyntheticAudioSource addSilence(int durationMs) {
+        return add(new Segment(Segment.SILENCE, 0.0, 0, toSamples(durationMs)));
+    }
+
+    /**
+     * 设置所有片段播放完后是否从头循环
+     *
+     * @param isLooping true表示循环
+     * @return this
+     */
+    public SyntheticAudioSource setLooping(boolean isLooping) {
+        this.isLooping = isLooping;
+        return this;
+    }
+
+    /**
+     * 设置是否按音频时长限速
+     *
+     * @param isRealTime true表示限速
+     * @return this
+     */
+    public SyntheticAudioSource setRealTime(boolean isRealTime) {
+        this.isRealTime = isRealTime;
+        return this;
+    }
+
+    private SyntheticAudioSource add(Segment segment) {
+        // 忽略不足一个采样的片段，避免循环播放时空转
+        if (segment.sampleCount > 0) {
+            segments.add(segment);
+        }
+        return this;
+    }
+
+    private int toSamples(int durationMs) {
+        return (int) ((long) sampleRate * durationMs / MILLIS_PER_SECOND);
+    }
+
+    @Override
+    public boolean start() {
+        random = new Random(seed);
+        segmentIndex = 0;
+        sampleInSegment = 0;
+        producedBytes = 0L;
+        pacer.start();
+        return !segments.isEmpty();
+    }
+
+    @Override
+    public int read(byte[] audioData, int offsetInBytes, int sizeInBytes) {
+        int samples = sizeInBytes / BYTES_PER_SAMPLE;
+        int produced = 0;
+        while (produced < samples && !isEndOfStream()) {
+            Segment segment = segments.get(segmentIndex);
+            int count = Math.min(samples - produced, segment.sampleCount - sampleInSegment);
+            int offset = offsetInBytes + produced * BYTES_PER_SAMPLE;
+            for (int i = 0; i < count; i++) {
+                int sample = segment.sampleAt(sampleInSegment + i, sampleRate, random);
+                audioData[offset + BYTES_PER_SAMPLE * i] = (byte) sample;
+                audioData[offset + BYTES_PER_SAMPLE * i + 1] = (byte) (sample >> 8);
+            }
+            produced += count;
+            sampleInSegment += count;
+            if (sampleInSegment == segment.sampleCount) {
+                sampleInSegment = 0;
+                segmentIndex++;
+                if (isLooping && segmentIndex == segments.size()) {
+                    segmentIndex = 0;
+                }
+            }
+        }
+        int read = produced * BYTES_PER_SAMPLE;
+        producedBytes += read;
+        if (isRealTime && read > 0 && !pacer.await(producedBytes)) {
+            return ERROR_INTERRUPTED;
+        }
+        return read;
+    }
+
+    @Override
+    public void stop() {
+    }
+
+    @Override
+    public void release() {
+    }
+
+    @Override
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    @Override
+    public int getChannelCount() {
+        return 1;
+    }
+
+    @Override
+    public boolean isEndOfStream() {
+        return segmentIndex >= segments.size();
+    }
+
+    /**
+     * 信号片段
+     *
+     * @since 2024-07-18
+     */
+    private static final class Segment {
+        static final int TONE = 0;
+
+        static final int NOISE = 1;
+
+        static final int SILENCE = 2;
+
+        private final int type;
+
+        private final double frequency;
+
+        private final int amplitude;
+
+        private final int sampleCount;
+
+        Segment(int type, double frequency, int amplitude, int sampleCount) {
+            this.type = type;
+            this.frequency = frequency;
+            this.amplitude = amplitude;
+            this.sampleCount = sampleCount;
+        }
+
+        int sampleAt(int index, int sampleRate, Random random) {
+            double value;
+            if (type == TONE) {
+                value = amplitude * Math.sin(2 * Math.PI * frequency * index / sampleRate);
+            } else if (type == NOISE) {
+                value = amplitude * random.nextGaussian();
+            } else {
+                return 0;
+            }
+            return (int) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, value));
+        }
+    }
+}
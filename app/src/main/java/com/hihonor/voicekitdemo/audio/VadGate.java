@@ -0,0 +1,229 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.audio;
+
+import android.util.Log;
+
+/**
+ * 本地语音活动检测门限
+ * 按16bit单声道PCM计算每块音频的能量和过零率，判定为静音时不写入引擎，只保存在预录缓冲区中；
+ * 检测到语音时先写入预录缓冲区中的音频，避免截断语音起始部分，语音结束后再保持hangover时长才关闭。
+ * 只在单个线程中调用writeAudio
+ *
+ * @since 2024-07-18
+ */
+public class VadGate implements AudioSink {
+    private static final String TAG = VadGate.class.getSimpleName();
+
+    /**
+     * 默认能量门限，16bit采样的均方根值，约为-36dBFS
+     */
+    public static final int DEFAULT_ENERGY_THRESHOLD = 500;
+
+    /**
+     * 默认过零率门限，能量较低但过零率高的音频按清辅音处理
+     */
+    public static final float DEFAULT_ZERO_CROSSING_THRESHOLD = 0.25f;
+
+    /**
+     * 默认语音结束后保持打开的时长，给引擎留出判断语音结束所需的尾部静音
+     */
+    public static final int DEFAULT_HANGOVER_MS = 800;
+
+    /**
+     * 默认预录时长
+     */
+    public static final int DEFAULT_PRE_ROLL_MS = 300;
+
+    /**
+     * 清辅音判定时能量门限的比例
+     */
+    private static final float UNVOICED_ENERGY_RATIO = 0.5f;
+
+    private static final int BYTES_PER_SAMPLE = 2;
+
+    private final AudioSink target;
+
+    private final double energyThreshold;
+
+    private final float zeroCrossingThreshold;
+
+    private final long hangoverBytes;
+
+    /**
+     * 门限关闭时保存最近的音频
+     */
+    private final PreRollBuffer preRollBuffer;
+
+    private boolean isOpen = false;
+
+    private long hangoverRemainingBytes = 0L;
+
+    /**
+     * reset可在任意线程调用，门限状态只在投递线程中修改，下一次writeAudio时生效
+     */
+    private volatile boolean isResetPending = false;
+
+    private volatile long passedBytes = 0L;
+
+    private volatile long skippedBytes = 0L;
+
+    private volatile int segmentCount = 0;
+
+    /**
+     * 使用默认参数的构造函数
+     *
+     * @param target 实际的音频消费者
+     * @param sampleRate 采样率
+     */
+    public VadGate(AudioSink target, int sampleRate) {
+        this(target, sampleRate, DEFAULT_ENERGY_THRESHOLD, DEFAULT_ZERO_CROSSING_THRESHOLD, DEFAULT_HANGOVER_MS,
+            DEFAULT_PRE_ROLL_MS);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param target 实际的音频消费者
+     * @param sampleRate 采样率
+     * @param energyThreshold 能量门限，16bit采样的均方根值
+     * @param zeroCrossingThreshold 过零率门限
+     * @param hangoverMs 语音结束后保持打开的时长
+     * @param preRollMs 预录时长
+     */
+    public VadGate(AudioSink target, int sampleRate, int energyThreshold, float zeroCrossingThreshold,
+        int hangoverMs, int preRollMs) {
+        this.target = target;
+        this.energyThreshold = energyThreshold;
+        this.zeroCrossingThreshold = zeroCrossingThreshold;
+        long bytesPerMs = (long) sampleRate * BYTES_PER_SAMPLE / 1000;
+        hangoverBytes = bytesPerMs * hangoverMs;
+        int preRollBytes = (int) (bytesPerMs * preRollMs);
+        preRollBuffer = new PreRollBuffer(preRollBytes, Math.max(preRollBytes, 1));
+    }
+
+    @Override
+    public void writeAudio(byte[] audioData, int length) {
+        if (isResetPending) {
+            isResetPending = false;
+            isOpen = false;
+            hangoverRemainingBytes = 0L;
+            preRollBuffer.clear();
+        }
+        if (length <= 0) {
+            return;
+        }
+        if (isSpeech(audioData, length)) {
+            if (!isOpen) {
+                isOpen = true;
+                segmentCount++;
+                flushPreRoll();
+            }
+            hangoverRemainingBytes = hangoverBytes;
+            pass(audioData, length);
+            return;
+        }
+        if (isOpen) {
+            pass(audioData, length);
+            hangoverRemainingBytes -= length;
+            if (hangoverRemainingBytes <= 0) {
+                isOpen = false;
+            }
+            return;
+        }
+        preRollBuffer.write(audioData, 0, length);
+        skippedBytes += length;
+    }
+
+    /**
+     * 关闭门限并清空预录音频，开始新的识别时调用，避免上一句话的拖尾和预录音频带入下一句话。
+     * 可在任意线程调用，在投递线程下一次writeAudio时生效
+     */
+    public void reset() {
+        isResetPending = true;
+    }
+
+    /**
+     * 判断一块音频是否为语音
+     *
+     * @param audioData 16bit小端PCM
+     * @param length 有效数据长度
+     * @return true表示语音
+     */
+    boolean isSpeech(byte[] audioData, int length) {
+        int sampleCount = length / BYTES_PER_SAMPLE;
+        if (sampleCount == 0) {
+            return false;
+        }
+        long sumOfSquares = 0L;
+        int crossings = 0;
+        int previous = 0;
+        for (int i = 0; i < sampleCount; i++) {
+            int sample = (short) ((audioData[2 * i] & 0xFF) | (audioData[2 * i + 1] << 8));
+            sumOfSquares += (long) sample * sample;
+            if (i > 0 && (sample >= 0) != (previous >= 0)) {
+                crossings++;
+            }
+            previous = sample;
+        }
+        double rms = Math.sqrt((double) sumOfSquares / sampleCount);
+        if (rms >= energyThreshold) {
+            return true;
+        }
+        float zeroCrossingRate = sampleCount > 1 ? (float) crossings / (sampleCount - 1) : 0f;
+        return rms >= energyThreshold * UNVOICED_ENERGY_RATIO && zeroCrossingRate >= zeroCrossingThreshold;
+    }
+
+    private void pass(byte[] audioData, int length) {
+        target.writeAudio(audioData, length);
+        passedBytes += length;
+    }
+
+    private void flushPreRoll() {
+        int preRollSize = preRollBuffer.drainTo(target);
+        if (preRollSize == 0) {
+            return;
+        }
+        passedBytes += preRollSize;
+        skippedBytes -= preRollSize;
+        Log.d(TAG, "speech start, pre-roll bytes: " + preRollSize);
+    }
+
+    /**
+     * 写入引擎的字节数，包含预录音频
+     *
+     * @return 字节数
+     */
+    public long getPassedBytes() {
+        return passedBytes;
+    }
+
+    /**
+     * 因静音未写入引擎的字节数
+     *
+     * @return 字节数
+     */
+    public long getSkippedBytes() {
+        return skippedBytes;
+    }
+
+    /**
+     * 检测到的语音段数
+     *
+     * @return 段数
+     */
+    public int getSegmentCount() {
+        return segmentCount;
+    }
+
+    /**
+     * 统计信息，用于日志输出
+     *
+     * @return 统计信息
+     */
+    public String getStatistics() {
+        return "passed=" + passedBytes + ", skipped=" + skippedBytes + ", segments=" + segmentCount;
+    }
+}
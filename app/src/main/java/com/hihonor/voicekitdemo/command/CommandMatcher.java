@@ -0,0 +1,506 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.command;
+
+import android.util.Log;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 命令词匹配器
+ * 把命令词及其同义词编译为按char转移的Aho-Corasick自动机，一次扫描找出文本中出现的所有命令词，
+ * 耗时与文本长度成正比，与命令词个数无关。转移表按状态连续存放在数组中，每个状态的出边按字符排序后二分查找。
+ * 匹配时忽略英文大小写、空白和标点。编译后不可变，可在多个线程中共用
+ *
+ * @since 2024-07-18
+ */
+public final class CommandMatcher {
+    /**
+     * 场景化引擎命令词列表的分隔符
+     */
+    public static final String KEYWORD_DELIMITER = "；";
+
+    private static final String TAG = CommandMatcher.class.getSimpleName();
+
+    private static final int ROOT = 0;
+
+    private static final int NO_STATE = -1;
+
+    private final String[] commands;
+
+    private final String[] phrases;
+
+    /**
+     * 每个短语所属命令的下标
+     */
+    private final int[] phraseCommands;
+
+    /**
+     * 每个短语忽略空白和标点后的长度
+     */
+    private final int[] phraseLengths;
+
+    /**
+     * 状态i的出边为edgeChars[edgeOffsets[i]]到edgeChars[edgeOffsets[i + 1] - 1]
+     */
+    private final int[] edgeOffsets;
+
+    private final char[] edgeChars;
+
+    private final int[] edgeTargets;
+
+    private final int[] failures;
+
+    /**
+     * 在该状态结束的短语下标，没有为-1
+     */
+    private final int[] outputs;
+
+    /**
+     * 沿失败链最近的有短语结束的状态，没有为-1
+     */
+    private final int[] outputLinks;
+
+    private CommandMatcher(String[] commands, String[] phrases, int[] phraseCommands, int[] phraseLengths,
+        Trie trie) {
+        this.commands = commands;
+        this.phrases = phrases;
+        this.phraseCommands = phraseCommands;
+        this.phraseLengths = phraseLengths;
+        int stateCount = trie.children.size();
+        edgeOffsets = new int[stateCount + 1];
+        edgeChars = new char[trie.edgeCount];
+        edgeTargets = new int[trie.edgeCount];
+        int edge = 0;
+        for (int state = 0; state < stateCount; state++) {
+            edgeOffsets[state] = edge;
+            Map<Character, Integer> children = trie.children.get(state);
+            Character[] keys = children.keySet().toArray(new Character[0]);
+            Arrays.sort(keys);
+            for (Character key : keys) {
+                edgeChars[edge] = key;
+                edgeTargets[edge] = children.get(key);
+                edge++;
+            }
+        }
+        edgeOffsets[stateCount] = edge;
+        outputs = trie.toOutputArray();
+        failures = new int[stateCount];
+        outputLinks = new int[stateCount];
+        linkFailures();
+    }
+
+    /**
+     * 编译命令词
+     *
+     * @param synonymsByCommand 命令及其同义词，命令本身也作为一个短语；同一短语属于多个命令时以先出现的为准
+     * @return 匹配器
+     */
+    public static CommandMatcher compile(Map<String, ? extends Collection<String>> synonymsByCommand) {
+        List<String> commandList = new ArrayList<>(synonymsByCommand.keySet());
+        List<String> phraseList = new ArrayList<>();
+        List<Integer> commandIndexes = new ArrayList<>();
+        List<Integer> lengths = new ArrayList<>();
+        Trie trie = new Trie();
+        for (int command = 0; command < commandList.size(); command++) {
+            String name = commandList.get(command);
+            List<String> candidates = new ArrayList<>();
+            candidates.add(name);
+            candidates.addAll(synonymsByCommand.get(name));
+            for (String phrase : candidates) {
+                int length = trie.insert(phrase, phraseList.size());
+                if (length > 0) {
+                    phraseList.add(phrase);
+                    commandIndexes.add(command);
+                    lengths.add(length);
+                } else if (length < 0) {
+                    Log.w(TAG, "duplicate phrase ignored: " + phrase + " of " + name);
+                }
+            }
+        }
+        int[] phraseCommands = new int[phraseList.size()];
+        int[] phraseLengths = new int[phraseList.size()];
+        for (int i = 0; i < phraseCommands.length; i++) {
+            phraseCommands[i] = commandIndexes.get(i);
+            phraseLengths[i] = lengths.get(i);
+        }
+        return new CommandMatcher(commandList.toArray(new String[0]), phraseList.toArray(new String[0]),
+            phraseCommands, phraseLengths, trie);
+    }
+
+    /**
+     * 编译场景化引擎使用的命令词列表，每个关键词是一个没有同义词的命令
+     *
+     * @param keywordList 以“；”分隔的关键词列表
+     * @return 匹配器
+     */
+    public static CommandMatcher fromKeywordList(String keywordList) {
+        Map<String, List<String>> synonymsByCommand = new LinkedHashMap<>();
+        for (String keyword : keywordList.split(KEYWORD_DELIMITER)) {
+            String command = keyword.trim();
+            if (!command.isEmpty()) {
+                synonymsByCommand.put(command, Collections.emptyList());
+            }
+        }
+        return compile(synonymsByCommand);
+    }
+
+    /**
+     * 匹配时使用的字符，英文转为小写，空白和标点返回0表示跳过
+     */
+    static char normalize(char ch) {
+        if (Character.isWhitespace(ch) || isPunctuation(ch)) {
+            return 0;
+        }
+        return ch < 0x80 ? Character.toLowerCase(ch) : ch;
+    }
+
+    private static boolean isPunctuation(char ch) {
+        switch (Character.getType(ch)) {
+            case Character.CONNECTOR_PUNCTUATION:
+            case Character.DASH_PUNCTUATION:
+            case Character.START_PUNCTUATION:
+            case Character.END_PUNCTUATION:
+            case Character.INITIAL_QUOTE_PUNCTUATION:
+            case Character.FINAL_QUOTE_PUNCTUATION:
+            case Character.OTHER_PUNCTUATION:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * 按广度优先顺序计算失败链接，子状态的失败状态是父状态失败链上第一个有相同出边的状态
+     */
+    private void linkFailures() {
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        failures[ROOT] = ROOT;
+        outputLinks[ROOT] = NO_STATE;
+        for (int edge = edgeOffsets[ROOT]; edge < edgeOffsets[ROOT + 1]; edge++) {
+            int child = edgeTargets[edge];
+            failures[child] = ROOT;
+            outputLinks[child] = NO_STATE;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            for (int edge = edgeOffsets[state]; edge < edgeOffsets[state + 1]; edge++) {
+                int child = edgeTargets[edge];
+                int failure = step(failures[state], edgeChars[edge]);
+                failures[child] = failure;
+                outputLinks[child] = outputs[failure] >= 0 ? failure : outputLinks[failure];
+                queue.add(child);
+            }
+        }
+    }
+
+    private int step(int state, char ch) {
+        int current = state;
+        while (true) {
+            int next = transition(current, ch);
+            if (next != NO_STATE) {
+                return next;
+            }
+            if (current == ROOT) {
+                return ROOT;
+            }
+            current = failures[current];
+        }
+    }
+
+    private int transition(int state, char ch) {
+        int low = edgeOffsets[state];
+        int high = edgeOffsets[state + 1] - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            char edgeChar = edgeChars[middle];
+            if (edgeChar < ch) {
+                low = middle + 1;
+            } else if (edgeChar > ch) {
+                high = middle - 1;
+            } else {
+                return edgeTargets[middle];
+            }
+        }
+        return NO_STATE;
+    }
+
+    /**
+     * 查找文本中出现的所有命令词，按结束位置排序，同一位置结束的按长度从长到短
+     *
+     * @param text 文本
+     * @return 匹配结果
+     */
+    public List<Match> findAll(CharSequence text) {
+        Scanner scanner = newScanner();
+        return scanner.scan(text);
+    }
+
+    /**
+     * 创建流式扫描器，用于匹配同一句话不断更新的中间结果
+     *
+     * @return 扫描器
+     */
+    public Scanner newScanner() {
+        return new Scanner();
+    }
+
+    /**
+     * 命令个数
+     *
+     * @return 命令个数
+     */
+    public int getCommandCount() {
+        return commands.length;
+    }
+
+    /**
+     * 短语个数，包括命令本身和同义词
+     *
+     * @return 短语个数
+     */
+    public int getPhraseCount() {
+        return phrases.length;
+    }
+
+    /**
+     * 自动机状态个数
+     *
+     * @return 状态个数
+     */
+    public int getStateCount() {
+        return failures.length;
+    }
+
+    /**
+     * 编译期间使用的字典树，每个节点的出边保存在哈希表中
+     *
+     * @since 2024-07-18
+     */
+    private static final class Trie {
+        private final List<Map<Character, Integer>> children = new ArrayList<>();
+
+        private final List<Integer> outputs = new ArrayList<>();
+
+        private int edgeCount = 0;
+
+        Trie() {
+            addState();
+        }
+
+        private int addState() {
+            children.add(new HashMap<>(4));
+            outputs.add(NO_STATE);
+            return children.size() - 1;
+        }
+
+        /**
+         * 插入短语
+         *
+         * @return 忽略空白和标点后的长度；短语为空时返回0，已存在时返回-1
+         */
+        int insert(String phrase, int phraseIndex) {
+            int state = ROOT;
+            int length = 0;
+            for (int i = 0; i < phrase.length(); i++) {
+                char ch = normalize(phrase.charAt(i));
+                if (ch == 0) {
+                    continue;
+                }
+                Integer next = children.get(state).get(ch);
+                if (next == null) {
+                    next = addState();
+                    children.get(state).put(ch, next);
+                    edgeCount++;
+                }
+                state = next;
+                length++;
+            }
+            if (length == 0) {
+                return 0;
+            }
+            if (outputs.get(state) != NO_STATE) {
+                return -1;
+            }
+            outputs.set(state, phraseIndex);
+            return length;
+        }
+
+        int[] toOutputArray() {
+            int[] array = new int[outputs.size()];
+            for (int i = 0; i < array.length; i++) {
+                array[i] = outputs.get(i);
+            }
+            return array;
+        }
+    }
+
+    /**
+     * 流式扫描器
+     * 中间结果通常是在上一次结果后追加文字，偶尔会修改末尾的几个字。扫描器记录每个位置的自动机状态，
+     * 新结果只从与上一次结果不同的位置继续扫描，并只返回结束在该位置之后的匹配，同一命令不会因为前缀未变而重复返回。
+     * 非线程安全，每句话开始时调用reset
+     *
+     * @since 2024-07-18
+     */
+    public final class Scanner {
+        private final StringBuilder scannedText = new StringBuilder();
+
+        /**
+         * states[i]为扫描完前i个字符后的状态
+         */
+        private int[] states = new int[64];
+
+        /**
+         * keptCounts[i]为前i个字符中参与匹配的字符个数
+         */
+        private int[] keptCounts = new int[64];
+
+        /**
+         * 第k个参与匹配的字符在文本中的位置
+         */
+        private int[] keptPositions = new int[64];
+
+        private Scanner() {
+        }
+
+        /**
+         * 扫描一句话最新的中间结果或最终结果
+         *
+         * @param text 这句话到目前为止的完整文本
+         * @return 新出现的匹配，按结束位置排序
+         */
+        public List<Match> scan(CharSequence text) {
+            int length = text.length();
+            int common = commonPrefixLength(text);
+            ensureCapacity(length + 1);
+            scannedText.setLength(common);
+            List<Match> matches = new ArrayList<>(2);
+            int state = states[common];
+            int kept = keptCounts[common];
+            for (int i = common; i < length; i++) {
+                char original = text.charAt(i);
+                scannedText.append(original);
+                char ch = normalize(original);
+                if (ch != 0) {
+                    keptPositions[kept++] = i;
+                    state = step(state, ch);
+                    collect(state, kept, i + 1, matches);
+                }
+                states[i + 1] = state;
+                keptCounts[i + 1] = kept;
+            }
+            return matches;
+        }
+
+        /**
+         * 开始新的一句话
+         */
+        public void reset() {
+            scannedText.setLength(0);
+        }
+
+        private int commonPrefixLength(CharSequence text) {
+            int limit = Math.min(scannedText.length(), text.length());
+            int index = 0;
+            while (index < limit && scannedText.charAt(index) == text.charAt(index)) {
+                index++;
+            }
+            return index;
+        }
+
+        private void collect(int state, int kept, int end, List<Match> matches) {
+            int current = outputs[state] >= 0 ? state : outputLinks[state];
+            while (current != NO_STATE) {
+                int phrase = outputs[current];
+                int start = keptPositions[kept - phraseLengths[phrase]];
+                matches.add(new Match(commands[phraseCommands[phrase]], phrases[phrase], start, end));
+                current = outputLinks[current];
+            }
+        }
+
+        private void ensureCapacity(int size) {
+            if (states.length >= size) {
+                return;
+            }
+            int capacity = Math.max(size, states.length * 2);
+            states = Arrays.copyOf(states, capacity);
+            keptCounts = Arrays.copyOf(keptCounts, capacity);
+            keptPositions = Arrays.copyOf(keptPositions, capacity);
+        }
+    }
+
+    /**
+     * 一次命令词匹配
+     *
+     * @since 2024-07-18
+     */
+    public static final class Match {
+        private final String command;
+
+        private final String phrase;
+
+        private final int start;
+
+        private final int end;
+
+        Match(String command, String phrase, int start, int end) {
+            this.command = command;
+            this.phrase = phrase;
+            this.start = start;
+            this.end = end;
+        }
+
+        /**
+         * 命中的命令
+         *
+         * @return 命令
+         */
+        public String getCommand() {
+            return command;
+        }
+
+        /**
+         * 命中的短语，命令本身或同义词
+         *
+         * @return 短语
+         */
+        public String getPhrase() {
+            return phrase;
+        }
+
+        /**
+         * 在文本中的起始位置
+         *
+         * @return 起始位置
+         */
+        public int getStart() {
+            return start;
+        }
+
+        /**
+         * 在文本中的结束位置，不包含
+         *
+         * @return 结束位置
+         */
+        public int getEnd() {
+            return end;
+        }
+
+        @Override
+        public String toString() {
+            return command + "(" + phrase + ")@" + start + "-" + end;
+        }
+    }
+}
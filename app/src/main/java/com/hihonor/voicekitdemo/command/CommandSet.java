@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.command;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 带版本号的场景化命令词集合
+ * 构造时去除空白和重复的关键词，并预先拼接好注册给场景化引擎的“；”分隔列表，切换时不再拼接字符串。
+ * 同一名称的集合以版本号区分新旧，不可变，可在多个线程中共用
+ *
+ * @since 2024-07-18
+ */
+public final class CommandSet {
+    private final String name;
+
+    private final long version;
+
+    private final List<String> keywords;
+
+    private final String payload;
+
+    private CommandSet(String name, long version, List<String> keywords) {
+        this.name = name;
+        this.version = version;
+        this.keywords = Collections.unmodifiableList(keywords);
+        this.payload = String.join(CommandMatcher.KEYWORD_DELIMITER, keywords);
+    }
+
+    /**
+     * 创建命令词集合
+     *
+     * @param name 名称，如camera、call
+     * @param version 版本号，同一名称的新版本应大于旧版本
+     * @param keywords 关键词，首尾空白和重复的关键词会被忽略
+     * @return 命令词集合
+     */
+    public static CommandSet of(String name, long version, Collection<String> keywords) {
+        Set<String> unique = new LinkedHashSet<>();
+        for (String keyword : keywords) {
+            String trimmed = keyword.trim();
+            if (!trimmed.isEmpty()) {
+                unique.add(trimmed);
+            }
+        }
+        if (unique.isEmpty()) {
+            throw new IllegalArgumentException(name + " has no keyword");
+        }
+        return new CommandSet(name, version, new ArrayList<>(unique));
+    }
+
+    /**
+     * 从“；”分隔的关键词列表创建命令词集合
+     *
+     * @param name 名称
+     * @param version 版本号
+     * @param keywordList 以“；”分隔的关键词列表
+     * @return 命令词集合
+     */
+    public static CommandSet fromKeywordList(String name, long version, String keywordList) {
+        List<String> keywords = new ArrayList<>();
+        Collections.addAll(keywords, keywordList.split(CommandMatcher.KEYWORD_DELIMITER));
+        return of(name, version, keywords);
+    }
+
+    /**
+     * 是否比另一个集合新，名称不同时返回false
+     *
+     * @param other 另一个集合，可以为null
+     * @return true表示名称相同且版本号更大，或other为null
+     */
+    public boolean isNewerThan(CommandSet other) {
+        return other == null || (name.equals(other.name) && version > other.version);
+    }
+
+    /**
+     * 名称
+     *
+     * @return 名称
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 版本号
+     *
+     * @return 版本号
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * 去重后的关键词，按加入顺序排列
+     *
+     * @return 不可修改的关键词列表
+     */
+    public List<String> getKeywords() {
+        return keywords;
+    }
+
+    /**
+     * 注册给场景化引擎的关键词列表，也用作引擎池的键
+     *
+     * @return 以“；”分隔的关键词列表
+     */
+    public String getPayload() {
+        return payload;
+    }
+
+    @Override
+    public String toString() {
+        return name + "@" + version + "[" + keywords.size() + "]";
+    }
+}
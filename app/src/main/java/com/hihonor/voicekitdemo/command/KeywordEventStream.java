@@ -0,0 +1,454 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.command;
+
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+/**
+ * 场景化关键词事件流
+ * 场景化引擎对同一句话可能连续回调多个关键词，如“拍照”后紧接着“茄子”。第一个关键词到达时打开一个固定时长的窗口，
+ * 窗口结束时把窗口内的关键词按规则映射为动作：同一动作只保留第一次命中，不同动作之间只保留优先级最高的一个，
+ * 动作触发后在冷却时间内再次命中直接丢弃，因此一句话只触发一次，延迟不超过窗口时长。
+ * 关键词通过无锁队列交给单个调度线程处理，处理结果再通过无锁队列交给下游；offer可在任意线程中调用
+ *
+ * @since 2024-07-18
+ */
+public class KeywordEventStream {
+    /**
+     * 默认窗口时长
+     */
+    public static final long DEFAULT_WINDOW_MS = 300L;
+
+    /**
+     * 没有设置规则的关键词使用的冷却时间
+     */
+    public static final long DEFAULT_COOLDOWN_MS = 1000L;
+
+    private static final String TAG = KeywordEventStream.class.getSimpleName();
+
+    private final long windowNanos;
+
+    private final ScheduledExecutorService scheduler;
+
+    private final LongSupplier ticker;
+
+    private final Map<String, Rule> rules = new ConcurrentHashMap<>();
+
+    private final ConcurrentLinkedQueue<Hit> hits = new ConcurrentLinkedQueue<>();
+
+    private final ConcurrentLinkedQueue<KeywordEvent> events = new ConcurrentLinkedQueue<>();
+
+    private final AtomicBoolean isWindowOpen = new AtomicBoolean(false);
+
+    /**
+     * 各动作冷却结束的时间，只在调度线程中访问
+     */
+    private final Map<String, Long> cooldownDeadlines = new HashMap<>();
+
+    private volatile EventListener eventListener;
+
+    private volatile Executor listenerExecutor;
+
+    private volatile boolean isClosed = false;
+
+    private volatile long emittedCount = 0L;
+
+    private volatile long duplicateCount = 0L;
+
+    private volatile long cooldownCount = 0L;
+
+    private volatile long conflictCount = 0L;
+
+    private volatile long maxLatencyNanos = 0L;
+
+    /**
+     * 事件监听
+     *
+     * @since 2024-07-18
+     */
+    public interface EventListener {
+        /**
+         * 有新的关键词事件
+         *
+         * @param event 事件
+         */
+        void onEvent(KeywordEvent event);
+    }
+
+    /**
+     * 构造函数，使用内部的调度线程
+     *
+     * @param windowMs 窗口时长，也是事件的最大延迟
+     */
+    public KeywordEventStream(long windowMs) {
+        this(windowMs, newScheduler(), System::nanoTime);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param windowMs 窗口时长
+     * @param scheduler 处理窗口的单线程调度器
+     * @param ticker 纳秒时钟
+     */
+    KeywordEventStream(long windowMs, ScheduledExecutorService scheduler, LongSupplier ticker) {
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMs);
+        this.scheduler = scheduler;
+        this.ticker = ticker;
+    }
+
+    private static ScheduledExecutorService newScheduler() {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "KeywordEvents");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
+    }
+
+    /**
+     * 设置关键词规则，可在运行中修改
+     *
+     * @param keyword 关键词
+     * @param action 动作，多个同义关键词映射到同一动作
+     * @param priority 优先级，同一窗口内命中多个动作时只保留优先级最高的
+     * @param cooldownMs 动作触发后的冷却时间
+     */
+    public void setRule(String keyword, String action, int priority, long cooldownMs) {
+        rules.put(keyword, new Rule(action, priority, TimeUnit.MILLISECONDS.toNanos(cooldownMs)));
+    }
+
+    /**
+     * 设置事件监听，事件产生后在executor中从队列取出并回调；不设置时由下游调用poll获取
+     *
+     * @param listener 监听，为null时取消
+     * @param executor 回调所在的线程
+     */
+    public void setEventListener(EventListener listener, Executor executor) {
+        listenerExecutor = executor;
+        eventListener = listener;
+    }
+
+    /**
+     * 提交引擎回调的关键词，不阻塞
+     *
+     * @param keyword 关键词
+     */
+    public void offer(String keyword) {
+        if (keyword == null || keyword.isEmpty() || isClosed) {
+            return;
+        }
+        hits.offer(new Hit(keyword, ticker.getAsLong()));
+        openWindow();
+    }
+
+    private void openWindow() {
+        if (isWindowOpen.compareAndSet(false, true)) {
+            scheduler.schedule(this::closeWindow, windowNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * 窗口结束，在调度线程中调用
+     */
+    void closeWindow() {
+        List<Hit> window = new ArrayList<>();
+        Hit hit;
+        while ((hit = hits.poll()) != null) {
+            window.add(hit);
+        }
+        isWindowOpen.set(false);
+        if (!window.isEmpty()) {
+            resolve(window);
+        }
+        // 取出队列后、关闭窗口前到达的关键词没有打开新的窗口
+        if (!hits.isEmpty()) {
+            openWindow();
+        }
+    }
+
+    private void resolve(List<Hit> window) {
+        long now = ticker.getAsLong();
+        Map<String, Candidate> candidates = new LinkedHashMap<>();
+        for (Hit hit : window) {
+            Rule rule = ruleOf(hit.keyword);
+            Long cooldownDeadline = cooldownDeadlines.get(rule.action);
+            if (cooldownDeadline != null && hit.nanos < cooldownDeadline) {
+                cooldownCount++;
+                continue;
+            }
+            Candidate candidate = candidates.get(rule.action);
+            if (candidate != null) {
+                candidate.hitCount++;
+                duplicateCount++;
+            } else {
+                candidates.put(rule.action, new Candidate(hit, rule));
+            }
+        }
+        Candidate winner = null;
+        for (Candidate candidate : candidates.values()) {
+            if (winner == null || candidate.rule.priority > winner.rule.priority) {
+                winner = candidate;
+            }
+        }
+        if (winner == null) {
+            return;
+        }
+        conflictCount += candidates.size() - 1;
+        cooldownDeadlines.put(winner.rule.action, now + winner.rule.cooldownNanos);
+        long latencyNanos = now - winner.hit.nanos;
+        maxLatencyNanos = Math.max(maxLatencyNanos, latencyNanos);
+        emittedCount++;
+        KeywordEvent event = new KeywordEvent(winner.rule.action, winner.hit.keyword, winner.rule.priority,
+            winner.hitCount, latencyNanos);
+        Log.d(TAG, "emit " + event + ", candidates: " + candidates.keySet());
+        if (isClosed) {
+            // close与正在结束的窗口并发
+            return;
+        }
+        events.offer(event);
+        dispatch();
+    }
+
+    private Rule ruleOf(String keyword) {
+        Rule rule = rules.get(keyword);
+        return rule != null ? rule : new Rule(keyword, 0, TimeUnit.MILLISECONDS.toNanos(DEFAULT_COOLDOWN_MS));
+    }
+
+    private void dispatch() {
+        EventListener listener = eventListener;
+        Executor executor = listenerExecutor;
+        if (listener == null || executor == null) {
+            return;
+        }
+        executor.execute(() -> {
+            KeywordEvent event;
+            // 监听被替换或stream已关闭后不再回调旧的监听
+            while (eventListener == listener && (event = events.poll()) != null) {
+                listener.onEvent(event);
+            }
+        });
+    }
+
+    /**
+     * 取出下一个事件，不阻塞
+     *
+     * @return 事件，没有时为null
+     */
+    public KeywordEvent poll() {
+        return events.poll();
+    }
+
+    /**
+     * 停止内部的调度线程，未结束的窗口和未取出的事件被丢弃，不再回调监听
+     */
+    public void close() {
+        isClosed = true;
+        eventListener = null;
+        listenerExecutor = null;
+        scheduler.shutdownNow();
+        hits.clear();
+        events.clear();
+    }
+
+    /**
+     * 统计信息，用于日志输出
+     *
+     * @return 统计信息
+     */
+    public String getStatistics() {
+        return "emitted=" + emittedCount + ", duplicates=" + duplicateCount + ", cooldown=" + cooldownCount
+            + ", conflicts=" + conflictCount + ", maxLatencyMs=" + TimeUnit.NANOSECONDS.toMillis(maxLatencyNanos);
+    }
+
+    /**
+     * 触发的事件个数
+     *
+     * @return 个数
+     */
+    public long getEmittedCount() {
+        return emittedCount;
+    }
+
+    /**
+     * 同一窗口内重复命中同一动作而被合并的关键词个数
+     *
+     * @return 个数
+     */
+    public long getDuplicateCount() {
+        return duplicateCount;
+    }
+
+    /**
+     * 冷却时间内命中而被丢弃的关键词个数
+     *
+     * @return 个数
+     */
+    public long getCooldownCount() {
+        return cooldownCount;
+    }
+
+    /**
+     * 同一窗口内因优先级较低而被丢弃的动作个数
+     *
+     * @return 个数
+     */
+    public long getConflictCount() {
+        return conflictCount;
+    }
+
+    /**
+     * 从第一次命中到事件进入队列的最长耗时
+     *
+     * @return 纳秒
+     */
+    public long getMaxLatencyNanos() {
+        return maxLatencyNanos;
+    }
+
+    /**
+     * 关键词规则
+     *
+     * @since 2024-07-18
+     */
+    private static final class Rule {
+        private final String action;
+
+        private final int priority;
+
+        private final long cooldownNanos;
+
+        Rule(String action, int priority, long cooldownNanos) {
+            this.action = action;
+            this.priority = priority;
+            this.cooldownNanos = cooldownNanos;
+        }
+    }
+
+    /**
+     * 一次关键词回调
+     *
+     * @since 2024-07-18
+     */
+    private static final class Hit {
+        private final String keyword;
+
+        private final long nanos;
+
+        Hit(String keyword, long nanos) {
+            this.keyword = keyword;
+            this.nanos = nanos;
+        }
+    }
+
+    /**
+     * 窗口内某个动作的第一次命中
+     *
+     * @since 2024-07-18
+     */
+    private static final class Candidate {
+        private final Hit hit;
+
+        private final Rule rule;
+
+        private int hitCount = 1;
+
+        Candidate(Hit hit, Rule rule) {
+            this.hit = hit;
+            this.rule = rule;
+        }
+    }
+
+    /**
+     * 关键词事件
+     *
+     * @since 2024-07-18
+     */
+    public static final class KeywordEvent {
+        private final String action;
+
+        private final String keyword;
+
+        private final int priority;
+
+        private final int hitCount;
+
+        private final long latencyNanos;
+
+        KeywordEvent(String action, String keyword, int priority, int hitCount, long latencyNanos) {
+            this.action = action;
+            this.keyword = keyword;
+            this.priority = priority;
+            this.hitCount = hitCount;
+            this.latencyNanos = latencyNanos;
+        }
+
+        /**
+         * 动作
+         *
+         * @return 动作
+         */
+        public String getAction() {
+            return action;
+        }
+
+        /**
+         * 窗口内第一个命中该动作的关键词
+         *
+         * @return 关键词
+         */
+        public String getKeyword() {
+            return keyword;
+        }
+
+        /**
+         * 优先级
+         *
+         * @return 优先级
+         */
+        public int getPriority() {
+            return priority;
+        }
+
+        /**
+         * 窗口内命中该动作的次数
+         *
+         * @return 次数
+         */
+        public int getHitCount() {
+            return hitCount;
+        }
+
+        /**
+         * 从第一次命中到事件进入队列的耗时
+         *
+         * @return 纳秒
+         */
+        public long getLatencyNanos() {
+            return latencyNanos;
+        }
+
+        @Override
+        public String toString() {
+            return action + "(" + keyword + ", priority=" + priority + ", hits=" + hitCount + ", latencyMs="
+                + TimeUnit.NANOSECONDS.toMillis(latencyNanos) + ")";
+        }
+    }
+}
@@ -6,32 +6,48 @@ package com.hihonor.voicekitdemo.demo;
 
 import android.Manifest;
 import android.content.pm.PackageManager;
-import android.media.AudioFormat;
-import android.media.AudioRecord;
-import android.media.MediaRecorder;
 import android.os.Bundle;
+import android.os.Process;
 import android.util.Log;
 import android.widget.Button;
 
-import com.hihonor.mcs.intelligence.voice.SupportListener;
-import com.hihonor.mcs.intelligence.voice.Voices;
 import com.hihonor.mcs.intelligence.voice.asr.interfaces.AsrListener;
 import com.hihonor.mcs.intelligence.voice.asr.interfaces.AsrRecognizer;
 import com.hihonor.mcs.intelligence.voice.asr.result.AsrResult;
 import com.hihonor.voicekitdemo.R;
-import com.hihonor.voicekitdemo.utils.SingleThreadPool;
+import com.hihonor.voicekitdemo.audio.AudioSink;
+import com.hihonor.voicekitdemo.audio.CaptureHub;
+import com.hihonor.voicekitdemo.audio.FrameAssembler;
+import com.hihonor.voicekitdemo.audio.PreRollBuffer;
+import com.hihonor.voicekitdemo.audio.RmsMeter;
+import com.hihonor.voicekitdemo.audio.VadGate;
+import com.hihonor.voicekitdemo.command.CommandMatcher;
+import com.hihonor.voicekitdemo.engine.AsrSpeechEngine;
+import com.hihonor.voicekitdemo.engine.ContinuousRecognizer;
+import com.hihonor.voicekitdemo.engine.FileTranscriber;
+import com.hihonor.voicekitdemo.engine.RecognizerPool;
+import com.hihonor.voicekitdemo.engine.RecognizerPools;
+import com.hihonor.voicekitdemo.engine.SessionStateMachine;
+import com.hihonor.voicekitdemo.engine.SpeechEngine;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * 基础语音能力示例
  * 使用步骤：
- * 1、创建asr对象
+ * 1、从引擎池租用已初始化的asr对象，池中没有空闲引擎时会创建asr对象并初始化
  * 2、创建asr回调对象
- * 3、设置初始化参数、使用回调对象初始化asr引擎
+ * 3、租用完成即表示引擎已初始化，无需每次等待init回调
  * 4、初始化成功回调之后，调用开始识别startRecognize
  * 5、写入音频流，调用writeAudio
  * 6、停止写入音频流，停止/取消识别（与startRecognize对应）
- * 7、循环使用步骤4-6
- * 8、销毁引擎
+ * 7、循环使用步骤4-6，或使用连续识别，每句话结束后自动重新开始识别，录音不中断
+ * 8、归还引擎，引擎池会重置后复用，空闲超时后销毁
+ * 初始化后也可以转写应用外部存储transcribe目录下的WAV/PCM文件，输出每个文件的实时率
  *
  * @since 2024-07-18
  */
@@ -40,6 +56,27 @@ public class AsrDemoActivity extends BaseDemoActivity {
 
     private static final int SAMPLE_RATE_IN_HZ = 16000;
 
+    // 写入引擎的音频帧时长，短读会被拼接成完整的帧
+    private static final int FRAME_DURATION_MS = 40;
+
+    // 16k单声道16bit音频，40ms一帧为1280字节
+    private static final int FRAME_SIZE_IN_BYTES = FrameAssembler.frameSizeInBytes(SAMPLE_RATE_IN_HZ, 1, 2,
+        FRAME_DURATION_MS);
+
+    // 开始识别前保留的音频时长，开始识别时先写入引擎
+    private static final int PRE_ROLL_DURATION_MS = 1000;
+
+    // 待转写的WAV/PCM文件所在的外部存储目录
+    private static final String TRANSCRIBE_DIR = "transcribe";
+
+    private static final String TRANSCRIBE_THREAD_NAME = "AsrFileTranscriber";
+
+    // 音量统计窗口包含的音量值个数
+    private static final int RMS_WINDOW_SIZE = 50;
+
+    // 音量统计日志的最小输出间隔
+    private static final long RMS_LOG_INTERVAL_MS = 1000L;
+
     private Button btnInit;
 
     private Button btnStartRecognize;
@@ -52,21 +89,54 @@ public class AsrDemoActivity extends BaseDemoActivity {
 
     private Button btnCancelRecognize;
 
+    private Button btnContinuousRecognize;
+
+    private Button btnTranscribeFiles;
+
     private Button btnDestroy;
 
-    private AsrRecognizer asrRecognizer;
+    private volatile AsrRecognizer asrRecognizer;
+
+    // 从引擎池租用引擎的结果，只在主线程访问
+    private CompletableFuture<AsrRecognizer> engineLease;
 
     private AsrListener asrListener;
 
-    // 指定最小录音缓冲区大小
-    private int mBufferSizeInBytes;
+    // 单句识别使用的引擎，包装asrRecognizer
+    private volatile SpeechEngine speechEngine;
 
-    // 录音对象
-    private AudioRecord audioRecord;
+    private SpeechEngine.Listener speechListener;
 
-    private boolean isRecording = false;
+    // 在中间结果中匹配场景化命令词，只在识别回调线程中访问，每句话开始和结束时重置
+    private final CommandMatcher.Scanner commandScanner = CommandMatcher.fromKeywordList(
+        ScenarioDemoActivity.COMMAND_KEYWORD_LIST).newScanner();
 
-    private volatile boolean isInitialized = false;
+    // 连续识别，为null时为单句识别
+    private volatile ContinuousRecognizer continuousRecognizer;
+
+    // 文件转写，转写期间引擎不接收录音，只在主线程访问
+    private FileTranscriber fileTranscriber;
+
+    // 文件转写任务，转写线程仍在使用引擎时不能归还引擎，只在主线程访问
+    private CompletableFuture<?> transcription;
+
+    // 静音时不写入引擎的语音活动检测门限，作为麦克风采集中心的订阅者，在投递线程中调用
+    private VadGate vadGate;
+
+    // 开始识别前的音频保存在预录缓冲区中，只在投递线程中访问
+    private final PreRollBuffer preRollBuffer = PreRollBuffer.ofDuration(SAMPLE_RATE_IN_HZ, 1, PRE_ROLL_DURATION_MS,
+        FRAME_SIZE_IN_BYTES);
+
+    // 由投递线程在写入下一帧之前把预录音频写入引擎
+    private final AtomicBoolean isPreRollFlushPending = new AtomicBoolean(false);
+
+    private final AudioSink engineSink = this::writeToEngine;
+
+    // 音量统计，替代每次回调都输出日志
+    private final RmsMeter rmsMeter = new RmsMeter(RMS_WINDOW_SIZE);
+
+    // 会话状态，按钮回调、引擎回调和投递线程通过CAS迁移，互不阻塞
+    private final SessionStateMachine session = new SessionStateMachine();
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -75,6 +145,9 @@ public class AsrDemoActivity extends BaseDemoActivity {
         setContentView(R.layout.activity_asr_demo);
         initView();
         initClickListener();
+        session.setTransitionListener((from, to, elapsedNanos) -> Log.d(TAG, "session " + from + " -> " + to
+            + ", stayed ms: " + TimeUnit.NANOSECONDS.toMillis(elapsedNanos)));
+        rmsMeter.subscribe(this::logRms, RMS_LOG_INTERVAL_MS);
     }
 
     private void initView() {
@@ -84,6 +157,8 @@ public class AsrDemoActivity extends BaseDemoActivity {
         btnStopRecord = findViewById(R.id.asr_stop_record);
         btnStopRecognize = findViewById(R.id.asr_stop_recognize);
         btnCancelRecognize = findViewById(R.id.asr_cancel_recognize);
+        btnContinuousRecognize = findViewById(R.id.asr_continuous_recognize);
+        btnTranscribeFiles = findViewById(R.id.asr_transcribe_files);
         btnDestroy = findViewById(R.id.asr_destroy);
         tvShowResult = findViewById(R.id.asr_show_result);
     }
@@ -97,6 +172,8 @@ public class AsrDemoActivity extends BaseDemoActivity {
         // 调用stopRecognize/cancelRecognize之后如果想再次开启语音识别，需要先调用startRecognize
         btnStopRecognize.setOnClickListener(view -> stopRecognize());
         btnCancelRecognize.setOnClickListener(view -> cancelRecognize());
+        btnContinuousRecognize.setOnClickListener(view -> startContinuousRecognize());
+        btnTranscribeFiles.setOnClickListener(view -> transcribeFiles());
         btnDestroy.setOnClickListener(view -> destroy());
     }
 
@@ -108,36 +185,41 @@ public class AsrDemoActivity extends BaseDemoActivity {
     }
 
     private void init() {
-        if (asrRecognizer == null) {
-            Log.d(TAG, "getAsrClient");
-            asrRecognizer = Voices.getAsrClient(getApplicationContext());
+        if (!session.transition(SessionStateMachine.State.IDLE, SessionStateMachine.State.INITIALIZING)) {
+            Log.i(TAG, "init ignored, session state: " + session.getState());
+            if (session.isInitialized()) {
+                showToast("Init Success");
+            }
+            return;
         }
-        isInitialized = false;
         initAsrListener();
-        // 使用初始化参数、回调对象初始化ASR引擎
-        asrRecognizer.init(new SupportListener() {
-            /**
-             * 初始化成功
-             */
-            @Override
-            public void onSupport() {
-                // 初始化成功之后，需要调用startRecognize开始识别，并开始录音调用writeAudio写入音频流数据
-                isInitialized = true;
-                Log.d(TAG, "onSupport");
-                showToast("Init Success");
+        // 从引擎池租用已初始化的ASR引擎，池中有空闲引擎时无需等待init回调
+        CompletableFuture<AsrRecognizer> lease = RecognizerPools.getInstance(this).getAsrPool().lease();
+        engineLease = lease;
+        lease.whenCompleteAsync((recognizer, throwable) -> {
+            if (engineLease != lease) {
+                // 租用完成前已调用destroy
+                return;
             }
-
-            @Override
-            public void onError(int code, String msg) {
+            if (throwable != null) {
                 // 初始化失败
-                isInitialized = false;
-                Log.w(TAG, "SupportListener onError, code: " + code + ", msg: " + msg);
+                engineLease = null;
+                session.transition(SessionStateMachine.State.INITIALIZING, SessionStateMachine.State.IDLE);
+                Log.w(TAG, "lease asrRecognizer failed: " + throwable.getMessage());
                 showToast("Init onError");
+                return;
             }
-        });
+            // 初始化成功之后，需要调用startRecognize开始识别，并开始录音调用writeAudio写入音频流数据
+            asrRecognizer = recognizer;
+            speechEngine = new AsrSpeechEngine(recognizer);
+            session.transition(SessionStateMachine.State.INITIALIZING, SessionStateMachine.State.READY);
+            Log.d(TAG, "onSupport");
+            showToast("Init Success");
+        }, getMainExecutor());
     }
 
     private void initAsrListener() {
+        // 连续识别自行重启每句话，直接使用AsrRecognizer的回调
         asrListener = new AsrListener() {
             /**
              * 初始化成功回调
@@ -145,6 +227,7 @@ public class AsrDemoActivity extends BaseDemoActivity {
             @Override
             public void onReady() {
                 Log.d(TAG, "onReady");
+                commandScanner.reset();
             }
 
             /**
@@ -162,7 +245,7 @@ public class AsrDemoActivity extends BaseDemoActivity {
              */
             @Override
             public void onRmsChanged(float value) {
-                Log.d(TAG, "onRmsChanged, value:" + value);
+                rmsMeter.record(value);
             }
 
             /**
@@ -181,9 +264,7 @@ public class AsrDemoActivity extends BaseDemoActivity {
             @Override
             public void onPartialResult(AsrResult asrResult) {
                 if (asrResult != null) {
-                    String text = asrResult.getText();
-                    Log.d(TAG, "partial result is " + text);
-                    showText("PartialResult:" + text);
+                    onPartialText(asrResult.getText());
                 } else {
                     Log.w(TAG, "partial result is null");
                 }
@@ -196,13 +277,7 @@ public class AsrDemoActivity extends BaseDemoActivity {
              */
             @Override
             public void onResult(AsrResult asrResult) {
-                if (asrResult != null) {
-                    String text = asrResult.getText();
-                    Log.d(TAG, "final result is " + text);
-                    showText("FinalResult:" + text);
-                } else {
-                    Log.w(TAG, "final result is null");
-                }
+                onFinalText(asrResult == null ? null : asrResult.getText());
             }
 
             /**
@@ -213,18 +288,221 @@ public class AsrDemoActivity extends BaseDemoActivity {
              */
             @Override
             public void onError(int code, String msg) {
-                Log.w(TAG, "AsrListener onError, code:" + code + ", msg:" + msg);
+                onRecognitionError(code, msg);
+            }
+        };
+        // 单句识别通过SpeechEngine驱动，与本地替身引擎共用同一套识别流程
+        speechListener = new SpeechEngine.Listener() {
+            @Override
+            public void onSpeechStart() {
+                Log.d(TAG, "onSpeechStart");
+            }
+
+            @Override
+            public void onRmsChanged(float value) {
+                rmsMeter.record(value);
+            }
+
+            @Override
+            public void onSpeechEnd() {
+                Log.d(TAG, "onSpeechEnd");
+            }
+
+            @Override
+            public void onPartialResult(String text) {
+                onPartialText(text);
+            }
+
+            @Override
+            public void onResult(String text) {
+                onFinalText(text);
+            }
+
+            @Override
+            public void onError(int code, String msg) {
+                onRecognitionError(code, msg);
             }
         };
     }
 
-    private void startRecognize() {
-        if (asrRecognizer != null && isInitialized) {
-            Log.d(TAG, "startRecognize");
-            asrRecognizer.startRecognize(asrListener);
+    private void onPartialText(String text) {
+        Log.d(TAG, "partial result is " + text);
+        // showText每帧只显示最后一次提交的文本，命中的命令与中间结果合并为一次显示
+        StringBuilder display = new StringBuilder("PartialResult:").append(text);
+        for (CommandMatcher.Match match : commandScanner.scan(text)) {
+            Log.d(TAG, "command matched: " + match);
+            display.append("\nCommand:").append(match.getCommand());
+        }
+        showText(display.toString());
+    }
+
+    private void onFinalText(String text) {
+        commandScanner.reset();
+        if (!isContinuous()) {
+            finishRecognition();
+        }
+        if (text != null) {
+            Log.d(TAG, "final result is " + text);
+            showText("FinalResult:" + text);
         } else {
-            Log.i(TAG, "asrRecognizer is null");
-            showToast("Not Init!!!");
+            Log.w(TAG, "final result is null");
+        }
+    }
+
+    private void onRecognitionError(int code, String msg) {
+        ContinuousRecognizer continuous = continuousRecognizer;
+        if (continuous != null && !continuous.isActive()) {
+            // 连续出错后连续识别已自动停止，停止/取消识别时会先置空continuousRecognizer
+            finishRecognition();
+            runOnUiThread(() -> onContinuousAutoStopped(continuous));
+        } else if (!isContinuous()) {
+            finishRecognition();
+        }
+        Log.w(TAG, "AsrListener onError, code:" + code + ", msg:" + msg);
+    }
+
+    /**
+     * 连续识别自动停止后在主线程中停止录音，会话已回到可以再次开始识别的状态
+     */
+    private void onContinuousAutoStopped(ContinuousRecognizer continuous) {
+        if (continuousRecognizer != continuous) {
+            // 已被停止、取消或销毁
+            return;
+        }
+        Log.w(TAG, "continuous recognition stopped after errors, " + continuous.getStatistics());
+        continuousRecognizer = null;
+        stopRecord();
+        showToast("Continuous recognition stopped");
+    }
+
+    private void logRms(RmsMeter.RmsStatistics statistics) {
+        Log.d(TAG, "rms current: " + statistics.getCurrent() + ", avg: " + statistics.getAverage() + ", peak: "
+            + statistics.getPeak() + ", p90: " + statistics.getPercentile90());
+    }
+
+    private void startRecognize() {
+        if (!session.transition(SessionStateMachine.State.READY, SessionStateMachine.State.STARTING)) {
+            Log.i(TAG, "startRecognize ignored, session state: " + session.getState());
+            if (!session.isInitialized()) {
+                showToast("Not Init!!!");
+            }
+            return;
+        }
+        Log.d(TAG, "startRecognize");
+        continuousRecognizer = null;
+        resetVadGate();
+        rmsMeter.reset();
+        commandScanner.reset();
+        isPreRollFlushPending.set(true);
+        speechEngine.startRecognize(speechListener);
+        if (!session.transition(SessionStateMachine.State.STARTING, SessionStateMachine.State.RECOGNIZING)) {
+            // 启动过程中已回调错误或已销毁，会话不再处于STARTING
+            isPreRollFlushPending.set(false);
+            Log.i(TAG, "startRecognize finished early, session state: " + session.getState());
+        }
+    }
+
+    /**
+     * 已在录音时清除上一句话留下的VAD门限状态
+     */
+    private void resetVadGate() {
+        if (vadGate != null) {
+            vadGate.reset();
+        }
+    }
+
+    /**
+     * 开始连续识别并开始录音，每句话结束后自动重新开始识别，直到停止/取消识别
+     */
+    private void startContinuousRecognize() {
+        if (!session.transition(SessionStateMachine.State.READY, SessionStateMachine.State.STARTING)) {
+            Log.i(TAG, "startContinuousRecognize ignored, session state: " + session.getState());
+            if (!session.isInitialized()) {
+                showToast("Not Init!!!");
+            }
+            return;
+        }
+        Log.d(TAG, "startContinuousRecognize");
+        resetVadGate();
+        rmsMeter.reset();
+        ContinuousRecognizer continuous = new ContinuousRecognizer(asrRecognizer, asrListener, getMainExecutor(),
+            SAMPLE_RATE_IN_HZ, FRAME_SIZE_IN_BYTES);
+        continuousRecognizer = continuous;
+        continuous.start();
+        if (!session.transition(SessionStateMachine.State.STARTING, SessionStateMachine.State.RECOGNIZING)) {
+            // 启动过程中已回调错误或已销毁，不再开始录音
+            Log.i(TAG, "startContinuousRecognize finished early, session state: " + session.getState());
+            continuous.cancel();
+            return;
+        }
+        startRecord();
+    }
+
+    /**
+     * 在专用的后台线程中转写transcribe目录下的所有文件，完成后显示每个文件的实时率。
+     * 转写会长时间阻塞线程，不占用NLU和启动预热共用的计算线程池
+     */
+    private void transcribeFiles() {
+        if (!session.transition(SessionStateMachine.State.READY, SessionStateMachine.State.STARTING)) {
+            Log.i(TAG, "transcribeFiles ignored, session state: " + session.getState());
+            if (!session.isInitialized()) {
+                showToast("Not Init!!!");
+            }
+            return;
+        }
+        File directory = getExternalFilesDir(TRANSCRIBE_DIR);
+        if (directory == null) {
+            Log.w(TAG, "external files dir unavailable");
+            session.transition(SessionStateMachine.State.STARTING, SessionStateMachine.State.READY);
+            return;
+        }
+        Log.d(TAG, "transcribeFiles in " + directory);
+        FileTranscriber transcriber = new FileTranscriber(asrRecognizer, SAMPLE_RATE_IN_HZ);
+        fileTranscriber = transcriber;
+        session.transition(SessionStateMachine.State.STARTING, SessionStateMachine.State.RECOGNIZING);
+        showText("Transcribing:" + directory);
+        CompletableFuture<List<FileTranscriber.Transcript>> task = new CompletableFuture<>();
+        Thread worker = new Thread(() -> {
+            Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+            try {
+                task.complete(transcriber.transcribeDirectory(directory, FileTranscriber.Mode.FAST));
+            } catch (RuntimeException exception) {
+                task.completeExceptionally(exception);
+            }
+        }, TRANSCRIBE_THREAD_NAME);
+        transcription = task;
+        worker.start();
+        task.whenCompleteAsync((transcripts, throwable) -> {
+            if (fileTranscriber != transcriber) {
+                // 转写完成前已调用destroy
+                return;
+            }
+            fileTranscriber = null;
+            transcription = null;
+            session.transition(SessionStateMachine.State.RECOGNIZING, SessionStateMachine.State.READY);
+            if (throwable != null) {
+                Log.w(TAG, "transcribeFiles failed: " + throwable.getMessage());
+                return;
+            }
+            String report = FileTranscriber.formatReport(transcripts);
+            Log.i(TAG, "transcribe report:\n" + report);
+            showText("TranscribeReport:" + report);
+        }, getMainExecutor());
+    }
+
+    private boolean isContinuous() {
+        ContinuousRecognizer continuous = continuousRecognizer;
+        return continuous != null && continuous.isActive();
+    }
+
+    /**
+     * 收到最终结果或错误，识别结束，可以再次开始识别
+     */
+    private void finishRecognition() {
+        // 引擎可能在startRecognize返回前就同步回调错误，此时会话仍处于STARTING
+        if (!session.transition(SessionStateMachine.State.STOPPING, SessionStateMachine.State.READY)
+            && !session.transition(SessionStateMachine.State.RECOGNIZING, SessionStateMachine.State.READY)) {
+            session.transition(SessionStateMachine.State.STARTING, SessionStateMachine.State.READY);
         }
     }
 
@@ -233,11 +511,27 @@ public class AsrDemoActivity extends BaseDemoActivity {
      */
     private void stopRecognize() {
         stopRecord();
-        if (asrRecognizer != null && isInitialized) {
-            Log.d(TAG, "asrRecognizer stopRecognize");
-            asrRecognizer.stopRecognize();
+        if (fileTranscriber != null) {
+            // 转写结束后在完成回调中恢复状态
+            fileTranscriber.cancel();
+            return;
+        }
+        ContinuousRecognizer continuous = continuousRecognizer;
+        if (continuous != null) {
+            // 先置空，最终结果回调时按单句识别结束处理
+            continuousRecognizer = null;
+            if (continuous.stop()) {
+                session.transition(SessionStateMachine.State.RECOGNIZING, SessionStateMachine.State.STOPPING);
+            } else {
+                session.transition(SessionStateMachine.State.RECOGNIZING, SessionStateMachine.State.READY);
+            }
+            return;
+        }
+        if (session.transition(SessionStateMachine.State.RECOGNIZING, SessionStateMachine.State.STOPPING)) {
+            Log.d(TAG, "speechEngine stopRecognize");
+            speechEngine.stopRecognize();
         } else {
-            Log.i(TAG, "asrRecognizer is null");
+            Log.i(TAG, "stopRecognize ignored, session state: " + session.getState());
         }
     }
 
@@ -246,11 +540,23 @@ public class AsrDemoActivity extends BaseDemoActivity {
      */
     private void cancelRecognize() {
         stopRecord();
-        if (asrRecognizer != null && isInitialized) {
-            Log.d(TAG, "asrRecognizer cancelRecognize");
-            asrRecognizer.cancelRecognize();
+        if (fileTranscriber != null) {
+            fileTranscriber.cancel();
+            return;
+        }
+        ContinuousRecognizer continuous = continuousRecognizer;
+        if (continuous != null) {
+            continuousRecognizer = null;
+            continuous.cancel();
+            session.transition(SessionStateMachine.State.RECOGNIZING, SessionStateMachine.State.READY);
+            return;
+        }
+        if (session.transition(SessionStateMachine.State.RECOGNIZING, SessionStateMachine.State.READY)
+            || session.transition(SessionStateMachine.State.STOPPING, SessionStateMachine.State.READY)) {
+            Log.d(TAG, "speechEngine cancelRecognize");
+            speechEngine.cancelRecognize();
         } else {
-            Log.i(TAG, "asrRecognizer is null");
+            Log.i(TAG, "cancelRecognize ignored, session state: " + session.getState());
         }
     }
 
@@ -263,93 +569,120 @@ public class AsrDemoActivity extends BaseDemoActivity {
             showToast("no RECORD_AUDIO permission!");
             return;
         }
-        if (asrRecognizer == null || !isInitialized) {
+        if (!session.isInitialized()) {
             showToast("Not Init!!!");
             return;
         }
-        if (audioRecord == null) {
-            initAudioRecord();
+        if (vadGate != null) {
+            Log.i(TAG, "already recording");
+            return;
         }
-        if (audioRecord != null) {
-            isRecording = true;
-            audioRecord.startRecording();
-            SingleThreadPool.getInstance().execute(this::loopWriteAudio, "AsrRecord");
-        } else {
-            Log.w(TAG, "audioRecord is null");
+        if (fileTranscriber != null) {
+            showToast("Transcribing files");
+            return;
         }
-    }
-
-    /**
-     * 循环从AudioRecord读取音频流，并写入到Asr引擎
-     */
-    private void loopWriteAudio() {
-        while (isRecording) {
-            byte[] audioData = new byte[mBufferSizeInBytes];
-            int read = audioRecord.read(audioData, 0, audioData.length);
-            if (read != AudioRecord.ERROR_INVALID_OPERATION) {
-                // 写入音频流
-                if (asrRecognizer != null && isInitialized) {
-                    asrRecognizer.writeAudio(audioData, audioData.length);
-                } else {
-                    Log.w(TAG, "asrRecognizer is null");
-                }
-            } else {
-                Log.e(TAG, "AudioRecord ERROR_INVALID_OPERATION");
-            }
+        // 投递线程启动前清空，之后只在投递线程中访问
+        preRollBuffer.clear();
+        // 麦克风只采集一次，同时录音的其他页面共用同一路采集
+        VadGate gate = new VadGate(this::writeAudio, SAMPLE_RATE_IN_HZ);
+        if (CaptureHub.getMicrophone().subscribe("Asr", gate)) {
+            vadGate = gate;
+        } else {
+            Log.w(TAG, "subscribe microphone failed");
         }
     }
 
     /**
-     * 创建默认 audioRecord
-     * 音频参数请参考本设置
+     * 写入音频流，开始识别前写入预录缓冲区，开始识别后先写入预录音频再写入当前音频
+     *
+     * @param audioData 音频数据
+     * @param length 数据长度
      */
-    private void initAudioRecord() {
-        // buffer size in bytes 1280
-        mBufferSizeInBytes = AudioRecord.getMinBufferSize(SAMPLE_RATE_IN_HZ, AudioFormat.CHANNEL_IN_MONO,
-            AudioFormat.ENCODING_PCM_16BIT);
-        Log.d(TAG, "MinBufferSize:" + mBufferSizeInBytes);
-        if (mBufferSizeInBytes == AudioRecord.ERROR || mBufferSizeInBytes == AudioRecord.ERROR_BAD_VALUE) {
-            Log.w(TAG, "Audio buffer can't initialize!");
+    private void writeAudio(byte[] audioData, int length) {
+        ContinuousRecognizer continuous = continuousRecognizer;
+        if (continuous != null && continuous.isActive()) {
+            // 连续识别自行缓冲两句话之间的音频
+            continuous.writeAudio(audioData, length);
             return;
         }
-        if (checkSelfPermission(Manifest.permission.RECORD_AUDIO) != PackageManager.PERMISSION_GRANTED) {
-            Log.w(TAG, "No RECORD_AUDIO permission");
+        if (session.getState() != SessionStateMachine.State.RECOGNIZING) {
+            preRollBuffer.write(audioData, 0, length);
             return;
         }
-        audioRecord = new AudioRecord(MediaRecorder.AudioSource.DEFAULT, SAMPLE_RATE_IN_HZ, AudioFormat.CHANNEL_IN_MONO,
-            AudioFormat.ENCODING_PCM_16BIT, mBufferSizeInBytes);
-        if (audioRecord.getState() != AudioRecord.STATE_INITIALIZED) {
-            Log.w(TAG, "Audio Record state error");
-            return;
+        if (isPreRollFlushPending.compareAndSet(true, false)) {
+            int preRollBytes = preRollBuffer.drainTo(engineSink);
+            Log.d(TAG, "pre-roll flushed, bytes: " + preRollBytes);
         }
-        Log.d(TAG, "Record init okay");
+        writeToEngine(audioData, length);
     }
 
-    private void stopRecord() {
-        isRecording = false;
-        if (audioRecord != null) {
-            Log.d(TAG, "stopRecord");
-            audioRecord.stop();
-            audioRecord.release();
-            audioRecord = null;
+    /**
+     * 写入音频流到Asr引擎
+     *
+     * @param audioData 音频数据
+     * @param length 数据长度
+     */
+    private void writeToEngine(byte[] audioData, int length) {
+        SpeechEngine engine = speechEngine;
+        if (engine != null && session.isInitialized()) {
+            engine.writeAudio(audioData, length);
         } else {
-            Log.i(TAG, "audioRecord is null");
+            Log.w(TAG, "speechEngine is null");
+        }
+    }
+
+    private CompletableFuture<Void> stopRecord() {
+        // 取消订阅时先写入缓冲区中剩余的音频，最后一个订阅者退出时释放麦克风
+        if (vadGate == null) {
+            Log.i(TAG, "not recording");
+            return CompletableFuture.completedFuture(null);
         }
+        Log.d(TAG, "stopRecord");
+        CompletableFuture<Void> deliveryExited = CaptureHub.getMicrophone().unsubscribe(vadGate);
+        Log.d(TAG, "vad statistics: " + vadGate.getStatistics());
+        vadGate = null;
+        return deliveryExited;
     }
 
     /**
-     * 销毁AsrRecognizer
+     * 结束会话，引擎重置后归还给引擎池，不再销毁
      */
     private void destroy() {
-        stopRecord();
-        if (asrRecognizer != null) {
-            // 销毁引擎，释放资源
-            Log.d(TAG, "asrRecognizer destroy");
-            asrRecognizer.destroy();
-            asrRecognizer = null;
-            asrListener = null;
-        } else {
+        CompletableFuture<Void> deliveryExited = stopRecord();
+        ContinuousRecognizer continuous = continuousRecognizer;
+        if (continuous != null) {
+            continuousRecognizer = null;
+            continuous.cancel();
+        }
+        if (fileTranscriber != null) {
+            fileTranscriber.cancel();
+            fileTranscriber = null;
+        }
+        CompletableFuture<?> pendingTranscription = transcription;
+        transcription = null;
+        session.moveTo(SessionStateMachine.State.IDLE);
+        asrRecognizer = null;
+        asrListener = null;
+        speechEngine = null;
+        speechListener = null;
+        CompletableFuture<AsrRecognizer> lease = engineLease;
+        engineLease = null;
+        if (lease == null || lease.cancel(false) || lease.isCompletedExceptionally()) {
             Log.i(TAG, "asrRecognizer already null");
+            return;
+        }
+        AsrRecognizer recognizer = lease.join();
+        RecognizerPool<AsrRecognizer> pool = RecognizerPools.getInstance(this).getAsrPool();
+        // 转写线程在取消后仍会完成当前这次引擎调用，投递线程等待超时后也可能仍在写入引擎，
+        // 都结束后再归还，避免引擎被下一个租用者同时使用
+        CompletableFuture<Void> inFlight = pendingTranscription == null ? deliveryExited
+            : CompletableFuture.allOf(deliveryExited, pendingTranscription);
+        if (!inFlight.isDone()) {
+            Log.d(TAG, "asrRecognizer release to pool after engine calls finish");
+            inFlight.whenComplete((result, throwable) -> pool.release(recognizer));
+            return;
         }
+        Log.d(TAG, "asrRecognizer release to pool");
+        pool.release(recognizer);
     }
 }
\ No newline at end of file
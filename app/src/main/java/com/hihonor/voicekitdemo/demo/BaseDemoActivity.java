@@ -5,31 +5,64 @@
 package com.hihonor.voicekitdemo.demo;
 
 import android.app.Activity;
+import android.os.Bundle;
+import android.util.Log;
 import android.widget.TextView;
 import android.widget.Toast;
 
+import com.hihonor.voicekitdemo.utils.CoalescingTextRenderer;
+
 /**
  * 基础Activity类，公共功能
  *
  * @since 2024-07-18
  */
 public class BaseDemoActivity extends Activity {
+    private static final String TAG = BaseDemoActivity.class.getSimpleName();
+
     /**
      * 用于展示识别结果的TextView
      */
     protected TextView tvShowResult;
 
     /**
-     * 屏幕显示文本
+     * 识别结果刷新频率高于屏幕刷新率时只显示每帧最新的结果
+     */
+    private CoalescingTextRenderer resultRenderer;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        resultRenderer = CoalescingTextRenderer.forVsync(this::renderText);
+    }
+
+    @Override
+    protected void onDestroy() {
+        if (resultRenderer != null) {
+            resultRenderer.cancel();
+            Log.d(TAG, "result render statistics: " + resultRenderer.getStatistics());
+        }
+        super.onDestroy();
+    }
+
+    /**
+     * 屏幕显示文本，可在任意线程调用，同一帧内多次调用只显示最后一次的文本
      *
      * @param result 结果文本
      */
     protected void showText(String result) {
-        runOnUiThread(() -> {
-            if (tvShowResult != null) {
-                tvShowResult.setText(result);
-            }
-        });
+        CoalescingTextRenderer renderer = resultRenderer;
+        if (renderer == null) {
+            runOnUiThread(() -> renderText(result));
+            return;
+        }
+        renderer.submit(result);
+    }
+
+    private void renderText(String result) {
+        if (tvShowResult != null) {
+            tvShowResult.setText(result);
+        }
     }
 
     /**
@@ -5,7 +5,9 @@
 package com.hihonor.voicekitdemo.demo;
 
 import android.os.Bundle;
+import android.text.Editable;
 import android.text.TextUtils;
+import android.text.TextWatcher;
 import android.text.method.ScrollingMovementMethod;
 import android.util.Log;
 import android.view.View;
@@ -17,16 +19,28 @@ import android.widget.EditText;
 import android.widget.Spinner;
 import android.widget.TextView;
 
-import com.hihonor.mcs.intelligence.voice.SupportListener;
-import com.hihonor.mcs.intelligence.voice.Voices;
 import com.hihonor.mcs.intelligence.voice.nlu.constant.NluConstants;
 import com.hihonor.mcs.intelligence.voice.nlu.data.EntityResult;
 import com.hihonor.mcs.intelligence.voice.nlu.data.WordsResult;
 import com.hihonor.mcs.intelligence.voice.nlu.interfaces.NluProcessor;
 import com.hihonor.voicekitdemo.R;
+import com.hihonor.voicekitdemo.engine.RecognizerPools;
+import com.hihonor.voicekitdemo.nlu.AsyncNluProcessor;
+import com.hihonor.voicekitdemo.nlu.CachingNluEngine;
+import com.hihonor.voicekitdemo.nlu.IncrementalNluAnalyzer;
+import com.hihonor.voicekitdemo.nlu.NluBatchProcessor;
+import com.hihonor.voicekitdemo.nlu.NluBatchResult;
+import com.hihonor.voicekitdemo.nlu.NluProcessorEngine;
 import com.hihonor.voicekitdemo.utils.GsonUtils;
+import com.hihonor.voicekitdemo.utils.TaskLanes;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * 自然语言能力示例类
@@ -36,6 +50,12 @@ import java.util.ArrayList;
 public class NluDemoActivity extends BaseDemoActivity {
     private static final String TAG = NluDemoActivity.class.getSimpleName();
 
+    // 结果缓存总权重上限，约等于缓存文本的字符数
+    private static final long RESULT_CACHE_MAX_WEIGHT = 256 * 1024L;
+
+    // 结果缓存存活时间
+    private static final long RESULT_CACHE_TTL_MS = 10 * 60 * 1000L;
+
     private Button btnInit;
 
     private Button btnDestroy;
@@ -74,6 +94,23 @@ public class NluDemoActivity extends BaseDemoActivity {
 
     private NluProcessor nluProcessor;
 
+    // 从引擎池租用引擎的结果，只在主线程访问
+    private CompletableFuture<NluProcessor> engineLease;
+
+    // 在计算线程池中调用nluProcessor，避免阻塞主线程
+    private AsyncNluProcessor asyncNluProcessor;
+
+    // 缓存分词和实体识别结果，重复分析相同文本时不再调用引擎
+    private CachingNluEngine cachingNluEngine;
+
+    // 随输入编辑增量更新的分词和实体识别结果，只在主线程替换
+    private volatile IncrementalNluAnalyzer<WordsResult> incrementalSplit;
+
+    private volatile IncrementalNluAnalyzer<EntityResult> incrementalEntity;
+
+    // 串行执行增量分析，保证编辑按输入顺序应用，只在主线程访问
+    private CompletableFuture<Void> incrementalTail = CompletableFuture.completedFuture(null);
+
     private long wordType = NluConstants.TYPE_WORDS_LOW;
 
     private String entitySource = NluConstants.SOURCE_COPY;
@@ -94,6 +131,25 @@ public class NluDemoActivity extends BaseDemoActivity {
         btnInit = findViewById(R.id.nlu_init);
         btnDestroy = findViewById(R.id.nlu_destroy);
         etInputContent = findViewById(R.id.nlu_input_content_et);
+        etInputContent.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence text, int start, int count, int after) {
+            }
+
+            @Override
+            public void onTextChanged(CharSequence text, int start, int before, int count) {
+                // 输入文本变化后，取消针对旧文本尚未完成的请求
+                if (asyncNluProcessor != null) {
+                    asyncNluProcessor.cancelAll();
+                }
+                // 只重新分析被编辑的句子
+                scheduleIncremental(text.toString(), start, before, count);
+            }
+
+            @Override
+            public void afterTextChanged(Editable editable) {
+            }
+        });
 
         etWordType = findViewById(R.id.nlu_word_type_et);
         spWordType = findViewById(R.id.nlu_word_type_sp);
@@ -129,6 +185,7 @@ public class NluDemoActivity extends BaseDemoActivity {
                 etWordType.setText(typeList[i]);
                 wordType = parseWordType();
                 Log.d(TAG, "onItemSelected, WordType:" + wordType);
+                resetIncremental();
             }
 
             @Override
@@ -148,6 +205,7 @@ public class NluDemoActivity extends BaseDemoActivity {
                 etEntitySource.setText(sourceList[i]);
                 entitySource = sourceList[i];
                 Log.d(TAG, "onItemSelected, EntitySource:" + entitySource);
+                resetIncremental();
             }
 
             @Override
@@ -162,6 +220,11 @@ public class NluDemoActivity extends BaseDemoActivity {
         btnDestroy.setOnClickListener(view -> destroy());
         btnSplit.setOnClickListener(view -> splitWords());
         btnEntity.setOnClickListener(view -> recognizeEntity());
+        // 实体类别变化后，增量结果需要全部重新分析
+        for (CheckBox checkBox : new CheckBox[] {cbUrl, cbEmail, cbExpressNo, cbIdNo, cbFlightNo, cbPhoneNum,
+            cbLocation}) {
+            checkBox.setOnCheckedChangeListener((buttonView, isChecked) -> resetIncremental());
+        }
     }
 
     @Override
@@ -172,35 +235,44 @@ public class NluDemoActivity extends BaseDemoActivity {
     }
 
     /**
-     * 初始化NluClient
+     * 从引擎池租用已初始化的NluClient
      */
     private void init() {
         Log.d(TAG, "init...");
-        if (nluProcessor == null) {
-            nluProcessor = Voices.getNluClient(getApplication().getApplicationContext());
-            isInitialized = false;
-            nluProcessor.init(new SupportListener() {
-                @Override
-                public void onSupport() {
-                    // 初始化成功
-                    isInitialized = true;
-                    Log.d(TAG, "SupportListener onSupport");
-                    showToast("Init Success");
-                }
-
-                @Override
-                public void onError(int code, String msg) {
-                    // 初始化失败回调，比如手机不支持等
-                    isInitialized = false;
-                    Log.d(TAG, "SupportListener onError");
-                    showToast("Init Fail");
-                }
-            });
+        if (nluProcessor != null || engineLease != null) {
+            Log.i(TAG, "nluClient already initialized or initializing");
+            return;
         }
+        isInitialized = false;
+        CompletableFuture<NluProcessor> lease = RecognizerPools.getInstance(this).getNluPool().lease();
+        engineLease = lease;
+        lease.whenCompleteAsync((processor, throwable) -> {
+            if (engineLease != lease) {
+                // 租用完成前已调用destroy
+                return;
+            }
+            if (throwable != null) {
+                // 初始化失败回调，比如手机不支持等
+                engineLease = null;
+                Log.d(TAG, "SupportListener onError: " + throwable.getMessage());
+                showToast("Init Fail");
+                return;
+            }
+            nluProcessor = processor;
+            cachingNluEngine = new CachingNluEngine(new NluProcessorEngine(nluProcessor), RESULT_CACHE_MAX_WEIGHT,
+                RESULT_CACHE_TTL_MS);
+            asyncNluProcessor = new AsyncNluProcessor(cachingNluEngine,
+                TaskLanes.getInstance().getComputeExecutor());
+            // 初始化成功
+            isInitialized = true;
+            Log.d(TAG, "SupportListener onSupport");
+            showToast("Init Success");
+            resetIncremental();
+        }, getMainExecutor());
     }
 
     /**
-     * 调用分词接口
+     * 调用分词接口，在计算线程中执行，结果回到主线程显示
      */
     private void splitWords() {
         String inputText = etInputContent.getText().toString();
@@ -209,27 +281,61 @@ public class NluDemoActivity extends BaseDemoActivity {
             return;
         }
         Log.d(TAG, "text:" + inputText);
-        if (nluProcessor != null && isInitialized) {
+        if (asyncNluProcessor != null && isInitialized) {
             // nluProcessor.init 未初始化成功前，请勿调用接口
-            WordsResult wordsResult;
+            long type;
             if (TextUtils.isEmpty(etWordType.getText().toString())) {
                 Log.d(TAG, "default type " + NluConstants.TYPE_WORDS_LOW);
-                wordsResult = nluProcessor.splitWords(inputText);
+                type = NluConstants.TYPE_WORDS_LOW;
             } else {
                 wordType = parseWordType();
                 Log.d(TAG, "type:" + wordType);
-                // 带有分词粒度接口
-                wordsResult = nluProcessor.splitWords(inputText, wordType);
+                type = wordType;
             }
-            String result = GsonUtils.toString(wordsResult);
-            Log.i(TAG, "SplitWords:" + result);
-            runOnUiThread(() -> mTvShowSplit.setText("SplitWords:" + result));
+            // 带有分词粒度接口，长文本按句切分后并行分析
+            CompletableFuture<String> request = isLongText(inputText)
+                ? analyzeInBatch(inputText, NluBatchProcessor.forSplitWords(cachingNluEngine, type,
+                    ForkJoinPool.commonPool()))
+                : asyncNluProcessor.splitWords(inputText, type).thenApply(GsonUtils::toString);
+            request.whenComplete((result, throwable) -> {
+                if (throwable != null) {
+                    onNluFailed("SplitWords", throwable);
+                    return;
+                }
+                Log.i(TAG, "SplitWords:" + result);
+                runOnUiThread(() -> mTvShowSplit.setText("SplitWords:" + result));
+            });
         } else {
             Log.i(TAG, "nluClient is null");
             showToast("Not Init!!!");
         }
     }
 
+    private static boolean isLongText(String text) {
+        return text.length() > NluBatchProcessor.DEFAULT_MAX_CHUNK_LENGTH;
+    }
+
+    /**
+     * 在计算线程中按句切分长文本，通过fork/join并行分析，每个片段的结果与片段在原文中的起始位置一起显示
+     */
+    private <R> CompletableFuture<String> analyzeInBatch(String text, NluBatchProcessor<R> processor) {
+        return CompletableFuture.supplyAsync(() -> {
+            NluBatchResult<R> batch = processor.process(Collections.singletonList(text));
+            Log.d(TAG, "batch analyze: " + batch.getStatistics());
+            return GsonUtils.toString(batch.getResults().get(0));
+        }, TaskLanes.getInstance().getComputeExecutor());
+    }
+
+    private void onNluFailed(String operation, Throwable throwable) {
+        Throwable cause = throwable instanceof CompletionException ? throwable.getCause() : throwable;
+        if (cause instanceof CancellationException) {
+            Log.d(TAG, operation + " superseded");
+            return;
+        }
+        Log.w(TAG, operation + " failed: " + cause);
+        showToast(operation + " failed");
+    }
+
     private long parseWordType() {
         long type = NluConstants.TYPE_WORDS_LOW;
         String text = etWordType.getText().toString();
@@ -242,7 +348,7 @@ public class NluDemoActivity extends BaseDemoActivity {
     }
 
     /**
-     * 调用实体识别接口
+     * 调用实体识别接口，在计算线程中执行，结果回到主线程显示
      */
     private void recognizeEntity() {
         String inputText = etInputContent.getText().toString();
@@ -251,36 +357,98 @@ public class NluDemoActivity extends BaseDemoActivity {
             return;
         }
         Log.d(TAG, "text:" + inputText);
-        if (nluProcessor != null && isInitialized) {
+        if (asyncNluProcessor != null && isInitialized) {
             // nluProcessor.init 未初始化成功前，请勿调用接口
-            EntityResult entityResult;
             ArrayList<String> moduleList = getModuleList();
+            String source = null;
             if (moduleList.isEmpty()) {
                 Log.d(TAG, "module is null");
                 Log.d(TAG, "default source " + NluConstants.SOURCE_COPY);
-                entityResult = nluProcessor.recognizeEntity(inputText);
             } else {
                 entitySource = etEntitySource.getText().toString();
                 Log.d(TAG, "module:" + GsonUtils.toString(moduleList));
-                // 带有实体类别和文本来源接口
-                if (TextUtils.isEmpty(entitySource)) {
-                    // entitySource未传入时默认使用"fromCopy"
-                    Log.d(TAG, "default source " + NluConstants.SOURCE_COPY);
-                    entityResult = nluProcessor.recognizeEntity(inputText, moduleList);
-                } else {
-                    Log.d(TAG, "source:" + entitySource);
-                    entityResult = nluProcessor.recognizeEntity(inputText, moduleList, entitySource);
-                }
+                // 带有实体类别和文本来源接口，entitySource未传入时默认使用"fromCopy"
+                Log.d(TAG, "source:" + entitySource);
+                source = entitySource;
             }
-            String result = GsonUtils.toString(entityResult);
-            Log.i(TAG, "recognizeEntity:" + result);
-            runOnUiThread(() -> mTvShowEntity.setText("RecognizeEntity:" + result));
+            CompletableFuture<String> request = isLongText(inputText)
+                ? analyzeInBatch(inputText, NluBatchProcessor.forEntities(cachingNluEngine, moduleList, source,
+                    ForkJoinPool.commonPool()))
+                : asyncNluProcessor.recognizeEntity(inputText, moduleList, source).thenApply(GsonUtils::toString);
+            request.whenComplete((result, throwable) -> {
+                if (throwable != null) {
+                    onNluFailed("RecognizeEntity", throwable);
+                    return;
+                }
+                Log.i(TAG, "recognizeEntity:" + result);
+                runOnUiThread(() -> mTvShowEntity.setText("RecognizeEntity:" + result));
+            });
         } else {
             Log.i(TAG, "nluClient is null");
             showToast("Not Init!!!");
         }
     }
 
+    /**
+     * 按当前分词粒度和实体类别重建增量分析器，并对当前文本做一次完整分析
+     */
+    private void resetIncremental() {
+        CachingNluEngine engine = cachingNluEngine;
+        if (engine == null || !isInitialized) {
+            return;
+        }
+        long type = TextUtils.isEmpty(etWordType.getText().toString()) ? NluConstants.TYPE_WORDS_LOW
+            : parseWordType();
+        List<String> moduleList = getModuleList();
+        String source = moduleList.isEmpty() ? null : etEntitySource.getText().toString();
+        incrementalSplit = new IncrementalNluAnalyzer<>(text -> engine.splitWords(text, type));
+        incrementalEntity = new IncrementalNluAnalyzer<>(text -> engine.recognizeEntity(text, moduleList, source));
+        scheduleIncremental(etInputContent.getText().toString(), -1, 0, 0);
+    }
+
+    /**
+     * 在计算线程中按编辑顺序增量更新分析结果，只序列化本次重新分析的句子，回到主线程显示
+     *
+     * @param text 编辑后的文本
+     * @param start 编辑起始位置，小于0时与上次文本比较定位编辑区间
+     * @param removedLength 被替换的字符数
+     * @param insertedLength 插入的字符数
+     */
+    private void scheduleIncremental(String text, int start, int removedLength, int insertedLength) {
+        IncrementalNluAnalyzer<WordsResult> split = incrementalSplit;
+        IncrementalNluAnalyzer<EntityResult> entity = incrementalEntity;
+        if (split == null || entity == null) {
+            return;
+        }
+        incrementalTail = incrementalTail.thenRunAsync(() -> {
+            if (incrementalSplit != split) {
+                // 分析器已被重建或会话已结束
+                return;
+            }
+            if (start < 0) {
+                split.update(text);
+                entity.update(text);
+            } else {
+                split.applyEdit(text, start, removedLength, insertedLength);
+                entity.applyEdit(text, start, removedLength, insertedLength);
+            }
+            Log.d(TAG, "incremental analyze: " + split.getLastReanalyzedChars() + " chars, "
+                + split.getLastElapsedNanos() + "ns");
+            // 结果中的位置相对所在句子，offset为句子在全文中的起始位置
+            String splitResult = GsonUtils.toString(split.getChangedResults());
+            String entityResult = GsonUtils.toString(entity.getChangedResults());
+            runOnUiThread(() -> {
+                if (incrementalSplit == split) {
+                    mTvShowSplit.setText("SplitWords(changed):" + splitResult);
+                    mTvShowEntity.setText("RecognizeEntity(changed):" + entityResult);
+                }
+            });
+        }, TaskLanes.getInstance().getComputeExecutor()).exceptionally(throwable -> {
+            Log.w(TAG, "incremental analyze failed: " + throwable);
+            return null;
+        });
+    }
+
     private ArrayList<String> getModuleList() {
         ArrayList<String> modulesList = new ArrayList<>();
         if (cbEmail.isChecked()) {
@@ -308,14 +476,26 @@ public class NluDemoActivity extends BaseDemoActivity {
     }
 
     /**
-     * 销毁NluClient
+     * 结束会话，NluClient归还给引擎池
      */
     private void destroy() {
         Log.d(TAG, "destroy...");
-        if (nluProcessor != null) {
-            isInitialized = false;
-            nluProcessor.destroy();
-            nluProcessor = null;
+        isInitialized = false;
+        incrementalSplit = null;
+        incrementalEntity = null;
+        if (asyncNluProcessor != null) {
+            asyncNluProcessor.cancelAll();
+            asyncNluProcessor = null;
+        }
+        if (cachingNluEngine != null) {
+            Log.d(TAG, "result cache: " + cachingNluEngine.getCache().getStatistics());
+            cachingNluEngine = null;
+        }
+        nluProcessor = null;
+        CompletableFuture<NluProcessor> lease = engineLease;
+        engineLease = null;
+        if (lease != null && !lease.cancel(false) && !lease.isCompletedExceptionally()) {
+            RecognizerPools.getInstance(this).getNluPool().release(lease.join());
         }
     }
 }
\ No newline at end of file
@@ -6,43 +6,60 @@ package com.hihonor.voicekitdemo.demo;
 
 import android.Manifest;
 import android.content.pm.PackageManager;
-import android.media.AudioFormat;
-import android.media.AudioRecord;
-import android.media.MediaRecorder;
 import android.os.Bundle;
 import android.util.Log;
 import android.widget.Button;
 
-import com.hihonor.mcs.intelligence.voice.SupportListener;
-import com.hihonor.mcs.intelligence.voice.Voices;
-import com.hihonor.mcs.intelligence.voice.asr.AsrErrorCode;
-import com.hihonor.mcs.intelligence.voice.asr.ScenarioOption;
 import com.hihonor.mcs.intelligence.voice.asr.interfaces.AsrScenarioListener;
-import com.hihonor.mcs.intelligence.voice.asr.interfaces.AsrScenarioRecognizer;
 import com.hihonor.mcs.intelligence.voice.asr.result.AsrCommandResult;
 import com.hihonor.voicekitdemo.R;
-import com.hihonor.voicekitdemo.utils.SingleThreadPool;
+import com.hihonor.voicekitdemo.audio.CaptureHub;
+import com.hihonor.voicekitdemo.audio.VadGate;
+import com.hihonor.voicekitdemo.command.CommandSet;
+import com.hihonor.voicekitdemo.command.KeywordEventStream;
+import com.hihonor.voicekitdemo.engine.RecognizerPools;
+import com.hihonor.voicekitdemo.engine.SupervisedScenarioRecognizer;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 场景化语音能力示例类
  * 使用步骤：
- * 1、创建AsrScenarioClient对象
+ * 1、从引擎池租用注册了要监听的关键词并已初始化的AsrScenarioClient对象
  * 2、创建AsrScenarioListener回调对象
- * 3、设置初始化参数、使用回调对象初始化AsrScenario引擎，注册要监听的关键词
+ * 3、池中没有空闲引擎时，引擎池会设置初始化参数、注册关键词并初始化AsrScenario引擎
  * 4、初始化成功回调之后，调用开始识别startRecognize
  * 5、写入音频流，调用writeAudio
  * 6、当用户说出被监听的关键词时，回调关键词内容
- * 7、使用完毕，销毁引擎
+ * 7、需要监听其他关键词时切换命令词集合，换入另一个引擎池中已初始化的引擎，录音不中断
+ * 8、引擎报50006时销毁该引擎并在后台按指数退避重新初始化，期间的音频暂存，恢复后先写入新引擎
+ * 9、使用完毕，归还引擎，引擎池空闲超时后销毁
  *
  * @since 2024-07-18
  */
 public class ScenarioDemoActivity extends BaseDemoActivity {
     private static final String TAG = ScenarioDemoActivity.class.getSimpleName();
 
-    private static final String COMMAND_KEYWORD_LIST = "你好；拍照；茄子；接听电话；挂断电话；关闭闹钟";
+    /**
+     * 监听的关键词列表，引擎池按该列表预先初始化场景化引擎
+     */
+    public static final String COMMAND_KEYWORD_LIST = "你好；拍照；茄子；接听电话；挂断电话；关闭闹钟";
 
     private static final int SAMPLE_RATE_IN_HZ = 16000;
 
+    // 默认命令词集合，与启动时预热的引擎池使用相同的关键词列表
+    private static final CommandSet DEFAULT_COMMANDS = CommandSet.fromKeywordList("default", 1L,
+        COMMAND_KEYWORD_LIST);
+
+    // 拍照界面的命令词集合
+    private static final CommandSet CAMERA_COMMANDS = CommandSet.fromKeywordList("camera", 1L,
+        "拍照；茄子；录像；切换镜头");
+
+    // 通话界面的命令词集合
+    private static final CommandSet CALL_COMMANDS = CommandSet.fromKeywordList("call", 1L,
+        "接听电话；挂断电话；打开免提；静音");
+
     private Button btnInit;
 
     private Button btnStartRecognize;
@@ -51,19 +68,20 @@ public class ScenarioDemoActivity extends BaseDemoActivity {
 
     private Button btnStopWrite;
 
+    private Button btnSwitchCommands;
+
     private Button btnDestroy;
 
-    private AsrScenarioRecognizer asrScenarioRecognizer;
+    // 管理命令词集合及其引擎，切换集合时换入对应引擎池中的引擎；引擎报50006时在后台自动重新初始化
+    private volatile SupervisedScenarioRecognizer scenarioRecognizer;
 
     private AsrScenarioListener asrScenarioListener;
 
-    // 指定最小录音缓冲区大小
-    private int bufferSizeInBytes;
-
-    // 录音对象
-    private AudioRecord audioRecord;
+    // 静音时不写入引擎的语音活动检测门限，作为麦克风采集中心的订阅者，在投递线程中调用
+    private VadGate vadGate;
 
-    private boolean isRecording = false;
+    // 合并同一句话中连续回调的关键词，每个动作只触发一次
+    private KeywordEventStream keywordEvents;
 
     private volatile boolean isInitialized = false;
 
@@ -74,6 +92,7 @@ public class ScenarioDemoActivity extends BaseDemoActivity {
         setContentView(R.layout.activity_scenario_demo);
         initView();
         initClickListener();
+        initKeywordEvents();
     }
 
     private void initView() {
@@ -81,6 +100,7 @@ public class ScenarioDemoActivity extends BaseDemoActivity {
         btnStartRecognize = findViewById(R.id.scenario_start_recognize);
         btnWriteAudio = findViewById(R.id.scenario_start_record);
         btnStopWrite = findViewById(R.id.scenario_stop_record);
+        btnSwitchCommands = findViewById(R.id.scenario_switch_commands);
         btnDestroy = findViewById(R.id.scenario_destroy);
         tvShowResult = findViewById(R.id.scenario_show_result);
     }
@@ -90,6 +110,7 @@ public class ScenarioDemoActivity extends BaseDemoActivity {
         btnStartRecognize.setOnClickListener(view -> startRecognize());
         btnWriteAudio.setOnClickListener(view -> startRecord());
         btnStopWrite.setOnClickListener(view -> stopRecord());
+        btnSwitchCommands.setOnClickListener(view -> switchCommands());
         btnDestroy.setOnClickListener(view -> destroy());
     }
 
@@ -97,36 +118,62 @@ public class ScenarioDemoActivity extends BaseDemoActivity {
     protected void onDestroy() {
         Log.d(TAG, "onDestroy");
         destroy();
+        keywordEvents.close();
         super.onDestroy();
     }
 
+    /**
+     * 同义关键词映射到同一动作；接听和挂断同时命中时以挂断为准
+     */
+    private void initKeywordEvents() {
+        keywordEvents = new KeywordEventStream(KeywordEventStream.DEFAULT_WINDOW_MS);
+        keywordEvents.setRule("拍照", "拍照", 1, 2000L);
+        keywordEvents.setRule("茄子", "拍照", 1, 2000L);
+        keywordEvents.setRule("接听电话", "接听电话", 2, 1000L);
+        keywordEvents.setRule("挂断电话", "挂断电话", 3, 1000L);
+        keywordEvents.setEventListener(event -> {
+            Log.d(TAG, "keyword event " + event + ", " + keywordEvents.getStatistics());
+            showText("KeyWord:" + event.getAction());
+        }, getMainExecutor());
+    }
+
     private void init() {
-        if (asrScenarioRecognizer == null) {
-            asrScenarioRecognizer = Voices.getAsrScenarioClient(getApplicationContext());
+        if (scenarioRecognizer != null && isInitialized) {
+            Log.i(TAG, "asrScenarioRecognizer already initialized");
+            showToast("Init Success");
+            return;
+        }
+        if (scenarioRecognizer != null) {
+            Log.i(TAG, "asrScenarioRecognizer is initializing");
+            return;
         }
         isInitialized = false;
-        ScenarioOption scenarioOption = new ScenarioOption.Builder().setCommands(COMMAND_KEYWORD_LIST).build();
         initAsrScenarioListener();
-        // 使用初始化参数、回调对象初始化ASR引擎
-        asrScenarioRecognizer.init(scenarioOption, new SupportListener() {
-            @Override
-            public void onSupport() {
-                if (asrScenarioRecognizer != null) {
-                    // 初始化成功之后，需要调用startRecognize开始识别，并开始录音调用writeAudio写入音频流数据
-                    isInitialized = true;
-                    Log.d(TAG, "startRecognize");
-                    showToast("Init Success");
-                }
+        // 每个命令词集合从注册了相同关键词的引擎池租用引擎，只有默认集合在启动时预热，其余集合第一次切换时才创建
+        SupervisedScenarioRecognizer recognizer = new SupervisedScenarioRecognizer(
+            RecognizerPools.getInstance(this)::getScenarioPool, asrScenarioListener, SAMPLE_RATE_IN_HZ);
+        recognizer.register(DEFAULT_COMMANDS);
+        recognizer.register(CAMERA_COMMANDS);
+        recognizer.register(CALL_COMMANDS);
+        scenarioRecognizer = recognizer;
+        recognizer.activate(DEFAULT_COMMANDS.getName()).whenCompleteAsync((commandSet, throwable) -> {
+            if (scenarioRecognizer != recognizer) {
+                // 租用完成前已调用destroy
+                return;
             }
-
-            @Override
-            public void onError(int code, String msg) {
+            if (throwable != null) {
                 // 初始化失败
-                isInitialized = false;
-                Log.w(TAG, "SupportListener onError, code: " + code + ", msg: " + msg);
+                scenarioRecognizer = null;
+                recognizer.close();
+                Log.w(TAG, "lease asrScenarioRecognizer failed: " + throwable.getMessage());
                 showToast("Init onError");
+                return;
             }
-        });
+            // 初始化成功之后，需要调用startRecognize开始识别，并开始录音调用writeAudio写入音频流数据
+            isInitialized = true;
+            Log.d(TAG, "onSupport");
+            showToast("Init Success");
+        }, getMainExecutor());
     }
 
     /**
@@ -146,7 +193,7 @@ public class ScenarioDemoActivity extends BaseDemoActivity {
                 if (result != null) {
                     String text = result.getKeyWords();
                     Log.d(TAG, "final result is " + text);
-                    showText("KeyWord:" + text);
+                    keywordEvents.offer(text);
                 } else {
                     Log.w(TAG, "onResult is null");
                 }
@@ -155,25 +202,21 @@ public class ScenarioDemoActivity extends BaseDemoActivity {
             @Override
             public void onError(int code, String msg) {
                 // 获取错误回调
+                // 报50006时引擎已被销毁并在后台重新初始化，这里不会收到
                 Log.w(TAG, "AsrScenarioListener onError, code: " + code + ", msg: " + msg);
-                if (code == AsrErrorCode.ASR_PHRASE_ERROR) {
-                    // 涉及到场景词识别底层引擎释放资源，报50006时调用destroy释放。
-                    if (asrScenarioRecognizer != null) {
-                        Log.d(TAG, "onError, call destroy");
-                        asrScenarioRecognizer.destroy();
-                        asrScenarioRecognizer = null;
-                    } else {
-                        Log.i(TAG, "asrScenarioRecognizer already null");
-                    }
-                }
             }
         };
     }
 
     private void startRecognize() {
-        if (asrScenarioRecognizer != null && isInitialized) {
+        SupervisedScenarioRecognizer recognizer = scenarioRecognizer;
+        if (recognizer != null && isInitialized) {
             Log.d(TAG, "startRecognize");
-            asrScenarioRecognizer.startRecognize(asrScenarioListener);
+            if (vadGate != null) {
+                // 已在录音时清除之前留下的VAD门限状态
+                vadGate.reset();
+            }
+            recognizer.startRecognize();
         } else {
             Log.i(TAG, "asrRecognizer is null");
             showToast("Not Init!!!");
@@ -189,93 +232,94 @@ public class ScenarioDemoActivity extends BaseDemoActivity {
             showToast("no RECORD_AUDIO permission!");
             return;
         }
-        if (asrScenarioRecognizer == null || !isInitialized) {
+        if (scenarioRecognizer == null || !isInitialized) {
             showToast("Not Init!!!");
             return;
         }
-        if (audioRecord == null) {
-            initAudioRecord();
+        if (vadGate != null) {
+            Log.i(TAG, "already recording");
+            return;
         }
-        if (audioRecord != null) {
-            isRecording = true;
-            audioRecord.startRecording();
-            SingleThreadPool.getInstance().execute(this::loopWriteAudio, "ScenarioRecord");
+        // 麦克风只采集一次，同时录音的其他页面共用同一路采集
+        VadGate gate = new VadGate(this::writeAudio, SAMPLE_RATE_IN_HZ);
+        if (CaptureHub.getMicrophone().subscribe("Scenario", gate)) {
+            vadGate = gate;
         } else {
-            Log.w(TAG, "audioRecord is null");
+            Log.w(TAG, "subscribe microphone failed");
         }
     }
 
     /**
-     * 循环从AudioRecord读取音频流，并写入到AsrScenario引擎
+     * 写入音频流到当前命令词集合的AsrScenario引擎
+     *
+     * @param audioData 音频数据
+     * @param length 数据长度
      */
-    private void loopWriteAudio() {
-        while (isRecording) {
-            byte[] audioData = new byte[bufferSizeInBytes];
-            int read = audioRecord.read(audioData, 0, audioData.length);
-            if (read != AudioRecord.ERROR_INVALID_OPERATION) {
-                // 写入音频流
-                if (asrScenarioRecognizer != null && isInitialized) {
-                    asrScenarioRecognizer.writeAudio(audioData, audioData.length);
-                } else {
-                    Log.w(TAG, "asrScenarioRecognizer is null");
-                }
-            } else {
-                Log.e(TAG, "AudioRecord ERROR_INVALID_OPERATION");
-            }
+    private void writeAudio(byte[] audioData, int length) {
+        SupervisedScenarioRecognizer recognizer = scenarioRecognizer;
+        if (recognizer != null && isInitialized) {
+            recognizer.writeAudio(audioData, length);
+        } else {
+            Log.w(TAG, "asrScenarioRecognizer is null");
         }
     }
 
-    /**
-     * 创建默认 audioRecord
-     * 音频参数请参考本设置
-     */
-    private void initAudioRecord() {
-        // buffer size in bytes 1280
-        bufferSizeInBytes = AudioRecord.getMinBufferSize(SAMPLE_RATE_IN_HZ, AudioFormat.CHANNEL_IN_MONO,
-            AudioFormat.ENCODING_PCM_16BIT);
-        Log.d(TAG, "MinBufferSize:" + bufferSizeInBytes);
-        if (bufferSizeInBytes == AudioRecord.ERROR || bufferSizeInBytes == AudioRecord.ERROR_BAD_VALUE) {
-            Log.w(TAG, "Audio buffer can't initialize!");
-            return;
-        }
-        if (checkSelfPermission(Manifest.permission.RECORD_AUDIO) != PackageManager.PERMISSION_GRANTED) {
-            Log.w(TAG, "No RECORD_AUDIO permission");
-            return;
-        }
-        audioRecord = new AudioRecord(MediaRecorder.AudioSource.DEFAULT, SAMPLE_RATE_IN_HZ, AudioFormat.CHANNEL_IN_MONO,
-            AudioFormat.ENCODING_PCM_16BIT, bufferSizeInBytes);
-        if (audioRecord.getState() != AudioRecord.STATE_INITIALIZED) {
-            Log.w(TAG, "Audio Record can't initialize!");
-            return;
+    private CompletableFuture<Void> stopRecord() {
+        // 取消订阅时先写入缓冲区中剩余的音频，最后一个订阅者退出时释放麦克风
+        if (vadGate == null) {
+            Log.i(TAG, "not recording");
+            return CompletableFuture.completedFuture(null);
         }
-        Log.d(TAG, "Record init okay");
+        Log.d(TAG, "stopRecord");
+        CompletableFuture<Void> deliveryExited = CaptureHub.getMicrophone().unsubscribe(vadGate);
+        Log.d(TAG, "vad statistics: " + vadGate.getStatistics());
+        vadGate = null;
+        return deliveryExited;
     }
 
-    private void stopRecord() {
-        isRecording = false;
-        if (audioRecord != null) {
-            Log.d(TAG, "stopRecord");
-            audioRecord.stop();
-            audioRecord.release();
-            audioRecord = null;
-        } else {
-            Log.i(TAG, "audioRecord is null");
+    /**
+     * 在拍照和通话命令词集合之间切换，切换完成前旧引擎继续监听，录音不中断
+     */
+    private void switchCommands() {
+        SupervisedScenarioRecognizer recognizer = scenarioRecognizer;
+        if (recognizer == null || !isInitialized) {
+            showToast("Not Init!!!");
+            return;
         }
+        CommandSet next = recognizer.getCommandSetManager().getActiveSet() == CAMERA_COMMANDS ? CALL_COMMANDS
+            : CAMERA_COMMANDS;
+        recognizer.activate(next.getName()).whenCompleteAsync((commandSet, throwable) -> {
+            if (throwable != null) {
+                Log.w(TAG, "switch commands failed: " + throwable.getMessage());
+                return;
+            }
+            Log.d(TAG, "switch commands, " + recognizer.getStatistics());
+            showText("Commands:" + commandSet.getPayload() + ", swapMs: "
+                + TimeUnit.NANOSECONDS.toMillis(recognizer.getCommandSetManager().getLastSwapNanos()) + ", droppedMs: "
+                + recognizer.getCommandSetManager().getDroppedAudioMs());
+        }, getMainExecutor());
     }
 
     /**
-     * 销毁AsrScenarioRecognizer
+     * 结束会话，引擎归还给引擎池，不再销毁
      */
     private void destroy() {
-        stopRecord();
-        if (asrScenarioRecognizer != null) {
-            // 销毁引擎，释放资源
-            Log.d(TAG, "asrScenarioListener destroy");
-            asrScenarioRecognizer.destroy();
-            asrScenarioRecognizer = null;
-            asrScenarioListener = null;
-        } else {
+        CompletableFuture<Void> deliveryExited = stopRecord();
+        isInitialized = false;
+        asrScenarioListener = null;
+        SupervisedScenarioRecognizer recognizer = scenarioRecognizer;
+        scenarioRecognizer = null;
+        if (recognizer == null) {
             Log.i(TAG, "asrScenarioListener already null");
+            return;
+        }
+        if (!deliveryExited.isDone()) {
+            // 投递线程等待超时后可能仍在写入引擎，退出后再归还，避免引擎被下一个租用者同时使用
+            Log.d(TAG, "asrScenarioRecognizer release to pool after delivery exits");
+            deliveryExited.whenComplete((result, throwable) -> recognizer.close());
+            return;
         }
+        Log.d(TAG, "asrScenarioRecognizer release to pool");
+        recognizer.close();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.engine;
+
+import android.content.Context;
+
+import com.hihonor.mcs.intelligence.voice.SupportListener;
+import com.hihonor.mcs.intelligence.voice.Voices;
+import com.hihonor.mcs.intelligence.voice.asr.interfaces.AsrRecognizer;
+
+/**
+ * 基础语音识别引擎工厂
+ *
+ * @since 2024-07-18
+ */
+class AsrEngineFactory implements RecognizerPool.EngineFactory<AsrRecognizer> {
+    private final Context context;
+
+    AsrEngineFactory(Context context) {
+        this.context = context;
+    }
+
+    @Override
+    public void create(RecognizerPool.InitCallback<AsrRecognizer> callback) {
+        AsrRecognizer asrRecognizer = Voices.getAsrClient(context);
+        asrRecognizer.init(new SupportListener() {
+            @Override
+            public void onSupport() {
+                callback.onReady(asrRecognizer);
+            }
+
+            @Override
+            public void onError(int code, String msg) {
+                asrRecognizer.destroy();
+                callback.onError(code, msg);
+            }
+        });
+    }
+
+    @Override
+    public void reset(AsrRecognizer engine) {
+        // 取消可能未结束的识别，引擎保持初始化状态，下次直接startRecognize
+        engine.cancelRecognize();
+    }
+
+    @Override
+    public void destroy(AsrRecognizer engine) {
+        engine.destroy();
+    }
+}
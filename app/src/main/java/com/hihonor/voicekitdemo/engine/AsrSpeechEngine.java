@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.engine;
+
+import com.hihonor.mcs.intelligence.voice.asr.interfaces.AsrListener;
+import com.hihonor.mcs.intelligence.voice.asr.interfaces.AsrRecognizer;
+import com.hihonor.mcs.intelligence.voice.asr.result.AsrResult;
+
+/**
+ * 把已初始化的VoiceKit AsrRecognizer适配为SpeechEngine
+ *
+ * @since 2024-07-18
+ */
+public class AsrSpeechEngine implements SpeechEngine {
+    private final AsrRecognizer recognizer;
+
+    /**
+     * 构造函数
+     *
+     * @param recognizer 已初始化的ASR引擎
+     */
+    public AsrSpeechEngine(AsrRecognizer recognizer) {
+        this.recognizer = recognizer;
+    }
+
+    @Override
+    public void startRecognize(Listener listener) {
+        recognizer.startRecognize(new AsrListener() {
+            @Override
+            public void onReady() {
+            }
+
+            @Override
+            public void onSpeechStart() {
+                listener.onSpeechStart();
+            }
+
+            @Override
+            public void onRmsChanged(float value) {
+                listener.onRmsChanged(value);
+            }
+
+            @Override
+            public void onSpeechEnd() {
+                listener.onSpeechEnd();
+            }
+
+            @Override
+            public void onPartialResult(AsrResult asrResult) {
+                listener.onPartialResult(textOf(asrResult));
+            }
+
+            @Override
+            public void onResult(AsrResult asrResult) {
+                listener.onResult(textOf(asrResult));
+            }
+
+            @Override
+            public void onError(int code, String msg) {
+                listener.onError(code, msg);
+            }
+        });
+    }
+
+    private static String textOf(AsrResult asrResult) {
+        return asrResult == null ? "" : asrResult.getText();
+    }
+
+    @Override
+    public void writeAudio(byte[] audioData, int length) {
+        recognizer.writeAudio(audioData, length);
+    }
+
+    @Override
+    public void stopRecognize() {
+        recognizer.stopRecognize();
+    }
+
+    @Override
+    public void cancelRecognize() {
+        recognizer.cancelRecognize();
+    }
+}
@@ -0,0 +1,483 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.engine;
+
+import android.util.Log;
+
+import com.hihonor.mcs.intelligence.voice.asr.interfaces.AsrScenarioListener;
+import com.hihonor.mcs.intelligence.voice.asr.interfaces.AsrScenarioRecognizer;
+import com.hihonor.voicekitdemo.audio.AudioSink;
+import com.hihonor.voicekitdemo.audio.FrameAssembler;
+import com.hihonor.voicekitdemo.audio.PreRollBuffer;
+import com.hihonor.voicekitdemo.command.CommandSet;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * 场景化命令词集合管理
+ * 场景化引擎只能在init时注册关键词，因此每个命令词集合对应一个引擎池，只有第一次切换到该集合时才创建引擎。
+ * 切换集合时从新集合的池中租用引擎，租用完成前音频继续写入旧引擎，完成后在同一把锁下换入新引擎，录音不中断。
+ * SDK没有停止场景化识别的接口，开始过识别的旧引擎被销毁，只有没开始识别的引擎才归还给池。切换中没有可用引擎或当前引擎失效时音频暂存在缓冲区中，新引擎换入后先写入。
+ * 统计切换耗时和没有写入任何引擎的音频时长。writeAudio在投递线程中调用，其余方法可在任意线程中调用；
+ * 切换结果的回调和引擎的归还都在锁外执行，回调中可以再次调用本类的方法
+ *
+ * @since 2024-07-18
+ */
+public class CommandSetManager implements AudioSink {
+    /**
+     * 没有可用引擎时最多暂存的音频时长，超出部分丢弃最旧的音频
+     */
+    public static final int PENDING_AUDIO_MS = 2000;
+
+    private static final String TAG = CommandSetManager.class.getSimpleName();
+
+    private static final int FRAME_DURATION_MS = 40;
+
+    private final Function<String, RecognizerPool<AsrScenarioRecognizer>> poolProvider;
+
+    private final Function<AsrScenarioRecognizer, AsrScenarioListener> listenerFactory;
+
+    private final int sampleRate;
+
+    private final LongSupplier ticker;
+
+    private final Map<String, CommandSet> commandSets = new HashMap<>();
+
+    private final PreRollBuffer pendingAudio;
+
+    private CommandSet activeSet;
+
+    private AsrScenarioRecognizer activeEngine;
+
+    private CommandSet targetSet;
+
+    private CompletableFuture<AsrScenarioRecognizer> pendingLease;
+
+    private CompletableFuture<CommandSet> pendingSwap;
+
+    private long swapStartNanos = 0L;
+
+    private int generation = 0;
+
+    private boolean isRecognizing = false;
+
+    /**
+     * 当前引擎是否已开始识别，开始过识别的引擎不能归还给池
+     */
+    private boolean isActiveStarted = false;
+
+    /**
+     * 当前引擎失效后暂存音频，直到新引擎换入
+     */
+    private boolean isHoldingAudio = false;
+
+    private boolean isClosed = false;
+
+    private int swapCount = 0;
+
+    private int failedSwapCount = 0;
+
+    private long lastSwapNanos = 0L;
+
+    private long maxSwapNanos = 0L;
+
+    private long replayedBytes = 0L;
+
+    private long droppedBytes = 0L;
+
+    /**
+     * 构造函数
+     *
+     * @param poolProvider 按关键词列表获取场景化引擎池，如RecognizerPools::getScenarioPool
+     * @param listener 所有引擎共用的识别回调
+     * @param sampleRate 音频采样率
+     */
+    public CommandSetManager(Function<String, RecognizerPool<AsrScenarioRecognizer>> poolProvider,
+        AsrScenarioListener listener, int sampleRate) {
+        this(poolProvider, engine -> listener, sampleRate, System::nanoTime);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param poolProvider 按关键词列表获取场景化引擎池
+     * @param listenerFactory 为每个开始识别的引擎创建回调，回调可据此区分出错的是否为当前引擎
+     * @param sampleRate 音频采样率
+     * @param ticker 纳秒时钟
+     */
+    CommandSetManager(Function<String, RecognizerPool<AsrScenarioRecognizer>> poolProvider,
+        Function<AsrScenarioRecognizer, AsrScenarioListener> listenerFactory, int sampleRate, LongSupplier ticker) {
+        this.poolProvider = poolProvider;
+        this.listenerFactory = listenerFactory;
+        this.sampleRate = sampleRate;
+        this.ticker = ticker;
+        pendingAudio = PreRollBuffer.ofDuration(sampleRate, 1, PENDING_AUDIO_MS,
+            FrameAssembler.frameSizeInBytes(sampleRate, 1, 2, FRAME_DURATION_MS));
+    }
+
+    /**
+     * 注册命令词集合，引擎在第一次切换到该集合时才创建；同名集合的新版本正在使用时自动切换到新版本
+     *
+     * @param commandSet 命令词集合
+     * @return false表示已注册相同或更新的版本
+     */
+    public boolean register(CommandSet commandSet) {
+        boolean isActiveName;
+        synchronized (this) {
+            CommandSet registered = commandSets.get(commandSet.getName());
+            if (registered != null && !commandSet.isNewerThan(registered)) {
+                Log.i(TAG, "ignore " + commandSet + ", registered: " + registered);
+                return false;
+            }
+            commandSets.put(commandSet.getName(), commandSet);
+            CommandSet current = targetSet != null ? targetSet : activeSet;
+            isActiveName = current != null && current.getName().equals(commandSet.getName());
+        }
+        Log.d(TAG, "register " + commandSet);
+        if (isActiveName) {
+            activate(commandSet.getName());
+        }
+        return true;
+    }
+
+    /**
+     * 切换到已注册的命令词集合，切换完成前音频继续写入当前引擎
+     *
+     * @param name 集合名称
+     * @return 换入后的集合；被之后的切换取代时以CancellationException结束
+     */
+    public CompletableFuture<CommandSet> activate(String name) {
+        CompletableFuture<AsrScenarioRecognizer> lease;
+        CompletableFuture<CommandSet> swap;
+        CommandSet commandSet;
+        int swapGeneration;
+        Runnable abandoned;
+        synchronized (this) {
+            commandSet = commandSets.get(name);
+            if (commandSet == null || isClosed) {
+                CompletableFuture<CommandSet> failed = new CompletableFuture<>();
+                failed.completeExceptionally(new IllegalStateException(isClosed ? "closed" : "unknown " + name));
+                return failed;
+            }
+            if (commandSet == targetSet) {
+                return pendingSwap;
+            }
+            abandoned = abandonPendingSwap();
+            if (commandSet == activeSet && activeEngine != null) {
+                lease = null;
+                swap = CompletableFuture.completedFuture(commandSet);
+                swapGeneration = generation;
+            } else {
+                swapGeneration = ++generation;
+                swapStartNanos = ticker.getAsLong();
+                targetSet = commandSet;
+                lease = poolProvider.apply(commandSet.getPayload()).lease();
+                pendingLease = lease;
+                swap = new CompletableFuture<>();
+                pendingSwap = swap;
+            }
+        }
+        abandoned.run();
+        if (lease == null) {
+            return swap;
+        }
+        Log.d(TAG, "activate " + commandSet);
+        CommandSet leasedSet = commandSet;
+        lease.whenComplete((engine, throwable) -> onLeased(leasedSet, swapGeneration, engine, throwable, swap));
+        return swap;
+    }
+
+    /**
+     * 放弃未完成的切换，需持锁调用
+     *
+     * @return 取消租用并结束切换结果的动作，需在锁外执行
+     */
+    private Runnable abandonPendingSwap() {
+        if (pendingLease == null) {
+            return () -> { };
+        }
+        CompletableFuture<AsrScenarioRecognizer> lease = pendingLease;
+        CompletableFuture<CommandSet> swap = pendingSwap;
+        generation++;
+        pendingLease = null;
+        pendingSwap = null;
+        targetSet = null;
+        return () -> {
+            // 未完成的租用被取消后引擎会放回池中，已完成的由onLeased按代数不匹配归还
+            lease.cancel(false);
+            swap.completeExceptionally(new CancellationException("superseded"));
+        };
+    }
+
+    private void onLeased(CommandSet commandSet, int swapGeneration, AsrScenarioRecognizer engine,
+        Throwable throwable, CompletableFuture<CommandSet> swap) {
+        CommandSet retiredSet = null;
+        AsrScenarioRecognizer retiredEngine = null;
+        boolean isRetiredStarted = false;
+        boolean isSuperseded;
+        synchronized (this) {
+            isSuperseded = swapGeneration != generation || isClosed;
+            if (!isSuperseded) {
+                pendingLease = null;
+                pendingSwap = null;
+                targetSet = null;
+                if (throwable != null) {
+                    failedSwapCount++;
+                } else {
+                    retiredSet = activeSet;
+                    retiredEngine = activeEngine;
+                    isRetiredStarted = isActiveStarted;
+                    swapIn(commandSet, engine);
+                }
+            }
+        }
+        if (isSuperseded) {
+            if (engine != null) {
+                poolProvider.apply(commandSet.getPayload()).release(engine);
+            }
+            swap.completeExceptionally(new CancellationException("superseded"));
+            return;
+        }
+        if (throwable != null) {
+            Log.w(TAG, "activate " + commandSet + " failed: " + throwable.getMessage());
+            swap.completeExceptionally(throwable);
+            return;
+        }
+        Log.d(TAG, "swapped in " + commandSet + ", " + getStatistics());
+        retire(retiredSet, retiredEngine, isRetiredStarted);
+        swap.complete(commandSet);
+    }
+
+    /**
+     * 换入新引擎，需持锁调用；识别中时新引擎先开始识别并写入暂存的音频，保证音频顺序
+     */
+    private void swapIn(CommandSet commandSet, AsrScenarioRecognizer engine) {
+        // 先成为当前引擎，startRecognize中同步回调的错误也属于当前引擎
+        activeSet = commandSet;
+        activeEngine = engine;
+        isActiveStarted = isRecognizing;
+        if (isRecognizing) {
+            engine.startRecognize(listenerFactory.apply(engine));
+            replayedBytes += pendingAudio.drainTo(engine::writeAudio);
+        }
+        pendingAudio.clear();
+        isHoldingAudio = false;
+        swapCount++;
+        lastSwapNanos = ticker.getAsLong() - swapStartNanos;
+        maxSwapNanos = Math.max(maxSwapNanos, lastSwapNanos);
+    }
+
+    /**
+     * 换出不再使用的引擎，需在锁外调用；开始过识别的引擎无法停止识别，销毁后不会再被租用
+     */
+    private void retire(CommandSet retiredSet, AsrScenarioRecognizer retiredEngine, boolean isStarted) {
+        if (retiredEngine == null) {
+            return;
+        }
+        RecognizerPool<AsrScenarioRecognizer> pool = poolProvider.apply(retiredSet.getPayload());
+        if (isStarted) {
+            pool.invalidate(retiredEngine);
+        } else {
+            pool.release(retiredEngine);
+        }
+    }
+
+    /**
+     * 开始识别，之后换入的引擎也会自动开始识别
+     *
+     * @return false表示还没有可用的引擎，引擎换入后自动开始识别
+     */
+    public synchronized boolean startRecognize() {
+        isRecognizing = true;
+        if (activeEngine == null) {
+            return false;
+        }
+        isActiveStarted = true;
+        activeEngine.startRecognize(listenerFactory.apply(activeEngine));
+        return true;
+    }
+
+    /**
+     * 开始识别后写入当前引擎；切换中且没有可用引擎时暂存，换入新引擎后先写入
+     *
+     * @param audioData 音频数据
+     * @param length 有效数据长度
+     */
+    @Override
+    public synchronized void writeAudio(byte[] audioData, int length) {
+        if (!isRecognizing) {
+            return;
+        }
+        if (activeEngine != null) {
+            activeEngine.writeAudio(audioData, length);
+        } else if (pendingLease != null || isHoldingAudio) {
+            pendingAudio.write(audioData, 0, length);
+        } else {
+            droppedBytes += length;
+        }
+    }
+
+    /**
+     * 当前引擎出错不可复用时调用，引擎被销毁；之后的音频暂存在缓冲区中，再次切换换入新引擎后先写入
+     *
+     * @return 被销毁的引擎所属的集合，没有当前引擎时为null
+     */
+    public CommandSet invalidateActive() {
+        return invalidateIf(null);
+    }
+
+    /**
+     * 引擎出错不可复用时调用，只有该引擎仍是当前引擎时才销毁，已被换出的引擎的错误不影响当前引擎
+     *
+     * @param engine 出错的引擎
+     * @return 被销毁的引擎所属的集合，该引擎不是当前引擎时为null
+     * @see #invalidateActive()
+     */
+    public CommandSet invalidate(AsrScenarioRecognizer engine) {
+        return engine == null ? null : invalidateIf(engine);
+    }
+
+    private CommandSet invalidateIf(AsrScenarioRecognizer expected) {
+        CommandSet invalidSet;
+        AsrScenarioRecognizer invalidEngine;
+        synchronized (this) {
+            if (expected != null && expected != activeEngine) {
+                return null;
+            }
+            invalidSet = activeSet;
+            invalidEngine = activeEngine;
+            activeEngine = null;
+            isActiveStarted = false;
+            isHoldingAudio = invalidEngine != null && !isClosed;
+        }
+        if (invalidEngine != null) {
+            Log.d(TAG, "invalidate " + invalidSet);
+            poolProvider.apply(invalidSet.getPayload()).invalidate(invalidEngine);
+        }
+        return invalidEngine == null ? null : invalidSet;
+    }
+
+    /**
+     * 停止使用，未完成的切换被取消；当前引擎没开始识别时归还给池，否则销毁
+     */
+    public void close() {
+        CommandSet retiredSet;
+        AsrScenarioRecognizer retiredEngine;
+        boolean isRetiredStarted;
+        Runnable abandoned;
+        synchronized (this) {
+            if (isClosed) {
+                return;
+            }
+            isClosed = true;
+            isRecognizing = false;
+            isHoldingAudio = false;
+            abandoned = abandonPendingSwap();
+            retiredSet = activeSet;
+            retiredEngine = activeEngine;
+            isRetiredStarted = isActiveStarted;
+            activeEngine = null;
+            isActiveStarted = false;
+            pendingAudio.clear();
+        }
+        abandoned.run();
+        retire(retiredSet, retiredEngine, isRetiredStarted);
+        Log.d(TAG, "close, " + getStatistics());
+    }
+
+    /**
+     * 当前正在使用的集合
+     *
+     * @return 集合，还没有换入任何集合时为null
+     */
+    public synchronized CommandSet getActiveSet() {
+        return activeSet;
+    }
+
+    /**
+     * 引擎是否为当前正在使用的引擎
+     *
+     * @param engine 引擎
+     * @return false表示引擎已被换出或销毁
+     */
+    public synchronized boolean isActive(AsrScenarioRecognizer engine) {
+        return engine != null && engine == activeEngine;
+    }
+
+    /**
+     * 是否正在切换
+     *
+     * @return true表示等待新引擎换入
+     */
+    public synchronized boolean isSwapping() {
+        return targetSet != null;
+    }
+
+    /**
+     * 成功切换的次数，包括第一次换入
+     *
+     * @return 次数
+     */
+    public synchronized int getSwapCount() {
+        return swapCount;
+    }
+
+    /**
+     * 最近一次切换从调用activate到新引擎换入的耗时
+     *
+     * @return 纳秒
+     */
+    public synchronized long getLastSwapNanos() {
+        return lastSwapNanos;
+    }
+
+    /**
+     * 最长的一次切换耗时
+     *
+     * @return 纳秒
+     */
+    public synchronized long getMaxSwapNanos() {
+        return maxSwapNanos;
+    }
+
+    /**
+     * 没有写入任何引擎的音频时长，包括暂存缓冲区溢出覆盖的音频
+     *
+     * @return 毫秒
+     */
+    public synchronized long getDroppedAudioMs() {
+        return bytesToMillis(droppedBytes + pendingAudio.getOverwrittenBytes());
+    }
+
+    /**
+     * 暂存后在新引擎换入时补写的音频时长
+     *
+     * @return 毫秒
+     */
+    public synchronized long getReplayedAudioMs() {
+        return bytesToMillis(replayedBytes);
+    }
+
+    private long bytesToMillis(long bytes) {
+        return bytes * TimeUnit.SECONDS.toMillis(1L) / (sampleRate * 2L);
+    }
+
+    /**
+     * 切换统计，用于日志输出
+     *
+     * @return 统计信息
+     */
+    public synchronized String getStatistics() {
+        return "active=" + activeSet + ", swaps=" + swapCount + ", failed=" + failedSwapCount + ", lastSwapMs="
+            + TimeUnit.NANOSECONDS.toMillis(lastSwapNanos) + ", maxSwapMs=" + TimeUnit.NANOSECONDS.toMillis(
+            maxSwapNanos) + ", replayedMs=" + getReplayedAudioMs() + ", droppedMs=" + getDroppedAudioMs();
+    }
+}
@@ -0,0 +1,332 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.engine;
+
+import android.util.Log;
+
+import com.hihonor.mcs.intelligence.voice.asr.interfaces.AsrListener;
+import com.hihonor.mcs.intelligence.voice.asr.interfaces.AsrRecognizer;
+import com.hihonor.mcs.intelligence.voice.asr.result.AsrResult;
+import com.hihonor.voicekitdemo.audio.AudioSink;
+import com.hihonor.voicekitdemo.audio.PreRollBuffer;
+import com.hihonor.voicekitdemo.engine.SessionStateMachine.State;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+/**
+ * 连续识别
+ * 一句话识别结束（onSpeechEnd/onResult）后自动再次startRecognize，录音不中断；两句话之间的音频保存在间隙缓冲区中，
+ * 重新开始识别后先写入引擎，不丢失音频。统计两句话之间从识别结束到重新开始识别的间隙耗时。
+ * writeAudio在投递线程中调用，stop/cancel和重启任务在restartExecutor所在的线程中执行
+ *
+ * @since 2024-07-18
+ */
+public class ContinuousRecognizer implements AudioSink {
+    /**
+     * 间隙缓冲区默认时长
+     */
+    public static final int DEFAULT_GAP_BUFFER_MS = 2000;
+
+    private static final String TAG = ContinuousRecognizer.class.getSimpleName();
+
+    /**
+     * 连续出错达到该次数后退出连续识别，避免引擎异常时反复重启
+     */
+    private static final int MAX_CONSECUTIVE_ERRORS = 3;
+
+    private final AsrRecognizer recognizer;
+
+    private final AsrListener listener;
+
+    private final Executor restartExecutor;
+
+    private final LongSupplier ticker;
+
+    private final SessionStateMachine session;
+
+    private final AsrListener engineListener = new EngineListener();
+
+    private final AudioSink engineSink;
+
+    /**
+     * 识别间隙中的音频，只在投递线程中访问
+     */
+    private final PreRollBuffer gapBuffer;
+
+    private final AtomicBoolean isGapFlushPending = new AtomicBoolean(false);
+
+    private volatile boolean isActive = false;
+
+    private volatile long gapStartNanos = 0L;
+
+    private volatile int consecutiveErrors = 0;
+
+    private volatile int utteranceCount = 0;
+
+    private volatile int restartCount = 0;
+
+    private volatile long lastGapNanos = 0L;
+
+    private volatile long maxGapNanos = 0L;
+
+    private volatile long totalGapNanos = 0L;
+
+    private volatile long flushedBytes = 0L;
+
+    /**
+     * 构造函数
+     *
+     * @param recognizer 已初始化的ASR引擎
+     * @param listener 识别回调，每句话都会回调onResult
+     * @param restartExecutor 执行重启的线程，应与调用stop/cancel的线程相同
+     * @param sampleRate 采样率，16bit单声道
+     * @param frameSizeInBytes 每次写入引擎的最大字节数
+     */
+    public ContinuousRecognizer(AsrRecognizer recognizer, AsrListener listener, Executor restartExecutor,
+        int sampleRate, int frameSizeInBytes) {
+        this(recognizer, listener, restartExecutor, PreRollBuffer.ofDuration(sampleRate, 1, DEFAULT_GAP_BUFFER_MS,
+            frameSizeInBytes), System::nanoTime);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param recognizer 已初始化的ASR引擎
+     * @param listener 识别回调
+     * @param restartExecutor 执行重启的线程
+     * @param gapBuffer 间隙缓冲区
+     * @param ticker 纳秒时钟
+     */
+    ContinuousRecognizer(AsrRecognizer recognizer, AsrListener listener, Executor restartExecutor,
+        PreRollBuffer gapBuffer, LongSupplier ticker) {
+        this.recognizer = recognizer;
+        this.listener = listener;
+        this.restartExecutor = restartExecutor;
+        this.gapBuffer = gapBuffer;
+        this.ticker = ticker;
+        engineSink = recognizer::writeAudio;
+        session = new SessionStateMachine(ticker);
+        // 引擎由调用方初始化完成
+        session.transition(State.IDLE, State.INITIALIZING);
+        session.transition(State.INITIALIZING, State.READY);
+    }
+
+    /**
+     * 开始连续识别
+     *
+     * @return true表示开始成功，false表示已经在连续识别中
+     */
+    public boolean start() {
+        if (isActive) {
+            Log.i(TAG, "already started");
+            return false;
+        }
+        isActive = true;
+        consecutiveErrors = 0;
+        return startUtterance();
+    }
+
+    /**
+     * 停止连续识别，之后不再重启
+     *
+     * @return true表示当前这句话还会回调最终结果，false表示停在两句话之间
+     */
+    public boolean stop() {
+        isActive = false;
+        if (session.transition(State.RECOGNIZING, State.STOPPING)) {
+            recognizer.stopRecognize();
+        }
+        Log.d(TAG, "stop, " + getStatistics());
+        return session.getState() == State.STOPPING;
+    }
+
+    /**
+     * 取消连续识别，当前这句话没有最终结果
+     */
+    public void cancel() {
+        isActive = false;
+        if (session.transition(State.RECOGNIZING, State.READY) || session.transition(State.STOPPING, State.READY)) {
+            recognizer.cancelRecognize();
+        }
+        Log.d(TAG, "cancel, " + getStatistics());
+    }
+
+    /**
+     * 识别中写入引擎，识别间隙中写入间隙缓冲区；重新开始识别后先写入间隙中的音频
+     *
+     * @param audioData 音频数据
+     * @param length 有效数据长度
+     */
+    @Override
+    public void writeAudio(byte[] audioData, int length) {
+        if (session.getState() != State.RECOGNIZING) {
+            gapBuffer.write(audioData, 0, length);
+            return;
+        }
+        if (isGapFlushPending.compareAndSet(true, false)) {
+            flushedBytes += gapBuffer.drainTo(engineSink);
+        }
+        recognizer.writeAudio(audioData, length);
+    }
+
+    private boolean startUtterance() {
+        if (!session.transition(State.READY, State.STARTING)) {
+            Log.i(TAG, "start ignored, state: " + session.getState());
+            return false;
+        }
+        recognizer.startRecognize(engineListener);
+        isGapFlushPending.set(true);
+        session.transition(State.STARTING, State.RECOGNIZING);
+        return true;
+    }
+
+    private void restart() {
+        if (!isActive) {
+            return;
+        }
+        if (startUtterance()) {
+            restartCount++;
+            long gapNanos = ticker.getAsLong() - gapStartNanos;
+            lastGapNanos = gapNanos;
+            maxGapNanos = Math.max(maxGapNanos, gapNanos);
+            totalGapNanos += gapNanos;
+            Log.d(TAG, "restarted, gap ms: " + TimeUnit.NANOSECONDS.toMillis(gapNanos));
+        }
+    }
+
+    /**
+     * 一句话结束，之后的音频写入间隙缓冲区
+     */
+    private void endUtterance(State from, State to) {
+        if (session.transition(from, to) && from == State.RECOGNIZING) {
+            gapStartNanos = ticker.getAsLong();
+        }
+    }
+
+    /**
+     * 识别结束，回到READY；连续识别中先提交重启任务再回调，回调耗时不计入间隙
+     */
+    private void finishUtterance() {
+        endUtterance(State.STOPPING, State.READY);
+        endUtterance(State.RECOGNIZING, State.READY);
+        if (isActive) {
+            restartExecutor.execute(this::restart);
+        }
+    }
+
+    /**
+     * 是否在连续识别中
+     *
+     * @return true表示连续识别中
+     */
+    public boolean isActive() {
+        return isActive;
+    }
+
+    /**
+     * 已完成识别的句数
+     *
+     * @return 句数
+     */
+    public int getUtteranceCount() {
+        return utteranceCount;
+    }
+
+    /**
+     * 自动重启的次数
+     *
+     * @return 次数
+     */
+    public int getRestartCount() {
+        return restartCount;
+    }
+
+    /**
+     * 最近一次间隙的耗时
+     *
+     * @return 纳秒
+     */
+    public long getLastGapNanos() {
+        return lastGapNanos;
+    }
+
+    /**
+     * 最长的间隙耗时
+     *
+     * @return 纳秒
+     */
+    public long getMaxGapNanos() {
+        return maxGapNanos;
+    }
+
+    /**
+     * 统计信息，用于日志输出
+     *
+     * @return 统计信息
+     */
+    public String getStatistics() {
+        int restarts = restartCount;
+        long averageGapMs = restarts == 0 ? 0L : TimeUnit.NANOSECONDS.toMillis(totalGapNanos / restarts);
+        return "utterances=" + utteranceCount + ", restarts=" + restarts + ", avgGapMs=" + averageGapMs
+            + ", maxGapMs=" + TimeUnit.NANOSECONDS.toMillis(maxGapNanos) + ", flushed=" + flushedBytes
+            + ", overwritten=" + gapBuffer.getOverwrittenBytes();
+    }
+
+    /**
+     * 引擎回调，处理重启后转发给调用方
+     *
+     * @since 2024-07-18
+     */
+    private final class EngineListener implements AsrListener {
+        @Override
+        public void onReady() {
+            listener.onReady();
+        }
+
+        @Override
+        public void onSpeechStart() {
+            listener.onSpeechStart();
+        }
+
+        @Override
+        public void onRmsChanged(float value) {
+            listener.onRmsChanged(value);
+        }
+
+        @Override
+        public void onSpeechEnd() {
+            // 引擎检测到说话结束，等待最终结果期间的音频属于下一句话
+            endUtterance(State.RECOGNIZING, State.STOPPING);
+            listener.onSpeechEnd();
+        }
+
+        @Override
+        public void onPartialResult(AsrResult asrResult) {
+            listener.onPartialResult(asrResult);
+        }
+
+        @Override
+        public void onResult(AsrResult asrResult) {
+            utteranceCount++;
+            consecutiveErrors = 0;
+            finishUtterance();
+            listener.onResult(asrResult);
+        }
+
+        @Override
+        public void onError(int code, String msg) {
+            consecutiveErrors++;
+            if (consecutiveErrors >= MAX_CONSECUTIVE_ERRORS) {
+                Log.w(TAG, "too many consecutive errors, stop continuous recognition");
+                isActive = false;
+            }
+            finishUtterance();
+            listener.onError(code, msg);
+        }
+    }
+}
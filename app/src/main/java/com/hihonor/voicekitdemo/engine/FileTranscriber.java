@@ -0,0 +1,409 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.engine;
+
+import android.util.Log;
+
+import com.hihonor.mcs.intelligence.voice.asr.interfaces.AsrListener;
+import com.hihonor.mcs.intelligence.voice.asr.interfaces.AsrRecognizer;
+import com.hihonor.mcs.intelligence.voice.asr.result.AsrResult;
+import com.hihonor.voicekitdemo.audio.FrameAssembler;
+import com.hihonor.voicekitdemo.audio.MappedAudioFile;
+import com.hihonor.voicekitdemo.audio.RealTimePacer;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.LongSupplier;
+
+/**
+ * 离线文件转写
+ * 把内存映射的WAV/PCM文件按固定时长的帧写入ASR引擎。PACED模式按音频时长实时写入，模拟麦克风；
+ * FAST模式不等待，只在引擎检测到一句话结束时等待最终结果后重新开始识别。
+ * 转写是阻塞调用，应在后台线程中执行，同一时间一个引擎只能转写一个文件
+ *
+ * @since 2024-07-18
+ */
+public class FileTranscriber {
+    private static final String TAG = FileTranscriber.class.getSimpleName();
+
+    /**
+     * 写入引擎的音频帧时长
+     */
+    private static final int FRAME_DURATION_MS = 40;
+
+    /**
+     * 等待最终结果的最长时间
+     */
+    private static final long RESULT_TIMEOUT_MS = 10_000L;
+
+    private final AsrRecognizer recognizer;
+
+    private final int sampleRate;
+
+    private final LongSupplier ticker;
+
+    private final byte[] frame;
+
+    private volatile boolean isCancelled = false;
+
+    /**
+     * 写入方式
+     *
+     * @since 2024-07-18
+     */
+    public enum Mode {
+        /**
+         * 按音频时长实时写入
+         */
+        PACED,
+
+        /**
+         * 引擎能接收多快就写入多快
+         */
+        FAST
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param recognizer 已初始化的ASR引擎
+     * @param sampleRate 引擎要求的采样率，只接受该采样率的单声道文件
+     */
+    public FileTranscriber(AsrRecognizer recognizer, int sampleRate) {
+        this(recognizer, sampleRate, System::nanoTime);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param recognizer 已初始化的ASR引擎
+     * @param sampleRate 引擎要求的采样率
+     * @param ticker 纳秒时钟
+     */
+    FileTranscriber(AsrRecognizer recognizer, int sampleRate, LongSupplier ticker) {
+        this.recognizer = recognizer;
+        this.sampleRate = sampleRate;
+        this.ticker = ticker;
+        frame = new byte[FrameAssembler.frameSizeInBytes(sampleRate, 1, 2, FRAME_DURATION_MS)];
+    }
+
+    /**
+     * 转写目录下的所有.wav和.pcm文件，按文件名顺序逐个转写
+     *
+     * @param directory 目录
+     * @param mode 写入方式
+     * @return 每个文件的转写结果，打开失败的文件也有一条失败结果
+     */
+    public List<Transcript> transcribeDirectory(File directory, Mode mode) {
+        List<Transcript> transcripts = new ArrayList<>();
+        File[] files = directory.listFiles(FileTranscriber::isAudioFile);
+        if (files == null) {
+            Log.w(TAG, "can not list directory: " + directory);
+            return transcripts;
+        }
+        Arrays.sort(files);
+        for (File file : files) {
+            if (isCancelled) {
+                break;
+            }
+            try {
+                transcripts.add(transcribe(MappedAudioFile.open(file), mode));
+            } catch (IOException exception) {
+                Log.w(TAG, "open " + file.getName() + " failed: " + exception.getMessage());
+                transcripts.add(Transcript.failed(file.getName(), exception.getMessage()));
+            }
+        }
+        return transcripts;
+    }
+
+    private static boolean isAudioFile(File file) {
+        String name = file.getName().toLowerCase(Locale.ROOT);
+        return file.isFile() && (name.endsWith(".wav") || name.endsWith(".pcm"));
+    }
+
+    /**
+     * 转写一个文件，引擎一句话结束后自动重新开始识别，直到文件写完
+     *
+     * @param file 音频文件
+     * @param mode 写入方式
+     * @return 转写结果
+     */
+    public Transcript transcribe(MappedAudioFile file, Mode mode) {
+        if (file.getSampleRate() != sampleRate || file.getChannelCount() != 1) {
+            return Transcript.failed(file.getName(), "unsupported format, sampleRate: " + file.getSampleRate()
+                + ", channels: " + file.getChannelCount());
+        }
+        Transcript transcript = new Transcript(file.getName(), file.getDurationMs());
+        long startNanos = ticker.getAsLong();
+        RealTimePacer pacer = new RealTimePacer(sampleRate, 1, ticker);
+        pacer.start();
+        long fedBytes = 0L;
+        UtteranceListener utterance = startUtterance();
+        while (file.hasRemaining() && !isCancelled) {
+            if (utterance.isEnded()) {
+                if (!collect(utterance, transcript)) {
+                    break;
+                }
+                utterance = startUtterance();
+            }
+            int length = file.read(frame, 0, frame.length);
+            fedBytes += length;
+            if (mode == Mode.PACED && !pacer.await(fedBytes)) {
+                isCancelled = true;
+                break;
+            }
+            recognizer.writeAudio(frame, length);
+        }
+        if (isCancelled) {
+            recognizer.cancelRecognize();
+            transcript.errorMessage = "cancelled";
+        } else if (transcript.errorMessage == null) {
+            if (!utterance.isEnded()) {
+                recognizer.stopRecognize();
+            }
+            collect(utterance, transcript);
+        }
+        transcript.processingNanos = ticker.getAsLong() - startNanos;
+        Log.d(TAG, transcript.toString());
+        return transcript;
+    }
+
+    private UtteranceListener startUtterance() {
+        UtteranceListener utterance = new UtteranceListener();
+        recognizer.startRecognize(utterance);
+        return utterance;
+    }
+
+    /**
+     * 等待这句话的最终结果并追加到转写结果中
+     *
+     * @return false表示等待超时或被中断，不能继续转写
+     */
+    private boolean collect(UtteranceListener utterance, Transcript transcript) {
+        try {
+            String text = utterance.result.get(RESULT_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            transcript.append(text);
+            return true;
+        } catch (ExecutionException exception) {
+            transcript.errorCount++;
+            Log.w(TAG, transcript.name + " utterance failed: " + exception.getCause().getMessage());
+            return true;
+        } catch (TimeoutException exception) {
+            recognizer.cancelRecognize();
+            transcript.errorMessage = "result timeout";
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            recognizer.cancelRecognize();
+            transcript.errorMessage = "interrupted";
+        }
+        return false;
+    }
+
+    /**
+     * 取消转写，正在转写的文件立即结束，目录中剩余的文件不再转写
+     */
+    public void cancel() {
+        isCancelled = true;
+    }
+
+    /**
+     * 生成批量转写报告，每个文件一行，最后一行为汇总
+     *
+     * @param transcripts 转写结果
+     * @return 报告
+     */
+    public static String formatReport(List<Transcript> transcripts) {
+        StringBuilder report = new StringBuilder();
+        long audioMs = 0L;
+        long processingNanos = 0L;
+        for (Transcript transcript : transcripts) {
+            report.append(transcript).append('\n');
+            audioMs += transcript.audioDurationMs;
+            processingNanos += transcript.processingNanos;
+        }
+        report.append("total: files=").append(transcripts.size()).append(", audioMs=").append(audioMs)
+            .append(", rtf=").append(formatRtf(processingNanos, audioMs));
+        return report.toString();
+    }
+
+    private static String formatRtf(long processingNanos, long audioMs) {
+        double rtf = audioMs == 0L ? 0.0 : (double) TimeUnit.NANOSECONDS.toMicros(processingNanos) / (audioMs * 1000);
+        return String.format(Locale.ROOT, "%.3f", rtf);
+    }
+
+    /**
+     * 一句话的识别回调
+     *
+     * @since 2024-07-18
+     */
+    private static final class UtteranceListener implements AsrListener {
+        private final CompletableFuture<String> result = new CompletableFuture<>();
+
+        private volatile boolean isSpeechEnded = false;
+
+        /**
+         * 引擎已检测到说话结束或已回调结果，之后的音频应写入下一句话
+         */
+        boolean isEnded() {
+            return isSpeechEnded || result.isDone();
+        }
+
+        @Override
+        public void onReady() {
+        }
+
+        @Override
+        public void onSpeechStart() {
+        }
+
+        @Override
+        public void onRmsChanged(float value) {
+        }
+
+        @Override
+        public void onSpeechEnd() {
+            isSpeechEnded = true;
+        }
+
+        @Override
+        public void onPartialResult(AsrResult asrResult) {
+        }
+
+        @Override
+        public void onResult(AsrResult asrResult) {
+            result.complete(asrResult == null ? "" : asrResult.getText());
+        }
+
+        @Override
+        public void onError(int code, String msg) {
+            result.completeExceptionally(new IllegalStateException("asr error " + code + ": " + msg));
+        }
+    }
+
+    /**
+     * 一个文件的转写结果
+     *
+     * @since 2024-07-18
+     */
+    public static final class Transcript {
+        private final String name;
+
+        private final long audioDurationMs;
+
+        private final StringBuilder text = new StringBuilder();
+
+        private int utteranceCount = 0;
+
+        private int errorCount = 0;
+
+        private long processingNanos = 0L;
+
+        private String errorMessage;
+
+        Transcript(String name, long audioDurationMs) {
+            this.name = name;
+            this.audioDurationMs = audioDurationMs;
+        }
+
+        static Transcript failed(String name, String errorMessage) {
+            Transcript transcript = new Transcript(name, 0L);
+            transcript.errorMessage = errorMessage;
+            return transcript;
+        }
+
+        void append(String utterance) {
+            utteranceCount++;
+            text.append(utterance);
+        }
+
+        /**
+         * 文件名称
+         *
+         * @return 名称
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * 各句最终结果按顺序拼接的文本
+         *
+         * @return 文本
+         */
+        public String getText() {
+            return text.toString();
+        }
+
+        /**
+         * 音频时长
+         *
+         * @return 毫秒
+         */
+        public long getAudioDurationMs() {
+            return audioDurationMs;
+        }
+
+        /**
+         * 处理耗时
+         *
+         * @return 毫秒
+         */
+        public long getProcessingMs() {
+            return TimeUnit.NANOSECONDS.toMillis(processingNanos);
+        }
+
+        /**
+         * 实时率，处理耗时与音频时长之比，小于1表示快于实时
+         *
+         * @return 实时率，音频时长为0时返回0
+         */
+        public double getRealTimeFactor() {
+            return audioDurationMs == 0L ? 0.0 : (double) processingNanos / TimeUnit.MILLISECONDS.toNanos(
+                audioDurationMs);
+        }
+
+        /**
+         * 识别结果的句数
+         *
+         * @return 句数
+         */
+        public int getUtteranceCount() {
+            return utteranceCount;
+        }
+
+        /**
+         * 识别出错的句数
+         *
+         * @return 句数
+         */
+        public int getErrorCount() {
+            return errorCount;
+        }
+
+        /**
+         * 转写失败的原因
+         *
+         * @return 失败原因，成功时为null
+         */
+        public String getErrorMessage() {
+            return errorMessage;
+        }
+
+        @Override
+        public String toString() {
+            return name + ": " + (errorMessage == null ? "ok" : errorMessage) + ", audioMs=" + audioDurationMs
+                + ", processingMs=" + getProcessingMs() + ", rtf=" + formatRtf(processingNanos, audioDurationMs)
+                + ", utterances=" + utteranceCount + ", errors=" + errorCount;
+        }
+    }
+}
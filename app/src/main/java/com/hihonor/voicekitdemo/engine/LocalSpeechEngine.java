@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.engine;
+
+/**
+ * 本地替身识别引擎，单声道16bit
+ * 按帧能量判断说话开始和结束，语音持续期间回调中间态结果，静音达到端点时长后回调最终结果，
+ * 结果文本为语音时长。可设置每毫秒音频的模拟处理耗时，用于在设备外评估引擎负载对采集链路的影响
+ *
+ * @since 2024-07-18
+ */
+public class LocalSpeechEngine implements SpeechEngine {
+    /**
+     * 默认能量门限
+     */
+    public static final int DEFAULT_ENERGY_THRESHOLD = 500;
+
+    /**
+     * 默认端点静音时长
+     */
+    public static final int DEFAULT_END_SILENCE_MS = 600;
+
+    private static final int BYTES_PER_SAMPLE = 2;
+
+    private static final int MILLIS_PER_SECOND = 1000;
+
+    private final long bytesPerSecond;
+
+    private final double energyThreshold;
+
+    private final long endSilenceBytes;
+
+    private long processingNanosPerMs = 0L;
+
+    private Listener listener;
+
+    private boolean isInSpeech = false;
+
+    private boolean isFinished = true;
+
+    private long speechBytes = 0L;
+
+    private long silenceBytes = 0L;
+
+    private long writtenBytes = 0L;
+
+    private int utteranceCount = 0;
+
+    /**
+     * 使用默认参数的构造函数
+     *
+     * @param sampleRate 采样率
+     */
+    public LocalSpeechEngine(int sampleRate) {
+        this(sampleRate, DEFAULT_ENERGY_THRESHOLD, DEFAULT_END_SILENCE_MS);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param sampleRate 采样率
+     * @param energyThreshold 能量门限，16bit采样的均方根值
+     * @param endSilenceMs 说话后静音达到该时长即判定一句话结束
+     */
+    public LocalSpeechEngine(int sampleRate, int energyThreshold, int endSilenceMs) {
+        bytesPerSecond = (long) sampleRate * BYTES_PER_SAMPLE;
+        this.energyThreshold = energyThreshold;
+        endSilenceBytes = bytesPerSecond * endSilenceMs / MILLIS_PER_SECOND;
+    }
+
+    /**
+     * 设置模拟处理耗时，在writeAudio中忙等
+     *
+     * @param nanosPerMs 每毫秒音频的处理耗时
+     * @return this
+     */
+    public LocalSpeechEngine setProcessingCost(long nanosPerMs) {
+        processingNanosPerMs = nanosPerMs;
+        return this;
+    }
+
+    @Override
+    public void startRecognize(Listener listener) {
+        this.listener = listener;
+        isInSpeech = false;
+        isFinished = false;
+        speechBytes = 0L;
+        silenceBytes = 0L;
+    }
+
+    @Override
+    public void writeAudio(byte[] audioData, int length) {
+        if (isFinished || length <= 0) {
+            return;
+        }
+        writtenBytes += length;
+        simulateProcessing(length);
+        if (rms(audioData, length) >= energyThreshold) {
+            if (!isInSpeech) {
+                isInSpeech = true;
+                listener.onSpeechStart();
+            }
+            speechBytes += length;
+            silenceBytes = 0L;
+            listener.onPartialResult(describe());
+            return;
+        }
+        if (isInSpeech) {
+            silenceBytes += length;
+            if (silenceBytes >= endSilenceBytes) {
+                finish();
+            }
+        }
+    }
+
+    @Override
+    public void stopRecognize() {
+        if (!isFinished) {
+            finish();
+        }
+    }
+
+    @Override
+    public void cancelRecognize() {
+        isFinished = true;
+    }
+
+    private void finish() {
+        isFinished = true;
+        if (isInSpeech) {
+            listener.onSpeechEnd();
+        }
+        utteranceCount++;
+        listener.onResult(describe());
+    }
+
+    private String describe() {
+        return "speech " + speechBytes * MILLIS_PER_SECOND / bytesPerSecond + "ms";
+    }
+
+    private void simulateProcessing(int length) {
+        if (processingNanosPerMs <= 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        long deadline = now + processingNanosPerMs * length * MILLIS_PER_SECOND / bytesPerSecond;
+        // 忙等而不是sleep，模拟引擎占用CPU
+        while (now < deadline) {
+            now = System.nanoTime();
+        }
+    }
+
+    private static double rms(byte[] audioData, int length) {
+        int samples = length / BYTES_PER_SAMPLE;
+        if (samples == 0) {
+            return 0.0;
+        }
+        long sum = 0L;
+        for (int i = 0; i < samples; i++) {
+            int sample = (audioData[BYTES_PER_SAMPLE * i] & 0xFF) | (audioData[BYTES_PER_SAMPLE * i + 1] << 8);
+            sum += (long) sample * sample;
+        }
+        return Math.sqrt((double) sum / samples);
+    }
+
+    /**
+     * 已写入的字节数
+     *
+     * @return 字节数
+     */
+    public long getWrittenBytes() {
+        return writtenBytes;
+    }
+
+    /**
+     * 已回调最终结果的句数
+     *
+     * @return 句数
+     */
+    public int getUtteranceCount() {
+        return utteranceCount;
+    }
+}
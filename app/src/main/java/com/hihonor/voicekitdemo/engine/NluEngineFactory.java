@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.engine;
+
+import android.content.Context;
+
+import com.hihonor.mcs.intelligence.voice.SupportListener;
+import com.hihonor.mcs.intelligence.voice.Voices;
+import com.hihonor.mcs.intelligence.voice.nlu.interfaces.NluProcessor;
+
+/**
+ * 自然语言处理引擎工厂
+ *
+ * @since 2024-07-18
+ */
+class NluEngineFactory implements RecognizerPool.EngineFactory<NluProcessor> {
+    private final Context context;
+
+    NluEngineFactory(Context context) {
+        this.context = context;
+    }
+
+    @Override
+    public void create(RecognizerPool.InitCallback<NluProcessor> callback) {
+        NluProcessor nluProcessor = Voices.getNluClient(context);
+        nluProcessor.init(new SupportListener() {
+            @Override
+            public void onSupport() {
+                callback.onReady(nluProcessor);
+            }
+
+            @Override
+            public void onError(int code, String msg) {
+                nluProcessor.destroy();
+                callback.onError(code, msg);
+            }
+        });
+    }
+
+    @Override
+    public void reset(NluProcessor engine) {
+        // NLU接口为同步调用，没有需要重置的会话状态
+    }
+
+    @Override
+    public void destroy(NluProcessor engine) {
+        engine.destroy();
+    }
+}
@@ -0,0 +1,409 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.engine;
+
+import android.util.Log;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * 已初始化识别引擎的池
+ * 引擎在后台预先创建并完成init，会话通过lease获取，结束后release重置并放回池中，不再destroy；
+ * 空闲超过指定时长的引擎会被销毁。会话获取空闲引擎时不需要等待init回调
+ *
+ * @param <T> 引擎类型
+ * @since 2024-07-18
+ */
+public class RecognizerPool<T> {
+    private static final String TAG = RecognizerPool.class.getSimpleName();
+
+    private final String name;
+
+    private final EngineFactory<T> factory;
+
+    private final int maxIdle;
+
+    private final long idleTimeoutMs;
+
+    private final ScheduledExecutorService scheduler;
+
+    private final LongSupplier ticker;
+
+    private final ArrayDeque<IdleEngine<T>> idleEngines = new ArrayDeque<>();
+
+    private final ArrayDeque<CompletableFuture<T>> waiters = new ArrayDeque<>();
+
+    private int initializingCount = 0;
+
+    private long createdCount = 0L;
+
+    private long reusedCount = 0L;
+
+    private long evictedCount = 0L;
+
+    private long failedCount = 0L;
+
+    private boolean isShutdown = false;
+
+    /**
+     * 引擎的创建、重置与销毁
+     *
+     * @param <T> 引擎类型
+     * @since 2024-07-18
+     */
+    public interface EngineFactory<T> {
+        /**
+         * 创建并初始化引擎，初始化完成后通过callback回调
+         *
+         * @param callback 初始化结果回调
+         */
+        void create(InitCallback<T> callback);
+
+        /**
+         * 重置引擎，使其可以被下一个会话使用
+         *
+         * @param engine 引擎
+         */
+        void reset(T engine);
+
+        /**
+         * 销毁引擎
+         *
+         * @param engine 引擎
+         */
+        void destroy(T engine);
+    }
+
+    /**
+     * 引擎初始化结果回调
+     *
+     * @param <T> 引擎类型
+     * @since 2024-07-18
+     */
+    public interface InitCallback<T> {
+        /**
+         * 初始化成功
+         *
+         * @param engine 引擎
+         */
+        void onReady(T engine);
+
+        /**
+         * 初始化失败
+         *
+         * @param code 错误码
+         * @param msg 错误信息
+         */
+        void onError(int code, String msg);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param name 名称，用于日志
+     * @param factory 引擎工厂
+     * @param maxIdle 最多保留的空闲引擎数
+     * @param idleTimeoutMs 空闲引擎的最长保留时间
+     * @param scheduler 执行引擎创建与空闲回收的线程池
+     */
+    public RecognizerPool(String name, EngineFactory<T> factory, int maxIdle, long idleTimeoutMs,
+        ScheduledExecutorService scheduler) {
+        this(name, factory, maxIdle, idleTimeoutMs, scheduler, System::nanoTime);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param name 名称，用于日志
+     * @param factory 引擎工厂
+     * @param maxIdle 最多保留的空闲引擎数
+     * @param idleTimeoutMs 空闲引擎的最长保留时间
+     * @param scheduler 执行引擎创建与空闲回收的线程池
+     * @param ticker 纳秒时钟
+     */
+    RecognizerPool(String name, EngineFactory<T> factory, int maxIdle, long idleTimeoutMs,
+        ScheduledExecutorService scheduler, LongSupplier ticker) {
+        this.name = name;
+        this.factory = factory;
+        this.maxIdle = maxIdle;
+        this.idleTimeoutMs = idleTimeoutMs;
+        this.scheduler = scheduler;
+        this.ticker = ticker;
+    }
+
+    /**
+     * 在后台预先初始化引擎，使空闲和正在初始化的引擎数达到count
+     *
+     * @param count 目标数量，不超过maxIdle
+     */
+    public void prewarm(int count) {
+        int target = Math.min(count, maxIdle);
+        synchronized (this) {
+            if (isShutdown) {
+                return;
+            }
+            int missing = target - idleEngines.size() - Math.max(0, initializingCount - waiters.size());
+            for (int i = 0; i < missing; i++) {
+                startCreate();
+            }
+        }
+    }
+
+    /**
+     * 租用引擎，有空闲引擎时返回已完成的future，否则等待正在初始化的引擎或创建新的引擎。
+     * 取消返回的future后，随后初始化完成的引擎会放回池中
+     *
+     * @return 已初始化的引擎
+     */
+    public CompletableFuture<T> lease() {
+        synchronized (this) {
+            if (isShutdown) {
+                CompletableFuture<T> failed = new CompletableFuture<>();
+                failed.completeExceptionally(new IllegalStateException(name + " pool is shut down"));
+                return failed;
+            }
+            IdleEngine<T> idleEngine = idleEngines.pollLast();
+            if (idleEngine != null) {
+                reusedCount++;
+                return CompletableFuture.completedFuture(idleEngine.engine);
+            }
+            CompletableFuture<T> waiter = new CompletableFuture<>();
+            waiters.addLast(waiter);
+            if (initializingCount < waiters.size()) {
+                startCreate();
+            }
+            return waiter;
+        }
+    }
+
+    /**
+     * 会话结束后归还引擎，引擎会被重置后放回池中
+     *
+     * @param engine 引擎
+     */
+    public void release(T engine) {
+        if (engine == null) {
+            return;
+        }
+        try {
+            factory.reset(engine);
+        } catch (RuntimeException exception) {
+            Log.w(TAG, name + " reset failed, destroy: " + exception.getMessage());
+            invalidate(engine);
+            return;
+        }
+        offer(engine);
+    }
+
+    /**
+     * 引擎出错不可复用时调用，引擎会被销毁
+     *
+     * @param engine 引擎
+     */
+    public void invalidate(T engine) {
+        if (engine == null) {
+            return;
+        }
+        synchronized (this) {
+            Iterator<IdleEngine<T>> iterator = idleEngines.iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().engine == engine) {
+                    iterator.remove();
+                }
+            }
+        }
+        destroyQuietly(engine);
+    }
+
+    /**
+     * 销毁所有空闲引擎，尚未完成的租用以异常结束，之后初始化完成的引擎直接销毁
+     */
+    public void shutdown() {
+        List<T> toDestroy = new ArrayList<>();
+        List<CompletableFuture<T>> toFail = new ArrayList<>();
+        synchronized (this) {
+            isShutdown = true;
+            for (IdleEngine<T> idleEngine : idleEngines) {
+                toDestroy.add(idleEngine.engine);
+            }
+            idleEngines.clear();
+            toFail.addAll(waiters);
+            waiters.clear();
+        }
+        for (T engine : toDestroy) {
+            destroyQuietly(engine);
+        }
+        for (CompletableFuture<T> waiter : toFail) {
+            waiter.completeExceptionally(new IllegalStateException(name + " pool is shut down"));
+        }
+    }
+
+    /**
+     * 销毁空闲超时的引擎
+     */
+    void evictIdle() {
+        long now = ticker.getAsLong();
+        long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMs);
+        List<T> expired = new ArrayList<>();
+        synchronized (this) {
+            Iterator<IdleEngine<T>> iterator = idleEngines.iterator();
+            while (iterator.hasNext()) {
+                IdleEngine<T> idleEngine = iterator.next();
+                if (now - idleEngine.idleSinceNanos >= timeoutNanos) {
+                    iterator.remove();
+                    expired.add(idleEngine.engine);
+                    evictedCount++;
+                }
+            }
+        }
+        for (T engine : expired) {
+            Log.d(TAG, name + " evict idle engine");
+            destroyQuietly(engine);
+        }
+    }
+
+    private void startCreate() {
+        initializingCount++;
+        createdCount++;
+        try {
+            scheduler.execute(this::create);
+        } catch (RejectedExecutionException exception) {
+            Log.e(TAG, name + " create rejected: " + exception.getMessage());
+            onInitFailed(-1, "create rejected");
+        }
+    }
+
+    private void create() {
+        long startNanos = ticker.getAsLong();
+        try {
+            factory.create(new InitCallback<T>() {
+                @Override
+                public void onReady(T engine) {
+                    Log.d(TAG, name + " engine ready, cost ms: "
+                        + TimeUnit.NANOSECONDS.toMillis(ticker.getAsLong() - startNanos));
+                    synchronized (RecognizerPool.this) {
+                        initializingCount--;
+                    }
+                    offer(engine);
+                }
+
+                @Override
+                public void onError(int code, String msg) {
+                    Log.w(TAG, name + " engine init failed, code: " + code + ", msg: " + msg);
+                    onInitFailed(code, msg);
+                }
+            });
+        } catch (RuntimeException exception) {
+            Log.e(TAG, name + " engine create failed: " + exception.getMessage());
+            onInitFailed(-1, exception.getMessage());
+        }
+    }
+
+    private void onInitFailed(int code, String msg) {
+        CompletableFuture<T> waiter;
+        synchronized (this) {
+            initializingCount--;
+            failedCount++;
+            // 仍有等待者且没有其他正在初始化的引擎时，让一个等待者失败
+            waiter = waiters.size() > initializingCount ? waiters.pollFirst() : null;
+        }
+        if (waiter != null) {
+            waiter.completeExceptionally(new IllegalStateException(name + " init failed, code: " + code
+                + ", msg: " + msg));
+        }
+    }
+
+    /**
+     * 把可用的引擎交给第一个未取消的等待者，没有等待者时放入空闲队列
+     */
+    private void offer(T engine) {
+        while (true) {
+            CompletableFuture<T> waiter;
+            boolean shouldDestroy = false;
+            synchronized (this) {
+                waiter = waiters.pollFirst();
+                if (waiter == null) {
+                    if (isShutdown || idleEngines.size() >= maxIdle) {
+                        shouldDestroy = true;
+                    } else {
+                        idleEngines.addLast(new IdleEngine<>(engine, ticker.getAsLong()));
+                    }
+                }
+            }
+            if (waiter == null) {
+                if (shouldDestroy) {
+                    destroyQuietly(engine);
+                } else {
+                    scheduleEviction();
+                }
+                return;
+            }
+            // 在锁外完成future，避免在锁内执行调用方的回调
+            if (waiter.complete(engine)) {
+                return;
+            }
+        }
+    }
+
+    private void scheduleEviction() {
+        try {
+            scheduler.schedule(this::evictIdle, idleTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException exception) {
+            Log.w(TAG, name + " eviction rejected: " + exception.getMessage());
+        }
+    }
+
+    private void destroyQuietly(T engine) {
+        try {
+            factory.destroy(engine);
+        } catch (RuntimeException exception) {
+            Log.w(TAG, name + " destroy failed: " + exception.getMessage());
+        }
+    }
+
+    /**
+     * 空闲引擎数
+     *
+     * @return 数量
+     */
+    public synchronized int getIdleCount() {
+        return idleEngines.size();
+    }
+
+    /**
+     * 统计信息，用于日志输出
+     *
+     * @return 统计信息
+     */
+    public synchronized String getStatistics() {
+        return name + ": idle=" + idleEngines.size() + ", initializing=" + initializingCount + ", created="
+            + createdCount + ", reused=" + reusedCount + ", evicted=" + evictedCount + ", failed=" + failedCount;
+    }
+
+    /**
+     * 空闲引擎及其进入空闲的时间
+     *
+     * @param <T> 引擎类型
+     * @since 2024-07-18
+     */
+    private static final class IdleEngine<T> {
+        private final T engine;
+
+        private final long idleSinceNanos;
+
+        IdleEngine(T engine, long idleSinceNanos) {
+            this.engine = engine;
+            this.idleSinceNanos = idleSinceNanos;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.engine;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.hihonor.mcs.intelligence.voice.asr.interfaces.AsrRecognizer;
+import com.hihonor.mcs.intelligence.voice.asr.interfaces.AsrScenarioRecognizer;
+import com.hihonor.mcs.intelligence.voice.nlu.interfaces.NluProcessor;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+/**
+ * 应用级的识别引擎池
+ * 基础识别引擎和NLU引擎各共用一个池，场景化引擎按关键词列表各自一个池；引擎创建与空闲回收在同一个后台线程中执行
+ *
+ * @since 2024-07-18
+ */
+public final class RecognizerPools {
+    private static final String TAG = RecognizerPools.class.getSimpleName();
+
+    /**
+     * 每个池最多保留的空闲引擎数，demo同一时间只有一个会话
+     */
+    private static final int MAX_IDLE_ENGINES = 1;
+
+    /**
+     * 空闲引擎的最长保留时间
+     */
+    private static final long IDLE_TIMEOUT_MS = 5 * 60 * 1000L;
+
+    private static volatile RecognizerPools instance;
+
+    private final Context context;
+
+    private final ScheduledThreadPoolExecutor scheduler;
+
+    private final RecognizerPool<AsrRecognizer> asrPool;
+
+    private final RecognizerPool<NluProcessor> nluPool;
+
+    private final Map<String, RecognizerPool<AsrScenarioRecognizer>> scenarioPools = new HashMap<>();
+
+    private RecognizerPools(Context context) {
+        this.context = context;
+        scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "RecognizerPool");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.setRemoveOnCancelPolicy(true);
+        asrPool = new RecognizerPool<>("AsrPool", new AsrEngineFactory(context), MAX_IDLE_ENGINES,
+            IDLE_TIMEOUT_MS, scheduler);
+        nluPool = new RecognizerPool<>("NluPool", new NluEngineFactory(context), MAX_IDLE_ENGINES,
+            IDLE_TIMEOUT_MS, scheduler);
+    }
+
+    /**
+     * 获取单实例
+     *
+     * @param context 上下文，内部只保存ApplicationContext
+     * @return instance
+     */
+    public static RecognizerPools getInstance(Context context) {
+        if (instance == null) {
+            synchronized (RecognizerPools.class) {
+                if (instance == null) {
+                    instance = new RecognizerPools(context.getApplicationContext());
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * 基础识别引擎池
+     *
+     * @return 引擎池
+     */
+    public RecognizerPool<AsrRecognizer> getAsrPool() {
+        return asrPool;
+    }
+
+    /**
+     * 自然语言处理引擎池
+     *
+     * @return 引擎池
+     */
+    public RecognizerPool<NluProcessor> getNluPool() {
+        return nluPool;
+    }
+
+    /**
+     * 注册了指定关键词的场景化引擎池
+     *
+     * @param commands 关键词列表，以中文分号分隔
+     * @return 引擎池
+     */
+    public synchronized RecognizerPool<AsrScenarioRecognizer> getScenarioPool(String commands) {
+        RecognizerPool<AsrScenarioRecognizer> pool = scenarioPools.get(commands);
+        if (pool == null) {
+            Log.d(TAG, "create scenario pool, commands: " + commands);
+            pool = new RecognizerPool<>("ScenarioPool", new ScenarioEngineFactory(context, commands),
+                MAX_IDLE_ENGINES, IDLE_TIMEOUT_MS, scheduler);
+            scenarioPools.put(commands, pool);
+        }
+        return pool;
+    }
+}
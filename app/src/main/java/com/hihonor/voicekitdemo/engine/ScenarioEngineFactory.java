@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.engine;
+
+import android.content.Context;
+
+import com.hihonor.mcs.intelligence.voice.SupportListener;
+import com.hihonor.mcs.intelligence.voice.Voices;
+import com.hihonor.mcs.intelligence.voice.asr.ScenarioOption;
+import com.hihonor.mcs.intelligence.voice.asr.interfaces.AsrScenarioRecognizer;
+
+/**
+ * 场景化语音识别引擎工厂，同一工厂创建的引擎注册相同的关键词
+ *
+ * @since 2024-07-18
+ */
+class ScenarioEngineFactory implements RecognizerPool.EngineFactory<AsrScenarioRecognizer> {
+    private final Context context;
+
+    private final String commands;
+
+    ScenarioEngineFactory(Context context, String commands) {
+        this.context = context;
+        this.commands = commands;
+    }
+
+    @Override
+    public void create(RecognizerPool.InitCallback<AsrScenarioRecognizer> callback) {
+        AsrScenarioRecognizer recognizer = Voices.getAsrScenarioClient(context);
+        ScenarioOption scenarioOption = new ScenarioOption.Builder().setCommands(commands).build();
+        recognizer.init(scenarioOption, new SupportListener() {
+            @Override
+            public void onSupport() {
+                callback.onReady(recognizer);
+            }
+
+            @Override
+            public void onError(int code, String msg) {
+                recognizer.destroy();
+                callback.onError(code, msg);
+            }
+        });
+    }
+
+    @Override
+    public void reset(AsrScenarioRecognizer engine) {
+        // SDK没有停止场景化识别的接口，开始过识别的引擎由CommandSetManager销毁，不会归还给池；
+        // 归还的引擎都没有开始识别，关键词注册保持不变，无需重置
+    }
+
+    @Override
+    public void destroy(AsrScenarioRecognizer engine) {
+        engine.destroy();
+    }
+}
@@ -0,0 +1,262 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.engine;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * 识别会话状态机
+ * 状态和进入该状态的时间打包在一个AtomicLong中，通过CAS完成状态迁移，不加锁也不分配对象；
+ * 非法迁移或已被其他线程抢先的迁移直接返回false。每次迁移回调上一个状态的持续时间
+ *
+ * @since 2024-07-18
+ */
+public class SessionStateMachine {
+    private static final int STATE_BITS = 3;
+
+    private static final long STATE_MASK = (1L << STATE_BITS) - 1;
+
+    private static final State[] STATES = State.values();
+
+    private static final boolean[][] ALLOWED = new boolean[STATES.length][STATES.length];
+
+    static {
+        allow(State.IDLE, State.INITIALIZING);
+        allow(State.INITIALIZING, State.READY);
+        allow(State.READY, State.STARTING);
+        allow(State.STARTING, State.RECOGNIZING);
+        allow(State.STARTING, State.READY);
+        allow(State.RECOGNIZING, State.STOPPING);
+        allow(State.RECOGNIZING, State.READY);
+        allow(State.STOPPING, State.READY);
+        // 任意状态都可以销毁，初始化失败也回到IDLE
+        for (State state : STATES) {
+            if (state != State.IDLE) {
+                allow(state, State.IDLE);
+            }
+        }
+    }
+
+    private final LongSupplier ticker;
+
+    private final long originNanos;
+
+    /**
+     * 低3位为状态序号，其余位为进入该状态的时间，相对originNanos
+     */
+    private final AtomicLong packedState;
+
+    private final AtomicLong transitionCount = new AtomicLong();
+
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    private volatile TransitionListener listener;
+
+    /**
+     * 会话状态
+     *
+     * @since 2024-07-18
+     */
+    public enum State {
+        /**
+         * 未初始化或已销毁
+         */
+        IDLE,
+
+        /**
+         * 正在初始化引擎
+         */
+        INITIALIZING,
+
+        /**
+         * 引擎已初始化，可以开始识别
+         */
+        READY,
+
+        /**
+         * 正在调用startRecognize
+         */
+        STARTING,
+
+        /**
+         * 识别中，音频写入引擎
+         */
+        RECOGNIZING,
+
+        /**
+         * 已调用stopRecognize，等待最终结果
+         */
+        STOPPING
+    }
+
+    /**
+     * 状态迁移回调
+     *
+     * @since 2024-07-18
+     */
+    public interface TransitionListener {
+        /**
+         * 状态迁移完成，在发起迁移的线程中回调
+         *
+         * @param from 原状态
+         * @param to 新状态
+         * @param elapsedNanos 在原状态中停留的时间
+         */
+        void onTransition(State from, State to, long elapsedNanos);
+    }
+
+    /**
+     * 构造函数
+     */
+    public SessionStateMachine() {
+        this(System::nanoTime);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param ticker 纳秒时钟
+     */
+    SessionStateMachine(LongSupplier ticker) {
+        this.ticker = ticker;
+        originNanos = ticker.getAsLong();
+        packedState = new AtomicLong(pack(State.IDLE, 0L));
+    }
+
+    private static void allow(State from, State to) {
+        ALLOWED[from.ordinal()][to.ordinal()] = true;
+    }
+
+    /**
+     * 是否允许从from迁移到to
+     *
+     * @param from 原状态
+     * @param to 新状态
+     * @return true表示允许
+     */
+    public static boolean isAllowed(State from, State to) {
+        return ALLOWED[from.ordinal()][to.ordinal()];
+    }
+
+    /**
+     * 设置状态迁移回调
+     *
+     * @param listener 回调
+     */
+    public void setTransitionListener(TransitionListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * 当前状态为from时迁移到to
+     *
+     * @param from 期望的当前状态
+     * @param to 新状态
+     * @return true表示迁移成功，false表示迁移非法或当前状态不是from
+     */
+    public boolean transition(State from, State to) {
+        if (!isAllowed(from, to)) {
+            rejectedCount.incrementAndGet();
+            return false;
+        }
+        while (true) {
+            long current = packedState.get();
+            if (stateOf(current) != from) {
+                rejectedCount.incrementAndGet();
+                return false;
+            }
+            if (commit(current, to)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 从当前状态迁移到to，当前状态不允许迁移到to时失败
+     *
+     * @param to 新状态
+     * @return true表示迁移成功
+     */
+    public boolean moveTo(State to) {
+        while (true) {
+            long current = packedState.get();
+            if (!isAllowed(stateOf(current), to)) {
+                rejectedCount.incrementAndGet();
+                return false;
+            }
+            if (commit(current, to)) {
+                return true;
+            }
+        }
+    }
+
+    private boolean commit(long current, State to) {
+        long now = ticker.getAsLong() - originNanos;
+        if (!packedState.compareAndSet(current, pack(to, now))) {
+            return false;
+        }
+        transitionCount.incrementAndGet();
+        TransitionListener currentListener = listener;
+        if (currentListener != null) {
+            currentListener.onTransition(stateOf(current), to, now - (current >>> STATE_BITS));
+        }
+        return true;
+    }
+
+    private static long pack(State state, long relativeNanos) {
+        return (relativeNanos << STATE_BITS) | state.ordinal();
+    }
+
+    private static State stateOf(long packed) {
+        return STATES[(int) (packed & STATE_MASK)];
+    }
+
+    /**
+     * 当前状态
+     *
+     * @return 状态
+     */
+    public State getState() {
+        return stateOf(packedState.get());
+    }
+
+    /**
+     * 引擎是否已初始化，即处于READY及之后的状态
+     *
+     * @return true表示已初始化
+     */
+    public boolean isInitialized() {
+        State state = getState();
+        return state != State.IDLE && state != State.INITIALIZING;
+    }
+
+    /**
+     * 在当前状态中停留的时间
+     *
+     * @return 纳秒
+     */
+    public long getNanosInState() {
+        return ticker.getAsLong() - originNanos - (packedState.get() >>> STATE_BITS);
+    }
+
+    /**
+     * 成功的迁移次数
+     *
+     * @return 次数
+     */
+    public long getTransitionCount() {
+        return transitionCount.get();
+    }
+
+    /**
+     * 被拒绝的迁移次数
+     *
+     * @return 次数
+     */
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.engine;
+
+import com.hihonor.voicekitdemo.audio.AudioSink;
+
+/**
+ * 语音识别引擎
+ * 与AsrRecognizer的识别流程一致，结果以文本回调；VoiceKit引擎通过AsrSpeechEngine适配，
+ * 本地替身LocalSpeechEngine可在设备外驱动整个采集到识别的链路
+ *
+ * @since 2024-07-18
+ */
+public interface SpeechEngine extends AudioSink {
+    /**
+     * 识别回调
+     *
+     * @since 2024-07-18
+     */
+    interface Listener {
+        /**
+         * 用户开始说话
+         */
+        void onSpeechStart();
+
+        /**
+         * 音量发生变化，不提供音量的引擎不回调
+         *
+         * @param value 音量值
+         */
+        default void onRmsChanged(float value) {
+        }
+
+        /**
+         * 用户停止说话
+         */
+        void onSpeechEnd();
+
+        /**
+         * 中间态结果
+         *
+         * @param text 文本
+         */
+        void onPartialResult(String text);
+
+        /**
+         * 最终结果
+         *
+         * @param text 文本
+         */
+        void onResult(String text);
+
+        /**
+         * 识别出错
+         *
+         * @param code 错误码
+         * @param msg 错误信息
+         */
+        void onError(int code, String msg);
+    }
+
+    /**
+     * 开始识别
+     *
+     * @param listener 识别回调
+     */
+    void startRecognize(Listener listener);
+
+    /**
+     * 停止识别，回调最终结果
+     */
+    void stopRecognize();
+
+    /**
+     * 取消识别，不回调最终结果
+     */
+    void cancelRecognize();
+}
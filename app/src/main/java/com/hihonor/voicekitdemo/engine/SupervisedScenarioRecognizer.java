@@ -0,0 +1,395 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.engine;
+
+import android.util.Log;
+
+import com.hihonor.mcs.intelligence.voice.asr.AsrErrorCode;
+import com.hihonor.mcs.intelligence.voice.asr.interfaces.AsrScenarioListener;
+import com.hihonor.mcs.intelligence.voice.asr.interfaces.AsrScenarioRecognizer;
+import com.hihonor.mcs.intelligence.voice.asr.result.AsrCommandResult;
+import com.hihonor.voicekitdemo.audio.AudioSink;
+import com.hihonor.voicekitdemo.command.CommandSet;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * 自动恢复的场景化识别
+ * 在CommandSetManager外层监听引擎错误：引擎报ASR_PHRASE_ERROR时销毁该引擎，在后台线程中重新租用并初始化同一命令词集合的引擎，
+ * 失败后按指数退避重试，直到成功或被关闭。恢复期间音频暂存在CommandSetManager的缓冲区中，新引擎换入后先写入，
+ * 调用方的回调收不到该错误，已被换出的引擎的错误被忽略。恢复期间调用activate切换集合后，恢复改为换入该集合，
+ * 之前安排的重试不再执行。统计恢复次数、失败的尝试次数和每次恢复的不可用时长。
+ * 加锁顺序为先本类后CommandSetManager，CommandSetManager在锁外回调切换结果
+ *
+ * @since 2024-07-18
+ */
+public class SupervisedScenarioRecognizer implements AudioSink {
+    /**
+     * 第一次重试前的等待时间，之后每次翻倍
+     */
+    public static final long INITIAL_BACKOFF_MS = 500L;
+
+    /**
+     * 重试等待时间的上限
+     */
+    public static final long MAX_BACKOFF_MS = 30_000L;
+
+    private static final String TAG = SupervisedScenarioRecognizer.class.getSimpleName();
+
+    private final AsrScenarioListener listener;
+
+    private final ScheduledExecutorService scheduler;
+
+    private final LongSupplier ticker;
+
+    private final CommandSetManager manager;
+
+    private boolean isRecovering = false;
+
+    private boolean isClosed = false;
+
+    private String recoveringSetName;
+
+    /**
+     * 每次调用manager.activate时递增，切换结果只在对应最新一次请求时安排重试
+     */
+    private int requestGeneration = 0;
+
+    private int attempt = 0;
+
+    private long recoveryStartNanos = 0L;
+
+    private int recoveryCount = 0;
+
+    private int failedAttemptCount = 0;
+
+    private long lastDowntimeNanos = 0L;
+
+    private long maxDowntimeNanos = 0L;
+
+    private long totalDowntimeNanos = 0L;
+
+    /**
+     * 构造函数，使用内部的恢复线程
+     *
+     * @param poolProvider 按关键词列表获取场景化引擎池，如RecognizerPools::getScenarioPool
+     * @param listener 识别回调，不会收到ASR_PHRASE_ERROR
+     * @param sampleRate 音频采样率
+     */
+    public SupervisedScenarioRecognizer(Function<String, RecognizerPool<AsrScenarioRecognizer>> poolProvider,
+        AsrScenarioListener listener, int sampleRate) {
+        this(poolProvider, listener, sampleRate, newScheduler(), System::nanoTime);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param poolProvider 按关键词列表获取场景化引擎池
+     * @param listener 识别回调
+     * @param sampleRate 音频采样率
+     * @param scheduler 执行恢复和退避等待的调度器
+     * @param ticker 纳秒时钟
+     */
+    SupervisedScenarioRecognizer(Function<String, RecognizerPool<AsrScenarioRecognizer>> poolProvider,
+        AsrScenarioListener listener, int sampleRate, ScheduledExecutorService scheduler, LongSupplier ticker) {
+        this.listener = listener;
+        this.scheduler = scheduler;
+        this.ticker = ticker;
+        manager = new CommandSetManager(poolProvider, SupervisingListener::new, sampleRate, ticker);
+    }
+
+    private static ScheduledExecutorService newScheduler() {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "ScenarioRecovery");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
+    }
+
+    /**
+     * 注册命令词集合
+     *
+     * @param commandSet 命令词集合
+     * @return false表示已注册相同或更新的版本
+     * @see CommandSetManager#register(CommandSet)
+     */
+    public boolean register(CommandSet commandSet) {
+        return manager.register(commandSet);
+    }
+
+    /**
+     * 切换命令词集合；恢复中切换成功会结束恢复，切换失败时按退避继续恢复该集合
+     *
+     * @param name 集合名称
+     * @return 换入后的集合
+     * @see CommandSetManager#activate(String)
+     */
+    public CompletableFuture<CommandSet> activate(String name) {
+        int swapGeneration;
+        CompletableFuture<CommandSet> swap;
+        synchronized (this) {
+            if (isRecovering) {
+                recoveringSetName = name;
+            }
+            swapGeneration = ++requestGeneration;
+            swap = manager.activate(name);
+        }
+        swap.whenComplete((commandSet, throwable) -> onSwapCompleted(swapGeneration, throwable));
+        return swap;
+    }
+
+    /**
+     * 开始识别，恢复后换入的引擎也会自动开始识别
+     *
+     * @return false表示还没有可用的引擎
+     */
+    public boolean startRecognize() {
+        return manager.startRecognize();
+    }
+
+    /**
+     * 写入当前引擎，恢复期间暂存
+     *
+     * @param audioData 音频数据
+     * @param length 有效数据长度
+     */
+    @Override
+    public void writeAudio(byte[] audioData, int length) {
+        manager.writeAudio(audioData, length);
+    }
+
+    /**
+     * 停止恢复并归还当前引擎
+     */
+    public void close() {
+        synchronized (this) {
+            isClosed = true;
+            isRecovering = false;
+        }
+        manager.close();
+        scheduler.shutdownNow();
+        Log.d(TAG, "close, " + getStatistics());
+    }
+
+    private void startRecovery(AsrScenarioRecognizer engine, int code, String msg) {
+        CommandSet invalidSet;
+        synchronized (this) {
+            if (isClosed || isRecovering) {
+                Log.i(TAG, "ignore error " + code + ", recovering: " + isRecovering);
+                return;
+            }
+            invalidSet = manager.invalidate(engine);
+            if (invalidSet == null) {
+                Log.i(TAG, "ignore error " + code + " from retired engine");
+                return;
+            }
+            isRecovering = true;
+            recoveringSetName = invalidSet.getName();
+            attempt = 0;
+            recoveryStartNanos = ticker.getAsLong();
+        }
+        Log.w(TAG, "engine error " + code + ": " + msg + ", recover " + invalidSet);
+        attemptRecovery(requestGeneration());
+    }
+
+    private synchronized int requestGeneration() {
+        return requestGeneration;
+    }
+
+    /**
+     * 重新切换到恢复中的集合
+     *
+     * @param expectedGeneration 安排本次尝试时的请求代数，之后有新的切换请求时不再尝试
+     */
+    private void attemptRecovery(int expectedGeneration) {
+        int swapGeneration;
+        CompletableFuture<CommandSet> swap;
+        synchronized (this) {
+            if (!isRecovering || expectedGeneration != requestGeneration) {
+                return;
+            }
+            attempt++;
+            swapGeneration = ++requestGeneration;
+            swap = manager.activate(recoveringSetName);
+        }
+        swap.whenComplete((commandSet, throwable) -> onSwapCompleted(swapGeneration, throwable));
+    }
+
+    /**
+     * 切换成功时结束恢复；恢复中最新一次切换失败或被取消时安排重试，已被更新的请求取代时由新请求处理
+     */
+    private void onSwapCompleted(int swapGeneration, Throwable throwable) {
+        if (throwable == null) {
+            finishRecovery();
+            return;
+        }
+        int failedAttempt;
+        synchronized (this) {
+            if (!isRecovering || swapGeneration != requestGeneration) {
+                return;
+            }
+            failedAttemptCount++;
+            failedAttempt = Math.max(attempt, 1);
+        }
+        long delayMs = backoffMs(failedAttempt);
+        Log.w(TAG, "recovery attempt " + failedAttempt + " failed: " + throwable.getMessage() + ", retry in "
+            + delayMs + "ms");
+        schedule(() -> attemptRecovery(swapGeneration), delayMs);
+    }
+
+    private void schedule(Runnable task, long delayMs) {
+        try {
+            scheduler.schedule(task, delayMs, TimeUnit.MILLISECONDS);
+        } catch (RuntimeException exception) {
+            // 已关闭
+            Log.w(TAG, "recovery rejected: " + exception.getMessage());
+        }
+    }
+
+    /**
+     * 第n次尝试失败后的等待时间
+     */
+    static long backoffMs(int attempt) {
+        int shift = Math.min(Math.max(attempt - 1, 0), 30);
+        return Math.min(INITIAL_BACKOFF_MS << shift, MAX_BACKOFF_MS);
+    }
+
+    private void finishRecovery() {
+        synchronized (this) {
+            if (!isRecovering) {
+                return;
+            }
+            isRecovering = false;
+            recoveryCount++;
+            lastDowntimeNanos = ticker.getAsLong() - recoveryStartNanos;
+            maxDowntimeNanos = Math.max(maxDowntimeNanos, lastDowntimeNanos);
+            totalDowntimeNanos += lastDowntimeNanos;
+        }
+        Log.d(TAG, "recovered, " + getStatistics());
+    }
+
+    /**
+     * 命令词集合管理，用于查询当前集合和切换统计
+     *
+     * @return 命令词集合管理
+     */
+    public CommandSetManager getCommandSetManager() {
+        return manager;
+    }
+
+    /**
+     * 是否正在恢复
+     *
+     * @return true表示当前没有可用的引擎，正在重新初始化
+     */
+    public synchronized boolean isRecovering() {
+        return isRecovering;
+    }
+
+    /**
+     * 成功恢复的次数
+     *
+     * @return 次数
+     */
+    public synchronized int getRecoveryCount() {
+        return recoveryCount;
+    }
+
+    /**
+     * 失败的恢复尝试次数
+     *
+     * @return 次数
+     */
+    public synchronized int getFailedAttemptCount() {
+        return failedAttemptCount;
+    }
+
+    /**
+     * 最近一次恢复从引擎出错到新引擎换入的耗时
+     *
+     * @return 纳秒
+     */
+    public synchronized long getLastDowntimeNanos() {
+        return lastDowntimeNanos;
+    }
+
+    /**
+     * 最长的一次恢复从引擎出错到新引擎换入的耗时
+     *
+     * @return 纳秒
+     */
+    public synchronized long getMaxDowntimeNanos() {
+        return maxDowntimeNanos;
+    }
+
+    /**
+     * 所有已完成恢复的不可用时长之和
+     *
+     * @return 纳秒
+     */
+    public synchronized long getTotalDowntimeNanos() {
+        return totalDowntimeNanos;
+    }
+
+    /**
+     * 恢复和切换统计，用于日志输出
+     *
+     * @return 统计信息
+     */
+    public String getStatistics() {
+        String recoveryStatistics;
+        synchronized (this) {
+            recoveryStatistics = "recoveries=" + recoveryCount + ", failedAttempts=" + failedAttemptCount
+                + ", lastDowntimeMs=" + TimeUnit.NANOSECONDS.toMillis(lastDowntimeNanos) + ", maxDowntimeMs="
+                + TimeUnit.NANOSECONDS.toMillis(maxDowntimeNanos) + ", totalDowntimeMs="
+                + TimeUnit.NANOSECONDS.toMillis(totalDowntimeNanos);
+        }
+        // 不持有本类的锁读取CommandSetManager的统计
+        return recoveryStatistics + ", " + manager.getStatistics();
+    }
+
+    /**
+     * 转发一个引擎的回调，ASR_PHRASE_ERROR在恢复线程中处理，已被换出的引擎的错误被忽略
+     *
+     * @since 2024-07-18
+     */
+    private final class SupervisingListener implements AsrScenarioListener {
+        private final AsrScenarioRecognizer engine;
+
+        SupervisingListener(AsrScenarioRecognizer engine) {
+            this.engine = engine;
+        }
+
+        @Override
+        public void onReady() {
+            listener.onReady();
+        }
+
+        @Override
+        public void onResult(AsrCommandResult result) {
+            listener.onResult(result);
+        }
+
+        @Override
+        public void onError(int code, String msg) {
+            if (!manager.isActive(engine)) {
+                Log.i(TAG, "ignore error " + code + " from retired engine: " + msg);
+                return;
+            }
+            if (code != AsrErrorCode.ASR_PHRASE_ERROR) {
+                listener.onError(code, msg);
+                return;
+            }
+            schedule(() -> startRecovery(engine, code, msg), 0L);
+        }
+    }
+}
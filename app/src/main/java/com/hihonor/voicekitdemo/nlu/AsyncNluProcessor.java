@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.nlu;
+
+import android.util.Log;
+
+import com.hihonor.mcs.intelligence.voice.nlu.data.EntityResult;
+import com.hihonor.mcs.intelligence.voice.nlu.data.WordsResult;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * 异步NLU处理器
+ * 在有界的计算线程池中调用NluEngine，返回CompletableFuture，避免在主线程中同步调用；
+ * 同类请求只保留最新的一个，新请求提交时取消尚未完成的旧请求，已取消且未开始的请求不会调用引擎
+ *
+ * @since 2024-07-18
+ */
+public class AsyncNluProcessor {
+    private static final String TAG = AsyncNluProcessor.class.getSimpleName();
+
+    private final NluEngine nluEngine;
+
+    private final Executor executor;
+
+    private final AtomicReference<CompletableFuture<?>> pendingSplit = new AtomicReference<>();
+
+    private final AtomicReference<CompletableFuture<?>> pendingEntity = new AtomicReference<>();
+
+    /**
+     * 构造函数
+     *
+     * @param nluEngine NLU引擎
+     * @param executor 执行NLU调用的线程池，建议使用TaskLanes的计算线程池
+     */
+    public AsyncNluProcessor(NluEngine nluEngine, Executor executor) {
+        this.nluEngine = nluEngine;
+        this.executor = executor;
+    }
+
+    /**
+     * 异步分词，会取消尚未完成的上一次分词请求
+     *
+     * @param text 文本
+     * @param wordType 分词粒度
+     * @return 分词结果
+     */
+    public CompletableFuture<WordsResult> splitWords(String text, long wordType) {
+        return submit(pendingSplit, () -> nluEngine.splitWords(text, wordType));
+    }
+
+    /**
+     * 异步实体识别，会取消尚未完成的上一次实体识别请求
+     *
+     * @param text 文本
+     * @param modules 实体类别
+     * @param source 文本来源
+     * @return 实体识别结果
+     */
+    public CompletableFuture<EntityResult> recognizeEntity(String text, List<String> modules, String source) {
+        List<String> moduleList = modules == null ? Collections.emptyList() : modules;
+        return submit(pendingEntity, () -> nluEngine.recognizeEntity(text, moduleList, source));
+    }
+
+    /**
+     * 取消所有尚未完成的请求，例如用户修改了输入文本
+     */
+    public void cancelAll() {
+        cancel(pendingSplit.getAndSet(null));
+        cancel(pendingEntity.getAndSet(null));
+    }
+
+    private <R> CompletableFuture<R> submit(AtomicReference<CompletableFuture<?>> pending, Supplier<R> call) {
+        CompletableFuture<R> future = new CompletableFuture<>();
+        cancel(pending.getAndSet(future));
+        try {
+            executor.execute(() -> run(pending, future, call));
+        } catch (RejectedExecutionException exception) {
+            Log.e(TAG, "nlu request rejected: " + exception.getMessage());
+            pending.compareAndSet(future, null);
+            future.completeExceptionally(exception);
+        }
+        return future;
+    }
+
+    private static <R> void run(AtomicReference<CompletableFuture<?>> pending, CompletableFuture<R> future,
+        Supplier<R> call) {
+        try {
+            if (future.isDone()) {
+                // 请求已被取消，不再调用引擎
+                return;
+            }
+            future.complete(call.get());
+        } catch (RuntimeException exception) {
+            Log.e(TAG, "nlu request failed: " + exception.getMessage());
+            future.completeExceptionally(exception);
+        } finally {
+            pending.compareAndSet(future, null);
+        }
+    }
+
+    private static void cancel(CompletableFuture<?> future) {
+        if (future != null && !future.isDone()) {
+            future.cancel(false);
+        }
+    }
+}
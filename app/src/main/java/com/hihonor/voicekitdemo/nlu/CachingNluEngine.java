@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.nlu;
+
+import com.hihonor.mcs.intelligence.voice.nlu.data.EntityResult;
+import com.hihonor.mcs.intelligence.voice.nlu.data.WordsResult;
+
+import java.util.List;
+
+/**
+ * 带结果缓存的NluEngine，相同文本和参数的重复请求直接返回缓存结果，不再调用引擎
+ *
+ * @since 2024-07-18
+ */
+public class CachingNluEngine implements NluEngine {
+    /**
+     * 每个条目在文本长度之外的固定权重，近似结果对象本身的开销
+     */
+    private static final int ENTRY_OVERHEAD_WEIGHT = 64;
+
+    private final NluEngine delegate;
+
+    private final NluResultCache<NluCacheKey, Object> cache;
+
+    /**
+     * 构造函数
+     *
+     * @param delegate 实际的NLU引擎
+     * @param maxWeight 缓存总权重上限，权重约等于缓存文本的字符数
+     * @param ttlMs 缓存存活时间，小于等于0表示不过期
+     */
+    public CachingNluEngine(NluEngine delegate, long maxWeight, long ttlMs) {
+        this.delegate = delegate;
+        cache = new NluResultCache<>(maxWeight, ttlMs,
+            (key, value) -> key.getTextLength() + ENTRY_OVERHEAD_WEIGHT);
+    }
+
+    @Override
+    public WordsResult splitWords(String text, long wordType) {
+        NluCacheKey key = NluCacheKey.forSplit(text, wordType);
+        Object cached = cache.get(key);
+        if (cached instanceof WordsResult) {
+            return (WordsResult) cached;
+        }
+        WordsResult result = delegate.splitWords(text, wordType);
+        cache.put(key, result);
+        return result;
+    }
+
+    @Override
+    public EntityResult recognizeEntity(String text, List<String> modules, String source) {
+        NluCacheKey key = NluCacheKey.forEntity(text, modules, source);
+        Object cached = cache.get(key);
+        if (cached instanceof EntityResult) {
+            return (EntityResult) cached;
+        }
+        EntityResult result = delegate.recognizeEntity(text, modules, source);
+        cache.put(key, result);
+        return result;
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void invalidateAll() {
+        cache.clear();
+    }
+
+    /**
+     * 获取缓存对象，用于读取统计信息
+     *
+     * @return 缓存
+     */
+    public NluResultCache<NluCacheKey, Object> getCache() {
+        return cache;
+    }
+}
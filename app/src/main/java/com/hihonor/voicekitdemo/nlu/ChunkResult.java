@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.nlu;
+
+/**
+ * 片段分析结果及片段在原文中的位置
+ * 结果保持SDK返回的原样，其中的位置相对片段起始位置，相对原文的位置为getOffset()加上结果中的位置
+ *
+ * @param <R> 分析结果类型
+ * @since 2024-07-18
+ */
+public final class ChunkResult<R> {
+    private final int offset;
+
+    private final int length;
+
+    private final R result;
+
+    /**
+     * 构造函数
+     *
+     * @param offset 片段在原文中的起始位置
+     * @param length 片段长度
+     * @param result 片段分析结果
+     */
+    public ChunkResult(int offset, int length, R result) {
+        this.offset = offset;
+        this.length = length;
+        this.result = result;
+    }
+
+    /**
+     * 片段在原文中的起始位置
+     *
+     * @return 起始位置
+     */
+    public int getOffset() {
+        return offset;
+    }
+
+    /**
+     * 片段在原文中的结束位置（不包含）
+     *
+     * @return 结束位置
+     */
+    public int getEnd() {
+        return offset + length;
+    }
+
+    /**
+     * 片段分析结果，位置相对片段
+     *
+     * @return 结果
+     */
+    public R getResult() {
+        return result;
+    }
+}
@@ -0,0 +1,313 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.nlu;
+
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 增量NLU分析器
+ * 按句缓存分析结果，结果中的位置相对所在句子，与句子在全文中的起始位置一起返回，不修改SDK结果；
+ * 文本被编辑后只重新分析受影响的句子窗口，其后句子只平移起始位置。
+ * 编辑耗时只与被编辑的句子长度相关，与全文长度无关，getChangedResults只返回最近一次重新分析的句子，
+ * 调用方据此只刷新变化的部分
+ *
+ * @param <R> 单句分析结果类型
+ * @since 2024-07-18
+ */
+public class IncrementalNluAnalyzer<R> {
+    private static final String TAG = IncrementalNluAnalyzer.class.getSimpleName();
+
+    /**
+     * 默认单句最大长度，超长的句子会被硬切分
+     */
+    public static final int DEFAULT_MAX_SENTENCE_LENGTH = 256;
+
+    private final NluBatchProcessor.Analyzer<R> analyzer;
+
+    private final int maxSentenceLength;
+
+    private final List<Segment<R>> segments = new ArrayList<>();
+
+    private String text = "";
+
+    /**
+     * 最近一次更新重新分析的句子在segments中的区间[changedFrom, changedTo)
+     */
+    private int changedFrom = 0;
+
+    private int changedTo = 0;
+
+    private int lastReanalyzedChars = 0;
+
+    private long lastElapsedNanos = 0L;
+
+    /**
+     * 构造函数
+     *
+     * @param analyzer 单句分析接口
+     */
+    public IncrementalNluAnalyzer(NluBatchProcessor.Analyzer<R> analyzer) {
+        this(analyzer, DEFAULT_MAX_SENTENCE_LENGTH);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param analyzer 单句分析接口
+     * @param maxSentenceLength 单句最大长度
+     */
+    public IncrementalNluAnalyzer(NluBatchProcessor.Analyzer<R> analyzer, int maxSentenceLength) {
+        this.analyzer = analyzer;
+        this.maxSentenceLength = maxSentenceLength;
+    }
+
+    /**
+     * 用新文本更新分析结果，通过比较公共前后缀定位编辑区间
+     *
+     * @param newText 新文本
+     */
+    public synchronized void update(String newText) {
+        String target = newText == null ? "" : newText;
+        int oldLength = text.length();
+        int newLength = target.length();
+        int maxCommon = Math.min(oldLength, newLength);
+        int prefix = 0;
+        while (prefix < maxCommon && text.charAt(prefix) == target.charAt(prefix)) {
+            prefix++;
+        }
+        int suffix = 0;
+        while (suffix < maxCommon - prefix
+            && text.charAt(oldLength - 1 - suffix) == target.charAt(newLength - 1 - suffix)) {
+            suffix++;
+        }
+        applyEdit(target, prefix, oldLength - prefix - suffix, newLength - prefix - suffix);
+    }
+
+    /**
+     * 用已知的编辑区间更新分析结果，参数与TextWatcher.onTextChanged一致，无需比较全文
+     *
+     * @param newText 新文本
+     * @param start 编辑起始位置
+     * @param removedLength 被替换的旧文本长度
+     * @param insertedLength 插入的新文本长度
+     */
+    public synchronized void applyEdit(String newText, int start, int removedLength, int insertedLength) {
+        String target = newText == null ? "" : newText;
+        long startNanos = System.nanoTime();
+        int delta = insertedLength - removedLength;
+        if (start < 0 || removedLength < 0 || start + removedLength > text.length()
+            || text.length() + delta != target.length()) {
+            Log.w(TAG, "edit does not match text, reanalyze all");
+            reanalyzeAll(target, startNanos);
+            return;
+        }
+        if (removedLength == 0 && insertedLength == 0) {
+            changedFrom = 0;
+            changedTo = 0;
+            lastReanalyzedChars = 0;
+            lastElapsedNanos = System.nanoTime() - startNanos;
+            return;
+        }
+        if (segments.isEmpty()) {
+            reanalyzeAll(target, startNanos);
+            return;
+        }
+
+        int containing = findSegment(start);
+        if (removedLength == 0 && start == text.length()
+            && endsWithSentenceEnd(segments.get(containing), target)) {
+            // 在以句末结束的全文末尾追加，之前的句子都不受影响
+            appendSentences(target, start, startNanos);
+            return;
+        }
+        int first = containing;
+        if (first > 0 && !endsWithSentenceEnd(segments.get(first - 1), target)) {
+            // 上一句未以句末结束，或句末英文句点后的空白被编辑，需要与本句一起重新切分
+            first--;
+        }
+        int last = removedLength == 0 ? containing : Math.max(containing, findSegment(start + removedLength - 1));
+        int windowStart = segments.get(first).offset;
+        int windowEnd = segmentEnd(segments.get(last)) + delta;
+        while (last + 1 < segments.size() && windowEnd > windowStart
+            && !SentenceChunker.isSentenceEnd(target, windowEnd - 1)) {
+            last++;
+            windowEnd = segmentEnd(segments.get(last)) + delta;
+        }
+        if (last + 1 == segments.size()) {
+            windowEnd = target.length();
+        }
+
+        List<Segment<R>> replacement = new ArrayList<>();
+        for (TextChunk sentence : SentenceChunker.sentences(target, windowStart, windowEnd, maxSentenceLength)) {
+            replacement.add(new Segment<>(sentence.getOffset(), sentence.getText().length(),
+                analyzer.analyze(sentence.getText())));
+        }
+        List<Segment<R>> window = segments.subList(first, last + 1);
+        window.clear();
+        window.addAll(replacement);
+        for (int i = first + replacement.size(); i < segments.size(); i++) {
+            segments.get(i).offset += delta;
+        }
+        text = target;
+        changedFrom = first;
+        changedTo = first + replacement.size();
+        lastReanalyzedChars = windowEnd - windowStart;
+        lastElapsedNanos = System.nanoTime() - startNanos;
+    }
+
+    /**
+     * 清空缓存的文本和结果
+     */
+    public synchronized void reset() {
+        segments.clear();
+        text = "";
+        changedFrom = 0;
+        changedTo = 0;
+        lastReanalyzedChars = 0;
+        lastElapsedNanos = 0L;
+    }
+
+    private void appendSentences(String target, int start, long startNanos) {
+        changedFrom = segments.size();
+        for (TextChunk sentence : SentenceChunker.sentences(target, start, target.length(), maxSentenceLength)) {
+            segments.add(new Segment<>(sentence.getOffset(), sentence.getText().length(),
+                analyzer.analyze(sentence.getText())));
+        }
+        text = target;
+        changedTo = segments.size();
+        lastReanalyzedChars = target.length() - start;
+        lastElapsedNanos = System.nanoTime() - startNanos;
+    }
+
+    private void reanalyzeAll(String target, long startNanos) {
+        segments.clear();
+        for (TextChunk sentence : SentenceChunker.sentences(target, 0, target.length(), maxSentenceLength)) {
+            segments.add(new Segment<>(sentence.getOffset(), sentence.getText().length(),
+                analyzer.analyze(sentence.getText())));
+        }
+        text = target;
+        changedFrom = 0;
+        changedTo = segments.size();
+        lastReanalyzedChars = target.length();
+        lastElapsedNanos = System.nanoTime() - startNanos;
+    }
+
+    /**
+     * 二分查找包含position的句子，position等于全文长度时返回最后一句
+     */
+    private int findSegment(int position) {
+        int low = 0;
+        int high = segments.size() - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (segments.get(middle).offset <= position) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    private boolean endsWithSentenceEnd(Segment<R> segment, String target) {
+        int lastIndex = segmentEnd(segment) - 1;
+        return segment.length > 0 && SentenceChunker.isSentenceEnd(text, lastIndex)
+            && SentenceChunker.isSentenceEnd(target, lastIndex);
+    }
+
+    private static int segmentEnd(Segment<?> segment) {
+        return segment.offset + segment.length;
+    }
+
+    /**
+     * 当前文本
+     *
+     * @return 文本
+     */
+    public synchronized String getText() {
+        return text;
+    }
+
+    /**
+     * 按句排列的分析结果，结果中的位置相对所在句子
+     *
+     * @return 结果
+     */
+    public synchronized List<ChunkResult<R>> getResults() {
+        return resultsOf(0, segments.size());
+    }
+
+    /**
+     * 最近一次更新重新分析的句子及结果，只删除句子或文本未变化时为空
+     *
+     * @return 结果
+     */
+    public synchronized List<ChunkResult<R>> getChangedResults() {
+        return resultsOf(changedFrom, changedTo);
+    }
+
+    private List<ChunkResult<R>> resultsOf(int from, int to) {
+        List<ChunkResult<R>> results = new ArrayList<>(to - from);
+        for (Segment<R> segment : segments.subList(from, to)) {
+            results.add(new ChunkResult<>(segment.offset, segment.length, segment.result));
+        }
+        return Collections.unmodifiableList(results);
+    }
+
+    /**
+     * 当前的句子划分，与getResults一一对应
+     *
+     * @return 句子
+     */
+    public synchronized List<TextChunk> getSentences() {
+        List<TextChunk> sentences = new ArrayList<>(segments.size());
+        for (Segment<R> segment : segments) {
+            sentences.add(new TextChunk(segment.offset, text.substring(segment.offset, segmentEnd(segment))));
+        }
+        return sentences;
+    }
+
+    /**
+     * 最近一次更新重新分析的字符数
+     *
+     * @return 字符数
+     */
+    public synchronized int getLastReanalyzedChars() {
+        return lastReanalyzedChars;
+    }
+
+    /**
+     * 最近一次更新的耗时
+     *
+     * @return 纳秒
+     */
+    public synchronized long getLastElapsedNanos() {
+        return lastElapsedNanos;
+    }
+
+    /**
+     * 句子及其分析结果，结果中的位置相对句子起始位置
+     *
+     * @param <R> 分析结果类型
+     * @since 2024-07-18
+     */
+    private static final class Segment<R> {
+        private int offset;
+
+        private final int length;
+
+        private final R result;
+
+        Segment(int offset, int length, R result) {
+            this.offset = offset;
+            this.length = length;
+            this.result = result;
+        }
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.nlu;
+
+import android.util.Log;
+
+import com.hihonor.mcs.intelligence.voice.nlu.data.EntityResult;
+import com.hihonor.mcs.intelligence.voice.nlu.data.WordsResult;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 批量NLU处理器
+ * 把多篇文本按句子边界切分成片段，通过fork/join在多核上并行分析，再按原文顺序重组。
+ * 片段结果保持SDK返回的原样，与片段在原文中的起始位置一起返回，不猜测结果中哪些字段是位置
+ *
+ * @param <R> 单个片段的分析结果类型
+ * @since 2024-07-18
+ */
+public class NluBatchProcessor<R> {
+    private static final String TAG = NluBatchProcessor.class.getSimpleName();
+
+    /**
+     * 默认片段最大长度
+     */
+    public static final int DEFAULT_MAX_CHUNK_LENGTH = 512;
+
+    private final Analyzer<R> analyzer;
+
+    private final int maxChunkLength;
+
+    private final ForkJoinPool pool;
+
+    /**
+     * 片段分析接口，会被多个线程并发调用
+     *
+     * @param <R> 分析结果类型
+     * @since 2024-07-18
+     */
+    public interface Analyzer<R> {
+        /**
+         * 分析片段
+         *
+         * @param text 片段文本
+         * @return 分析结果
+         */
+        R analyze(String text);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param analyzer 片段分析接口
+     * @param maxChunkLength 片段最大长度
+     * @param pool fork/join线程池
+     */
+    public NluBatchProcessor(Analyzer<R> analyzer, int maxChunkLength, ForkJoinPool pool) {
+        this.analyzer = analyzer;
+        this.maxChunkLength = maxChunkLength;
+        this.pool = pool;
+    }
+
+    /**
+     * 创建批量分词处理器
+     *
+     * @param engine NLU引擎
+     * @param wordType 分词粒度
+     * @param pool fork/join线程池
+     * @return 批量处理器
+     */
+    public static NluBatchProcessor<WordsResult> forSplitWords(NluEngine engine, long wordType, ForkJoinPool pool) {
+        return new NluBatchProcessor<>(text -> engine.splitWords(text, wordType), DEFAULT_MAX_CHUNK_LENGTH, pool);
+    }
+
+    /**
+     * 创建批量实体识别处理器
+     *
+     * @param engine NLU引擎
+     * @param modules 实体类别
+     * @param source 文本来源
+     * @param pool fork/join线程池
+     * @return 批量处理器
+     */
+    public static NluBatchProcessor<EntityResult> forEntities(NluEngine engine, List<String> modules, String source,
+        ForkJoinPool pool) {
+        return new NluBatchProcessor<>(text -> engine.recognizeEntity(text, modules, source),
+            DEFAULT_MAX_CHUNK_LENGTH, pool);
+    }
+
+    /**
+     * 批量处理文本流
+     *
+     * @param texts 文本流
+     * @return 处理结果
+     */
+    public NluBatchResult<R> process(Stream<String> texts) {
+        return process(texts.collect(Collectors.toList()));
+    }
+
+    /**
+     * 批量处理文本
+     *
+     * @param texts 文本列表
+     * @return 处理结果，与输入顺序一致
+     */
+    public NluBatchResult<R> process(List<String> texts) {
+        long startNanos = System.nanoTime();
+        List<List<TextChunk>> documentChunks = new ArrayList<>(texts.size());
+        List<TextChunk> allChunks = new ArrayList<>();
+        long characters = 0L;
+        for (String text : texts) {
+            List<TextChunk> chunks = SentenceChunker.chunk(text, maxChunkLength);
+            documentChunks.add(chunks);
+            allChunks.addAll(chunks);
+            characters += text == null ? 0 : text.length();
+        }
+
+        Object[] chunkResults = new Object[allChunks.size()];
+        pool.invoke(new AnalyzeTask(allChunks, chunkResults, 0, allChunks.size()));
+
+        List<List<ChunkResult<R>>> results = new ArrayList<>(texts.size());
+        int index = 0;
+        for (List<TextChunk> chunks : documentChunks) {
+            List<ChunkResult<R>> documentResults = new ArrayList<>(chunks.size());
+            for (TextChunk chunk : chunks) {
+                @SuppressWarnings("unchecked")
+                R result = (R) chunkResults[index++];
+                documentResults.add(new ChunkResult<>(chunk.getOffset(), chunk.getText().length(), result));
+            }
+            results.add(Collections.unmodifiableList(documentResults));
+        }
+        NluBatchResult<R> batchResult = new NluBatchResult<>(documentChunks, results, characters,
+            System.nanoTime() - startNanos);
+        Log.i(TAG, "batch done, " + batchResult.getStatistics());
+        return batchResult;
+    }
+
+    /**
+     * 递归二分片段区间，区间只剩一个片段时调用分析接口
+     *
+     * @since 2024-07-18
+     */
+    private final class AnalyzeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient List<TextChunk> chunks;
+
+        private final transient Object[] results;
+
+        private final int from;
+
+        private final int to;
+
+        AnalyzeTask(List<TextChunk> chunks, Object[] results, int from, int to) {
+            this.chunks = chunks;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= 1) {
+                if (from < to) {
+                    results[from] = analyzer.analyze(chunks.get(from).getText());
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new AnalyzeTask(chunks, results, from, middle), new AnalyzeTask(chunks, results, middle, to));
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.nlu;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 批量NLU处理结果及吞吐量统计
+ *
+ * @param <R> 单个片段的分析结果类型
+ * @since 2024-07-18
+ */
+public class NluBatchResult<R> {
+    private static final double NANOS_PER_SECOND = 1_000_000_000d;
+
+    private final List<List<TextChunk>> chunks;
+
+    private final List<List<ChunkResult<R>>> results;
+
+    private final long characterCount;
+
+    private final long elapsedNanos;
+
+    private final int chunkCount;
+
+    NluBatchResult(List<List<TextChunk>> chunks, List<List<ChunkResult<R>>> results, long characterCount,
+        long elapsedNanos) {
+        this.chunks = chunks;
+        this.results = results;
+        this.characterCount = characterCount;
+        this.elapsedNanos = elapsedNanos;
+        int count = 0;
+        for (List<TextChunk> documentChunks : chunks) {
+            count += documentChunks.size();
+        }
+        chunkCount = count;
+    }
+
+    /**
+     * 每篇文本切分出的片段，与getResults一一对应
+     *
+     * @return 片段
+     */
+    public List<List<TextChunk>> getChunks() {
+        return chunks;
+    }
+
+    /**
+     * 每篇文本按原文顺序排列的片段结果，结果中的位置相对片段，加上片段起始位置即为相对原文的位置
+     *
+     * @return 结果
+     */
+    public List<List<ChunkResult<R>>> getResults() {
+        return results;
+    }
+
+    /**
+     * 文本篇数
+     *
+     * @return 篇数
+     */
+    public int getDocumentCount() {
+        return results.size();
+    }
+
+    /**
+     * 片段总数
+     *
+     * @return 片段数
+     */
+    public int getChunkCount() {
+        return chunkCount;
+    }
+
+    /**
+     * 字符总数
+     *
+     * @return 字符数
+     */
+    public long getCharacterCount() {
+        return characterCount;
+    }
+
+    /**
+     * 批处理耗时
+     *
+     * @return 纳秒
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * 每秒处理的字符数
+     *
+     * @return 吞吐量
+     */
+    public double getCharactersPerSecond() {
+        return elapsedNanos == 0 ? 0d : characterCount * NANOS_PER_SECOND / elapsedNanos;
+    }
+
+    /**
+     * 每秒处理的片段数
+     *
+     * @return 吞吐量
+     */
+    public double getChunksPerSecond() {
+        return elapsedNanos == 0 ? 0d : chunkCount * NANOS_PER_SECOND / elapsedNanos;
+    }
+
+    /**
+     * 统计信息，用于日志输出
+     *
+     * @return 统计信息
+     */
+    public String getStatistics() {
+        return "documents=" + getDocumentCount() + ", chunks=" + chunkCount + ", chars=" + characterCount
+            + ", elapsedMs=" + TimeUnit.NANOSECONDS.toMillis(elapsedNanos) + ", charsPerSec="
+            + (long) getCharactersPerSecond() + ", chunksPerSec=" + (long) getChunksPerSecond();
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.nlu;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * NLU结果缓存的键
+ * 分词按(文本哈希, 分词粒度)区分，实体识别按(文本哈希, 实体类别集合, 文本来源)区分；
+ * 先比较预先计算的哈希，哈希相同时再比较原文，避免哈希冲突返回错误结果
+ *
+ * @since 2024-07-18
+ */
+public final class NluCacheKey {
+    private static final int KIND_SPLIT = 1;
+
+    private static final int KIND_ENTITY = 2;
+
+    private final int kind;
+
+    private final String text;
+
+    private final int textHash;
+
+    private final long wordType;
+
+    private final Set<String> modules;
+
+    private final String source;
+
+    private final int hash;
+
+    private NluCacheKey(int kind, String text, long wordType, Set<String> modules, String source) {
+        this.kind = kind;
+        this.text = text;
+        this.textHash = text.hashCode();
+        this.wordType = wordType;
+        this.modules = modules;
+        this.source = source;
+        this.hash = Objects.hash(kind, textHash, wordType, modules, source);
+    }
+
+    /**
+     * 分词结果的键
+     *
+     * @param text 文本
+     * @param wordType 分词粒度
+     * @return 键
+     */
+    public static NluCacheKey forSplit(String text, long wordType) {
+        return new NluCacheKey(KIND_SPLIT, text, wordType, Collections.emptySet(), null);
+    }
+
+    /**
+     * 实体识别结果的键，实体类别与顺序无关
+     *
+     * @param text 文本
+     * @param modules 实体类别
+     * @param source 文本来源
+     * @return 键
+     */
+    public static NluCacheKey forEntity(String text, List<String> modules, String source) {
+        Set<String> moduleSet = modules == null || modules.isEmpty()
+            ? Collections.emptySet()
+            : Collections.unmodifiableSet(new TreeSet<>(modules));
+        String normalizedSource = source == null || source.isEmpty() ? null : source;
+        return new NluCacheKey(KIND_ENTITY, text, 0L, moduleSet, normalizedSource);
+    }
+
+    /**
+     * 文本长度，用作缓存权重
+     *
+     * @return 长度
+     */
+    public int getTextLength() {
+        return text.length();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof NluCacheKey)) {
+            return false;
+        }
+        NluCacheKey that = (NluCacheKey) other;
+        return hash == that.hash && kind == that.kind && textHash == that.textHash && wordType == that.wordType
+            && modules.equals(that.modules) && Objects.equals(source, that.source) && text.equals(that.text);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.nlu;
+
+import com.hihonor.mcs.intelligence.voice.nlu.data.EntityResult;
+import com.hihonor.mcs.intelligence.voice.nlu.data.WordsResult;
+
+import java.util.List;
+
+/**
+ * NLU能力接口，封装NluProcessor的分词和实体识别，便于替换实现及本地测试
+ *
+ * @since 2024-07-18
+ */
+public interface NluEngine {
+    /**
+     * 分词
+     *
+     * @param text 文本
+     * @param wordType 分词粒度
+     * @return 分词结果
+     */
+    WordsResult splitWords(String text, long wordType);
+
+    /**
+     * 实体识别
+     *
+     * @param text 文本
+     * @param modules 实体类别，为空时识别全部类别
+     * @param source 文本来源，为空时使用默认来源
+     * @return 实体识别结果
+     */
+    EntityResult recognizeEntity(String text, List<String> modules, String source);
+}
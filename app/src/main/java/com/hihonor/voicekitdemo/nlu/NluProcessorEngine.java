@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.nlu;
+
+import android.text.TextUtils;
+
+import com.hihonor.mcs.intelligence.voice.nlu.data.EntityResult;
+import com.hihonor.mcs.intelligence.voice.nlu.data.WordsResult;
+import com.hihonor.mcs.intelligence.voice.nlu.interfaces.NluProcessor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 基于NluProcessor的NluEngine实现，nluProcessor.init成功之后才能使用
+ *
+ * @since 2024-07-18
+ */
+public class NluProcessorEngine implements NluEngine {
+    private final NluProcessor nluProcessor;
+
+    /**
+     * 构造函数
+     *
+     * @param nluProcessor 已初始化的NluProcessor
+     */
+    public NluProcessorEngine(NluProcessor nluProcessor) {
+        this.nluProcessor = nluProcessor;
+    }
+
+    @Override
+    public WordsResult splitWords(String text, long wordType) {
+        return nluProcessor.splitWords(text, wordType);
+    }
+
+    @Override
+    public EntityResult recognizeEntity(String text, List<String> modules, String source) {
+        if (modules == null || modules.isEmpty()) {
+            return nluProcessor.recognizeEntity(text);
+        }
+        ArrayList<String> moduleList = new ArrayList<>(modules);
+        if (TextUtils.isEmpty(source)) {
+            // source未传入时默认使用"fromCopy"
+            return nluProcessor.recognizeEntity(text, moduleList);
+        }
+        return nluProcessor.recognizeEntity(text, moduleList, source);
+    }
+}
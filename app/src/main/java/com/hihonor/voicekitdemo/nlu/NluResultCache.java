@@ -0,0 +1,233 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.nlu;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * 有界的NLU结果缓存
+ * 按访问顺序做LRU淘汰，总权重超过上限时淘汰最久未访问的条目；可选TTL，过期条目在访问时移除。
+ * 统计命中、未命中、淘汰和过期次数
+ *
+ * @param <K> 键类型
+ * @param <V> 值类型
+ * @since 2024-07-18
+ */
+public class NluResultCache<K, V> {
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final long maxWeight;
+
+    private final long ttlNanos;
+
+    private final Weigher<K, V> weigher;
+
+    private final LongSupplier ticker;
+
+    private long totalWeight = 0L;
+
+    private long hitCount = 0L;
+
+    private long missCount = 0L;
+
+    private long evictionCount = 0L;
+
+    private long expirationCount = 0L;
+
+    /**
+     * 计算条目权重
+     *
+     * @param <K> 键类型
+     * @param <V> 值类型
+     * @since 2024-07-18
+     */
+    public interface Weigher<K, V> {
+        /**
+         * 计算权重
+         *
+         * @param key 键
+         * @param value 值
+         * @return 权重，至少为1
+         */
+        int weigh(K key, V value);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param maxWeight 总权重上限
+     * @param ttlMs 条目存活时间，小于等于0表示不过期
+     * @param weigher 权重计算，为null时每个条目权重为1
+     */
+    public NluResultCache(long maxWeight, long ttlMs, Weigher<K, V> weigher) {
+        this(maxWeight, ttlMs, weigher, System::nanoTime);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param maxWeight 总权重上限
+     * @param ttlMs 条目存活时间，小于等于0表示不过期
+     * @param weigher 权重计算，为null时每个条目权重为1
+     * @param ticker 纳秒时钟
+     */
+    NluResultCache(long maxWeight, long ttlMs, Weigher<K, V> weigher, LongSupplier ticker) {
+        this.maxWeight = maxWeight;
+        this.ttlNanos = ttlMs > 0 ? TimeUnit.MILLISECONDS.toNanos(ttlMs) : 0L;
+        this.weigher = weigher == null ? (key, value) -> 1 : weigher;
+        this.ticker = ticker;
+    }
+
+    /**
+     * 查询缓存
+     *
+     * @param key 键
+     * @return 值，未命中或已过期时返回null
+     */
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            missCount++;
+            return null;
+        }
+        if (isExpired(entry)) {
+            entries.remove(key);
+            totalWeight -= entry.weight;
+            expirationCount++;
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        return entry.value;
+    }
+
+    /**
+     * 写入缓存，超过权重上限时淘汰最久未访问的条目
+     *
+     * @param key 键
+     * @param value 值，为null时不缓存
+     */
+    public synchronized void put(K key, V value) {
+        if (key == null || value == null) {
+            return;
+        }
+        int weight = Math.max(1, weigher.weigh(key, value));
+        if (weight > maxWeight) {
+            return;
+        }
+        Entry<V> previous = entries.put(key, new Entry<>(value, weight, ticker.getAsLong()));
+        if (previous != null) {
+            totalWeight -= previous.weight;
+        }
+        totalWeight += weight;
+        Iterator<Map.Entry<K, Entry<V>>> iterator = entries.entrySet().iterator();
+        while (totalWeight > maxWeight && iterator.hasNext()) {
+            Entry<V> eldest = iterator.next().getValue();
+            iterator.remove();
+            totalWeight -= eldest.weight;
+            evictionCount++;
+        }
+    }
+
+    /**
+     * 清空缓存
+     */
+    public synchronized void clear() {
+        entries.clear();
+        totalWeight = 0L;
+    }
+
+    private boolean isExpired(Entry<V> entry) {
+        return ttlNanos > 0 && ticker.getAsLong() - entry.createNanos >= ttlNanos;
+    }
+
+    /**
+     * 条目数
+     *
+     * @return 条目数
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * 当前总权重
+     *
+     * @return 总权重
+     */
+    public synchronized long getTotalWeight() {
+        return totalWeight;
+    }
+
+    /**
+     * 命中次数
+     *
+     * @return 次数
+     */
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * 未命中次数，包含过期
+     *
+     * @return 次数
+     */
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * 因超过权重上限淘汰的次数
+     *
+     * @return 次数
+     */
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * 因过期移除的次数
+     *
+     * @return 次数
+     */
+    public synchronized long getExpirationCount() {
+        return expirationCount;
+    }
+
+    /**
+     * 统计信息，用于日志输出
+     *
+     * @return 统计信息
+     */
+    public synchronized String getStatistics() {
+        return "size=" + entries.size() + ", weight=" + totalWeight + ", hit=" + hitCount + ", miss=" + missCount
+            + ", eviction=" + evictionCount + ", expiration=" + expirationCount;
+    }
+
+    /**
+     * 缓存条目
+     *
+     * @param <V> 值类型
+     * @since 2024-07-18
+     */
+    private static final class Entry<V> {
+        private final V value;
+
+        private final int weight;
+
+        private final long createNanos;
+
+        Entry(V value, int weight, long createNanos) {
+            this.value = value;
+            this.weight = weight;
+            this.createNanos = createNanos;
+        }
+    }
+}
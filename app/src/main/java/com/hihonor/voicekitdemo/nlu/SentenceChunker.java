@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.nlu;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 按句子边界切分长文本
+ * 在不超过最大长度的前提下尽量在句末标点处切分；单句超长时按最大长度硬切分，不拆开代理对。
+ * 英文句点只有后跟空白时才视为句末，避免切断网址、邮箱、数字等实体
+ *
+ * @since 2024-07-18
+ */
+public final class SentenceChunker {
+    private static final int MIN_CHUNK_LENGTH = 2;
+
+    private SentenceChunker() {
+    }
+
+    /**
+     * 切分文本
+     *
+     * @param text 原文
+     * @param maxChunkLength 单个片段的最大长度
+     * @return 按顺序排列、首尾相接覆盖原文的片段
+     */
+    public static List<TextChunk> chunk(String text, int maxChunkLength) {
+        if (maxChunkLength < MIN_CHUNK_LENGTH) {
+            throw new IllegalArgumentException("maxChunkLength: " + maxChunkLength);
+        }
+        List<TextChunk> chunks = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return chunks;
+        }
+        int length = text.length();
+        int start = 0;
+        int boundary = -1;
+        for (int i = 0; i < length; i++) {
+            if (isSentenceEnd(text, i)) {
+                boundary = i + 1;
+            }
+            if (i + 1 - start < maxChunkLength || i + 1 == length) {
+                continue;
+            }
+            int end = boundary > start ? boundary : i + 1;
+            if (end == i + 1 && Character.isHighSurrogate(text.charAt(i))) {
+                end--;
+            }
+            chunks.add(new TextChunk(start, text.substring(start, end)));
+            start = end;
+            boundary = -1;
+        }
+        if (start < length) {
+            chunks.add(new TextChunk(start, text.substring(start)));
+        }
+        return chunks;
+    }
+
+    /**
+     * 把[from, to)区间按句末标点逐句切分，单句超过最大长度时硬切分
+     *
+     * @param text 原文
+     * @param from 区间起始位置
+     * @param to 区间结束位置
+     * @param maxSentenceLength 单句最大长度
+     * @return 按顺序排列、首尾相接覆盖区间的句子，位置相对原文
+     */
+    public static List<TextChunk> sentences(String text, int from, int to, int maxSentenceLength) {
+        if (maxSentenceLength < MIN_CHUNK_LENGTH) {
+            throw new IllegalArgumentException("maxSentenceLength: " + maxSentenceLength);
+        }
+        List<TextChunk> sentences = new ArrayList<>();
+        int start = from;
+        for (int i = from; i < to; i++) {
+            boolean isEnd = isSentenceEnd(text, i);
+            if (!isEnd && i + 1 - start < maxSentenceLength) {
+                continue;
+            }
+            int end = i + 1;
+            if (!isEnd && Character.isHighSurrogate(text.charAt(i)) && end < to) {
+                continue;
+            }
+            sentences.add(new TextChunk(start, text.substring(start, end)));
+            start = end;
+        }
+        if (start < to) {
+            sentences.add(new TextChunk(start, text.substring(start, to)));
+        }
+        return sentences;
+    }
+
+    /**
+     * 判断指定位置的字符是否为句末
+     *
+     * @param text 原文
+     * @param index 位置
+     * @return true表示句末
+     */
+    static boolean isSentenceEnd(String text, int index) {
+        char current = text.charAt(index);
+        switch (current) {
+            case '。':
+            case '！':
+            case '？':
+            case '；':
+            case '!':
+            case '?':
+            case ';':
+            case '\n':
+                return true;
+            case '.':
+                return index + 1 < text.length() && Character.isWhitespace(text.charAt(index + 1));
+            default:
+                return false;
+        }
+    }
+}
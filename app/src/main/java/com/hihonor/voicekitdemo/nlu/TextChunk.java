@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.nlu;
+
+/**
+ * 文本片段及其在原文中的起始位置
+ *
+ * @since 2024-07-18
+ */
+public final class TextChunk {
+    private final int offset;
+
+    private final String text;
+
+    /**
+     * 构造函数
+     *
+     * @param offset 在原文中的起始位置
+     * @param text 片段文本
+     */
+    public TextChunk(int offset, String text) {
+        this.offset = offset;
+        this.text = text;
+    }
+
+    /**
+     * 在原文中的起始位置
+     *
+     * @return 起始位置
+     */
+    public int getOffset() {
+        return offset;
+    }
+
+    /**
+     * 在原文中的结束位置（不包含）
+     *
+     * @return 结束位置
+     */
+    public int getEnd() {
+        return offset + text.length();
+    }
+
+    /**
+     * 片段文本
+     *
+     * @return 文本
+     */
+    public String getText() {
+        return text;
+    }
+}
@@ -0,0 +1,278 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.startup;
+
+import android.util.Log;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * 启动编排器
+ * 按依赖关系组成有向无环图，没有依赖关系的阶段在后台线程中并行执行；每个阶段提供就绪future，
+ * 并记录从启动开始到阶段开始执行、到阶段就绪的耗时
+ *
+ * @since 2024-07-18
+ */
+public class StartupOrchestrator {
+    private static final String TAG = StartupOrchestrator.class.getSimpleName();
+
+    private final Map<String, Stage> stages = new LinkedHashMap<>();
+
+    private final LongSupplier ticker;
+
+    private volatile long startNanos = 0L;
+
+    private boolean isStarted = false;
+
+    /**
+     * 初始化动作
+     *
+     * @since 2024-07-18
+     */
+    public interface Initializer {
+        /**
+         * 执行初始化，在后台线程中调用
+         *
+         * @return 初始化完成的future，同步完成时返回null
+         * @throws Exception 初始化失败
+         */
+        CompletableFuture<?> initialize() throws Exception;
+    }
+
+    /**
+     * 构造函数
+     */
+    public StartupOrchestrator() {
+        this(System::nanoTime);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param ticker 纳秒时钟
+     */
+    StartupOrchestrator(LongSupplier ticker) {
+        this.ticker = ticker;
+    }
+
+    /**
+     * 添加启动阶段，必须在start之前调用
+     *
+     * @param name 阶段名称
+     * @param initializer 初始化动作
+     * @param dependencies 依赖的阶段，全部就绪后才开始执行
+     * @return this
+     */
+    public synchronized StartupOrchestrator add(String name, Initializer initializer, String... dependencies) {
+        if (isStarted) {
+            throw new IllegalStateException("already started, can not add stage: " + name);
+        }
+        if (stages.containsKey(name)) {
+            throw new IllegalArgumentException("duplicate stage: " + name);
+        }
+        stages.put(name, new Stage(name, initializer, dependencies));
+        return this;
+    }
+
+    /**
+     * 开始执行所有阶段
+     *
+     * @param executor 执行初始化动作的线程池
+     */
+    public synchronized void start(Executor executor) {
+        if (isStarted) {
+            Log.i(TAG, "already started");
+            return;
+        }
+        validate();
+        isStarted = true;
+        startNanos = ticker.getAsLong();
+        for (Stage stage : stages.values()) {
+            CompletableFuture<?>[] dependencies = new CompletableFuture<?>[stage.dependencies.length];
+            for (int i = 0; i < dependencies.length; i++) {
+                dependencies[i] = stages.get(stage.dependencies[i]).readiness;
+            }
+            CompletableFuture.allOf(dependencies).whenComplete((ignored, throwable) -> {
+                if (throwable != null) {
+                    fail(stage, new IllegalStateException("dependency of " + stage.name + " failed", throwable));
+                    return;
+                }
+                try {
+                    executor.execute(() -> run(stage));
+                } catch (RejectedExecutionException exception) {
+                    fail(stage, exception);
+                }
+            });
+        }
+    }
+
+    private void validate() {
+        for (Stage stage : stages.values()) {
+            for (String dependency : stage.dependencies) {
+                if (!stages.containsKey(dependency)) {
+                    throw new IllegalStateException(stage.name + " depends on unknown stage: " + dependency);
+                }
+            }
+        }
+        Set<String> visited = new HashSet<>();
+        for (String name : stages.keySet()) {
+            checkCycle(name, new HashSet<>(), visited);
+        }
+    }
+
+    private void checkCycle(String name, Set<String> path, Set<String> visited) {
+        if (visited.contains(name)) {
+            return;
+        }
+        if (!path.add(name)) {
+            throw new IllegalStateException("dependency cycle at stage: " + name);
+        }
+        for (String dependency : stages.get(name).dependencies) {
+            checkCycle(dependency, path, visited);
+        }
+        path.remove(name);
+        visited.add(name);
+    }
+
+    private void run(Stage stage) {
+        stage.runNanos = ticker.getAsLong();
+        CompletableFuture<?> result;
+        try {
+            result = stage.initializer.initialize();
+        } catch (Exception exception) {
+            fail(stage, exception);
+            return;
+        }
+        if (result == null) {
+            complete(stage);
+            return;
+        }
+        result.whenComplete((ignored, throwable) -> {
+            if (throwable != null) {
+                fail(stage, throwable);
+            } else {
+                complete(stage);
+            }
+        });
+    }
+
+    private void complete(Stage stage) {
+        stage.readyNanos = ticker.getAsLong();
+        Log.d(TAG, "stage " + stage.name + " ready, " + stage.describe());
+        stage.readiness.complete(null);
+    }
+
+    private void fail(Stage stage, Throwable throwable) {
+        stage.readyNanos = ticker.getAsLong();
+        Log.w(TAG, "stage " + stage.name + " failed: " + throwable.getMessage());
+        stage.readiness.completeExceptionally(throwable);
+    }
+
+    /**
+     * 阶段就绪的future，可在start之前获取
+     *
+     * @param name 阶段名称
+     * @return 就绪future，阶段或其依赖失败时以异常结束
+     */
+    public synchronized CompletableFuture<Void> whenReady(String name) {
+        Stage stage = stages.get(name);
+        if (stage == null) {
+            throw new IllegalArgumentException("unknown stage: " + name);
+        }
+        return stage.readiness;
+    }
+
+    /**
+     * 所有阶段就绪的future
+     *
+     * @return 就绪future
+     */
+    public synchronized CompletableFuture<Void> whenAllReady() {
+        CompletableFuture<?>[] all = new CompletableFuture<?>[stages.size()];
+        int index = 0;
+        for (Stage stage : stages.values()) {
+            all[index++] = stage.readiness;
+        }
+        return CompletableFuture.allOf(all);
+    }
+
+    /**
+     * 阶段从启动开始到就绪的耗时
+     *
+     * @param name 阶段名称
+     * @return 毫秒，尚未就绪时返回-1
+     */
+    public synchronized long getReadyMs(String name) {
+        Stage stage = stages.get(name);
+        if (stage == null || stage.readyNanos == 0L) {
+            return -1L;
+        }
+        return TimeUnit.NANOSECONDS.toMillis(stage.readyNanos - startNanos);
+    }
+
+    /**
+     * 各阶段耗时，用于日志输出
+     *
+     * @return 耗时报告
+     */
+    public synchronized String getTimingReport() {
+        StringBuilder report = new StringBuilder();
+        for (Stage stage : stages.values()) {
+            if (report.length() > 0) {
+                report.append("; ");
+            }
+            report.append(stage.name).append(": ").append(stage.describe());
+        }
+        return report.toString();
+    }
+
+    /**
+     * 启动阶段及其耗时
+     *
+     * @since 2024-07-18
+     */
+    private final class Stage {
+        private final String name;
+
+        private final Initializer initializer;
+
+        private final String[] dependencies;
+
+        private final CompletableFuture<Void> readiness = new CompletableFuture<>();
+
+        private volatile long runNanos = 0L;
+
+        private volatile long readyNanos = 0L;
+
+        Stage(String name, Initializer initializer, String[] dependencies) {
+            this.name = name;
+            this.initializer = initializer;
+            this.dependencies = dependencies == null ? new String[0] : dependencies.clone();
+        }
+
+        String describe() {
+            if (readyNanos == 0L) {
+                return runNanos == 0L ? "pending" : "running";
+            }
+            if (runNanos == 0L) {
+                return "skipped at " + toMs(readyNanos - startNanos) + "ms";
+            }
+            return "started at " + toMs(runNanos - startNanos) + "ms, took " + toMs(readyNanos - runNanos)
+                + "ms, ready at " + toMs(readyNanos - startNanos) + "ms";
+        }
+
+        private long toMs(long nanos) {
+            return TimeUnit.NANOSECONDS.toMillis(nanos);
+        }
+    }
+}
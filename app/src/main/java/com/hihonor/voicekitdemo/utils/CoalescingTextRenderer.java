@@ -0,0 +1,256 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.utils;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.view.Choreographer;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * 合并刷新的文本渲染器
+ * 任意线程提交的文本只保留最新一条，每个vsync或每个刷新间隔最多在主线程渲染一次，
+ * 被后续文本覆盖而未渲染的中间结果计为丢弃
+ *
+ * @since 2024-07-18
+ */
+public class CoalescingTextRenderer {
+    private final AtomicReference<String> pendingText = new AtomicReference<>();
+
+    private final AtomicBoolean isScheduled = new AtomicBoolean(false);
+
+    private final AtomicLong submittedCount = new AtomicLong();
+
+    private final AtomicLong renderedCount = new AtomicLong();
+
+    private final AtomicLong droppedCount = new AtomicLong();
+
+    private final Consumer<String> target;
+
+    private final FrameScheduler scheduler;
+
+    private final long minIntervalMs;
+
+    private final LongSupplier uptimeClock;
+
+    private final Runnable frameTask = this::onFrame;
+
+    private volatile long lastRenderUptimeMs = 0L;
+
+    private volatile boolean isCancelled = false;
+
+    /**
+     * 在主线程执行渲染任务的调度器
+     *
+     * @since 2024-07-18
+     */
+    public interface FrameScheduler {
+        /**
+         * 调度渲染任务
+         *
+         * @param task 渲染任务
+         * @param delayMs 延迟时间
+         */
+        void schedule(Runnable task, long delayMs);
+
+        /**
+         * 取消尚未执行的渲染任务
+         *
+         * @param task 渲染任务
+         */
+        void cancel(Runnable task);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param target 在主线程中执行的渲染动作
+     * @param scheduler 调度器
+     * @param minIntervalMs 两次渲染的最小间隔，0表示只受调度器节奏限制
+     */
+    public CoalescingTextRenderer(Consumer<String> target, FrameScheduler scheduler, long minIntervalMs) {
+        this(target, scheduler, minIntervalMs, SystemClock::uptimeMillis);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param target 渲染动作
+     * @param scheduler 调度器
+     * @param minIntervalMs 两次渲染的最小间隔
+     * @param uptimeClock 毫秒时钟
+     */
+    CoalescingTextRenderer(Consumer<String> target, FrameScheduler scheduler, long minIntervalMs,
+        LongSupplier uptimeClock) {
+        this.target = target;
+        this.scheduler = scheduler;
+        this.minIntervalMs = minIntervalMs;
+        this.uptimeClock = uptimeClock;
+    }
+
+    /**
+     * 创建按vsync节奏渲染的渲染器，需在主线程调用
+     *
+     * @param target 渲染动作
+     * @return 渲染器
+     */
+    public static CoalescingTextRenderer forVsync(Consumer<String> target) {
+        return new CoalescingTextRenderer(target, new VsyncScheduler(Choreographer.getInstance()), 0L);
+    }
+
+    /**
+     * 创建按固定间隔渲染的渲染器
+     *
+     * @param target 渲染动作
+     * @param minIntervalMs 两次渲染的最小间隔
+     * @return 渲染器
+     */
+    public static CoalescingTextRenderer withInterval(Consumer<String> target, long minIntervalMs) {
+        return new CoalescingTextRenderer(target, new HandlerScheduler(new Handler(Looper.getMainLooper())),
+            minIntervalMs);
+    }
+
+    /**
+     * 提交待显示的文本，可在任意线程调用
+     *
+     * @param text 文本
+     */
+    public void submit(String text) {
+        if (isCancelled) {
+            return;
+        }
+        submittedCount.incrementAndGet();
+        if (pendingText.getAndSet(text) != null) {
+            droppedCount.incrementAndGet();
+        }
+        if (isScheduled.compareAndSet(false, true)) {
+            long delayMs = 0L;
+            if (minIntervalMs > 0) {
+                delayMs = Math.max(0L, lastRenderUptimeMs + minIntervalMs - uptimeClock.getAsLong());
+            }
+            scheduler.schedule(frameTask, delayMs);
+        }
+    }
+
+    /**
+     * 取消尚未渲染的文本，之后提交的文本不再渲染
+     */
+    public void cancel() {
+        isCancelled = true;
+        scheduler.cancel(frameTask);
+        pendingText.set(null);
+        isScheduled.set(false);
+    }
+
+    private void onFrame() {
+        isScheduled.set(false);
+        String text = pendingText.getAndSet(null);
+        if (text == null || isCancelled) {
+            return;
+        }
+        lastRenderUptimeMs = uptimeClock.getAsLong();
+        renderedCount.incrementAndGet();
+        target.accept(text);
+    }
+
+    /**
+     * 提交的文本数
+     *
+     * @return 数量
+     */
+    public long getSubmittedCount() {
+        return submittedCount.get();
+    }
+
+    /**
+     * 实际渲染的次数
+     *
+     * @return 次数
+     */
+    public long getRenderedCount() {
+        return renderedCount.get();
+    }
+
+    /**
+     * 被覆盖而未渲染的中间文本数
+     *
+     * @return 数量
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    /**
+     * 统计信息，用于日志输出
+     *
+     * @return 统计信息
+     */
+    public String getStatistics() {
+        return "submitted=" + getSubmittedCount() + ", rendered=" + getRenderedCount() + ", dropped="
+            + getDroppedCount();
+    }
+
+    /**
+     * 基于Choreographer的调度器，渲染任务在下一个vsync执行
+     *
+     * @since 2024-07-18
+     */
+    private static final class VsyncScheduler implements FrameScheduler {
+        private final Choreographer choreographer;
+
+        private Runnable frameTask;
+
+        private final Choreographer.FrameCallback frameCallback = frameTimeNanos -> {
+            Runnable task = frameTask;
+            if (task != null) {
+                task.run();
+            }
+        };
+
+        VsyncScheduler(Choreographer choreographer) {
+            this.choreographer = choreographer;
+        }
+
+        @Override
+        public void schedule(Runnable task, long delayMs) {
+            frameTask = task;
+            choreographer.postFrameCallbackDelayed(frameCallback, delayMs);
+        }
+
+        @Override
+        public void cancel(Runnable task) {
+            choreographer.removeFrameCallback(frameCallback);
+        }
+    }
+
+    /**
+     * 基于主线程Handler的调度器
+     *
+     * @since 2024-07-18
+     */
+    private static final class HandlerScheduler implements FrameScheduler {
+        private final Handler handler;
+
+        HandlerScheduler(Handler handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        public void schedule(Runnable task, long delayMs) {
+            handler.postDelayed(task, delayMs);
+        }
+
+        @Override
+        public void cancel(Runnable task) {
+            handler.removeCallbacks(task);
+        }
+    }
+}
@@ -7,15 +7,35 @@ package com.hihonor.voicekitdemo.utils;
 import android.util.Log;
 
 import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonWriter;
+import com.hihonor.mcs.intelligence.voice.nlu.data.EntityResult;
+import com.hihonor.mcs.intelligence.voice.nlu.data.WordsResult;
+
+import java.io.IOException;
+import java.io.Writer;
 
 /**
  * utils for Gson
+ * Gson实例线程安全，全局共享一个并预先解析NLU结果类型的TypeAdapter；序列化时通过JsonWriter写入线程内复用的StringBuilder
  *
  * @since 2024-07-18
  */
 public final class GsonUtils {
     private static final String TAG = GsonUtils.class.getSimpleName();
 
+    /**
+     * 复用的StringBuilder超过该容量后不再保留，避免长期占用内存
+     */
+    private static final int MAX_REUSED_CAPACITY = 64 * 1024;
+
+    private static final Gson GSON = new Gson();
+
+    private static final ThreadLocal<StringBuilderWriter> WRITER_CACHE =
+        ThreadLocal.withInitial(StringBuilderWriter::new);
+
+    private static volatile boolean isWarmedUp = false;
+
     private GsonUtils() {
     }
 
@@ -28,6 +48,27 @@ public final class GsonUtils {
         return new Gson();
     }
 
+    /**
+     * 获取共享的Gson实例
+     *
+     * @return gson
+     */
+    public static Gson getInstance() {
+        return GSON;
+    }
+
+    /**
+     * 预先解析NLU结果类型的TypeAdapter，可在后台线程提前调用，避免首次序列化时的反射开销
+     */
+    public static void warmUp() {
+        if (isWarmedUp) {
+            return;
+        }
+        GSON.getAdapter(WordsResult.class);
+        GSON.getAdapter(EntityResult.class);
+        isWarmedUp = true;
+    }
+
     /**
      * Parse object into string
      *
@@ -39,6 +80,91 @@ public final class GsonUtils {
             Log.e(TAG, "object is null");
             return "";
         }
-        return createInstance().toJson(object);
+        StringBuilderWriter writer = WRITER_CACHE.get();
+        writer.reset();
+        if (!writeJson(object, writer)) {
+            return "";
+        }
+        String json = writer.toString();
+        if (writer.capacity() > MAX_REUSED_CAPACITY) {
+            WRITER_CACHE.remove();
+        }
+        return json;
+    }
+
+    /**
+     * 以流式方式把对象的Json写入writer，不生成中间字符串
+     *
+     * @param object 待序列化的对象
+     * @param writer 输出目标
+     * @return true表示写入成功
+     */
+    public static <T> boolean writeJson(T object, Writer writer) {
+        if (object == null || writer == null) {
+            Log.e(TAG, "object or writer is null");
+            return false;
+        }
+        @SuppressWarnings("unchecked")
+        TypeAdapter<T> adapter = (TypeAdapter<T>) GSON.getAdapter(object.getClass());
+        try {
+            JsonWriter jsonWriter = GSON.newJsonWriter(writer);
+            adapter.write(jsonWriter, object);
+            jsonWriter.flush();
+            return true;
+        } catch (IOException exception) {
+            Log.e(TAG, "writeJson failed: " + exception.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 基于StringBuilder的非同步Writer，可重复使用
+     *
+     * @since 2024-07-18
+     */
+    private static final class StringBuilderWriter extends Writer {
+        private final StringBuilder builder = new StringBuilder(256);
+
+        void reset() {
+            builder.setLength(0);
+        }
+
+        int capacity() {
+            return builder.capacity();
+        }
+
+        @Override
+        public void write(char[] chars, int offset, int length) {
+            builder.append(chars, offset, length);
+        }
+
+        @Override
+        public void write(int character) {
+            builder.append((char) character);
+        }
+
+        @Override
+        public void write(String str, int offset, int length) {
+            builder.append(str, offset, offset + length);
+        }
+
+        @Override
+        public Writer append(CharSequence sequence) {
+            builder.append(sequence);
+            return this;
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public String toString() {
+            return builder.toString();
+        }
     }
 }
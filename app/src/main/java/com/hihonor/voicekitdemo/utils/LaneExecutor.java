@@ -0,0 +1,217 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.utils;
+
+import android.util.Log;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 单个执行通道的线程池
+ * 线程名称按通道固定，队列满时记录并上报溢出后抛出RejectedExecutionException，不会静默丢弃任务；
+ * 统计队列深度和任务排队等待时间
+ *
+ * @since 2024-07-18
+ */
+public class LaneExecutor extends ThreadPoolExecutor {
+    private static final String TAG = LaneExecutor.class.getSimpleName();
+
+    private final String laneName;
+
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    private final AtomicLong startedCount = new AtomicLong();
+
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    private final AtomicInteger maxQueueDepth = new AtomicInteger();
+
+    /**
+     * 构造函数
+     *
+     * @param laneName 通道名称，同时作为线程名前缀
+     * @param coreSize 核心线程数
+     * @param maxSize 最大线程数
+     * @param keepAliveMs 非核心线程空闲存活时间
+     * @param queueCapacity 队列容量，0表示不排队，没有空闲线程时直接拒绝
+     */
+    public LaneExecutor(String laneName, int coreSize, int maxSize, long keepAliveMs, int queueCapacity) {
+        super(coreSize, maxSize, keepAliveMs, TimeUnit.MILLISECONDS, createQueue(queueCapacity),
+            new LaneThreadFactory(laneName), new OverflowReporter());
+        this.laneName = laneName;
+    }
+
+    private static BlockingQueue<Runnable> createQueue(int queueCapacity) {
+        if (queueCapacity <= 0) {
+            return new SynchronousQueue<>();
+        }
+        return new LinkedBlockingQueue<>(queueCapacity);
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (command == null) {
+            throw new NullPointerException("command is null");
+        }
+        super.execute(new TimedTask(command, System.nanoTime()));
+        updateMax(maxQueueDepth, getQueue().size());
+    }
+
+    private void onTaskStart(long enqueueNanos) {
+        long waitNanos = System.nanoTime() - enqueueNanos;
+        startedCount.incrementAndGet();
+        totalWaitNanos.addAndGet(waitNanos);
+        long max = maxWaitNanos.get();
+        while (waitNanos > max && !maxWaitNanos.compareAndSet(max, waitNanos)) {
+            max = maxWaitNanos.get();
+        }
+    }
+
+    private static void updateMax(AtomicInteger target, int value) {
+        int max = target.get();
+        while (value > max && !target.compareAndSet(max, value)) {
+            max = target.get();
+        }
+    }
+
+    /**
+     * 通道名称
+     *
+     * @return 名称
+     */
+    public String getLaneName() {
+        return laneName;
+    }
+
+    /**
+     * 当前排队的任务数
+     *
+     * @return 队列深度
+     */
+    public int getQueueDepth() {
+        return getQueue().size();
+    }
+
+    /**
+     * 历史最大排队任务数
+     *
+     * @return 队列深度
+     */
+    public int getMaxQueueDepth() {
+        return maxQueueDepth.get();
+    }
+
+    /**
+     * 被拒绝的任务数
+     *
+     * @return 拒绝次数
+     */
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    /**
+     * 任务平均排队等待时间
+     *
+     * @return 纳秒
+     */
+    public long getAverageWaitNanos() {
+        long started = startedCount.get();
+        return started == 0 ? 0L : totalWaitNanos.get() / started;
+    }
+
+    /**
+     * 任务最大排队等待时间
+     *
+     * @return 纳秒
+     */
+    public long getMaxWaitNanos() {
+        return maxWaitNanos.get();
+    }
+
+    /**
+     * 通道统计信息，用于日志输出
+     *
+     * @return 统计信息
+     */
+    public String getMetrics() {
+        return laneName + "{active=" + getActiveCount() + ", queue=" + getQueueDepth() + ", maxQueue="
+            + getMaxQueueDepth() + ", completed=" + getCompletedTaskCount() + ", rejected=" + getRejectedCount()
+            + ", avgWaitUs=" + TimeUnit.NANOSECONDS.toMicros(getAverageWaitNanos()) + ", maxWaitUs="
+            + TimeUnit.NANOSECONDS.toMicros(getMaxWaitNanos()) + "}";
+    }
+
+    /**
+     * 记录入队时间的任务包装
+     *
+     * @since 2024-07-18
+     */
+    private final class TimedTask implements Runnable {
+        private final Runnable task;
+
+        private final long enqueueNanos;
+
+        TimedTask(Runnable task, long enqueueNanos) {
+            this.task = task;
+            this.enqueueNanos = enqueueNanos;
+        }
+
+        @Override
+        public void run() {
+            onTaskStart(enqueueNanos);
+            task.run();
+        }
+    }
+
+    /**
+     * 固定名称的线程工厂，线程名为"通道名-序号"
+     *
+     * @since 2024-07-18
+     */
+    private static final class LaneThreadFactory implements ThreadFactory {
+        private final String laneName;
+
+        private final AtomicInteger threadIndex = new AtomicInteger();
+
+        LaneThreadFactory(String laneName) {
+            this.laneName = laneName;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            return new Thread(runnable, laneName + "-" + threadIndex.incrementAndGet());
+        }
+    }
+
+    /**
+     * 拒绝策略：记录溢出次数并输出日志，然后抛出异常通知调用方
+     *
+     * @since 2024-07-18
+     */
+    private static final class OverflowReporter implements RejectedExecutionHandler {
+        @Override
+        public void rejectedExecution(Runnable runnable, ThreadPoolExecutor executor) {
+            String laneName = "unknown";
+            if (executor instanceof LaneExecutor) {
+                LaneExecutor laneExecutor = (LaneExecutor) executor;
+                laneExecutor.rejectedCount.incrementAndGet();
+                laneName = laneExecutor.laneName;
+                Log.e(TAG, "task rejected, " + laneExecutor.getMetrics());
+            }
+            throw new RejectedExecutionException("lane " + laneName + " is saturated");
+        }
+    }
+}
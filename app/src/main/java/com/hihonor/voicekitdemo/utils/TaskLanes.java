@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.utils;
+
+import android.util.Log;
+
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 任务执行器
+ * 短时计算任务（NLU、启动预热）共用有界的计算线程池。实时音频循环运行在AudioCaptureThread专用线程中，
+ * 长时间阻塞的文件转写运行在自己的专用线程中，结果回调分发到主线程，均不占用计算线程池
+ *
+ * @since 2024-07-18
+ */
+public final class TaskLanes {
+    private static final String TAG = TaskLanes.class.getSimpleName();
+
+    /**
+     * 计算线程池队列大小
+     */
+    private static final int COMPUTE_QUEUE_SIZE = 64;
+
+    private static final long KEEP_ALIVE_MS = 30_000L;
+
+    private final LaneExecutor computeLane;
+
+    private TaskLanes() {
+        int computeThreads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        computeLane = new LaneExecutor("VoiceCompute", computeThreads, computeThreads, KEEP_ALIVE_MS,
+            COMPUTE_QUEUE_SIZE);
+        computeLane.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * 单例的静态内部类
+     *
+     * @since 2024-07-18
+     */
+    private static class SingletonHolder {
+        private static final TaskLanes INSTANCE = new TaskLanes();
+    }
+
+    /**
+     * 获取单实例
+     *
+     * @return instance
+     */
+    public static TaskLanes getInstance() {
+        return SingletonHolder.INSTANCE;
+    }
+
+    /**
+     * 获取计算线程池，可用于CompletableFuture等异步接口
+     *
+     * @return 线程池
+     */
+    public LaneExecutor getComputeExecutor() {
+        return computeLane;
+    }
+
+    /**
+     * 在计算线程池执行Runnable
+     *
+     * @param runnable Runnable实例
+     * @return true表示任务已提交，false表示任务为空或线程池已满被拒绝
+     */
+    public boolean execute(Runnable runnable) {
+        if (runnable == null) {
+            Log.e(TAG, "Runnable is null ");
+            return false;
+        }
+        try {
+            computeLane.execute(runnable);
+            return true;
+        } catch (RejectedExecutionException exception) {
+            Log.e(TAG, "compute execute is Rejected, Reason:" + exception.getMessage());
+            return false;
+        }
+    }
+}
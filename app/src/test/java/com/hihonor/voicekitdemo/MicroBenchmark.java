@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo;
+
+import org.junit.Assume;
+
+import java.util.Arrays;
+
+/**
+ * 本地单元测试使用的轻量级基准测试工具
+ * 参照JMH的预热、多轮测量和结果消费方式，不依赖额外的构建插件。
+ * 基准测试放在单独的*Benchmark类中，默认跳过，只输出测量结果，不断言耗时：./gradlew test -PrunBenchmarks
+ *
+ * @since 2024-07-18
+ */
+public final class MicroBenchmark {
+    /**
+     * 开启基准测试的系统属性，Gradle参数-PrunBenchmarks会设置该属性
+     */
+    public static final String ENABLED_PROPERTY = "voicekit.benchmark";
+
+    private static final int DEFAULT_ROUNDS = 5;
+
+    /**
+     * 消费被测操作的结果，防止JIT消除无用代码
+     */
+    private static volatile Object blackHole;
+
+    private MicroBenchmark() {
+    }
+
+    /**
+     * 未开启基准测试时跳过当前测试，在基准测试类的@Before中调用
+     */
+    public static void assumeEnabled() {
+        Assume.assumeTrue("benchmarks are disabled, run with -PrunBenchmarks", Boolean.getBoolean(ENABLED_PROPERTY));
+    }
+
+    /**
+     * 被测操作
+     *
+     * @since 2024-07-18
+     */
+    public interface Operation {
+        /**
+         * 执行一次操作
+         *
+         * @return 操作结果，会被消费
+         */
+        Object run();
+    }
+
+    /**
+     * 预热后执行多轮测量，输出并返回每次操作耗时的中位数
+     *
+     * @param name 名称
+     * @param iterations 每轮执行次数
+     * @param operation 被测操作
+     * @return 每次操作耗时，纳秒
+     */
+    public static double measure(String name, int iterations, Operation operation) {
+        runRound(iterations, operation);
+        double[] rounds = new double[DEFAULT_ROUNDS];
+        for (int i = 0; i < DEFAULT_ROUNDS; i++) {
+            rounds[i] = runRound(iterations, operation);
+        }
+        Arrays.sort(rounds);
+        double median = rounds[DEFAULT_ROUNDS / 2];
+        System.out.printf("Benchmark %-40s %12.1f ns/op (min %.1f, max %.1f)%n", name, median, rounds[0],
+            rounds[DEFAULT_ROUNDS - 1]);
+        return median;
+    }
+
+    private static double runRound(int iterations, Operation operation) {
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            blackHole = operation.run();
+        }
+        return (double) (System.nanoTime() - start) / iterations;
+    }
+}
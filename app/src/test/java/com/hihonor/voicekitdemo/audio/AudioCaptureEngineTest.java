@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.audio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * AudioCaptureEngine本地单元测试
+ *
+ * @since 2024-07-18
+ */
+public class AudioCaptureEngineTest {
+    private static final int BUFFER_SIZE = 1280;
+
+    private static final int WARM_UP_READS = 20_000;
+
+    private static final int MEASURE_READS = 100_000;
+
+    /**
+     * 稳态下允许的误差分配，远小于一次缓冲区分配
+     */
+    private static final long ALLOCATION_TOLERANCE_BYTES = 256L;
+
+    @Test
+    public void loop_deliversEveryReadUntilStopped() {
+        AudioCaptureEngine engine = new AudioCaptureEngine(BUFFER_SIZE);
+        FakePcmSource source = new FakePcmSource(engine, 10);
+        CountingSink sink = new CountingSink();
+        engine.start();
+        engine.loop(source, sink);
+
+        assertEquals(10, engine.getReadCount());
+        assertEquals(10, sink.writeCount);
+        assertEquals(10L * BUFFER_SIZE, sink.totalBytes);
+    }
+
+    @Test
+    public void loop_reusesPreallocatedBuffers() {
+        AudioCaptureEngine engine = new AudioCaptureEngine(BUFFER_SIZE, 2);
+        FakePcmSource source = new FakePcmSource(engine, 4);
+        RecordingSink sink = new RecordingSink(4);
+        engine.start();
+        engine.loop(source, sink);
+
+        assertTrue(sink.buffers[0] != sink.buffers[1]);
+        assertTrue(sink.buffers[0] == sink.buffers[2]);
+        assertTrue(sink.buffers[1] == sink.buffers[3]);
+    }
+
+    @Test
+    public void readOnce_isAllocationFreeInSteadyState() {
+        com.sun.management.ThreadMXBean threadBean =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        AudioCaptureEngine engine = new AudioCaptureEngine(BUFFER_SIZE);
+        FakePcmSource source = new FakePcmSource(engine, Long.MAX_VALUE);
+        CountingSink sink = new CountingSink();
+        for (int i = 0; i < WARM_UP_READS; i++) {
+            engine.readOnce(source, sink);
+        }
+
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < MEASURE_READS; i++) {
+            engine.readOnce(source, sink);
+        }
+        long allocated = threadBean.getThreadAllocatedBytes(threadId) - before;
+
+        assertEquals(WARM_UP_READS + MEASURE_READS, sink.writeCount);
+        assertTrue("allocated " + allocated + " bytes", allocated < ALLOCATION_TOLERANCE_BYTES);
+    }
+
+    /**
+     * 生成锯齿波PCM数据的模拟音频源，读取指定次数后停止引擎
+     */
+    private static class FakePcmSource implements PcmSource {
+        private final AudioCaptureEngine engine;
+
+        private final long maxReads;
+
+        private long reads = 0L;
+
+        private byte sample = 0;
+
+        FakePcmSource(AudioCaptureEngine engine, long maxReads) {
+            this.engine = engine;
+            this.maxReads = maxReads;
+        }
+
+        @Override
+        public int read(byte[] audioData, int offsetInBytes, int sizeInBytes) {
+            for (int i = offsetInBytes; i < offsetInBytes + sizeInBytes; i++) {
+                audioData[i] = sample++;
+            }
+            if (++reads >= maxReads) {
+                engine.stop();
+            }
+            return sizeInBytes;
+        }
+    }
+
+    private static class CountingSink implements AudioSink {
+        private long writeCount = 0L;
+
+        private long totalBytes = 0L;
+
+        @Override
+        public void writeAudio(byte[] audioData, int length) {
+            writeCount++;
+            totalBytes += length;
+        }
+    }
+
+    private static class RecordingSink implements AudioSink {
+        private final byte[][] buffers;
+
+        private int index = 0;
+
+        RecordingSink(int capacity) {
+            buffers = new byte[capacity][];
+        }
+
+        @Override
+        public void writeAudio(byte[] audioData, int length) {
+            buffers[index++] = audioData;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.audio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AudioCaptureThread本地单元测试
+ *
+ * @since 2024-07-18
+ */
+public class AudioCaptureThreadTest {
+    private static final long TIMEOUT_SECONDS = 5L;
+
+    private static final int FRAME_SIZE = PcmFixtures.bytesOf(40);
+
+    @Test
+    public void shutdown_releasesSourceOnCaptureThread() throws InterruptedException {
+        GatedAudioSource source = new GatedAudioSource();
+        source.open();
+        AudioCaptureEngine engine = new AudioCaptureEngine(FRAME_SIZE);
+        engine.start();
+        AudioCaptureThread thread = AudioCaptureThread.forOwnedCapture("TestCapture", engine, source,
+            (audioData, length) -> { });
+        thread.start();
+        assertTrue(source.awaitFirstRead(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        assertTrue(thread.shutdown(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS)));
+        assertEquals("TestCapture", source.getReleaseThread());
+        assertTrue(source.isStopped());
+    }
+
+    @Test
+    public void shutdownTimeout_keepsSourceUntilLoopReturns() throws InterruptedException {
+        GatedAudioSource source = new GatedAudioSource();
+        AudioCaptureEngine engine = new AudioCaptureEngine(FRAME_SIZE);
+        engine.start();
+        AudioCaptureThread thread = AudioCaptureThread.forOwnedCapture("TestCapture", engine, source,
+            (audioData, length) -> { });
+        thread.start();
+        assertTrue(source.awaitFirstRead(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        // read仍阻塞，等待超时后音频源不能被释放
+        assertFalse(thread.shutdown(20L));
+        assertNull(source.getReleaseThread());
+
+        source.open();
+        thread.join(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS));
+        assertFalse(thread.isAlive());
+        assertEquals("TestCapture", source.getReleaseThread());
+    }
+
+    @Test
+    public void shutdown_fromOwnThreadDoesNotJoin() throws InterruptedException {
+        boolean[] result = new boolean[] {true};
+        AudioCaptureThread[] self = new AudioCaptureThread[1];
+        CountDownLatch stopped = new CountDownLatch(1);
+        self[0] = new AudioCaptureThread("TestSelf", 0, () -> result[0] = self[0].shutdown(1000L),
+            stopped::countDown);
+        self[0].start();
+
+        assertTrue(stopped.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        self[0].join(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS));
+        assertFalse(result[0]);
+    }
+}
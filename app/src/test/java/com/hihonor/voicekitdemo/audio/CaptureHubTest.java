@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.audio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * CaptureHub本地单元测试
+ *
+ * @since 2024-07-18
+ */
+public class CaptureHubTest {
+    private static final long TIMEOUT_SECONDS = 5L;
+
+    private static final int FRAME_SIZE = PcmFixtures.bytesOf(40);
+
+    @Test
+    public void subscribe_sharesOneCaptureAcrossSubscribers() throws InterruptedException {
+        AtomicInteger createdSources = new AtomicInteger();
+        CaptureHub hub = new CaptureHub("Test", () -> {
+            createdSources.incrementAndGet();
+            return newRealTimeSource();
+        }, FRAME_SIZE);
+        CountDownLatch firstReceived = new CountDownLatch(1);
+        CountDownLatch secondReceived = new CountDownLatch(1);
+        AudioSink firstSink = (audioData, length) -> firstReceived.countDown();
+        AudioSink secondSink = (audioData, length) -> secondReceived.countDown();
+
+        assertTrue(hub.subscribe("First", firstSink));
+        assertTrue(hub.subscribe("Second", secondSink));
+        assertFalse(hub.subscribe("First", firstSink));
+        assertTrue(firstReceived.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertTrue(secondReceived.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        hub.unsubscribe(secondSink);
+
+        assertTrue(hub.isCapturing());
+        assertEquals(1, hub.getSubscriberCount());
+        hub.unsubscribe(firstSink);
+
+        assertFalse(hub.isCapturing());
+        assertEquals(0, hub.getSubscriberCount());
+        assertEquals(1, createdSources.get());
+    }
+
+    @Test
+    public void slowSubscriber_doesNotStallOthers() throws InterruptedException {
+        CaptureHub hub = new CaptureHub("Test", CaptureHubTest::newRealTimeSource, FRAME_SIZE);
+        AtomicLong fast = new AtomicLong();
+        AtomicLong slow = new AtomicLong();
+        CountDownLatch fastReceived = new CountDownLatch(1);
+        CountDownLatch slowReleased = new CountDownLatch(1);
+        AudioSink fastSink = (audioData, length) -> {
+            if (fast.addAndGet(length) >= PcmFixtures.bytesOf(300)) {
+                fastReceived.countDown();
+            }
+        };
+        // 慢的订阅者收到第一帧后一直阻塞，直到快的订阅者收到300ms音频
+        AudioSink slowSink = (audioData, length) -> {
+            slow.addAndGet(length);
+            await(slowReleased);
+        };
+
+        assertTrue(hub.subscribe("Fast", fastSink));
+        assertTrue(hub.subscribe("Slow", slowSink, 4096));
+        assertTrue(fastReceived.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        String statistics = hub.getStatistics();
+        long slowBytes = slow.get();
+        slowReleased.countDown();
+        hub.unsubscribe(slowSink);
+        hub.unsubscribe(fastSink);
+
+        // 慢的订阅者只溢出自己约128ms的缓冲区，快的订阅者不受影响
+        assertTrue(statistics, slowBytes <= FRAME_SIZE);
+        assertFalse(statistics, statistics.endsWith("overrun=0, overrunBytes=0"));
+    }
+
+    @Test
+    public void unsubscribe_joinsCaptureThreadOutsideLock() throws InterruptedException {
+        GatedAudioSource gated = new GatedAudioSource();
+        AtomicInteger createdSources = new AtomicInteger();
+        CaptureHub hub = new CaptureHub("Test", () -> createdSources.incrementAndGet() == 1 ? gated
+            : newRealTimeSource(), FRAME_SIZE);
+        AudioSink sink = (audioData, length) -> { };
+        assertTrue(hub.subscribe("Only", sink));
+        assertTrue(gated.awaitFirstRead(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        // 采集线程阻塞在read中，取消订阅会等待采集线程退出直到超时
+        Thread unsubscriber = new Thread(() -> hub.unsubscribe(sink), "Unsubscriber");
+        unsubscriber.start();
+        while (hub.getSubscriberCount() != 0) {
+            Thread.yield();
+        }
+
+        // 等待期间不持有锁，但旧采集线程退出前不能打开第二个音频源
+        assertFalse(hub.isCapturing());
+        assertTrue(unsubscriber.isAlive());
+        CountDownLatch secondReceived = new CountDownLatch(1);
+        AudioSink secondSink = (audioData, length) -> secondReceived.countDown();
+        assertFalse(hub.subscribe("Second", secondSink));
+        assertEquals(1, createdSources.get());
+        assertEquals(0, hub.getSubscriberCount());
+
+        gated.open();
+        unsubscriber.join(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS));
+        assertFalse(unsubscriber.isAlive());
+        assertTrue(hub.subscribe("Second", secondSink));
+        assertTrue(secondReceived.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        hub.unsubscribe(secondSink);
+        assertEquals(2, createdSources.get());
+    }
+
+    @Test
+    public void subscribe_waitsForStoppingCaptureAfterJoinTimeout() throws InterruptedException {
+        GatedAudioSource gated = new GatedAudioSource();
+        AtomicInteger createdSources = new AtomicInteger();
+        CaptureHub hub = new CaptureHub("Test", () -> createdSources.incrementAndGet() == 1 ? gated
+            : newRealTimeSource(), FRAME_SIZE);
+        AudioSink sink = (audioData, length) -> { };
+        assertTrue(hub.subscribe("First", sink));
+        assertTrue(gated.awaitFirstRead(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        // 取消订阅等待超时返回，旧采集线程仍阻塞在read中
+        hub.unsubscribe(sink);
+        assertFalse(hub.subscribe("Second", sink));
+        assertEquals(1, createdSources.get());
+
+        // 旧采集线程在subscribe等待期间退出后，新的采集可以开始
+        Thread opener = new Thread(() -> {
+            sleepQuietly(50L);
+            gated.open();
+        }, "Opener");
+        opener.start();
+        assertTrue(hub.subscribe("Second", sink));
+        hub.unsubscribe(sink);
+        assertEquals(2, createdSources.get());
+    }
+
+    @Test
+    public void unsubscribe_completesAfterBlockedDeliveryExits() throws Exception {
+        CaptureHub hub = new CaptureHub("Test", CaptureHubTest::newRealTimeSource, FRAME_SIZE);
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch released = new CountDownLatch(1);
+        AtomicInteger writesAfterUnsubscribe = new AtomicInteger();
+        AtomicBoolean isUnsubscribed = new AtomicBoolean();
+        // 订阅者在writeAudio中阻塞，模拟引擎调用超过取消订阅的等待时间
+        AudioSink sink = (audioData, length) -> {
+            if (isUnsubscribed.get()) {
+                writesAfterUnsubscribe.incrementAndGet();
+            }
+            blocked.countDown();
+            await(released);
+        };
+        assertTrue(hub.subscribe("Blocked", sink));
+        assertTrue(blocked.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        CompletableFuture<Void> deliveryExited = hub.unsubscribe(sink);
+        isUnsubscribed.set(true);
+
+        // 等待超时返回时投递线程仍在调用订阅者，不能释放订阅者使用的引擎
+        assertFalse(deliveryExited.isDone());
+        released.countDown();
+        deliveryExited.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        int writes = writesAfterUnsubscribe.get();
+        sleepQuietly(100L);
+        assertEquals(writes, writesAfterUnsubscribe.get());
+        assertTrue(hub.unsubscribe(sink).isDone());
+    }
+
+    @Test
+    public void subscribe_failsWhenSourceUnavailable() {
+        CaptureHub hub = new CaptureHub("Test", () -> null, FRAME_SIZE);
+
+        assertFalse(hub.subscribe("First", (audioData, length) -> {
+        }));
+        assertFalse(hub.isCapturing());
+        assertEquals(0, hub.getSubscriberCount());
+    }
+
+    private static AudioSource newRealTimeSource() {
+        return new SyntheticAudioSource(PcmFixtures.SAMPLE_RATE, 1L).addTone(440, 3000, 100).setLooping(true)
+            .setRealTime(true);
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.audio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * FrameAssembler本地单元测试
+ *
+ * @since 2024-07-18
+ */
+public class FrameAssemblerTest {
+    private static final int ERROR_INVALID_OPERATION = -3;
+
+    @Test
+    public void frameSizeInBytes_matchesDuration() {
+        assertEquals(640, FrameAssembler.frameSizeInBytes(16000, 1, 2, 20));
+        assertEquals(1280, FrameAssembler.frameSizeInBytes(16000, 1, 2, 40));
+        assertEquals(3200, FrameAssembler.frameSizeInBytes(16000, 1, 2, 100));
+        assertEquals(1764, FrameAssembler.frameSizeInBytes(44100, 1, 2, 20));
+    }
+
+    @Test
+    public void readFrom_assemblesShortReadsIntoFullFrames() {
+        FrameAssembler assembler = new FrameAssembler(100, 2);
+        ScriptedSource source = new ScriptedSource(30, 50, ERROR_INVALID_OPERATION, 20, 0, 100, 40);
+        CollectingSink sink = new CollectingSink();
+        for (int i = 0; i < 7; i++) {
+            assembler.readFrom(source, sink);
+        }
+
+        // 30+50+20组成第一帧；第二帧请求100字节，读到100字节；剩余40字节尚未成帧
+        assertEquals(2, sink.frames);
+        assertEquals(200, sink.bytes.size());
+        assertEquals(7, assembler.getReadCount());
+        assertEquals(1, assembler.getErrorReadCount());
+        assertEquals(4, assembler.getShortReadCount());
+        assertFalse("stale or missing bytes", sink.isCorrupted());
+
+        assembler.flush(sink);
+        assertEquals(3, sink.frames);
+        assertEquals(40, sink.lastLength);
+        assertEquals(240, assembler.getDeliveredBytes());
+        assertFalse(sink.isCorrupted());
+    }
+
+    @Test
+    public void flush_isNoopWhenFrameEmpty() {
+        FrameAssembler assembler = new FrameAssembler(64, 1);
+        CollectingSink sink = new CollectingSink();
+        assembler.flush(sink);
+        assertEquals(0, sink.frames);
+    }
+
+    @Test
+    public void engineLoop_forwardsOnlyValidBytes() {
+        AudioCaptureEngine engine = new AudioCaptureEngine(64, 2);
+        ScriptedSource source = new ScriptedSource(10, 64, 5, ERROR_INVALID_OPERATION, 3);
+        source.stopWhenDone(engine);
+        CollectingSink sink = new CollectingSink();
+        engine.start();
+        engine.loop(source, sink);
+
+        assertEquals(72, sink.bytes.size());
+        assertEquals(3, engine.getShortReadCount());
+        assertEquals(1, engine.getErrorCount());
+        assertFalse(sink.isCorrupted());
+    }
+
+    /**
+     * 按脚本依次返回读取结果的模拟AudioRecord，负数表示错误码，数据为连续递增的字节序列
+     */
+    private static class ScriptedSource implements PcmSource {
+        private final int[] script;
+
+        private int step = 0;
+
+        private byte sample = 0;
+
+        private AudioCaptureEngine engine;
+
+        ScriptedSource(int... script) {
+            this.script = script;
+        }
+
+        void stopWhenDone(AudioCaptureEngine captureEngine) {
+            engine = captureEngine;
+        }
+
+        @Override
+        public int read(byte[] audioData, int offsetInBytes, int sizeInBytes) {
+            int result = script[step++];
+            if (engine != null && step == script.length) {
+                engine.stop();
+            }
+            if (result < 0) {
+                return result;
+            }
+            int length = Math.min(result, sizeInBytes);
+            for (int i = 0; i < length; i++) {
+                audioData[offsetInBytes + i] = sample++;
+            }
+            // 模拟驱动在有效数据之后留下的脏数据
+            for (int i = offsetInBytes + length; i < audioData.length; i++) {
+                audioData[i] = (byte) 0xEE;
+            }
+            return length;
+        }
+    }
+
+    private static class CollectingSink implements AudioSink {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        private int frames = 0;
+
+        private int lastLength = 0;
+
+        @Override
+        public void writeAudio(byte[] audioData, int length) {
+            bytes.write(audioData, 0, length);
+            frames++;
+            lastLength = length;
+        }
+
+        boolean isCorrupted() {
+            byte[] data = bytes.toByteArray();
+            for (int i = 0; i < data.length; i++) {
+                if (data[i] != (byte) i) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.audio;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * read在gate打开前阻塞的音频源，记录释放时所在的线程
+ *
+ * @since 2024-07-18
+ */
+final class GatedAudioSource implements AudioSource {
+    private final CountDownLatch gate = new CountDownLatch(1);
+
+    private final CountDownLatch firstRead = new CountDownLatch(1);
+
+    private volatile String releaseThread;
+
+    private volatile boolean isStopped = false;
+
+    @Override
+    public int read(byte[] audioData, int offsetInBytes, int sizeInBytes) {
+        firstRead.countDown();
+        try {
+            gate.await();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            return ERROR_INTERRUPTED;
+        }
+        return sizeInBytes;
+    }
+
+    @Override
+    public boolean start() {
+        return true;
+    }
+
+    @Override
+    public void stop() {
+        isStopped = true;
+    }
+
+    @Override
+    public void release() {
+        releaseThread = Thread.currentThread().getName();
+    }
+
+    @Override
+    public int getSampleRate() {
+        return PcmFixtures.SAMPLE_RATE;
+    }
+
+    @Override
+    public int getChannelCount() {
+        return 1;
+    }
+
+    /**
+     * 打开gate，之后read不再阻塞
+     */
+    void open() {
+        gate.countDown();
+    }
+
+    boolean awaitFirstRead(long timeout, TimeUnit unit) throws InterruptedException {
+        return firstRead.await(timeout, unit);
+    }
+
+    String getReleaseThread() {
+        return releaseThread;
+    }
+
+    boolean isStopped() {
+        return isStopped;
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.audio;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+/**
+ * MappedAudioFile本地单元测试
+ *
+ * @since 2024-07-18
+ */
+public class MappedAudioFileTest {
+    @Test
+    public void open_wavSkipsHeaderAndExtraChunks() throws IOException {
+        byte[] pcm = PcmFixtures.voiced(100, 3000, 1L);
+        File file = File.createTempFile("mapped", ".wav");
+        file.deleteOnExit();
+        Files.write(file.toPath(), PcmFixtures.wav(pcm, 8000, 2));
+
+        MappedAudioFile audio = MappedAudioFile.open(file);
+
+        assertEquals(8000, audio.getSampleRate());
+        assertEquals(2, audio.getChannelCount());
+        assertEquals(pcm.length, audio.getDataLength());
+        assertEquals(100L, audio.getDurationMs());
+        assertArrayEquals(pcm, readAll(audio, 1000));
+    }
+
+    @Test
+    public void open_rawPcmUsesGivenFormat() throws IOException {
+        byte[] pcm = PcmFixtures.silence(250, 10, 2L);
+        File file = File.createTempFile("mapped", ".pcm");
+        file.deleteOnExit();
+        Files.write(file.toPath(), pcm);
+
+        MappedAudioFile audio = MappedAudioFile.open(file);
+
+        assertEquals(MappedAudioFile.DEFAULT_SAMPLE_RATE, audio.getSampleRate());
+        assertEquals(1, audio.getChannelCount());
+        assertEquals(250L, audio.getDurationMs());
+        assertArrayEquals(pcm, readAll(audio, 1280));
+        assertFalse(audio.hasRemaining());
+        assertEquals(0, audio.read(new byte[16], 0, 16));
+    }
+
+    @Test(expected = IOException.class)
+    public void wrap_rejectsNonPcmWav() throws IOException {
+        byte[] wav = PcmFixtures.wav(new byte[32], 16000, 1);
+        // fmt块中的编码格式改为3（浮点）
+        wav[20] = 3;
+        MappedAudioFile.wrap("float.wav", ByteBuffer.wrap(wav), 16000, 1);
+    }
+
+    @Test(expected = IOException.class)
+    public void wrap_rejectsTruncatedFmtChunk() throws IOException {
+        byte[] wav = PcmFixtures.wav(new byte[32], 16000, 1);
+        // 文件在fmt块中间结束
+        MappedAudioFile.wrap("truncated.wav", ByteBuffer.wrap(Arrays.copyOf(wav, 28)), 16000, 1);
+    }
+
+    @Test(expected = IOException.class)
+    public void wrap_rejectsUndersizedFmtChunk() throws IOException {
+        byte[] wav = PcmFixtures.wav(new byte[32], 16000, 1);
+        // fmt块长度字段改为8
+        wav[16] = 8;
+        MappedAudioFile.wrap("short-fmt.wav", ByteBuffer.wrap(wav), 16000, 1);
+    }
+
+    private static byte[] readAll(MappedAudioFile audio, int chunkSize) {
+        byte[] output = new byte[audio.getDataLength()];
+        int offset = 0;
+        while (audio.hasRemaining()) {
+            offset += audio.read(output, offset, Math.min(chunkSize, output.length - offset));
+        }
+        return output;
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.audio;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 本地单元测试使用的16k单声道16bit PCM数据
+ * 默认使用固定随机种子合成的数据，设置系统属性pcm.fixture.dir（Gradle参数-PpcmFixtureDir）后
+ * 可同时加载该目录下录制的.pcm文件
+ *
+ * @since 2024-07-18
+ */
+public final class PcmFixtures {
+    /**
+     * 采样率
+     */
+    public static final int SAMPLE_RATE = 16000;
+
+    /**
+     * 录制的PCM文件所在目录的系统属性
+     */
+    public static final String FIXTURE_DIR_PROPERTY = "pcm.fixture.dir";
+
+    private static final int BYTES_PER_MS = SAMPLE_RATE * 2 / 1000;
+
+    private PcmFixtures() {
+    }
+
+    /**
+     * 合成带底噪的静音
+     *
+     * @param durationMs 时长
+     * @param noiseAmplitude 底噪幅度
+     * @param seed 随机种子
+     * @return PCM数据
+     */
+    public static byte[] silence(int durationMs, int noiseAmplitude, long seed) {
+        Random random = new Random(seed);
+        byte[] pcm = new byte[durationMs * BYTES_PER_MS];
+        for (int i = 0; i < pcm.length / 2; i++) {
+            putSample(pcm, i, (int) (random.nextGaussian() * noiseAmplitude));
+        }
+        return pcm;
+    }
+
+    /**
+     * 合成类似浊音的信号，基频加谐波，首尾各有10ms渐入渐出
+     *
+     * @param durationMs 时长
+     * @param amplitude 幅度
+     * @param seed 随机种子
+     * @return PCM数据
+     */
+    public static byte[] voiced(int durationMs, int amplitude, long seed) {
+        Random random = new Random(seed);
+        byte[] pcm = new byte[durationMs * BYTES_PER_MS];
+        int sampleCount = pcm.length / 2;
+        double pitch = 120 + random.nextInt(100);
+        int rampSamples = SAMPLE_RATE / 100;
+        for (int i = 0; i < sampleCount; i++) {
+            double time = (double) i / SAMPLE_RATE;
+            double envelope = Math.min(1.0, (double) Math.min(i, sampleCount - 1 - i) / rampSamples);
+            double value = Math.sin(2 * Math.PI * pitch * time) + 0.5 * Math.sin(4 * Math.PI * pitch * time)
+                + 0.25 * Math.sin(6 * Math.PI * pitch * time);
+            putSample(pcm, i, (int) (value * envelope * amplitude / 1.75 + random.nextGaussian() * 20));
+        }
+        return pcm;
+    }
+
+    /**
+     * 合成类似清辅音的高频噪声
+     *
+     * @param durationMs 时长
+     * @param amplitude 幅度
+     * @param seed 随机种子
+     * @return PCM数据
+     */
+    public static byte[] unvoiced(int durationMs, int amplitude, long seed) {
+        Random random = new Random(seed);
+        byte[] pcm = new byte[durationMs * BYTES_PER_MS];
+        int sign = 1;
+        for (int i = 0; i < pcm.length / 2; i++) {
+            sign = -sign;
+            putSample(pcm, i, (int) (sign * amplitude * (0.5 + random.nextDouble())));
+        }
+        return pcm;
+    }
+
+    /**
+     * 合成长时间关键词监听场景：大段静音中穿插短语音
+     *
+     * @param durationMs 总时长
+     * @param speechEveryMs 语音间隔
+     * @param speechMs 每段语音时长
+     * @return PCM数据
+     */
+    public static byte[] keywordSession(int durationMs, int speechEveryMs, int speechMs) {
+        byte[] pcm = silence(durationMs, 60, durationMs);
+        int seed = 0;
+        for (int start = speechEveryMs; start + speechMs <= durationMs; start += speechEveryMs) {
+            byte[] speech = voiced(speechMs, 4000, seed++);
+            System.arraycopy(speech, 0, pcm, start * BYTES_PER_MS, speech.length);
+        }
+        return pcm;
+    }
+
+    /**
+     * 加载系统属性指定目录下录制的PCM文件
+     *
+     * @return 文件内容，未设置目录时为空
+     * @throws IOException 读取失败
+     */
+    public static List<byte[]> loadRecorded() throws IOException {
+        List<byte[]> fixtures = new ArrayList<>();
+        String dir = System.getProperty(FIXTURE_DIR_PROPERTY);
+        if (dir == null) {
+            return fixtures;
+        }
+        File[] files = new File(dir).listFiles((parent, name) -> name.endsWith(".pcm"));
+        if (files == null) {
+            return fixtures;
+        }
+        for (File file : files) {
+            fixtures.add(Files.readAllBytes(file.toPath()));
+        }
+        return fixtures;
+    }
+
+    /**
+     * 按毫秒计算字节数
+     *
+     * @param durationMs 时长
+     * @return 字节数
+     */
+    public static int bytesOf(int durationMs) {
+        return durationMs * BYTES_PER_MS;
+    }
+
+    /**
+     * 加上16bit PCM的WAV文件头，fmt和data之间插入一个奇数长度的LIST块
+     *
+     * @param pcm PCM数据
+     * @param sampleRate 采样率
+     * @param channelCount 声道数
+     * @return WAV文件内容
+     */
+    public static byte[] wav(byte[] pcm, int sampleRate, int channelCount) {
+        byte[] list = "INFOx".getBytes(StandardCharsets.US_ASCII);
+        ByteBuffer wav = ByteBuffer.allocate(12 + 24 + 8 + list.length + 1 + 8 + pcm.length)
+            .order(ByteOrder.LITTLE_ENDIAN);
+        wav.put("RIFF".getBytes(StandardCharsets.US_ASCII)).putInt(wav.capacity() - 8)
+            .put("WAVE".getBytes(StandardCharsets.US_ASCII));
+        wav.put("fmt ".getBytes(StandardCharsets.US_ASCII)).putInt(16).putShort((short) 1)
+            .putShort((short) channelCount).putInt(sampleRate).putInt(sampleRate * channelCount * 2)
+            .putShort((short) (channelCount * 2)).putShort((short) 16);
+        wav.put("LIST".getBytes(StandardCharsets.US_ASCII)).putInt(list.length).put(list).put((byte) 0);
+        wav.put("data".getBytes(StandardCharsets.US_ASCII)).putInt(pcm.length).put(pcm);
+        return wav.array();
+    }
+
+    private static void putSample(byte[] pcm, int index, int value) {
+        int sample = Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, value));
+        pcm[2 * index] = (byte) sample;
+        pcm[2 * index + 1] = (byte) (sample >> 8);
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.audio;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * PreRollBuffer本地单元测试
+ *
+ * @since 2024-07-18
+ */
+public class PreRollBufferTest {
+    @Test
+    public void drainTo_keepsOnlyLatestBytesInOrder() {
+        PreRollBuffer buffer = new PreRollBuffer(8, 3);
+        buffer.write(new byte[] {1, 2, 3, 4, 5, 6}, 0, 6);
+        buffer.write(new byte[] {0, 7, 8, 9, 10, 11}, 1, 5);
+        CollectingSink sink = new CollectingSink();
+
+        assertEquals(8, buffer.drainTo(sink));
+        assertArrayEquals(new byte[] {4, 5, 6, 7, 8, 9, 10, 11}, sink.output.toByteArray());
+        assertEquals(3, buffer.getOverwrittenBytes());
+        assertEquals(0, buffer.size());
+        // 每次最多写入chunkSize字节，环形回绕处也会拆分
+        assertEquals(3, sink.writeCount);
+    }
+
+    @Test
+    public void write_longerThanCapacityKeepsTail() {
+        PreRollBuffer buffer = new PreRollBuffer(4, 4);
+        buffer.write(new byte[] {1, 2, 3, 4, 5, 6, 7}, 0, 7);
+        CollectingSink sink = new CollectingSink();
+        buffer.drainTo(sink);
+
+        assertArrayEquals(new byte[] {4, 5, 6, 7}, sink.output.toByteArray());
+    }
+
+    @Test
+    public void ofDuration_usesPcmFrameSize() {
+        PreRollBuffer buffer = PreRollBuffer.ofDuration(16000, 1, 500, 1280);
+
+        assertEquals(16000, buffer.getCapacity());
+    }
+
+    @Test
+    public void zeroCapacity_keepsNothing() {
+        PreRollBuffer buffer = new PreRollBuffer(0, 1);
+        buffer.write(new byte[] {1, 2}, 0, 2);
+        CollectingSink sink = new CollectingSink();
+
+        assertEquals(0, buffer.drainTo(sink));
+        assertEquals(0, sink.writeCount);
+    }
+
+    /**
+     * 保存写入的所有数据
+     *
+     * @since 2024-07-18
+     */
+    private static final class CollectingSink implements AudioSink {
+        private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        private int writeCount = 0;
+
+        @Override
+        public void writeAudio(byte[] audioData, int length) {
+            output.write(audioData, 0, length);
+            writeCount++;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.audio;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * RmsMeter本地单元测试
+ *
+ * @since 2024-07-18
+ */
+public class RmsMeterTest {
+    private static final float DELTA = 1e-4f;
+
+    @Test
+    public void snapshot_computesWindowStatistics() {
+        RmsMeter meter = new RmsMeter(10);
+        for (int i = 1; i <= 15; i++) {
+            meter.record(i);
+        }
+        RmsMeter.RmsStatistics statistics = new RmsMeter.RmsStatistics();
+        meter.snapshot(statistics);
+
+        // 窗口中保留最近的10个值：6..15
+        assertEquals(15f, statistics.getCurrent(), DELTA);
+        assertEquals(10.5f, statistics.getAverage(), DELTA);
+        assertEquals(15f, statistics.getPeak(), DELTA);
+        assertEquals(10f, statistics.getMedian(), DELTA);
+        assertEquals(14f, statistics.getPercentile90(), DELTA);
+        assertEquals(10, statistics.getWindowCount());
+        assertEquals(15, statistics.getTotalCount());
+    }
+
+    @Test
+    public void record_throttlesEachSubscriberByItsInterval() {
+        AtomicLong clock = new AtomicLong();
+        RmsMeter meter = new RmsMeter(8, clock::get);
+        AtomicInteger fastCount = new AtomicInteger();
+        AtomicInteger slowCount = new AtomicInteger();
+        meter.subscribe(statistics -> fastCount.incrementAndGet(), 100L);
+        meter.subscribe(statistics -> slowCount.incrementAndGet(), 1000L);
+
+        // 每10ms一个音量值，共2秒
+        for (int i = 0; i < 200; i++) {
+            meter.record(i % 30);
+            clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+
+        assertEquals(20, fastCount.get());
+        assertEquals(2, slowCount.get());
+    }
+
+    @Test
+    public void unsubscribe_stopsDelivery() {
+        RmsMeter meter = new RmsMeter(4, () -> 0L);
+        AtomicInteger count = new AtomicInteger();
+        RmsMeter.Listener listener = statistics -> count.incrementAndGet();
+        meter.subscribe(listener, 0L);
+        meter.record(1f);
+        meter.unsubscribe(listener);
+        meter.record(2f);
+
+        assertEquals(1, count.get());
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.audio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * SpscByteRingBuffer与RingBufferAudioSink本地单元测试
+ *
+ * @since 2024-07-18
+ */
+public class SpscByteRingBufferTest {
+    private static final int FRAME_SIZE = 640;
+
+    private static final int FRAME_COUNT = 2000;
+
+    @Test
+    public void offerAndPoll_wrapAroundKeepsOrder() {
+        SpscByteRingBuffer ringBuffer = new SpscByteRingBuffer(8);
+        byte[] out = new byte[8];
+        assertTrue(ringBuffer.offer(new byte[] {1, 2, 3, 4, 5, 6}, 0, 6));
+        assertEquals(4, ringBuffer.poll(out, 0, 4));
+        assertTrue(ringBuffer.offer(new byte[] {7, 8, 9, 10, 11}, 0, 5));
+        assertEquals(7, ringBuffer.poll(out, 0, 8));
+
+        assertEquals(5, out[0]);
+        assertEquals(11, out[6]);
+        assertTrue(ringBuffer.isEmpty());
+        assertEquals(7, ringBuffer.getHighWaterMark());
+    }
+
+    @Test
+    public void highWaterMark_staysAtOneFrameWhenConsumerKeepsUp() {
+        SpscByteRingBuffer ringBuffer = new SpscByteRingBuffer(4096);
+        byte[] frame = new byte[FRAME_SIZE];
+        byte[] out = new byte[FRAME_SIZE];
+        for (int i = 0; i < FRAME_COUNT; i++) {
+            assertTrue(ringBuffer.offer(frame, 0, FRAME_SIZE));
+            assertEquals(FRAME_SIZE, ringBuffer.poll(out, 0, FRAME_SIZE));
+        }
+
+        assertEquals(FRAME_SIZE, ringBuffer.getHighWaterMark());
+        assertEquals(0, ringBuffer.getOverrunCount());
+    }
+
+    @Test
+    public void offer_countsOverrunWhenFull() {
+        SpscByteRingBuffer ringBuffer = new SpscByteRingBuffer(8);
+        assertTrue(ringBuffer.offer(new byte[6], 0, 6));
+        assertFalse(ringBuffer.offer(new byte[4], 0, 4));
+
+        assertEquals(1, ringBuffer.getOverrunCount());
+        assertEquals(4, ringBuffer.getOverrunBytes());
+        assertEquals(6, ringBuffer.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_rejectsNonPowerOfTwo() {
+        new SpscByteRingBuffer(1000);
+    }
+
+    @Test
+    public void sink_slowConsumerLosesNoAudio() throws InterruptedException {
+        RingBufferAudioSink sink = new RingBufferAudioSink(1 << 21, FRAME_SIZE, "TestDelivery");
+        SlowVerifyingSink consumer = new SlowVerifyingSink();
+        sink.start(consumer);
+
+        Thread producer = new Thread(() -> {
+            byte[] frame = new byte[FRAME_SIZE];
+            byte sample = 0;
+            for (int i = 0; i < FRAME_COUNT; i++) {
+                for (int j = 0; j < FRAME_SIZE; j++) {
+                    frame[j] = sample++;
+                }
+                sink.writeAudio(frame, FRAME_SIZE);
+            }
+        }, "TestProducer");
+        producer.start();
+        producer.join();
+        sink.stop();
+
+        assertEquals(0, sink.getOverrunCount());
+        assertEquals((long) FRAME_SIZE * FRAME_COUNT, sink.getDeliveredBytes());
+        assertEquals((long) FRAME_SIZE * FRAME_COUNT, consumer.received);
+        assertFalse("byte sequence broken", consumer.isCorrupted);
+        assertTrue(sink.getHighWaterMark() > FRAME_SIZE);
+    }
+
+    @Test
+    public void sink_stalledConsumerReportsOverrun() throws InterruptedException {
+        RingBufferAudioSink sink = new RingBufferAudioSink(4096, FRAME_SIZE, "TestDelivery");
+        Object gate = new Object();
+        sink.start((audioData, length) -> {
+            synchronized (gate) {
+                try {
+                    gate.wait(200);
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        byte[] frame = new byte[FRAME_SIZE];
+        for (int i = 0; i < 20; i++) {
+            sink.writeAudio(frame, FRAME_SIZE);
+        }
+        synchronized (gate) {
+            gate.notifyAll();
+        }
+        sink.stop();
+
+        assertTrue(sink.getOverrunCount() > 0);
+        assertTrue(sink.getHighWaterMark() <= 4096);
+    }
+
+    /**
+     * 周期性休眠模拟引擎卡顿，并校验收到的字节序列连续
+     */
+    private static class SlowVerifyingSink implements AudioSink {
+        private long received = 0L;
+
+        private byte expected = 0;
+
+        private boolean isCorrupted = false;
+
+        @Override
+        public void writeAudio(byte[] audioData, int length) {
+            for (int i = 0; i < length; i++) {
+                if (audioData[i] != expected++) {
+                    isCorrupted = true;
+                }
+            }
+            received += length;
+            if (received % (FRAME_SIZE * 200L) < length) {
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.audio;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+/**
+ * SyntheticAudioSource和FileAudioSource本地单元测试
+ *
+ * @since 2024-07-18
+ */
+public class SyntheticAudioSourceTest {
+    private static final int SAMPLE_RATE = PcmFixtures.SAMPLE_RATE;
+
+    @Test
+    public void read_isDeterministicAcrossRestarts() {
+        SyntheticAudioSource source = newPattern();
+
+        byte[] first = readAll(source, 999);
+        byte[] second = readAll(source, 640);
+
+        assertEquals(PcmFixtures.bytesOf(500), first.length);
+        assertArrayEquals(first, second);
+        // 静音片段全为0
+        for (int i = PcmFixtures.bytesOf(200); i < PcmFixtures.bytesOf(300); i++) {
+            assertEquals(0, first[i]);
+        }
+    }
+
+    @Test
+    public void looping_neverEnds() {
+        SyntheticAudioSource source = new SyntheticAudioSource(SAMPLE_RATE, 1L).addTone(440, 3000, 10)
+            .setLooping(true);
+        source.start();
+        byte[] buffer = new byte[PcmFixtures.bytesOf(25)];
+
+        assertEquals(buffer.length, source.read(buffer, 0, buffer.length));
+        assertFalse(source.isEndOfStream());
+        // 第二个10ms与第一个10ms相同
+        byte[] firstPeriod = new byte[PcmFixtures.bytesOf(10)];
+        byte[] secondPeriod = new byte[PcmFixtures.bytesOf(10)];
+        System.arraycopy(buffer, 0, firstPeriod, 0, firstPeriod.length);
+        System.arraycopy(buffer, firstPeriod.length, secondPeriod, 0, secondPeriod.length);
+        assertArrayEquals(firstPeriod, secondPeriod);
+    }
+
+    @Test
+    public void captureEngine_stopsAtEndOfStream() {
+        AudioCaptureEngine engine = new AudioCaptureEngine(PcmFixtures.bytesOf(40));
+        SyntheticAudioSource source = newPattern();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        source.start();
+        engine.start();
+
+        engine.loop(source, (audioData, length) -> output.write(audioData, 0, length));
+
+        assertEquals(PcmFixtures.bytesOf(500), output.size());
+        assertTrue(engine.isRunning());
+    }
+
+    @Test
+    public void fileSource_realTimeFollowsDuration() throws IOException {
+        File file = File.createTempFile("source", ".pcm");
+        file.deleteOnExit();
+        Files.write(file.toPath(), PcmFixtures.silence(200, 10, 1L));
+        FileAudioSource source = new FileAudioSource(MappedAudioFile.open(file), true);
+
+        long start = System.nanoTime();
+        byte[] pcm = readAll(source, PcmFixtures.bytesOf(40));
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000L;
+
+        assertEquals(PcmFixtures.bytesOf(200), pcm.length);
+        assertTrue("elapsed " + elapsedMs, elapsedMs >= 190L);
+    }
+
+    private static SyntheticAudioSource newPattern() {
+        return new SyntheticAudioSource(SAMPLE_RATE, 42L).addTone(220, 4000, 200).addSilence(100)
+            .addNoise(800, 200);
+    }
+
+    private static byte[] readAll(AudioSource source, int chunkSize) {
+        assertTrue(source.start());
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        byte[] buffer = new byte[chunkSize];
+        while (!source.isEndOfStream()) {
+            int read = source.read(buffer, 0, buffer.length);
+            output.write(buffer, 0, read);
+        }
+        return output.toByteArray();
+    }
+}
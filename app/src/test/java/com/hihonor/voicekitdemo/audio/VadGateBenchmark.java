@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.audio;
+
+import com.hihonor.voicekitdemo.MicroBenchmark;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+
+/**
+ * VadGate处理耗时和跳过比例的基准测试，默认跳过；设置-PpcmFixtureDir后同时测量录制的PCM文件
+ *
+ * @since 2024-07-18
+ */
+public class VadGateBenchmark {
+    private static final int FRAME_SIZE = PcmFixtures.bytesOf(40);
+
+    @Before
+    public void setUp() {
+        MicroBenchmark.assumeEnabled();
+    }
+
+    @Test
+    public void keywordListeningSession() throws IOException {
+        // 60秒中每10秒一段1秒的语音
+        measure("synthetic keyword session", PcmFixtures.keywordSession(60000, 10000, 1000));
+        int index = 0;
+        for (byte[] recorded : PcmFixtures.loadRecorded()) {
+            measure("recorded fixture " + index++, recorded);
+        }
+    }
+
+    private static void measure(String name, byte[] pcm) {
+        VadGate vadGate = new VadGate((audioData, length) -> { }, PcmFixtures.SAMPLE_RATE);
+        int frames = pcm.length / FRAME_SIZE;
+        byte[] frame = new byte[FRAME_SIZE];
+        double nanosPerFrame = MicroBenchmark.measure("VadGate " + name, frames, new MicroBenchmark.Operation() {
+            private int index = 0;
+
+            @Override
+            public Object run() {
+                System.arraycopy(pcm, (index++ % frames) * FRAME_SIZE, frame, 0, FRAME_SIZE);
+                vadGate.writeAudio(frame, FRAME_SIZE);
+                return frame;
+            }
+        });
+        double skippedRatio = (double) vadGate.getSkippedBytes() / (vadGate.getSkippedBytes()
+            + vadGate.getPassedBytes());
+        System.out.printf("VadGate %s: %.1f%% of audio skipped, %.2f us per 40ms frame%n", name,
+            skippedRatio * 100, nanosPerFrame / 1000);
+    }
+}
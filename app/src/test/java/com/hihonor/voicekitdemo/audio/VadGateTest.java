@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.audio;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+
+/**
+ * VadGate本地单元测试
+ *
+ * @since 2024-07-18
+ */
+public class VadGateTest {
+    private static final int FRAME_SIZE = PcmFixtures.bytesOf(40);
+
+    @Test
+    public void silence_isNotWritten() {
+        CollectingSink sink = new CollectingSink();
+        VadGate vadGate = new VadGate(sink, PcmFixtures.SAMPLE_RATE);
+        byte[] silence = PcmFixtures.silence(5000, 60, 1L);
+        feed(vadGate, silence);
+
+        assertEquals(0, sink.size());
+        assertEquals(silence.length, vadGate.getSkippedBytes());
+        assertEquals(0, vadGate.getSegmentCount());
+    }
+
+    @Test
+    public void speechOnset_isPrecededByPreRoll() {
+        CollectingSink sink = new CollectingSink();
+        VadGate vadGate = new VadGate(sink, PcmFixtures.SAMPLE_RATE);
+        byte[] silence = PcmFixtures.silence(1000, 60, 2L);
+        byte[] speech = PcmFixtures.voiced(600, 4000, 3L);
+        feed(vadGate, silence);
+        feed(vadGate, speech);
+
+        byte[] written = sink.toByteArray();
+        int preRollBytes = PcmFixtures.bytesOf(VadGate.DEFAULT_PRE_ROLL_MS);
+        assertTrue(written.length >= preRollBytes + speech.length - 2 * FRAME_SIZE);
+        assertArrayEquals(Arrays.copyOfRange(silence, silence.length - preRollBytes, silence.length),
+            Arrays.copyOfRange(written, 0, preRollBytes));
+        assertEquals(1, vadGate.getSegmentCount());
+    }
+
+    @Test
+    public void trailingSilence_isWrittenDuringHangover() {
+        CollectingSink sink = new CollectingSink();
+        VadGate vadGate = new VadGate(sink, PcmFixtures.SAMPLE_RATE, VadGate.DEFAULT_ENERGY_THRESHOLD,
+            VadGate.DEFAULT_ZERO_CROSSING_THRESHOLD, 400, 0);
+        feed(vadGate, PcmFixtures.voiced(400, 4000, 4L));
+        int afterSpeech = sink.size();
+        feed(vadGate, PcmFixtures.silence(2000, 60, 5L));
+
+        assertEquals(PcmFixtures.bytesOf(400), sink.size() - afterSpeech);
+    }
+
+    @Test
+    public void reset_dropsHangoverFromPreviousUtterance() {
+        CollectingSink sink = new CollectingSink();
+        VadGate vadGate = new VadGate(sink, PcmFixtures.SAMPLE_RATE, VadGate.DEFAULT_ENERGY_THRESHOLD,
+            VadGate.DEFAULT_ZERO_CROSSING_THRESHOLD, 400, 0);
+        feed(vadGate, PcmFixtures.voiced(400, 4000, 4L));
+        int afterSpeech = sink.size();
+
+        // 开始新的识别，上一句话的拖尾不再写入
+        vadGate.reset();
+        feed(vadGate, PcmFixtures.silence(2000, 60, 5L));
+
+        assertEquals(afterSpeech, sink.size());
+        assertEquals(1, vadGate.getSegmentCount());
+    }
+
+    @Test
+    public void lowEnergyFricative_isDetectedByZeroCrossingRate() {
+        VadGate vadGate = new VadGate(new CollectingSink(), PcmFixtures.SAMPLE_RATE);
+        byte[] fricative = PcmFixtures.unvoiced(40, 350, 6L);
+        byte[] noise = PcmFixtures.silence(40, 60, 7L);
+
+        assertTrue(vadGate.isSpeech(fricative, fricative.length));
+        assertTrue(!vadGate.isSpeech(noise, noise.length));
+    }
+
+    private static void feed(VadGate vadGate, byte[] pcm) {
+        byte[] frame = new byte[FRAME_SIZE];
+        for (int offset = 0; offset < pcm.length; offset += FRAME_SIZE) {
+            int length = Math.min(FRAME_SIZE, pcm.length - offset);
+            System.arraycopy(pcm, offset, frame, 0, length);
+            vadGate.writeAudio(frame, length);
+        }
+    }
+
+    /**
+     * 保存写入的所有数据
+     *
+     * @since 2024-07-18
+     */
+    private static final class CollectingSink implements AudioSink {
+        private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        @Override
+        public void writeAudio(byte[] audioData, int length) {
+            output.write(audioData, 0, length);
+        }
+
+        int size() {
+            return output.size();
+        }
+
+        byte[] toByteArray() {
+            return output.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.command;
+
+import com.hihonor.voicekitdemo.MicroBenchmark;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * 1万条命令词的编译和匹配基准测试，默认跳过
+ *
+ * @since 2024-07-18
+ */
+public class CommandMatcherBenchmark {
+    private static final int ITERATIONS = 20_000;
+
+    @Before
+    public void setUp() {
+        MicroBenchmark.assumeEnabled();
+    }
+
+    @Test
+    public void tenThousandCommands() {
+        Random random = new Random(22L);
+        Map<String, List<String>> commands = CommandMatcherTest.randomCommands(random, 10_000);
+        long start = System.nanoTime();
+        CommandMatcher matcher = CommandMatcher.compile(commands);
+        long compileMs = (System.nanoTime() - start) / 1_000_000;
+        List<String> commandNames = new ArrayList<>(commands.keySet());
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 10; i++) {
+            text.append(CommandMatcherTest.randomPhrase(random))
+                .append(commandNames.get(random.nextInt(commandNames.size())));
+        }
+        String partial = text.toString();
+        System.out.printf("compiled %d phrases into %d states in %d ms%n", matcher.getPhraseCount(),
+            matcher.getStateCount(), compileMs);
+
+        MicroBenchmark.measure("command match 10k commands", ITERATIONS, () -> matcher.findAll(partial));
+        CommandMatcher.Scanner scanner = matcher.newScanner();
+        MicroBenchmark.measure("command scan growing partial", ITERATIONS, () -> {
+            scanner.reset();
+            List<CommandMatcher.Match> matches = null;
+            for (int end = 4; end <= partial.length(); end += 4) {
+                matches = scanner.scan(partial.subSequence(0, end));
+            }
+            return matches;
+        });
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.command;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * CommandMatcher本地单元测试
+ *
+ * @since 2024-07-18
+ */
+public class CommandMatcherTest {
+    @Test
+    public void findAll_reportsOverlappingPhrases() {
+        Map<String, List<String>> commands = new LinkedHashMap<>();
+        commands.put("拍照", Arrays.asList("茄子", "拍张照片"));
+        commands.put("照片", Collections.emptyList());
+        commands.put("Open Camera", Collections.singletonList("camera"));
+        CommandMatcher matcher = CommandMatcher.compile(commands);
+
+        List<CommandMatcher.Match> matches = matcher.findAll("帮我拍张照片，再open，camera");
+
+        assertEquals(6, matcher.getPhraseCount());
+        assertEquals("[拍照(拍张照片)@2-6, 照片(照片)@4-6, Open Camera(Open Camera)@8-19, "
+            + "Open Camera(camera)@13-19]", matches.toString());
+    }
+
+    @Test
+    public void fromKeywordList_splitsDelimitedKeywords() {
+        CommandMatcher matcher = CommandMatcher.fromKeywordList("你好；拍照；；接听电话；拍照");
+
+        assertEquals(3, matcher.getCommandCount());
+        assertEquals(3, matcher.getPhraseCount());
+        assertEquals("[接听电话(接听电话)@1-6]", matcher.findAll("请接听 电话").toString());
+    }
+
+    @Test
+    public void scanner_onlyReportsNewMatchesOfPartialResults() {
+        CommandMatcher.Scanner scanner = CommandMatcher.fromKeywordList("拍照；挂断电话；关闭闹钟").newScanner();
+
+        assertEquals("[拍照(拍照)@0-2]", scanner.scan("拍照").toString());
+        assertEquals("[]", scanner.scan("拍照然后挂断").toString());
+        assertEquals("[挂断电话(挂断电话)@4-8]", scanner.scan("拍照然后挂断电话").toString());
+        // 中间结果改写了末尾，只重新扫描改写的部分
+        assertEquals("[关闭闹钟(关闭闹钟)@4-8]", scanner.scan("拍照然后关闭闹钟").toString());
+        scanner.reset();
+        assertEquals("[拍照(拍照)@0-2]", scanner.scan("拍照").toString());
+    }
+
+    @Test
+    public void findAll_findsEveryEmbeddedCommandAmongTenThousand() {
+        Random random = new Random(22L);
+        Map<String, List<String>> commands = randomCommands(random, 10_000);
+        CommandMatcher matcher = CommandMatcher.compile(commands);
+        List<String> commandNames = new ArrayList<>(commands.keySet());
+        StringBuilder text = new StringBuilder();
+        List<String> embedded = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            String command = commandNames.get(random.nextInt(commandNames.size()));
+            embedded.add(command);
+            text.append(randomPhrase(random)).append(command);
+        }
+
+        List<String> found = new ArrayList<>();
+        for (CommandMatcher.Match match : matcher.findAll(text)) {
+            found.add(match.getCommand());
+        }
+        assertTrue(found.toString(), found.containsAll(embedded));
+        assertEquals(10_000, matcher.getCommandCount());
+    }
+
+    static Map<String, List<String>> randomCommands(Random random, int count) {
+        Map<String, List<String>> commands = new LinkedHashMap<>();
+        while (commands.size() < count) {
+            commands.put(randomPhrase(random), Arrays.asList(randomPhrase(random), randomPhrase(random)));
+        }
+        return commands;
+    }
+
+    static String randomPhrase(Random random) {
+        char[] phrase = new char[2 + random.nextInt(4)];
+        for (int i = 0; i < phrase.length; i++) {
+            // 常用汉字区间中取500个字，使命令词之间有大量公共前缀
+            phrase[i] = (char) (0x4E00 + random.nextInt(500));
+        }
+        return new String(phrase);
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.command;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * KeywordEventStream本地单元测试
+ *
+ * @since 2024-07-18
+ */
+public class KeywordEventStreamTest {
+    /**
+     * 手动结束窗口的测试使用足够长的窗口，调度器不会先结束窗口
+     */
+    private static final long MANUAL_WINDOW_MS = 60_000L;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void synonymsInOneWindow_fireOnce() {
+        KeywordEventStream stream = newManualStream();
+
+        stream.offer("拍照");
+        advance(50L);
+        stream.offer("茄子");
+        advance(250L);
+        stream.closeWindow();
+
+        KeywordEventStream.KeywordEvent event = stream.poll();
+        assertEquals("camera", event.getAction());
+        assertEquals("拍照", event.getKeyword());
+        assertEquals(2, event.getHitCount());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(300L), event.getLatencyNanos());
+        assertNull(stream.poll());
+        assertEquals(1L, stream.getDuplicateCount());
+    }
+
+    @Test
+    public void cooldown_dropsRepeatedAction() {
+        KeywordEventStream stream = newManualStream();
+        stream.offer("拍照");
+        stream.closeWindow();
+        stream.poll();
+
+        advance(1500L);
+        stream.offer("茄子");
+        stream.closeWindow();
+        assertNull(stream.poll());
+        assertEquals(1L, stream.getCooldownCount());
+
+        advance(600L);
+        stream.offer("茄子");
+        stream.closeWindow();
+        assertEquals("camera", stream.poll().getAction());
+        assertEquals(2L, stream.getEmittedCount());
+    }
+
+    @Test
+    public void conflictingActions_highestPriorityWins() {
+        KeywordEventStream stream = newManualStream();
+
+        stream.offer("接听电话");
+        stream.offer("挂断电话");
+        stream.offer("你好");
+        stream.closeWindow();
+
+        assertEquals("hangUp", stream.poll().getAction());
+        assertNull(stream.poll());
+        assertEquals(2L, stream.getConflictCount());
+    }
+
+    @Test
+    public void concurrentHits_deliverOneEventWithinWindow() throws InterruptedException {
+        KeywordEventStream stream = new KeywordEventStream(20L);
+        stream.setRule("拍照", "camera", 1, 2000L);
+        stream.setRule("茄子", "camera", 1, 2000L);
+        List<KeywordEventStream.KeywordEvent> events = new CopyOnWriteArrayList<>();
+        CountDownLatch delivered = new CountDownLatch(1);
+        stream.setEventListener(event -> {
+            events.add(event);
+            delivered.countDown();
+        }, Runnable::run);
+        Thread[] producers = new Thread[4];
+        for (int i = 0; i < producers.length; i++) {
+            String keyword = i % 2 == 0 ? "拍照" : "茄子";
+            producers[i] = new Thread(() -> stream.offer(keyword));
+            producers[i].start();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+
+        assertTrue(delivered.await(5L, TimeUnit.SECONDS));
+        TimeUnit.MILLISECONDS.sleep(100L);
+        stream.close();
+
+        assertEquals(1, events.size());
+        assertEquals(4, events.get(0).getHitCount() + (int) stream.getCooldownCount());
+        assertTrue(stream.getMaxLatencyNanos() < TimeUnit.SECONDS.toNanos(1L));
+    }
+
+    @Test
+    public void close_dropsQueuedEventsAndListener() {
+        KeywordEventStream stream = newManualStream();
+        List<KeywordEventStream.KeywordEvent> events = new ArrayList<>();
+        List<Runnable> pendingCallbacks = new ArrayList<>();
+        stream.setEventListener(events::add, pendingCallbacks::add);
+        stream.offer("拍照");
+        stream.closeWindow();
+
+        stream.close();
+        // 关闭前已提交的回调任务在关闭后才执行
+        for (Runnable callback : pendingCallbacks) {
+            callback.run();
+        }
+
+        assertTrue(events.isEmpty());
+        assertNull(stream.poll());
+        stream.offer("茄子");
+        assertNull(stream.poll());
+    }
+
+    private KeywordEventStream newManualStream() {
+        KeywordEventStream stream = new KeywordEventStream(MANUAL_WINDOW_MS, scheduler, clock::get);
+        stream.setRule("拍照", "camera", 1, 2000L);
+        stream.setRule("茄子", "camera", 1, 2000L);
+        stream.setRule("接听电话", "answer", 2, 1000L);
+        stream.setRule("挂断电话", "hangUp", 3, 1000L);
+        return stream;
+    }
+
+    private void advance(long millis) {
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+}
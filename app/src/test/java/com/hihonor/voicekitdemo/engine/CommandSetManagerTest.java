@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.hihonor.mcs.intelligence.voice.asr.interfaces.AsrScenarioListener;
+import com.hihonor.mcs.intelligence.voice.asr.interfaces.AsrScenarioRecognizer;
+import com.hihonor.mcs.intelligence.voice.asr.result.AsrCommandResult;
+import com.hihonor.voicekitdemo.audio.PcmFixtures;
+import com.hihonor.voicekitdemo.command.CommandSet;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CommandSetManager本地单元测试
+ *
+ * @since 2024-07-18
+ */
+public class CommandSetManagerTest {
+    private static final long TIMEOUT_SECONDS = 5L;
+
+    private static final CommandSet CAMERA = CommandSet.of("camera", 1L, Arrays.asList("拍照", "茄子"));
+
+    private static final CommandSet CALL = CommandSet.of("call", 1L, Arrays.asList("接听电话", "挂断电话"));
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    private final Map<String, RecognizerPool<AsrScenarioRecognizer>> pools = new HashMap<>();
+
+    private final Map<String, FakeScenarioEngineFactory> factories = new HashMap<>();
+
+    private final byte[] frame = new byte[PcmFixtures.bytesOf(40)];
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void activate_swapsEngineWithoutDroppingAudio() throws Exception {
+        CommandSetManager manager = newManager();
+        manager.register(CAMERA);
+        manager.register(CALL);
+        // 注册不创建引擎，第一次切换到集合时才创建
+        assertEquals(0, factory(CALL).getEngineCount());
+        manager.activate("camera").get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        manager.startRecognize();
+        FakeScenarioEngine camera = factory(CAMERA).getEngine(0);
+        writeFrames(manager, 5);
+
+        assertSame(CALL, manager.activate("call").get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        writeFrames(manager, 3);
+
+        FakeScenarioEngine call = factory(CALL).getEngine(0);
+        assertEquals(5 * frame.length, camera.getWrittenBytes());
+        assertEquals(3 * frame.length, call.getWrittenBytes());
+        assertEquals(1, call.getStartCount());
+        assertSame(CALL, manager.getActiveSet());
+        assertEquals(2, manager.getSwapCount());
+        assertEquals(0L, manager.getDroppedAudioMs());
+        // 旧引擎开始过识别，无法停止，销毁而不是归还给池
+        assertTrue(camera.isDestroyed());
+        assertEquals(0, pool(CAMERA).getIdleCount());
+        manager.activate("camera").get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        assertEquals(2, factory(CAMERA).getEngineCount());
+        assertEquals(1, factory(CAMERA).getEngine(1).getStartCount());
+    }
+
+    @Test
+    public void activate_returnsEngineThatNeverStartedToPool() throws Exception {
+        CommandSetManager manager = newManager();
+        manager.register(CAMERA);
+        manager.register(CALL);
+        manager.activate("camera").get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        manager.activate("call").get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        FakeScenarioEngine camera = factory(CAMERA).getEngine(0);
+        assertFalse(camera.isDestroyed());
+        assertEquals(1, pool(CAMERA).getIdleCount());
+        manager.activate("camera").get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        assertEquals(1, factory(CAMERA).getEngineCount());
+        manager.startRecognize();
+        manager.close();
+        assertTrue(camera.isDestroyed());
+    }
+
+    @Test
+    public void activate_buffersAudioUntilEngineReady() throws Exception {
+        CommandSetManager manager = newManager();
+        factory(CAMERA).setManual(true);
+        manager.register(CAMERA);
+
+        assertFalse(manager.startRecognize());
+        manager.activate("camera");
+        writeFrames(manager, 4);
+        assertTrue(manager.isSwapping());
+        factory(CAMERA).completePending(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS));
+        manager.activate("camera").get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        FakeScenarioEngine camera = factory(CAMERA).getEngine(0);
+        assertEquals(4 * frame.length, camera.getWrittenBytes());
+        assertEquals(1, camera.getStartCount());
+        assertEquals(160L, manager.getReplayedAudioMs());
+        assertEquals(0L, manager.getDroppedAudioMs());
+    }
+
+    @Test
+    public void register_newerVersionOfActiveSetSwapsIn() throws Exception {
+        CommandSetManager manager = newManager();
+        manager.register(CAMERA);
+        manager.activate("camera").get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        CommandSet cameraV2 = CommandSet.fromKeywordList("camera", 2L, "拍照；茄子；录像；茄子");
+
+        assertEquals("拍照；茄子；录像", cameraV2.getPayload());
+        assertTrue(manager.register(cameraV2));
+        assertFalse(manager.register(CAMERA));
+        assertSame(cameraV2, manager.activate("camera").get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertSame(cameraV2, manager.getActiveSet());
+    }
+
+    @Test
+    public void invalidateActive_holdsAudioUntilNextSwap() throws Exception {
+        CommandSetManager manager = newManager();
+        manager.register(CAMERA);
+        manager.activate("camera").get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        manager.startRecognize();
+
+        assertSame(CAMERA, manager.invalidateActive());
+        writeFrames(manager, 2);
+        assertTrue(factory(CAMERA).getEngine(0).isDestroyed());
+        manager.activate("camera").get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        FakeScenarioEngine replacement = factory(CAMERA).getEngine(1);
+        assertEquals(2 * frame.length, replacement.getWrittenBytes());
+        assertEquals(80L, manager.getReplayedAudioMs());
+        assertEquals(0L, manager.getDroppedAudioMs());
+        manager.close();
+        writeFrames(manager, 1);
+        assertEquals(2 * frame.length, replacement.getWrittenBytes());
+    }
+
+    private CommandSetManager newManager() {
+        return new CommandSetManager(this::pool, new AsrScenarioListener() {
+            @Override
+            public void onReady() {
+            }
+
+            @Override
+            public void onResult(AsrCommandResult result) {
+            }
+
+            @Override
+            public void onError(int code, String msg) {
+            }
+        }, PcmFixtures.SAMPLE_RATE);
+    }
+
+    private synchronized RecognizerPool<AsrScenarioRecognizer> pool(String payload) {
+        return pools.computeIfAbsent(payload, key -> new RecognizerPool<>("TestPool", factory(key), 1, 60_000L,
+            scheduler));
+    }
+
+    private RecognizerPool<AsrScenarioRecognizer> pool(CommandSet commandSet) {
+        return pool(commandSet.getPayload());
+    }
+
+    private synchronized FakeScenarioEngineFactory factory(String payload) {
+        return factories.computeIfAbsent(payload, key -> new FakeScenarioEngineFactory());
+    }
+
+    private FakeScenarioEngineFactory factory(CommandSet commandSet) {
+        return factory(commandSet.getPayload());
+    }
+
+    private void writeFrames(CommandSetManager manager, int count) {
+        for (int i = 0; i < count; i++) {
+            manager.writeAudio(frame, frame.length);
+        }
+    }
+}
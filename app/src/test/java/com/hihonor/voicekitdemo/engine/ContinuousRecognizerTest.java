@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.engine;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.hihonor.mcs.intelligence.voice.SupportListener;
+import com.hihonor.mcs.intelligence.voice.asr.interfaces.AsrListener;
+import com.hihonor.mcs.intelligence.voice.asr.interfaces.AsrRecognizer;
+import com.hihonor.mcs.intelligence.voice.asr.result.AsrResult;
+import com.hihonor.voicekitdemo.audio.PreRollBuffer;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ContinuousRecognizer本地单元测试
+ *
+ * @since 2024-07-18
+ */
+public class ContinuousRecognizerTest {
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+
+    private final FakeRecognizer engine = new FakeRecognizer();
+
+    private final CountingListener listener = new CountingListener();
+
+    private final Queue<Runnable> restartTasks = new ArrayDeque<>();
+
+    private final ContinuousRecognizer continuous = new ContinuousRecognizer(engine, listener, restartTasks::add,
+        new PreRollBuffer(64, 4), now::get);
+
+    @Test
+    public void result_restartsAndFlushesGapAudio() {
+        assertTrue(continuous.start());
+        continuous.writeAudio(new byte[] {1, 2}, 2);
+        engine.listener.onSpeechEnd();
+        continuous.writeAudio(new byte[] {3, 4}, 2);
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(30L));
+        engine.listener.onResult(null);
+        continuous.writeAudio(new byte[] {5}, 1);
+
+        assertEquals(1, listener.resultCount);
+        assertEquals(1, restartTasks.size());
+        restartTasks.poll().run();
+        continuous.writeAudio(new byte[] {6}, 1);
+
+        assertEquals(2, engine.startCount);
+        assertArrayEquals(new byte[] {1, 2, 3, 4, 5, 6}, engine.written.toByteArray());
+        assertEquals(1, continuous.getUtteranceCount());
+        assertEquals(1, continuous.getRestartCount());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(30L), continuous.getLastGapNanos());
+    }
+
+    @Test
+    public void stop_deliversFinalResultWithoutRestart() {
+        continuous.start();
+
+        assertTrue(continuous.stop());
+        engine.listener.onResult(null);
+
+        assertEquals(1, engine.stopCount);
+        assertEquals(1, listener.resultCount);
+        assertTrue(restartTasks.isEmpty());
+        assertFalse(continuous.isActive());
+    }
+
+    @Test
+    public void stop_betweenUtterancesSkipsPendingRestart() {
+        continuous.start();
+        engine.listener.onResult(null);
+
+        assertFalse(continuous.stop());
+        restartTasks.poll().run();
+
+        assertEquals(0, engine.stopCount);
+        assertEquals(1, engine.startCount);
+    }
+
+    @Test
+    public void consecutiveErrors_stopContinuousRecognition() {
+        continuous.start();
+        for (int i = 0; i < 3; i++) {
+            engine.listener.onError(-1, "error");
+            Runnable restart = restartTasks.poll();
+            if (restart != null) {
+                restart.run();
+            }
+        }
+
+        assertFalse(continuous.isActive());
+        assertEquals(3, engine.startCount);
+        assertEquals(3, listener.errorCount);
+    }
+
+    /**
+     * 记录调用的ASR引擎
+     *
+     * @since 2024-07-18
+     */
+    private static final class FakeRecognizer implements AsrRecognizer {
+        private final ByteArrayOutputStream written = new ByteArrayOutputStream();
+
+        private AsrListener listener;
+
+        private int startCount = 0;
+
+        private int stopCount = 0;
+
+        @Override
+        public void init(SupportListener supportListener) {
+            supportListener.onSupport();
+        }
+
+        @Override
+        public void startRecognize(AsrListener asrListener) {
+            listener = asrListener;
+            startCount++;
+        }
+
+        @Override
+        public int writeAudio(byte[] audioData, int length) {
+            written.write(audioData, 0, length);
+            return 0;
+        }
+
+        @Override
+        public void stopRecognize() {
+            stopCount++;
+        }
+
+        @Override
+        public void cancelRecognize() {
+        }
+
+        @Override
+        public void destroy() {
+        }
+    }
+
+    /**
+     * 统计回调次数
+     *
+     * @since 2024-07-18
+     */
+    private static final class CountingListener implements AsrListener {
+        private int resultCount = 0;
+
+        private int errorCount = 0;
+
+        @Override
+        public void onReady() {
+        }
+
+        @Override
+        public void onSpeechStart() {
+        }
+
+        @Override
+        public void onRmsChanged(float value) {
+        }
+
+        @Override
+        public void onSpeechEnd() {
+        }
+
+        @Override
+        public void onPartialResult(AsrResult asrResult) {
+        }
+
+        @Override
+        public void onResult(AsrResult asrResult) {
+            resultCount++;
+        }
+
+        @Override
+        public void onError(int code, String msg) {
+            errorCount++;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.engine;
+
+import com.hihonor.mcs.intelligence.voice.SupportListener;
+import com.hihonor.mcs.intelligence.voice.asr.ScenarioOption;
+import com.hihonor.mcs.intelligence.voice.asr.interfaces.AsrScenarioListener;
+import com.hihonor.mcs.intelligence.voice.asr.interfaces.AsrScenarioRecognizer;
+
+/**
+ * 模拟场景化引擎，保存最近一次的识别回调并记录写入字节数
+ *
+ * @since 2024-07-18
+ */
+final class FakeScenarioEngine implements AsrScenarioRecognizer {
+    private volatile AsrScenarioListener listener;
+
+    private volatile int writtenBytes = 0;
+
+    private volatile int startCount = 0;
+
+    private volatile boolean isDestroyed = false;
+
+    @Override
+    public void init(ScenarioOption option, SupportListener supportListener) {
+        supportListener.onSupport();
+    }
+
+    @Override
+    public void startRecognize(AsrScenarioListener asrScenarioListener) {
+        listener = asrScenarioListener;
+        startCount++;
+    }
+
+    @Override
+    public int writeAudio(byte[] audioData, int length) {
+        writtenBytes += length;
+        return 0;
+    }
+
+    @Override
+    public void destroy() {
+        isDestroyed = true;
+    }
+
+    AsrScenarioListener getListener() {
+        return listener;
+    }
+
+    int getWrittenBytes() {
+        return writtenBytes;
+    }
+
+    int getStartCount() {
+        return startCount;
+    }
+
+    boolean isDestroyed() {
+        return isDestroyed;
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.engine;
+
+import com.hihonor.mcs.intelligence.voice.asr.AsrErrorCode;
+import com.hihonor.mcs.intelligence.voice.asr.interfaces.AsrScenarioRecognizer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 创建FakeScenarioEngine的引擎工厂
+ * 默认在create中同步初始化成功；可指定接下来若干次初始化失败，或改为手动控制初始化完成的时机
+ *
+ * @since 2024-07-18
+ */
+final class FakeScenarioEngineFactory implements RecognizerPool.EngineFactory<AsrScenarioRecognizer> {
+    private final List<FakeScenarioEngine> engines = new CopyOnWriteArrayList<>();
+
+    private final List<RecognizerPool.InitCallback<AsrScenarioRecognizer>> pending = new ArrayList<>();
+
+    private final AtomicInteger failures = new AtomicInteger();
+
+    private final AtomicInteger createCount = new AtomicInteger();
+
+    private final AtomicInteger resetCount = new AtomicInteger();
+
+    private final AtomicInteger destroyCount = new AtomicInteger();
+
+    private volatile boolean isManual = false;
+
+    /**
+     * 初始化结果已回调给池的次数，用于等待异步初始化完成
+     */
+    private int deliveredCount = 0;
+
+    @Override
+    public void create(RecognizerPool.InitCallback<AsrScenarioRecognizer> callback) {
+        createCount.incrementAndGet();
+        if (failures.getAndUpdate(count -> Math.max(0, count - 1)) > 0) {
+            callback.onError(AsrErrorCode.ASR_PHRASE_ERROR, "init failed");
+            onDelivered();
+            return;
+        }
+        if (isManual) {
+            synchronized (this) {
+                pending.add(callback);
+                notifyAll();
+            }
+            return;
+        }
+        callback.onReady(newEngine());
+        onDelivered();
+    }
+
+    @Override
+    public void reset(AsrScenarioRecognizer engine) {
+        resetCount.incrementAndGet();
+    }
+
+    @Override
+    public void destroy(AsrScenarioRecognizer engine) {
+        destroyCount.incrementAndGet();
+        engine.destroy();
+    }
+
+    /**
+     * 之后的create只保存回调，由completePending完成初始化
+     *
+     * @param manual true表示手动完成初始化
+     */
+    void setManual(boolean manual) {
+        isManual = manual;
+    }
+
+    /**
+     * 接下来的count次初始化失败
+     *
+     * @param count 失败次数
+     */
+    void failNext(int count) {
+        failures.set(count);
+    }
+
+    /**
+     * 等待至少一个初始化请求，再让所有等待中的初始化成功
+     *
+     * @param timeoutMs 最长等待时间
+     * @throws InterruptedException 等待被中断
+     */
+    void completePending(long timeoutMs) throws InterruptedException {
+        List<RecognizerPool.InitCallback<AsrScenarioRecognizer>> callbacks;
+        synchronized (this) {
+            awaitLocked(() -> !pending.isEmpty(), timeoutMs);
+            callbacks = new ArrayList<>(pending);
+            pending.clear();
+        }
+        for (RecognizerPool.InitCallback<AsrScenarioRecognizer> callback : callbacks) {
+            callback.onReady(newEngine());
+            onDelivered();
+        }
+    }
+
+    /**
+     * 等待至少一个初始化请求
+     *
+     * @param timeoutMs 最长等待时间
+     * @return false表示超时
+     * @throws InterruptedException 等待被中断
+     */
+    synchronized boolean awaitPending(long timeoutMs) throws InterruptedException {
+        return awaitLocked(() -> !pending.isEmpty(), timeoutMs);
+    }
+
+    /**
+     * 等待初始化结果回调给池的次数达到count，回调返回后引擎已放入池中或交给租用者
+     *
+     * @param count 次数
+     * @param timeoutMs 最长等待时间
+     * @return false表示超时
+     * @throws InterruptedException 等待被中断
+     */
+    synchronized boolean awaitDelivered(int count, long timeoutMs) throws InterruptedException {
+        return awaitLocked(() -> deliveredCount >= count, timeoutMs);
+    }
+
+    private boolean awaitLocked(BooleanSupplier condition, long timeoutMs) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        while (!condition.getAsBoolean()) {
+            long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remainingMs <= 0) {
+                return false;
+            }
+            wait(remainingMs);
+        }
+        return true;
+    }
+
+    private synchronized void onDelivered() {
+        deliveredCount++;
+        notifyAll();
+    }
+
+    private FakeScenarioEngine newEngine() {
+        FakeScenarioEngine engine = new FakeScenarioEngine();
+        engines.add(engine);
+        return engine;
+    }
+
+    FakeScenarioEngine getEngine(int index) {
+        return engines.get(index);
+    }
+
+    int getEngineCount() {
+        return engines.size();
+    }
+
+    int getCreateCount() {
+        return createCount.get();
+    }
+
+    int getResetCount() {
+        return resetCount.get();
+    }
+
+    int getDestroyCount() {
+        return destroyCount.get();
+    }
+
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.hihonor.mcs.intelligence.voice.SupportListener;
+import com.hihonor.mcs.intelligence.voice.asr.interfaces.AsrListener;
+import com.hihonor.mcs.intelligence.voice.asr.interfaces.AsrRecognizer;
+import com.hihonor.voicekitdemo.audio.MappedAudioFile;
+import com.hihonor.voicekitdemo.audio.PcmFixtures;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+
+/**
+ * FileTranscriber本地单元测试
+ *
+ * @since 2024-07-18
+ */
+public class FileTranscriberTest {
+    private static final int SAMPLE_RATE = PcmFixtures.SAMPLE_RATE;
+
+    @Test
+    public void transcribe_restartsAfterEachEndpoint() throws IOException {
+        // 引擎每收到300ms音频判定一句话结束
+        EndpointingRecognizer engine = new EndpointingRecognizer(PcmFixtures.bytesOf(300));
+        FileTranscriber transcriber = new FileTranscriber(engine, SAMPLE_RATE);
+
+        FileTranscriber.Transcript transcript = transcriber.transcribe(openWav("fast", 1000, SAMPLE_RATE),
+            FileTranscriber.Mode.FAST);
+
+        assertNull(transcript.getErrorMessage());
+        assertEquals(PcmFixtures.bytesOf(1000), engine.writtenBytes);
+        assertEquals(4, engine.startCount);
+        assertEquals(4, transcript.getUtteranceCount());
+        assertEquals(1000L, transcript.getAudioDurationMs());
+        assertTrue(transcript.getRealTimeFactor() < 1.0);
+    }
+
+    @Test
+    public void transcribe_pacedModeFollowsAudioDuration() throws IOException {
+        EndpointingRecognizer engine = new EndpointingRecognizer(Integer.MAX_VALUE);
+        FileTranscriber transcriber = new FileTranscriber(engine, SAMPLE_RATE);
+
+        FileTranscriber.Transcript transcript = transcriber.transcribe(openWav("paced", 200, SAMPLE_RATE),
+            FileTranscriber.Mode.PACED);
+
+        assertTrue(transcript.getProcessingMs() >= 190L);
+        assertEquals(1, engine.stopCount);
+        assertEquals(1, transcript.getUtteranceCount());
+    }
+
+    @Test
+    public void transcribeDirectory_reportsEachFile() throws IOException {
+        File directory = Files.createTempDirectory("transcribe").toFile();
+        directory.deleteOnExit();
+        write(new File(directory, "a.wav"), PcmFixtures.wav(PcmFixtures.silence(400, 10, 1L), SAMPLE_RATE, 1));
+        write(new File(directory, "b.wav"), PcmFixtures.wav(PcmFixtures.silence(400, 10, 2L), 8000, 1));
+        write(new File(directory, "c.pcm"), PcmFixtures.silence(200, 10, 3L));
+        write(new File(directory, "notes.txt"), new byte[4]);
+        FileTranscriber transcriber = new FileTranscriber(new EndpointingRecognizer(Integer.MAX_VALUE),
+            SAMPLE_RATE);
+
+        List<FileTranscriber.Transcript> transcripts = transcriber.transcribeDirectory(directory,
+            FileTranscriber.Mode.FAST);
+        String report = FileTranscriber.formatReport(transcripts);
+
+        assertEquals(3, transcripts.size());
+        assertNull(transcripts.get(0).getErrorMessage());
+        assertNotNull(transcripts.get(1).getErrorMessage());
+        assertEquals(200L, transcripts.get(2).getAudioDurationMs());
+        assertTrue(report, report.contains("total: files=3, audioMs=600"));
+    }
+
+    private static MappedAudioFile openWav(String name, int durationMs, int sampleRate) throws IOException {
+        File file = File.createTempFile(name, ".wav");
+        file.deleteOnExit();
+        write(file, PcmFixtures.wav(PcmFixtures.voiced(durationMs, 3000, 7L), sampleRate, 1));
+        return MappedAudioFile.open(file);
+    }
+
+    private static void write(File file, byte[] content) throws IOException {
+        Files.write(file.toPath(), content);
+        file.deleteOnExit();
+    }
+
+    /**
+     * 每收到固定字节数的音频就回调一句话结束和最终结果的ASR引擎
+     *
+     * @since 2024-07-18
+     */
+    private static final class EndpointingRecognizer implements AsrRecognizer {
+        private final int utteranceBytes;
+
+        private AsrListener listener;
+
+        private int utteranceWritten = 0;
+
+        private int writtenBytes = 0;
+
+        private int startCount = 0;
+
+        private int stopCount = 0;
+
+        EndpointingRecognizer(int utteranceBytes) {
+            this.utteranceBytes = utteranceBytes;
+        }
+
+        @Override
+        public void init(SupportListener supportListener) {
+            supportListener.onSupport();
+        }
+
+        @Override
+        public void startRecognize(AsrListener asrListener) {
+            listener = asrListener;
+            utteranceWritten = 0;
+            startCount++;
+        }
+
+        @Override
+        public int writeAudio(byte[] audioData, int length) {
+            writtenBytes += length;
+            utteranceWritten += length;
+            if (utteranceWritten >= utteranceBytes) {
+                listener.onSpeechEnd();
+                listener.onResult(null);
+            }
+            return 0;
+        }
+
+        @Override
+        public void stopRecognize() {
+            stopCount++;
+            listener.onResult(null);
+        }
+
+        @Override
+        public void cancelRecognize() {
+        }
+
+        @Override
+        public void destroy() {
+        }
+    }
+}
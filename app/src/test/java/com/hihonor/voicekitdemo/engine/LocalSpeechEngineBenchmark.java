@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.engine;
+
+import com.hihonor.voicekitdemo.MicroBenchmark;
+import com.hihonor.voicekitdemo.audio.FrameAssembler;
+import com.hihonor.voicekitdemo.audio.SyntheticAudioSource;
+import com.hihonor.voicekitdemo.audio.VadGate;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * 合成音频源经组帧、VAD门限写入本地引擎的采集链路基准测试，默认跳过
+ *
+ * @since 2024-07-18
+ */
+public class LocalSpeechEngineBenchmark {
+    private static final int SAMPLE_RATE = 16000;
+
+    private static final int FRAME_SIZE = FrameAssembler.frameSizeInBytes(SAMPLE_RATE, 1, 2, 40);
+
+    @Before
+    public void setUp() {
+        MicroBenchmark.assumeEnabled();
+    }
+
+    @Test
+    public void capturePipeline() {
+        // 10秒音频：说话1秒、静音1秒交替
+        SyntheticAudioSource source = new SyntheticAudioSource(SAMPLE_RATE, 7L).addTone(180, 3000, 1000)
+            .addNoise(30, 1000).setLooping(true);
+        LocalSpeechEngine engine = new LocalSpeechEngine(SAMPLE_RATE);
+        VadGate vadGate = new VadGate(engine, SAMPLE_RATE);
+        FrameAssembler frameAssembler = new FrameAssembler(FRAME_SIZE, 4);
+        source.start();
+        engine.startRecognize(new SpeechEngine.Listener() {
+            @Override
+            public void onSpeechStart() {
+            }
+
+            @Override
+            public void onSpeechEnd() {
+            }
+
+            @Override
+            public void onPartialResult(String text) {
+            }
+
+            @Override
+            public void onResult(String text) {
+            }
+
+            @Override
+            public void onError(int code, String msg) {
+            }
+        });
+        int framesPerRun = 250;
+        double nanosPerRun = MicroBenchmark.measure("capture pipeline 10s audio", 20, () -> {
+            for (int i = 0; i < framesPerRun; i++) {
+                frameAssembler.readFrom(source, vadGate);
+            }
+            return vadGate;
+        });
+        System.out.printf("capture pipeline: %.3f ms per 10s of audio, vad %s%n", nanosPerRun / 1_000_000,
+            vadGate.getStatistics());
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.engine;
+
+import static org.junit.Assert.assertEquals;
+
+import com.hihonor.voicekitdemo.audio.FrameAssembler;
+import com.hihonor.voicekitdemo.audio.SyntheticAudioSource;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * LocalSpeechEngine本地单元测试
+ *
+ * @since 2024-07-18
+ */
+public class LocalSpeechEngineTest {
+    private static final int SAMPLE_RATE = 16000;
+
+    private static final int FRAME_SIZE = FrameAssembler.frameSizeInBytes(SAMPLE_RATE, 1, 2, 40);
+
+    @Test
+    public void endpointing_reportsOneResultPerUtterance() {
+        LocalSpeechEngine engine = new LocalSpeechEngine(SAMPLE_RATE);
+        RecordingListener listener = new RecordingListener();
+        engine.startRecognize(listener);
+
+        feed(engine, new SyntheticAudioSource(SAMPLE_RATE, 1L).addSilence(200).addTone(200, 3000, 400)
+            .addSilence(800).addTone(200, 3000, 400));
+
+        assertEquals("[start, end, result:speech 400ms]", listener.events.toString());
+        assertEquals(1, engine.getUtteranceCount());
+    }
+
+    @Test
+    public void stopRecognize_finishesOngoingSpeech() {
+        LocalSpeechEngine engine = new LocalSpeechEngine(SAMPLE_RATE);
+        RecordingListener listener = new RecordingListener();
+        engine.startRecognize(listener);
+        feed(engine, new SyntheticAudioSource(SAMPLE_RATE, 1L).addTone(300, 3000, 200));
+
+        engine.stopRecognize();
+        engine.stopRecognize();
+
+        assertEquals("[start, end, result:speech 200ms]", listener.events.toString());
+    }
+
+    private static void feed(LocalSpeechEngine engine, SyntheticAudioSource source) {
+        source.start();
+        byte[] frame = new byte[FRAME_SIZE];
+        while (!source.isEndOfStream()) {
+            engine.writeAudio(frame, source.read(frame, 0, frame.length));
+        }
+    }
+
+    /**
+     * 按顺序记录回调
+     *
+     * @since 2024-07-18
+     */
+    private static final class RecordingListener implements SpeechEngine.Listener {
+        private final List<String> events = new ArrayList<>();
+
+        @Override
+        public void onSpeechStart() {
+            events.add("start");
+        }
+
+        @Override
+        public void onSpeechEnd() {
+            events.add("end");
+        }
+
+        @Override
+        public void onPartialResult(String text) {
+        }
+
+        @Override
+        public void onResult(String text) {
+            events.add("result:" + text);
+        }
+
+        @Override
+        public void onError(int code, String msg) {
+            events.add("error:" + code);
+        }
+    }
+}
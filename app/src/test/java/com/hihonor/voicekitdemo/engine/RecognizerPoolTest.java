@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.hihonor.mcs.intelligence.voice.asr.interfaces.AsrScenarioRecognizer;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * RecognizerPool本地单元测试
+ *
+ * @since 2024-07-18
+ */
+public class RecognizerPoolTest {
+    private static final long TIMEOUT_SECONDS = 5L;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void release_engineIsReusedWithoutInit() throws Exception {
+        FakeScenarioEngineFactory factory = new FakeScenarioEngineFactory();
+        RecognizerPool<AsrScenarioRecognizer> pool = newPool(factory);
+        AsrScenarioRecognizer first = pool.lease().get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        pool.release(first);
+        AsrScenarioRecognizer second = pool.lease().get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        assertSame(first, second);
+        assertEquals(1, factory.getCreateCount());
+        assertEquals(1, factory.getResetCount());
+    }
+
+    @Test
+    public void prewarm_leaseCompletesImmediately() throws Exception {
+        FakeScenarioEngineFactory factory = new FakeScenarioEngineFactory();
+        RecognizerPool<AsrScenarioRecognizer> pool = newPool(factory);
+        pool.prewarm(1);
+        assertTrue(factory.awaitDelivered(1, TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS)));
+
+        assertTrue(pool.lease().isDone());
+        assertEquals(1, factory.getCreateCount());
+    }
+
+    @Test
+    public void cancelledLease_engineReturnsToIdle() throws Exception {
+        FakeScenarioEngineFactory factory = new FakeScenarioEngineFactory();
+        factory.setManual(true);
+        RecognizerPool<AsrScenarioRecognizer> pool = newPool(factory);
+        CompletableFuture<AsrScenarioRecognizer> lease = pool.lease();
+        assertTrue(factory.awaitPending(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS)));
+        lease.cancel(false);
+        factory.completePending(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS));
+
+        assertEquals(1, pool.getIdleCount());
+    }
+
+    @Test
+    public void evictIdle_destroysExpiredEngines() throws Exception {
+        FakeScenarioEngineFactory factory = new FakeScenarioEngineFactory();
+        RecognizerPool<AsrScenarioRecognizer> pool = newPool(factory);
+        pool.release(pool.lease().get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(59));
+        pool.evictIdle();
+        assertEquals(1, pool.getIdleCount());
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        pool.evictIdle();
+        assertEquals(0, pool.getIdleCount());
+        assertEquals(1, factory.getDestroyCount());
+    }
+
+    @Test
+    public void release_beyondMaxIdleDestroysEngine() throws Exception {
+        FakeScenarioEngineFactory factory = new FakeScenarioEngineFactory();
+        RecognizerPool<AsrScenarioRecognizer> pool = newPool(factory);
+        AsrScenarioRecognizer first = pool.lease().get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        AsrScenarioRecognizer second = pool.lease().get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        pool.release(first);
+        pool.release(second);
+
+        assertEquals(1, pool.getIdleCount());
+        assertEquals(1, factory.getDestroyCount());
+    }
+
+    @Test(expected = ExecutionException.class)
+    public void initError_failsLease() throws Exception {
+        FakeScenarioEngineFactory factory = new FakeScenarioEngineFactory();
+        factory.failNext(1);
+        newPool(factory).lease().get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    private RecognizerPool<AsrScenarioRecognizer> newPool(FakeScenarioEngineFactory factory) {
+        return new RecognizerPool<>("TestPool", factory, 1, 60_000L, scheduler, clock::get);
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.hihonor.voicekitdemo.engine.SessionStateMachine.State;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * SessionStateMachine本地单元测试
+ *
+ * @since 2024-07-18
+ */
+public class SessionStateMachineTest {
+    private static final int THREAD_COUNT = 8;
+
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+
+    private final SessionStateMachine session = new SessionStateMachine(now::get);
+
+    @Test
+    public void lifecycle_followsAllowedTransitions() {
+        List<String> transitions = new ArrayList<>();
+        session.setTransitionListener(
+            (from, to, elapsedNanos) -> transitions.add(from + "->" + to + ":" + elapsedNanos));
+
+        assertTrue(session.transition(State.IDLE, State.INITIALIZING));
+        now.addAndGet(300L);
+        assertTrue(session.transition(State.INITIALIZING, State.READY));
+        assertTrue(session.isInitialized());
+        assertTrue(session.transition(State.READY, State.STARTING));
+        assertTrue(session.transition(State.STARTING, State.RECOGNIZING));
+        now.addAndGet(500L);
+        assertTrue(session.transition(State.RECOGNIZING, State.STOPPING));
+        assertTrue(session.transition(State.STOPPING, State.READY));
+        assertTrue(session.moveTo(State.IDLE));
+
+        assertEquals(State.IDLE, session.getState());
+        assertFalse(session.isInitialized());
+        assertEquals(7L, session.getTransitionCount());
+        assertEquals(0L, session.getRejectedCount());
+        assertEquals("INITIALIZING->READY:300", transitions.get(1));
+        assertEquals("RECOGNIZING->STOPPING:500", transitions.get(4));
+    }
+
+    @Test
+    public void transition_rejectsIllegalOrStale() {
+        assertFalse(session.transition(State.IDLE, State.RECOGNIZING));
+        assertFalse(session.transition(State.READY, State.STARTING));
+        assertFalse(session.moveTo(State.READY));
+
+        assertEquals(State.IDLE, session.getState());
+        assertEquals(3L, session.getRejectedCount());
+        assertEquals(0L, session.getTransitionCount());
+    }
+
+    @Test
+    public void getNanosInState_measuresFromLastTransition() {
+        now.addAndGet(100L);
+        session.transition(State.IDLE, State.INITIALIZING);
+        now.addAndGet(250L);
+
+        assertEquals(250L, session.getNanosInState());
+    }
+
+    @Test
+    public void concurrentStart_onlyOneWinner() throws InterruptedException {
+        session.transition(State.IDLE, State.INITIALIZING);
+        session.transition(State.INITIALIZING, State.READY);
+        CountDownLatch go = new CountDownLatch(1);
+        AtomicInteger winners = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < THREAD_COUNT; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    go.await();
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                if (session.transition(State.READY, State.STARTING)) {
+                    winners.incrementAndGet();
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        go.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(1, winners.get());
+        assertEquals(State.STARTING, session.getState());
+        assertEquals(THREAD_COUNT - 1, session.getRejectedCount());
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.hihonor.mcs.intelligence.voice.asr.AsrErrorCode;
+import com.hihonor.mcs.intelligence.voice.asr.interfaces.AsrScenarioListener;
+import com.hihonor.mcs.intelligence.voice.asr.interfaces.AsrScenarioRecognizer;
+import com.hihonor.mcs.intelligence.voice.asr.result.AsrCommandResult;
+import com.hihonor.voicekitdemo.audio.PcmFixtures;
+import com.hihonor.voicekitdemo.command.CommandSet;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+/**
+ * SupervisedScenarioRecognizer本地单元测试
+ *
+ * @since 2024-07-18
+ */
+public class SupervisedScenarioRecognizerTest {
+    private static final long TIMEOUT_SECONDS = 5L;
+
+    private static final CommandSet CAMERA = CommandSet.of("camera", 1L, Arrays.asList("拍照", "茄子"));
+
+    private static final CommandSet PHONE = CommandSet.of("phone", 1L, Arrays.asList("接听电话", "挂断电话"));
+
+    private final ScheduledExecutorService poolScheduler = Executors.newSingleThreadScheduledExecutor();
+
+    private final FakeScenarioEngineFactory factory = new FakeScenarioEngineFactory();
+
+    private final RecognizerPool<AsrScenarioRecognizer> pool = new RecognizerPool<>("TestPool", factory, 1,
+        60_000L, poolScheduler);
+
+    private final AtomicInteger forwardedErrors = new AtomicInteger();
+
+    private final byte[] frame = new byte[PcmFixtures.bytesOf(40)];
+
+    @After
+    public void tearDown() {
+        poolScheduler.shutdownNow();
+    }
+
+    @Test
+    public void phraseError_recoversWithBackoffAndReplaysAudio() throws Exception {
+        SupervisedScenarioRecognizer recognizer = newRecognizer();
+        recognizer.register(CAMERA);
+        recognizer.activate("camera").get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        recognizer.startRecognize();
+        FakeScenarioEngine broken = factory.getEngine(0);
+        // 第一次重新初始化失败，退避后第二次成功
+        factory.failNext(1);
+
+        broken.getListener().onError(AsrErrorCode.ASR_PHRASE_ERROR, "phrase error");
+        awaitTrue(recognizer::isRecovering);
+        writeFrames(recognizer, 3);
+        awaitTrue(() -> recognizer.getRecoveryCount() == 1);
+
+        FakeScenarioEngine replacement = factory.getEngine(1);
+        assertTrue(broken.isDestroyed());
+        assertEquals(1, replacement.getStartCount());
+        assertEquals(3 * frame.length, replacement.getWrittenBytes());
+        assertEquals(1, recognizer.getFailedAttemptCount());
+        assertTrue(recognizer.getLastDowntimeNanos() >= TimeUnit.MILLISECONDS.toNanos(
+            SupervisedScenarioRecognizer.INITIAL_BACKOFF_MS));
+        assertEquals(recognizer.getLastDowntimeNanos(), recognizer.getMaxDowntimeNanos());
+        assertEquals(0L, recognizer.getCommandSetManager().getDroppedAudioMs());
+        assertEquals(0, forwardedErrors.get());
+        recognizer.close();
+    }
+
+    @Test
+    public void otherErrors_areForwardedWithoutRecovery() throws Exception {
+        SupervisedScenarioRecognizer recognizer = newRecognizer();
+        recognizer.register(CAMERA);
+        recognizer.activate("camera").get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        recognizer.startRecognize();
+
+        factory.getEngine(0).getListener().onError(1, "other");
+
+        assertEquals(1, forwardedErrors.get());
+        assertFalse(recognizer.isRecovering());
+        recognizer.close();
+    }
+
+    @Test
+    public void retiredEngineError_isIgnored() throws Exception {
+        SupervisedScenarioRecognizer recognizer = newRecognizer();
+        recognizer.register(CAMERA);
+        recognizer.register(PHONE);
+        recognizer.activate("camera").get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        recognizer.startRecognize();
+        FakeScenarioEngine retired = factory.getEngine(0);
+        recognizer.activate("phone").get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        FakeScenarioEngine active = factory.getEngine(1);
+
+        // 换出的引擎在归还后才回调的错误
+        retired.getListener().onError(AsrErrorCode.ASR_PHRASE_ERROR, "phrase error");
+        retired.getListener().onError(1, "other");
+
+        assertFalse(recognizer.isRecovering());
+        assertEquals(0, forwardedErrors.get());
+        assertFalse(active.isDestroyed());
+        assertTrue(recognizer.getCommandSetManager().isActive(active));
+        assertEquals(PHONE, recognizer.getCommandSetManager().getActiveSet());
+        recognizer.close();
+    }
+
+    @Test
+    public void activateDuringRecovery_recoversLatestSet() throws Exception {
+        SupervisedScenarioRecognizer recognizer = newRecognizer();
+        recognizer.register(CAMERA);
+        recognizer.register(PHONE);
+        recognizer.activate("camera").get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        recognizer.startRecognize();
+        factory.failNext(Integer.MAX_VALUE);
+        factory.getEngine(0).getListener().onError(AsrErrorCode.ASR_PHRASE_ERROR, "phrase error");
+        awaitTrue(() -> recognizer.getFailedAttemptCount() == 1);
+
+        // 恢复中切换到phone也失败，之前安排的camera重试不再执行，改为按退避重试phone
+        try {
+            recognizer.activate("phone").get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            fail("activate should fail while the factory fails");
+        } catch (ExecutionException expected) {
+            assertTrue(recognizer.isRecovering());
+        }
+        factory.failNext(0);
+        awaitTrue(() -> recognizer.getRecoveryCount() == 1);
+
+        assertEquals(PHONE, recognizer.getCommandSetManager().getActiveSet());
+        assertEquals(2, recognizer.getFailedAttemptCount());
+        assertEquals(0, forwardedErrors.get());
+        recognizer.close();
+    }
+
+    @Test
+    public void backoff_doublesUpToLimit() {
+        assertEquals(500L, SupervisedScenarioRecognizer.backoffMs(1));
+        assertEquals(1000L, SupervisedScenarioRecognizer.backoffMs(2));
+        assertEquals(16_000L, SupervisedScenarioRecognizer.backoffMs(6));
+        assertEquals(SupervisedScenarioRecognizer.MAX_BACKOFF_MS, SupervisedScenarioRecognizer.backoffMs(40));
+    }
+
+    private SupervisedScenarioRecognizer newRecognizer() {
+        return new SupervisedScenarioRecognizer(payload -> pool, new AsrScenarioListener() {
+            @Override
+            public void onReady() {
+            }
+
+            @Override
+            public void onResult(AsrCommandResult result) {
+            }
+
+            @Override
+            public void onError(int code, String msg) {
+                forwardedErrors.incrementAndGet();
+            }
+        }, PcmFixtures.SAMPLE_RATE);
+    }
+
+    private void writeFrames(SupervisedScenarioRecognizer recognizer, int count) {
+        for (int i = 0; i < count; i++) {
+            recognizer.writeAudio(frame, frame.length);
+        }
+    }
+
+    /**
+     * 恢复和重试在recognizer自己的调度线程中异步进行，没有可等待的回调，只能轮询状态
+     */
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(1L);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.nlu;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.hihonor.mcs.intelligence.voice.nlu.data.EntityResult;
+import com.hihonor.mcs.intelligence.voice.nlu.data.WordsResult;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * AsyncNluProcessor本地单元测试
+ *
+ * @since 2024-07-18
+ */
+public class AsyncNluProcessorTest {
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void splitWords_runsOffCallerThread() throws Exception {
+        FakeNluEngine engine = new FakeNluEngine();
+        AsyncNluProcessor processor = new AsyncNluProcessor(engine, executor);
+        processor.splitWords("今天天气很好", 1L).get(1, TimeUnit.SECONDS);
+
+        assertEquals(1, engine.splitCount.get());
+        assertTrue(engine.lastThread != Thread.currentThread());
+        assertEquals("今天天气很好", engine.lastText);
+    }
+
+    @Test
+    public void newRequest_cancelsSupersededRequest() throws Exception {
+        FakeNluEngine engine = new FakeNluEngine();
+        AsyncNluProcessor processor = new AsyncNluProcessor(engine, executor);
+        CountDownLatch blocker = new CountDownLatch(1);
+        executor.execute(() -> awaitQuietly(blocker));
+
+        CompletableFuture<WordsResult> first = processor.splitWords("第一次输入", 1L);
+        CompletableFuture<WordsResult> second = processor.splitWords("第二次输入", 1L);
+        blocker.countDown();
+        second.get(1, TimeUnit.SECONDS);
+
+        assertTrue(first.isCancelled());
+        assertEquals(1, engine.splitCount.get());
+        assertEquals("第二次输入", engine.lastText);
+    }
+
+    @Test
+    public void cancelAll_skipsQueuedRequests() throws Exception {
+        FakeNluEngine engine = new FakeNluEngine();
+        AsyncNluProcessor processor = new AsyncNluProcessor(engine, executor);
+        CountDownLatch blocker = new CountDownLatch(1);
+        executor.execute(() -> awaitQuietly(blocker));
+
+        CompletableFuture<WordsResult> split = processor.splitWords("文本", 1L);
+        CompletableFuture<EntityResult> entity = processor.recognizeEntity("文本", null, null);
+        processor.cancelAll();
+        blocker.countDown();
+        executor.submit(() -> null).get(1, TimeUnit.SECONDS);
+
+        assertTrue(split.isCancelled());
+        assertTrue(entity.isCancelled());
+        assertEquals(0, engine.splitCount.get());
+        assertEquals(0, engine.entityCount.get());
+    }
+
+    @Test
+    public void engineFailure_completesExceptionally() throws Exception {
+        RuntimeException failure = new IllegalStateException("engine not ready");
+        AsyncNluProcessor processor = new AsyncNluProcessor(new FakeNluEngine() {
+            @Override
+            public EntityResult recognizeEntity(String text, List<String> modules, String source) {
+                throw failure;
+            }
+        }, executor);
+        try {
+            processor.recognizeEntity("文本", Collections.singletonList("url"), "fromCopy").get(1, TimeUnit.SECONDS);
+        } catch (ExecutionException exception) {
+            assertSame(failure, exception.getCause());
+            return;
+        }
+        throw new AssertionError("expected failure");
+    }
+
+    @Test
+    public void rejectedExecution_completesExceptionally() throws Exception {
+        AsyncNluProcessor processor = new AsyncNluProcessor(new FakeNluEngine(), runnable -> {
+            throw new RejectedExecutionException("full");
+        });
+        CompletableFuture<WordsResult> future = processor.splitWords("文本", 1L);
+        assertTrue(future.isCompletedExceptionally());
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(1, TimeUnit.SECONDS);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 记录调用情况的模拟NLU引擎
+     */
+    private static class FakeNluEngine implements NluEngine {
+        private final AtomicInteger splitCount = new AtomicInteger();
+
+        private final AtomicInteger entityCount = new AtomicInteger();
+
+        private volatile String lastText;
+
+        private volatile Thread lastThread;
+
+        @Override
+        public WordsResult splitWords(String text, long wordType) {
+            splitCount.incrementAndGet();
+            lastText = text;
+            lastThread = Thread.currentThread();
+            return null;
+        }
+
+        @Override
+        public EntityResult recognizeEntity(String text, List<String> modules, String source) {
+            entityCount.incrementAndGet();
+            lastText = text;
+            lastThread = Thread.currentThread();
+            return null;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.nlu;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * IncrementalNluAnalyzer本地单元测试
+ *
+ * @since 2024-07-18
+ */
+public class IncrementalNluAnalyzerTest {
+    private static final String TEXT = "第一句话。第二句话！第三句话？";
+
+    private final List<String> analyzed = new ArrayList<>();
+
+    private final IncrementalNluAnalyzer<FakeResult> analyzer = new IncrementalNluAnalyzer<>(this::analyze);
+
+    @Test
+    public void append_reusesUnchangedPrefix() {
+        analyzer.update(TEXT);
+        analyzed.clear();
+
+        analyzer.update(TEXT + "第四句");
+
+        assertEquals(Arrays.asList("第四句"), analyzed);
+        assertEquals(3, analyzer.getLastReanalyzedChars());
+        assertEquals(Arrays.asList(15), offsetsOfResults(analyzer.getChangedResults()));
+        assertMatchesFullAnalysis();
+    }
+
+    @Test
+    public void editInMiddle_reanalyzesOnlyThatSentence() {
+        analyzer.update(TEXT);
+        analyzed.clear();
+        String edited = "第一句话。第二段很长的话！第三句话？";
+
+        // 与TextWatcher.onTextChanged一致：从位置6开始，替换1个字符为4个字符
+        analyzer.applyEdit(edited, 6, 1, 4);
+
+        assertEquals(Arrays.asList("第二段很长的话！"), analyzed);
+        assertEquals(Arrays.asList(0, 5, 13), offsetsOf(analyzer.getSentences()));
+        assertEquals(Arrays.asList(5), offsetsOfResults(analyzer.getChangedResults()));
+        assertMatchesFullAnalysis();
+    }
+
+    @Test
+    public void deleteSentenceEnd_mergesWithFollowingSentence() {
+        analyzer.update(TEXT);
+        analyzed.clear();
+
+        analyzer.update("第一句话。第二句话第三句话？");
+
+        assertEquals(Arrays.asList("第二句话第三句话？"), analyzed);
+        assertEquals(2, analyzer.getSentences().size());
+        assertMatchesFullAnalysis();
+    }
+
+    @Test
+    public void deleteWholeSentence_shiftsLaterSentences() {
+        analyzer.update(TEXT);
+        analyzed.clear();
+
+        analyzer.applyEdit("第一句话。第三句话？", 5, 5, 0);
+
+        assertEquals(Arrays.asList(0, 5), offsetsOf(analyzer.getSentences()));
+        assertEquals(2, analyzer.getResults().size());
+        // 删除的是完整句子，其余句子只需平移位置
+        assertTrue(analyzed.isEmpty());
+        assertTrue(analyzer.getChangedResults().isEmpty());
+        assertMatchesFullAnalysis();
+    }
+
+    @Test
+    public void mismatchedEdit_reanalyzesAll() {
+        analyzer.update(TEXT);
+        analyzed.clear();
+
+        analyzer.applyEdit("完全不同的文本。", 0, 1, 1);
+
+        assertEquals(Arrays.asList("完全不同的文本。"), analyzed);
+        assertMatchesFullAnalysis();
+    }
+
+    /**
+     * 增量结果应与对当前全文重新分析的结果一致，句子起始位置加上结果中的位置即为相对全文的位置
+     */
+    private void assertMatchesFullAnalysis() {
+        String text = analyzer.getText();
+        IncrementalNluAnalyzer<FakeResult> full = new IncrementalNluAnalyzer<>(IncrementalNluAnalyzerTest::spanOf);
+        full.update(text);
+        List<ChunkResult<FakeResult>> expected = full.getResults();
+        List<ChunkResult<FakeResult>> actual = analyzer.getResults();
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < actual.size(); i++) {
+            ChunkResult<FakeResult> sentence = actual.get(i);
+            assertEquals(expected.get(i).getOffset(), sentence.getOffset());
+            assertEquals(expected.get(i).getResult().toString(), sentence.getResult().toString());
+            FakeResult result = sentence.getResult();
+            assertEquals(result.text, text.substring(sentence.getOffset() + result.start,
+                sentence.getOffset() + result.end));
+        }
+    }
+
+    private FakeResult analyze(String sentence) {
+        analyzed.add(sentence);
+        return spanOf(sentence);
+    }
+
+    private static FakeResult spanOf(String sentence) {
+        FakeResult result = new FakeResult();
+        result.text = sentence;
+        result.start = 0;
+        result.end = sentence.length();
+        return result;
+    }
+
+    private static List<Integer> offsetsOf(List<TextChunk> sentences) {
+        List<Integer> offsets = new ArrayList<>();
+        for (TextChunk sentence : sentences) {
+            offsets.add(sentence.getOffset());
+        }
+        return offsets;
+    }
+
+    private static List<Integer> offsetsOfResults(List<ChunkResult<FakeResult>> results) {
+        List<Integer> offsets = new ArrayList<>();
+        for (ChunkResult<FakeResult> result : results) {
+            offsets.add(result.getOffset());
+        }
+        return offsets;
+    }
+
+    /**
+     * 以整句为一个实体的模拟结果，位置相对句子
+     */
+    private static final class FakeResult {
+        private String text;
+
+        private int start;
+
+        private int end;
+
+        @Override
+        public String toString() {
+            return text + "@" + start + "-" + end;
+        }
+    }
+}
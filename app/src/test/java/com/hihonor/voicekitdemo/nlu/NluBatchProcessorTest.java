@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.nlu;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * NluBatchProcessor本地单元测试
+ *
+ * @since 2024-07-18
+ */
+public class NluBatchProcessorTest {
+    private static final Pattern PHONE = Pattern.compile("1\\d{10}");
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @After
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    public void process_mapsEntityOffsetsOntoOriginalText() {
+        String first = "请拨打13800000000。" + "明天再联系13900000000！" + "备用号码15000000000。";
+        String second = "没有号码。";
+        String third = "号码18600000000";
+        NluBatchProcessor<FakeEntityResult> processor = newProcessor(24);
+
+        NluBatchResult<FakeEntityResult> batch = processor.process(Arrays.asList(first, second, third));
+
+        assertEquals(3, batch.getDocumentCount());
+        assertEquals(Arrays.asList("13800000000", "13900000000", "15000000000"), entitiesOf(first, batch, 0));
+        assertEquals(new ArrayList<String>(), entitiesOf(second, batch, 1));
+        assertEquals(Arrays.asList("18600000000"), entitiesOf(third, batch, 2));
+        assertTrue(batch.getChunks().get(0).size() > 1);
+        assertEquals(first.length() + second.length() + third.length(), batch.getCharacterCount());
+    }
+
+    @Test
+    public void process_keepsChunkOrderAcrossParallelAnalysis() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            text.append("第").append(i).append("句，电话1").append(String.format("%010d", i)).append("。");
+        }
+        NluBatchProcessor<FakeEntityResult> processor = newProcessor(64);
+
+        NluBatchResult<FakeEntityResult> batch = processor.process(Arrays.asList(text.toString()).stream());
+
+        List<String> entities = entitiesOf(text.toString(), batch, 0);
+        assertEquals(200, entities.size());
+        for (int i = 0; i < 200; i++) {
+            assertEquals("1" + String.format("%010d", i), entities.get(i));
+        }
+        assertTrue(batch.getChunkCount() > 1);
+    }
+
+    @Test
+    public void process_keepsChunkResultsRelativeToChunk() {
+        String text = "没有号码。" + "拨打13800000000";
+        NluBatchProcessor<FakeEntityResult> processor = newProcessor(16);
+
+        List<ChunkResult<FakeEntityResult>> results = processor.process(Arrays.asList(text)).getResults().get(0);
+
+        // 结果不做任何修改，位置仍相对片段，片段起始位置单独返回
+        assertEquals(2, results.size());
+        ChunkResult<FakeEntityResult> last = results.get(1);
+        FakeEntity entity = last.getResult().entities.get(0);
+        assertEquals(2, entity.start);
+        assertEquals(13, entity.end);
+        assertEquals(-1, entity.groupIndex);
+        assertEquals(5, last.getOffset());
+        assertEquals(text.length(), last.getEnd());
+    }
+
+    private NluBatchProcessor<FakeEntityResult> newProcessor(int maxChunkLength) {
+        return new NluBatchProcessor<>(NluBatchProcessorTest::analyze, maxChunkLength, pool);
+    }
+
+    private static FakeEntityResult analyze(String text) {
+        FakeEntityResult result = new FakeEntityResult();
+        Matcher matcher = PHONE.matcher(text);
+        while (matcher.find()) {
+            FakeEntity entity = new FakeEntity();
+            entity.value = matcher.group();
+            entity.start = matcher.start();
+            entity.end = matcher.end();
+            entity.groupIndex = -1;
+            result.entities.add(entity);
+        }
+        return result;
+    }
+
+    /**
+     * 用片段起始位置加上实体位置从原文取出实体，并校验与实体文本一致
+     */
+    private static List<String> entitiesOf(String text, NluBatchResult<FakeEntityResult> batch, int document) {
+        List<String> values = new ArrayList<>();
+        for (ChunkResult<FakeEntityResult> chunk : batch.getResults().get(document)) {
+            for (FakeEntity entity : chunk.getResult().entities) {
+                assertEquals(entity.value, text.substring(chunk.getOffset() + entity.start,
+                    chunk.getOffset() + entity.end));
+                values.add(entity.value);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * 模拟带位置的实体识别结果
+     */
+    private static final class FakeEntityResult {
+        private List<FakeEntity> entities = new ArrayList<>();
+    }
+
+    private static final class FakeEntity {
+        private String value;
+
+        private int start;
+
+        private int end;
+
+        private int groupIndex;
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.nlu;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * NluResultCache与NluCacheKey本地单元测试
+ *
+ * @since 2024-07-18
+ */
+public class NluResultCacheTest {
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    public void put_evictsLeastRecentlyUsedEntry() {
+        NluResultCache<String, String> cache = new NluResultCache<>(3, 0L, null, clock::get);
+        cache.put("a", "A");
+        cache.put("b", "B");
+        cache.put("c", "C");
+        assertEquals("A", cache.get("a"));
+
+        cache.put("d", "D");
+
+        assertNull(cache.get("b"));
+        assertEquals("A", cache.get("a"));
+        assertEquals("C", cache.get("c"));
+        assertEquals("D", cache.get("d"));
+        assertEquals(1L, cache.getEvictionCount());
+        assertEquals(3, cache.size());
+    }
+
+    @Test
+    public void put_evictsByWeightUntilUnderLimit() {
+        NluResultCache<String, String> cache = new NluResultCache<>(10, 0L, (key, value) -> value.length(),
+            clock::get);
+        cache.put("a", "xxxx");
+        cache.put("b", "xxxx");
+
+        cache.put("c", "xxxxxx");
+
+        assertNull(cache.get("a"));
+        assertEquals("xxxx", cache.get("b"));
+        assertEquals(10L, cache.getTotalWeight());
+        // 超过上限的单个条目不缓存，也不淘汰其他条目
+        cache.put("huge", "xxxxxxxxxxx");
+        assertNull(cache.get("huge"));
+        assertEquals(2, cache.size());
+        // 替换已有的键时按新权重计算
+        cache.put("b", "x");
+        assertEquals(7L, cache.getTotalWeight());
+        assertEquals(1L, cache.getEvictionCount());
+    }
+
+    @Test
+    public void get_expiresEntriesAfterTtl() {
+        NluResultCache<String, String> cache = new NluResultCache<>(10, 1000L, null, clock::get);
+        cache.put("a", "A");
+
+        advance(999L);
+        assertEquals("A", cache.get("a"));
+        advance(1L);
+        assertNull(cache.get("a"));
+
+        assertEquals(1L, cache.getExpirationCount());
+        assertEquals(0, cache.size());
+        assertEquals(0L, cache.getTotalWeight());
+    }
+
+    @Test
+    public void counters_trackHitsAndMisses() {
+        NluResultCache<String, String> cache = new NluResultCache<>(10, 0L, null, clock::get);
+        cache.put("a", "A");
+        cache.put("b", null);
+
+        cache.get("a");
+        cache.get("a");
+        cache.get("b");
+        cache.get("c");
+
+        assertEquals(2L, cache.getHitCount());
+        assertEquals(2L, cache.getMissCount());
+        assertEquals("size=1, weight=1, hit=2, miss=2, eviction=0, expiration=0", cache.getStatistics());
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertNull(cache.get("a"));
+    }
+
+    @Test
+    public void cacheKey_ignoresModuleOrderButNotWordType() {
+        assertEquals(NluCacheKey.forEntity("文本", Arrays.asList("url", "email"), "fromCopy"),
+            NluCacheKey.forEntity("文本", Arrays.asList("email", "url"), "fromCopy"));
+        assertEquals(NluCacheKey.forEntity("文本", null, ""), NluCacheKey.forEntity("文本", Arrays.asList(), null));
+        assertNotEquals(NluCacheKey.forSplit("文本", 0L), NluCacheKey.forSplit("文本", 1L));
+        assertNotEquals(NluCacheKey.forSplit("文本", 0L), NluCacheKey.forEntity("文本", null, null));
+    }
+
+    private void advance(long millis) {
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+}
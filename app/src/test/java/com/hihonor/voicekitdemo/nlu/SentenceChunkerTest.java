@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.nlu;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SentenceChunker本地单元测试
+ *
+ * @since 2024-07-18
+ */
+public class SentenceChunkerTest {
+    @Test
+    public void chunk_cutsAtLastSentenceEndWithinLimit() {
+        String text = "今天开会。明天出差！后天休息？";
+
+        List<TextChunk> chunks = SentenceChunker.chunk(text, 12);
+
+        assertEquals("[0:今天开会。明天出差！, 10:后天休息？]", describe(chunks));
+        assertCovers(text, chunks);
+    }
+
+    @Test
+    public void chunk_keepsUrlAndDecimalWhole() {
+        String text = "访问www.example.com查看3.5折. 联系a.b@c.com";
+
+        List<TextChunk> chunks = SentenceChunker.chunk(text, 30);
+
+        assertEquals("[0:访问www.example.com查看3.5折., 24: 联系a.b@c.com]", describe(chunks));
+        assertCovers(text, chunks);
+    }
+
+    @Test
+    public void chunk_hardCutsLongSentenceWithoutSplittingSurrogatePair() {
+        String text = "abc😀def";
+
+        List<TextChunk> chunks = SentenceChunker.chunk(text, 4);
+
+        assertEquals("[0:abc, 3:😀de, 7:f]", describe(chunks));
+        assertCovers(text, chunks);
+        for (TextChunk chunk : chunks) {
+            assertTrue(chunk.getText().length() <= 4);
+        }
+    }
+
+    @Test
+    public void chunk_emptyTextHasNoChunks() {
+        assertTrue(SentenceChunker.chunk("", 8).isEmpty());
+        assertTrue(SentenceChunker.chunk(null, 8).isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void chunk_rejectsTinyLimit() {
+        SentenceChunker.chunk("abc", 1);
+    }
+
+    @Test
+    public void sentences_splitsRangeAtEverySentenceEnd() {
+        String text = "前言。第一句；第二句\n第三句";
+
+        List<TextChunk> sentences = SentenceChunker.sentences(text, 3, text.length(), 64);
+
+        assertEquals("[3:第一句；, 7:第二句\n, 11:第三句]", describe(sentences));
+    }
+
+    private static String describe(List<TextChunk> chunks) {
+        List<String> parts = new ArrayList<>();
+        for (TextChunk chunk : chunks) {
+            parts.add(chunk.getOffset() + ":" + chunk.getText());
+        }
+        return parts.toString();
+    }
+
+    private static void assertCovers(String text, List<TextChunk> chunks) {
+        int position = 0;
+        StringBuilder joined = new StringBuilder();
+        for (TextChunk chunk : chunks) {
+            assertEquals(position, chunk.getOffset());
+            assertEquals(chunk.getText(), text.substring(chunk.getOffset(), chunk.getEnd()));
+            joined.append(chunk.getText());
+            position = chunk.getEnd();
+        }
+        assertEquals(text, joined.toString());
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.startup;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * StartupOrchestrator本地单元测试
+ *
+ * @since 2024-07-18
+ */
+public class StartupOrchestratorTest {
+    private static final long TIMEOUT_SECONDS = 5L;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void independentStages_runInParallel() throws Exception {
+        CountDownLatch bothRunning = new CountDownLatch(2);
+        StartupOrchestrator startup = new StartupOrchestrator();
+        startup.add("a", () -> awaitTogether(bothRunning));
+        startup.add("b", () -> awaitTogether(bothRunning));
+        startup.start(executor);
+
+        // 两个阶段互相等待对方开始，串行执行时会超时失败
+        startup.whenAllReady().get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void dependentStage_startsAfterDependencies() throws Exception {
+        List<String> order = new CopyOnWriteArrayList<>();
+        CompletableFuture<Void> asyncInit = new CompletableFuture<>();
+        StartupOrchestrator startup = new StartupOrchestrator();
+        startup.add("engine", () -> {
+            order.add("engine");
+            return asyncInit;
+        }, "pools");
+        startup.add("pools", () -> {
+            order.add("pools");
+            return null;
+        });
+        startup.add("ui", () -> {
+            order.add("ui");
+            return null;
+        }, "engine");
+        startup.start(executor);
+
+        startup.whenReady("pools").get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        assertFalse(startup.whenReady("ui").isDone());
+        asyncInit.complete(null);
+        startup.whenReady("ui").get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        assertEquals("[pools, engine, ui]", order.toString());
+        assertTrue(startup.getReadyMs("ui") >= 0);
+        assertTrue(startup.getTimingReport().contains("ui: started at"));
+    }
+
+    @Test
+    public void failedStage_failsDependents() throws Exception {
+        StartupOrchestrator startup = new StartupOrchestrator();
+        startup.add("nlu", () -> {
+            throw new IllegalStateException("not supported");
+        });
+        startup.add("nluWarmUp", () -> null, "nlu");
+        startup.add("gson", () -> null);
+        startup.start(executor);
+
+        startup.whenReady("gson").get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        try {
+            startup.whenReady("nluWarmUp").get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            fail("dependent stage should fail");
+        } catch (ExecutionException exception) {
+            assertTrue(exception.getCause() instanceof IllegalStateException);
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void start_rejectsCycle() {
+        StartupOrchestrator startup = new StartupOrchestrator();
+        startup.add("a", () -> null, "b");
+        startup.add("b", () -> null, "a");
+        startup.start(executor);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void start_rejectsUnknownDependency() {
+        StartupOrchestrator startup = new StartupOrchestrator();
+        startup.add("a", () -> null, "missing");
+        startup.start(executor);
+    }
+
+    private static CompletableFuture<?> awaitTogether(CountDownLatch latch) throws InterruptedException {
+        latch.countDown();
+        if (!latch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("stages did not run in parallel");
+        }
+        return null;
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * CoalescingTextRenderer本地单元测试
+ *
+ * @since 2024-07-18
+ */
+public class CoalescingTextRendererTest {
+    private final List<String> rendered = new ArrayList<>();
+
+    private final ManualScheduler scheduler = new ManualScheduler();
+
+    private final AtomicLong clock = new AtomicLong(1000L);
+
+    @Test
+    public void submit_coalescesUpdatesWithinOneFrameToLatest() {
+        CoalescingTextRenderer renderer = new CoalescingTextRenderer(rendered::add, scheduler, 0L, clock::get);
+
+        renderer.submit("a");
+        renderer.submit("b");
+        renderer.submit("c");
+
+        assertEquals(1, scheduler.tasks.size());
+        scheduler.runFrame();
+        assertEquals(Arrays.asList("c"), rendered);
+        assertEquals("submitted=3, rendered=1, dropped=2", renderer.getStatistics());
+
+        renderer.submit("d");
+        scheduler.runFrame();
+        assertEquals(Arrays.asList("c", "d"), rendered);
+    }
+
+    @Test
+    public void cancel_dropsPendingTextAndIgnoresLaterSubmits() {
+        CoalescingTextRenderer renderer = new CoalescingTextRenderer(rendered::add, scheduler, 0L, clock::get);
+        renderer.submit("a");
+
+        renderer.cancel();
+        renderer.submit("b");
+
+        assertTrue(scheduler.tasks.isEmpty());
+        assertEquals(1, scheduler.cancelCount);
+        // 即使调度器在取消后仍执行了已取出的任务，也不渲染
+        renderer.submit("c");
+        scheduler.runFrame();
+        assertTrue(rendered.isEmpty());
+        assertEquals(0L, renderer.getRenderedCount());
+    }
+
+    @Test
+    public void submit_delaysUntilMinIntervalElapsed() {
+        CoalescingTextRenderer renderer = new CoalescingTextRenderer(rendered::add, scheduler, 100L, clock::get);
+        renderer.submit("a");
+        assertEquals(Long.valueOf(0L), scheduler.delays.get(0));
+        scheduler.runFrame();
+
+        clock.addAndGet(30L);
+        renderer.submit("b");
+
+        assertEquals(Long.valueOf(70L), scheduler.delays.get(1));
+        clock.addAndGet(70L);
+        scheduler.runFrame();
+        renderer.submit("c");
+        assertEquals(Long.valueOf(100L), scheduler.delays.get(2));
+        clock.addAndGet(100L);
+        scheduler.runFrame();
+        // 距上次渲染已超过间隔时立即调度
+        clock.addAndGet(150L);
+        renderer.submit("d");
+        assertEquals(Long.valueOf(0L), scheduler.delays.get(3));
+        assertEquals(Arrays.asList("a", "b", "c"), rendered);
+    }
+
+    /**
+     * 手动触发帧的调度器
+     */
+    private static final class ManualScheduler implements CoalescingTextRenderer.FrameScheduler {
+        private final List<Runnable> tasks = new ArrayList<>();
+
+        private final List<Long> delays = new ArrayList<>();
+
+        private int cancelCount;
+
+        @Override
+        public void schedule(Runnable task, long delayMs) {
+            tasks.add(task);
+            delays.add(delayMs);
+        }
+
+        @Override
+        public void cancel(Runnable task) {
+            cancelCount++;
+            tasks.remove(task);
+        }
+
+        void runFrame() {
+            List<Runnable> frame = new ArrayList<>(tasks);
+            tasks.clear();
+            for (Runnable task : frame) {
+                task.run();
+            }
+        }
+    }
+}
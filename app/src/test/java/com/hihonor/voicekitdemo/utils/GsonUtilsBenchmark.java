@@ -0,0 +1,32 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.utils;
+
+import com.hihonor.voicekitdemo.MicroBenchmark;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * 新建Gson与共享Gson流式序列化的基准对比，默认跳过
+ *
+ * @since 2024-07-18
+ */
+public class GsonUtilsBenchmark {
+    private static final int ITERATIONS = 20_000;
+
+    @Before
+    public void setUp() {
+        MicroBenchmark.assumeEnabled();
+    }
+
+    @Test
+    public void newGsonPerCallVersusCachedStreaming() {
+        GsonUtilsTest.SampleResult result = GsonUtilsTest.SampleResult.create();
+        MicroBenchmark.measure("GsonUtils.newGsonPerCall", ITERATIONS,
+            () -> GsonUtils.createInstance().toJson(result));
+        MicroBenchmark.measure("GsonUtils.toString(cached, streaming)", ITERATIONS, () -> GsonUtils.toString(result));
+    }
+}
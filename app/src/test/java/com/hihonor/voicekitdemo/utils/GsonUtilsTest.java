@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * GsonUtils本地单元测试
+ *
+ * @since 2024-07-18
+ */
+public class GsonUtilsTest {
+    @Test
+    public void toString_matchesPlainGson() {
+        SampleResult result = SampleResult.create();
+        assertEquals(GsonUtils.createInstance().toJson(result), GsonUtils.toString(result));
+        assertEquals(GsonUtils.createInstance().toJson(result), GsonUtils.toString(result));
+    }
+
+    @Test
+    public void toString_returnsEmptyForNull() {
+        assertEquals("", GsonUtils.toString(null));
+    }
+
+    @Test
+    public void writeJson_streamsIntoWriter() {
+        StringWriter writer = new StringWriter();
+        assertTrue(GsonUtils.writeJson(SampleResult.create(), writer));
+        assertEquals(GsonUtils.createInstance().toJson(SampleResult.create()), writer.toString());
+    }
+
+    @Test
+    public void getInstance_isShared() {
+        assertSame(GsonUtils.getInstance(), GsonUtils.getInstance());
+    }
+
+    /**
+     * 模拟NLU分词结果结构的数据
+     */
+    static class SampleResult {
+        private int code;
+
+        private String message;
+
+        private List<SampleWord> words;
+
+        static SampleResult create() {
+            SampleResult result = new SampleResult();
+            result.code = 0;
+            result.message = "success";
+            result.words = new ArrayList<>();
+            String[] texts = {"今天", "下午", "三点", "在", "会议室", "开会"};
+            int offset = 0;
+            for (String text : texts) {
+                SampleWord word = new SampleWord();
+                word.text = text;
+                word.start = offset;
+                word.end = offset + text.length();
+                offset = word.end;
+                result.words.add(word);
+            }
+            return result;
+        }
+    }
+
+    private static class SampleWord {
+        private String text;
+
+        private int start;
+
+        private int end;
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) Honor Device Co., Ltd. 2024-2024. All rights reserved.
+ */
+
+package com.hihonor.voicekitdemo.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LaneExecutor本地单元测试
+ *
+ * @since 2024-07-18
+ */
+public class LaneExecutorTest {
+    private static final long TIMEOUT_SECONDS = 5L;
+
+    private final List<LaneExecutor> executors = new ArrayList<>();
+
+    @After
+    public void tearDown() {
+        for (LaneExecutor executor : executors) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void singleThreadLane_runsTasksInSubmitOrder() throws InterruptedException {
+        LaneExecutor lane = newLane("Ordered", 1, 100);
+        List<Integer> order = new ArrayList<>();
+        CountDownLatch done = new CountDownLatch(100);
+        for (int i = 0; i < 100; i++) {
+            int index = i;
+            lane.execute(() -> {
+                order.add(index);
+                done.countDown();
+            });
+        }
+
+        assertTrue(done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, (int) order.get(i));
+        }
+    }
+
+    @Test
+    public void saturatedLane_rejectsWithoutBlockingOtherLane() throws InterruptedException {
+        LaneExecutor busy = newLane("Busy", 1, 1);
+        LaneExecutor other = newLane("Other", 1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        busy.execute(() -> {
+            started.countDown();
+            awaitQuietly(release);
+        });
+        assertTrue(started.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        busy.execute(() -> { });
+        try {
+            busy.execute(() -> { });
+            fail("expected rejection");
+        } catch (RejectedExecutionException expected) {
+            assertEquals(1L, busy.getRejectedCount());
+        }
+
+        String[] threadName = new String[1];
+        CountDownLatch ran = new CountDownLatch(1);
+        other.execute(() -> {
+            threadName[0] = Thread.currentThread().getName();
+            ran.countDown();
+        });
+
+        assertTrue(ran.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals("Other-1", threadName[0]);
+        assertEquals(1, busy.getMaxQueueDepth());
+        assertEquals(0L, other.getRejectedCount());
+        release.countDown();
+    }
+
+    private LaneExecutor newLane(String name, int threads, int queueCapacity) {
+        LaneExecutor executor = new LaneExecutor(name, threads, threads, 1000L, queueCapacity);
+        executors.add(executor);
+        return executor;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}